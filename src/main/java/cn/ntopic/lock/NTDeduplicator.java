@@ -0,0 +1,53 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式幂等键服务：同一分组内的幂等键在有效期内只能被抢占1次（先写者胜），无需释放，过期后按时间分区批量清理
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public interface NTDeduplicator {
+
+    /**
+     * 幂等键分组最大长度
+     */
+    int MAX_POOL_LENGTH = 64;
+
+    /**
+     * 幂等键最大长度
+     */
+    int MAX_KEY_LENGTH = 128;
+
+    /**
+     * 抢占幂等键：幂等键不存在或者已过期则抢占成功
+     *
+     * @param poolName 幂等键分组，非空，1~64字符
+     * @param key      幂等键，非空，1~128字符
+     * @param ttl      有效期，值>0
+     * @param timeUnit 有效期单位
+     * @return true-首次抢占（新幂等键），false-有效期内已被抢占（重复）
+     * @throws IllegalArgumentException 参数非法
+     * @throws RuntimeException         访问数据异常
+     */
+    boolean claimOnce(String poolName, String key, int ttl, TimeUnit timeUnit);
+
+    /**
+     * 批量抢占幂等键：1次连接，批量新增，重复的幂等键只抢占1次
+     *
+     * @param poolName 幂等键分组，非空，1~64字符
+     * @param keys     幂等键列表，每个非空，1~128字符
+     * @param ttl      有效期，值>0
+     * @param timeUnit 有效期单位
+     * @return 首次抢占成功的幂等键（新幂等键），与入参顺序一致
+     * @throws IllegalArgumentException 参数非法
+     * @throws RuntimeException         访问数据异常
+     */
+    Set<String> claimAll(String poolName, Collection<String> keys, int ttl, TimeUnit timeUnit);
+}
@@ -0,0 +1,69 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import cn.ntopic.lock.model.NTLockResult;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式多粒度锁服务：锁分组（整组排它锁）和锁分组内的锁名称（名称排它锁）两级锁定
+ * <p>
+ * 1. 整组排它锁与分组内任意已持有的名称锁冲突，只需1条锁记录（分组行）
+ * 2. 名称锁在分组行登记意向，整组排它锁和名称锁均只按主键访问分组行检测冲突，无需扫描锁数据
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public interface NTHierarchyLock {
+
+    /**
+     * 分组行锁名称（名称锁不可使用）
+     */
+    String POOL_LOCK_NAME = "#POOL";
+
+    /**
+     * 1. 首次抢占整组排它锁，分组内有未过期的名称锁（意向）则失败
+     * 2. 延长已抢占的整组排它锁
+     *
+     * @param poolName 锁分组，非空，1~64字符
+     * @param timeout  锁超时时间，值>0
+     * @param timeUnit 超时时间单位
+     * @return 锁结果
+     * @throws IllegalArgumentException 参数非法
+     */
+    NTLockResult lock(String poolName, int timeout, TimeUnit timeUnit);
+
+    /**
+     * 1. 首次抢占名称锁：先在分组行登记意向，整组排它锁被其他持有者占用则失败
+     * 2. 延长已抢占的名称锁，同时延长分组行意向
+     *
+     * @param poolName 锁分组，非空，1~64字符
+     * @param lockName 锁名称，非空，1~64字符，不可为`#POOL`
+     * @param timeout  锁超时时间，值>0
+     * @param timeUnit 超时时间单位
+     * @return 锁结果
+     * @throws IllegalArgumentException 参数非法
+     */
+    NTLockResult lock(String poolName, String lockName, int timeout, TimeUnit timeUnit);
+
+    /**
+     * 释放当前线程持有的整组排它锁
+     *
+     * @param poolName 锁分组，非空，1~64字符
+     * @return 释放结果，true-代表释放成功，false-代表失败或者未知异常
+     * @throws IllegalArgumentException 参数非法
+     */
+    boolean release(String poolName);
+
+    /**
+     * 释放当前线程持有的名称锁，并撤销分组行意向
+     *
+     * @param poolName 锁分组，非空，1~64字符
+     * @param lockName 锁名称，非空，1~64字符
+     * @return 释放结果，true-代表释放成功，false-代表失败或者未知异常
+     * @throws IllegalArgumentException 参数非法
+     */
+    boolean release(String poolName, String lockName);
+}
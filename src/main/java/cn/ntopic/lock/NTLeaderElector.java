@@ -0,0 +1,36 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+/**
+ * 分布式选主服务
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public interface NTLeaderElector {
+
+    /**
+     * 开始参与选主
+     */
+    void start();
+
+    /**
+     * 停止参与选主，若当前为主节点则释放主节点身份
+     */
+    void stop();
+
+    /**
+     * 当前节点是否为主节点（租约未过期）
+     */
+    boolean isLeader();
+
+    /**
+     * 增加选主结果监听器
+     *
+     * @param listener 监听器，非空
+     * @throws IllegalArgumentException 参数非法
+     */
+    void addListener(NTLeaderListener listener);
+}
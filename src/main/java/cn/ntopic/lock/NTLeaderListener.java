@@ -0,0 +1,27 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+/**
+ * 选主结果监听器，回调在选主线程中执行，不应长时间阻塞
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public interface NTLeaderListener {
+
+    /**
+     * 当前节点成为主节点
+     *
+     * @param name 选主名称
+     */
+    void onElected(String name);
+
+    /**
+     * 当前节点失去主节点身份（续约失败、租约过期或者停止选主）
+     *
+     * @param name 选主名称
+     */
+    void onRevoked(String name);
+}
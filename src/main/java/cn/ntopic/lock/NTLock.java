@@ -5,9 +5,13 @@
 package cn.ntopic.lock;
 
 import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockReason;
 import cn.ntopic.lock.model.NTLockResult;
 
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * 分布式序列服务
@@ -55,6 +59,46 @@ public interface NTLock {
      */
     NTLockResult lock(NTLockDTO lockDTO, int timeout, TimeUnit timeUnit);
 
+    /**
+     * 带操作截止时间的抢占/延长排它锁，截止时间覆盖获取连接、执行SQL和重试
+     * <p>
+     * 默认实现不限定截止时间，等同于`lock(lockName, timeout, timeUnit)`
+     *
+     * @param lockName        排它锁名称，非空，1~64字符
+     * @param timeout         锁超时时间，值>0
+     * @param timeUnit        超时时间单位
+     * @param opTimeoutMillis 操作超时时间（毫秒），值>0
+     * @return 锁结果，超时则`isTimeout()`为true（结果未知）
+     * @throws IllegalArgumentException 参数非法
+     */
+    default NTLockResult lock(String lockName, int timeout, TimeUnit timeUnit, long opTimeoutMillis) {
+        if (opTimeoutMillis <= 0L) {
+            throw new IllegalArgumentException("操作超时时间参数非法(" + opTimeoutMillis + ")");
+        }
+
+        return this.lock(lockName, timeout, timeUnit);
+    }
+
+    /**
+     * 带操作截止时间的抢占/延长锁，截止时间覆盖获取连接、执行SQL和重试
+     * <p>
+     * 默认实现不限定截止时间，等同于`lock(lockDTO, timeout, timeUnit)`
+     *
+     * @param lockDTO         锁信息，包括排它锁和并发池锁
+     * @param timeout         锁超时时间，值>0
+     * @param timeUnit        超时时间单位
+     * @param opTimeoutMillis 操作超时时间（毫秒），值>0
+     * @return 锁结果，超时则`isTimeout()`为true（结果未知）
+     * @throws IllegalArgumentException 参数非法
+     */
+    default NTLockResult lock(NTLockDTO lockDTO, int timeout, TimeUnit timeUnit, long opTimeoutMillis) {
+        if (opTimeoutMillis <= 0L) {
+            throw new IllegalArgumentException("操作超时时间参数非法(" + opTimeoutMillis + ")");
+        }
+
+        return this.lock(lockDTO, timeout, timeUnit);
+    }
+
     /**
      * 随机抢占锁池并发锁
      *
@@ -84,4 +128,64 @@ public interface NTLock {
      * @throws IllegalArgumentException 参数非法
      */
     boolean release(NTLockDTO lockDTO);
+
+    /**
+     * 带操作截止时间的释放排它锁，或者释放并发池锁
+     * <p>
+     * 默认实现不限定截止时间，等同于`release(lockDTO)`，释放失败为`NOT_OWNER`
+     *
+     * @param lockDTO         申请锁对象
+     * @param opTimeoutMillis 操作超时时间（毫秒），值>0
+     * @return 释放结果，超时则`isTimeout()`为true（结果未知）
+     * @throws IllegalArgumentException 参数非法
+     */
+    default NTLockResult release(NTLockDTO lockDTO, long opTimeoutMillis) {
+        if (opTimeoutMillis <= 0L) {
+            throw new IllegalArgumentException("操作超时时间参数非法(" + opTimeoutMillis + ")");
+        }
+
+        return this.release(lockDTO) ? NTLockResult.makeSuccess(lockDTO) : NTLockResult.makeFailure(lockDTO, NTLockReason.NOT_OWNER);
+    }
+
+    /**
+     * 检测锁是否被持有（存在且未过期），默认实现为`getOwner(poolName, lockName).isPresent()`
+     *
+     * @param poolName 锁分组，非空，1~64字符
+     * @param lockName 锁名称，非空，1~64字符
+     * @return true-锁被持有，false-锁不存在或者已过期
+     * @throws IllegalArgumentException 参数非法
+     * @throws RuntimeException         查询锁数据异常
+     */
+    default boolean isLocked(String poolName, String lockName) {
+        return this.getOwner(poolName, lockName).isPresent();
+    }
+
+    /**
+     * 查询锁当前持有者（存在且未过期）
+     *
+     * @param poolName 锁分组，非空，1~64字符
+     * @param lockName 锁名称，非空，1~64字符
+     * @return 锁持有者信息，锁不存在或者已过期则为空
+     * @throws IllegalArgumentException 参数非法
+     * @throws IllegalStateException    实现类不支持查询锁持有者（默认实现）
+     * @throws RuntimeException         查询锁数据异常
+     */
+    default Optional<NTLockDTO> getOwner(String poolName, String lockName) {
+        throw new IllegalStateException("锁服务不支持查询锁持有者(" + this.getClass().getName() + ")");
+    }
+
+    /**
+     * 流式遍历锁数据，逐条回调，不会一次性加载全部数据
+     *
+     * @param poolName 锁分组，为NULL时遍历全部分组
+     * @param filter   过滤条件，为NULL时不过滤
+     * @param consumer 锁数据消费者，非空
+     * @return 回调的锁数据数量
+     * @throws IllegalArgumentException 参数非法
+     * @throws IllegalStateException    实现类不支持遍历锁数据（默认实现）
+     * @throws RuntimeException         查询锁数据异常
+     */
+    default int scan(String poolName, Predicate<NTLockDTO> filter, Consumer<NTLockDTO> consumer) {
+        throw new IllegalStateException("锁服务不支持遍历锁数据(" + this.getClass().getName() + ")");
+    }
 }
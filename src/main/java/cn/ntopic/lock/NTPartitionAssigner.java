@@ -0,0 +1,47 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import java.util.Set;
+
+/**
+ * 分布式分区分配服务：存活节点平分P个分区，续约时保持已分配的分区，节点加入或者离开时只迁移必要的分区
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public interface NTPartitionAssigner {
+
+    /**
+     * 开始参与分区分配
+     */
+    void start();
+
+    /**
+     * 停止参与分区分配，释放当前节点的全部分区
+     */
+    void stop();
+
+    /**
+     * 当前节点已分配的分区（租约未过期）
+     *
+     * @return 分区编号集合（0~P-1），租约过期则为空
+     */
+    Set<Integer> getAssigned();
+
+    /**
+     * 指定分区是否已分配给当前节点（租约未过期）
+     *
+     * @param partition 分区编号
+     */
+    boolean isAssigned(int partition);
+
+    /**
+     * 增加分区分配结果监听器
+     *
+     * @param listener 监听器，非空
+     * @throws IllegalArgumentException 参数非法
+     */
+    void addListener(NTPartitionListener listener);
+}
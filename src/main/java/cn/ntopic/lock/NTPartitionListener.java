@@ -0,0 +1,31 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import java.util.Set;
+
+/**
+ * 分布式分区分配结果监听器，在分区分配线程中回调
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public interface NTPartitionListener {
+
+    /**
+     * 当前节点新分配到分区
+     *
+     * @param group      分区分组名称
+     * @param partitions 新分配的分区编号
+     */
+    void onAssigned(String group, Set<Integer> partitions);
+
+    /**
+     * 当前节点失去分区（再平衡释放、续约失败、租约过期或者停止分配）
+     *
+     * @param group      分区分组名称
+     * @param partitions 失去的分区编号
+     */
+    void onRevoked(String group, Set<Integer> partitions);
+}
@@ -0,0 +1,60 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockResult;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式区间锁服务：1条锁记录代表1个闭区间[from, to]，同一分组内已持有的区间互不重叠
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public interface NTRangeLock {
+
+    /**
+     * 区间锁分组最大长度
+     */
+    int MAX_POOL_LENGTH = 64;
+
+    /**
+     * 1. 首次抢占区间锁，与其他持有者未过期的区间重叠则失败
+     * 2. 延长已抢占的同一区间锁
+     *
+     * @param poolName 区间锁分组，非空，1~64字符
+     * @param from     区间起始值（含），值>Long.MIN_VALUE
+     * @param to       区间结束值（含），值>=from
+     * @param timeout  锁超时时间，值>0
+     * @param timeUnit 超时时间单位
+     * @return 锁结果，锁名称为`[from,to]`，失败时消息包含重叠区间
+     * @throws IllegalArgumentException 参数非法
+     */
+    NTLockResult lockRange(String poolName, long from, long to, int timeout, TimeUnit timeUnit);
+
+    /**
+     * 释放当前线程持有的区间锁
+     *
+     * @param poolName 区间锁分组，非空，1~64字符
+     * @param from     区间起始值（含）
+     * @param to       区间结束值（含）
+     * @return 释放结果，true-代表释放成功，false-代表区间锁不存在、非当前持有者或者未知异常
+     * @throws IllegalArgumentException 参数非法
+     */
+    boolean releaseRange(String poolName, long from, long to);
+
+    /**
+     * 查询包含指定值的区间锁持有者（存在且未过期）
+     *
+     * @param poolName 区间锁分组，非空，1~64字符
+     * @param key      区间内的值
+     * @return 区间锁持有者信息，锁名称为`[from,to]`，不存在或者已过期则为空
+     * @throws IllegalArgumentException 参数非法
+     * @throws RuntimeException         查询锁数据异常
+     */
+    Optional<NTLockDTO> getRangeOwner(String poolName, long key);
+}
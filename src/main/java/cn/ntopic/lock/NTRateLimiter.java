@@ -0,0 +1,47 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+/**
+ * 分布式限流服务（令牌桶）
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public interface NTRateLimiter {
+
+    /**
+     * 限流名称最大长度
+     */
+    int MAX_NAME_LENGTH = 64;
+
+    /**
+     * 设置限流速率，首次获取许可时持久化，后续获取许可时同步更新到数据表
+     *
+     * @param name             限流名称，非空，1~64字符
+     * @param permitsPerSecond 每秒补充许可数量，值>0
+     * @param capacity         令牌桶容量（允许的最大突发许可数量），值>0
+     * @throws IllegalArgumentException 参数非法
+     */
+    void setRate(String name, long permitsPerSecond, long capacity);
+
+    /**
+     * 尝试获取1个许可，不等待
+     *
+     * @param name 限流名称，必须已设置限流速率
+     * @return true-获取成功，false-许可不足或者未知异常
+     * @throws IllegalArgumentException 参数非法
+     */
+    boolean tryAcquire(String name);
+
+    /**
+     * 尝试获取指定数量许可，不等待
+     *
+     * @param name    限流名称，必须已设置限流速率
+     * @param permits 许可数量，值>0且不超过令牌桶容量
+     * @return true-获取成功，false-许可不足或者未知异常
+     * @throws IllegalArgumentException 参数非法
+     */
+    boolean tryAcquire(String name, int permits);
+}
@@ -0,0 +1,47 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import cn.ntopic.lock.model.NTScheduledTaskStat;
+
+import java.util.Map;
+
+/**
+ * 集群单例定时任务服务：每个任务在每个周期内，集群中至多执行1次（前提：`lockAtLeast`大于节点间时钟偏差与调度检测间隔之和）
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public interface NTScheduledExecutor {
+
+    /**
+     * 注册定时任务
+     *
+     * @param taskName    任务名称，非空，1~64字符，集群内唯一
+     * @param interval    执行周期（毫秒），值>0
+     * @param lockAtMost  任务最长锁定时间（毫秒），执行节点宕机后超过该时间其他节点可执行，值>=lockAtLeast
+     * @param lockAtLeast 任务最短锁定时间（毫秒），任务执行很快时，避免其他节点因时钟偏差在同一周期内重复执行，值>=0；
+     *                    值为0时执行完成即释放锁，仅保证任务不会被多个节点同时执行，不保证每个周期至多执行1次
+     * @param task        任务，非空
+     * @throws IllegalArgumentException 参数非法
+     */
+    void schedule(String taskName, long interval, long lockAtMost, long lockAtLeast, Runnable task);
+
+    /**
+     * 启动定时调度
+     */
+    void start();
+
+    /**
+     * 停止定时调度，等待正在执行的任务执行完成（实现类可限定最长等待时间）
+     */
+    void stop();
+
+    /**
+     * 获取任务执行统计（调度偏差、执行耗时）
+     *
+     * @return 任务名称 -> 执行统计
+     */
+    Map<String, NTScheduledTaskStat> getTaskStats();
+}
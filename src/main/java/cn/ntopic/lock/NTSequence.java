@@ -0,0 +1,41 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+/**
+ * 分布式序列服务：每个序列名称独立，同一序列在多个节点之间不重复（超过最大值循环时除外）
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public interface NTSequence {
+
+    /**
+     * 默认序列名称
+     */
+    String DEFAULT_SEQUENCE_NAME = "DEFAULT";
+
+    /**
+     * 序列名称最大长度
+     */
+    int MAX_NAME_LENGTH = 64;
+
+    /**
+     * 获取默认序列的下一个值
+     *
+     * @return 序列值
+     * @throws RuntimeException 分配序列区间异常
+     */
+    long next();
+
+    /**
+     * 获取指定序列的下一个值
+     *
+     * @param sequenceName 序列名称，非空，1~64字符
+     * @return 序列值
+     * @throws IllegalArgumentException 参数非法
+     * @throws RuntimeException         分配序列区间异常
+     */
+    long next(String sequenceName);
+}
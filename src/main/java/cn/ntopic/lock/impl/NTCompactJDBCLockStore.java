@@ -0,0 +1,611 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.utils.NTDateUtils;
+import cn.ntopic.lock.utils.NTJDBCUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 紧凑JDBC锁存储：
+ * 1. 锁分组和名称哈希为64位数值主键（查询时校验分组和名称，哈希冲突则报错；按主键写入时同时比较分组和名称，不会修改冲突的锁记录）
+ * 2. 锁持有服务器保存在服务器表中，锁记录只保存64位服务器ID
+ * 3. 过期时间和修改时间保存为毫秒数值，抢占和延长锁定按版本号比较更新
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTCompactJDBCLockStore extends NTJDBCLockStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTCompactJDBCLockStore.class);
+
+    /**
+     * 空闲锁服务器ID
+     */
+    private static final long FREE_NODE_ID = 0L;
+
+    /**
+     * 属性-服务器数据表名
+     */
+    private String nodeTableName = "nt_lock_node";
+
+    /**
+     * 已登记的服务器ID
+     */
+    private final Set<Long> registeredNodes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * CTOR-构建紧凑JDBC锁存储
+     */
+    public NTCompactJDBCLockStore(DataSource ntDataSource) {
+        super(ntDataSource);
+        this.setTableName("nt_lock_compact");
+    }
+
+    @Override
+    public void createTable() {
+        StringBuilder createSQL = new StringBuilder();
+        createSQL.append(String.format("CREATE TABLE %s", this.getTableName()));
+        createSQL.append("(");
+        createSQL.append("id        BIGINT      NOT NULL,");
+        createSQL.append("pool      VARCHAR(64) NOT NULL,");
+        createSQL.append("name      VARCHAR(64) NOT NULL,");
+        createSQL.append("node_id   BIGINT      NOT NULL,");
+        createSQL.append("own_id    BIGINT      NOT NULL,");
+        createSQL.append("expire    BIGINT      NOT NULL,");
+        createSQL.append("version   BIGINT      NOT NULL DEFAULT 1,");
+        createSQL.append("size      INT         NOT NULL DEFAULT 1,");
+        createSQL.append("times     INT         NOT NULL DEFAULT 1,");
+        createSQL.append("modify    BIGINT      NOT NULL,");
+        createSQL.append("PRIMARY KEY (id)");
+        createSQL.append(")");
+        this.createTable(this.getTableName(), createSQL.toString());
+
+        createSQL = new StringBuilder();
+        createSQL.append(String.format("CREATE TABLE %s", this.nodeTableName));
+        createSQL.append("(");
+        createSQL.append("node_id   BIGINT      NOT NULL,");
+        createSQL.append("host      VARCHAR(64) NOT NULL,");
+        createSQL.append("ip        VARCHAR(64) NOT NULL,");
+        createSQL.append("modify    BIGINT      NOT NULL,");
+        createSQL.append("PRIMARY KEY (node_id)");
+        createSQL.append(")");
+        this.createTable(this.nodeTableName, createSQL.toString());
+    }
+
+    @Override
+    public Optional<NTLockDTO> select(NTLockStoreSession session, String pool, String name) throws SQLException {
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = this.prepareStatement(session, String.format("%s WHERE l.id=?", this.makeSelectSQL()));
+            stmt.setLong(1, makeLockId(pool, name));
+
+            rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return Optional.empty();
+            }
+
+            return Optional.of(checkCollision(this.makeLockDTO(rs), pool, name));
+        } finally {
+            NTJDBCUtils.closeQuietly(rs);
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public Map<String, NTLockDTO> selectBatch(NTLockStoreSession session, List<NTLockDTO> lockDTOs) throws SQLException {
+        Map<String, NTLockDTO> existLockDTOs = new HashMap<>();
+        if (lockDTOs.isEmpty()) {
+            return existLockDTOs;
+        }
+
+        // 1条SQL查询全部锁记录：WHERE l.id IN (?,?,...)
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            StringBuilder selectSQL = new StringBuilder(this.makeSelectSQL()).append(" WHERE l.id IN (");
+            for (int i = 0; i < lockDTOs.size(); i++) {
+                selectSQL.append(i == 0 ? "?" : ",?");
+            }
+
+            stmt = this.prepareStatement(session, selectSQL.append(")").toString());
+
+            Map<Long, NTLockDTO> lockIds = new HashMap<>();
+            for (int i = 0; i < lockDTOs.size(); i++) {
+                long lockId = makeLockId(lockDTOs.get(i).getPool(), lockDTOs.get(i).getName());
+                lockIds.put(lockId, lockDTOs.get(i));
+                stmt.setLong(i + 1, lockId);
+            }
+
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                NTLockDTO lockDTO = lockIds.get(rs.getLong("id"));
+                NTLockDTO existLockDTO = checkCollision(this.makeLockDTO(rs), lockDTO.getPool(), lockDTO.getName());
+                existLockDTOs.put(existLockDTO.getPool() + "/" + existLockDTO.getName(), existLockDTO);
+            }
+
+            return existLockDTOs;
+        } finally {
+            NTJDBCUtils.closeQuietly(rs);
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean insert(NTLockStoreSession session, NTLockDTO newLockDTO) throws SQLException {
+        long nodeId = this.registerNode(session, newLockDTO.getOwnHost(), newLockDTO.getOwnIp());
+
+        PreparedStatement stmt = null;
+        try {
+            String insertSQL = String.format("INSERT INTO %s (id,pool,name,node_id,own_id,expire,version,size,times,modify) VALUES (?,?,?,?,?,?,?,?,?,?)", this.getTableName());
+            stmt = this.prepareStatement(session, insertSQL);
+
+            stmt.setLong(1, makeLockId(newLockDTO.getPool(), newLockDTO.getName()));
+            stmt.setString(2, newLockDTO.getPool());
+            stmt.setString(3, newLockDTO.getName());
+            stmt.setLong(4, nodeId);
+            stmt.setLong(5, newLockDTO.getOwnId());
+            stmt.setLong(6, toMillis(newLockDTO.getExpire()));
+            stmt.setLong(7, 1L);
+            stmt.setInt(8, newLockDTO.getSize());
+            stmt.setInt(9, newLockDTO.getTimes());
+            stmt.setLong(10, toMillis(newLockDTO.getModify()));
+
+            stmt.executeUpdate();
+            newLockDTO.setVersion(1L);
+            return true;
+        } catch (SQLException e) {
+            // 主键冲突：并发新增，或者哈希冲突（查询时报错）
+            if (this.classify(e) == NTLockErrorType.DUPLICATE_KEY) {
+                this.select(session, newLockDTO.getPool(), newLockDTO.getName());
+                return false;
+            }
+
+            throw e;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean[] insertBatch(NTLockStoreSession session, List<NTLockDTO> newLockDTOs) throws SQLException {
+        boolean[] results = new boolean[newLockDTOs.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = this.insert(session, newLockDTOs.get(i));
+        }
+
+        return results;
+    }
+
+    @Override
+    public boolean updateTaken(NTLockStoreSession session, NTLockDTO newLockDTO, NTLockDTO existLockDTO) throws SQLException {
+        long nodeId = this.registerNode(session, newLockDTO.getOwnHost(), newLockDTO.getOwnIp());
+
+        PreparedStatement stmt = null;
+        try {
+            String updateSQL = String.format("UPDATE %s SET node_id=?,own_id=?,expire=?,version=version+1,times=1,modify=? WHERE id=? AND version=?", this.getTableName());
+            stmt = this.prepareStatement(session, updateSQL);
+
+            stmt.setLong(1, nodeId);
+            stmt.setLong(2, newLockDTO.getOwnId());
+            stmt.setLong(3, toMillis(newLockDTO.getExpire()));
+            stmt.setLong(4, toMillis(newLockDTO.getModify()));
+            stmt.setLong(5, makeLockId(newLockDTO.getPool(), newLockDTO.getName()));
+            stmt.setLong(6, existLockDTO.getVersion());
+
+            return this.updateVersion(stmt, newLockDTO, existLockDTO);
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean updateExpire(NTLockStoreSession session, NTLockDTO newLockDTO, NTLockDTO existLockDTO) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            String updateSQL = String.format("UPDATE %s SET expire=?,version=version+1,times=times+1,modify=? WHERE id=? AND version=?", this.getTableName());
+            stmt = this.prepareStatement(session, updateSQL);
+
+            stmt.setLong(1, toMillis(newLockDTO.getExpire()));
+            stmt.setLong(2, toMillis(newLockDTO.getModify()));
+            stmt.setLong(3, makeLockId(newLockDTO.getPool(), newLockDTO.getName()));
+            stmt.setLong(4, existLockDTO.getVersion());
+
+            return this.updateVersion(stmt, newLockDTO, existLockDTO);
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean[] updateBatch(NTLockStoreSession session, List<NTLockDTO> newLockDTOs, List<NTLockDTO> existLockDTOs, boolean taken) throws SQLException {
+        boolean[] results = new boolean[newLockDTOs.size()];
+        for (int i = 0; i < results.length; i++) {
+            if (taken) {
+                results[i] = this.updateTaken(session, newLockDTOs.get(i), existLockDTOs.get(i));
+            } else {
+                results[i] = this.updateExpire(session, newLockDTOs.get(i), existLockDTOs.get(i));
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public boolean updateAcquire(NTLockStoreSession session, NTLockDTO newLockDTO, String now) throws SQLException {
+        long nodeId = this.registerNode(session, newLockDTO.getOwnHost(), newLockDTO.getOwnIp());
+
+        PreparedStatement stmt = null;
+        try {
+            String updateSQL = String.format("UPDATE %s SET node_id=?,own_id=?,expire=?,version=version+1,times=1,modify=? WHERE id=? AND pool=? AND name=? AND node_id=? AND own_id=? AND expire<=?", this.getTableName());
+            stmt = this.prepareStatement(session, updateSQL);
+
+            stmt.setLong(1, nodeId);
+            stmt.setLong(2, newLockDTO.getOwnId());
+            stmt.setLong(3, toMillis(newLockDTO.getExpire()));
+            stmt.setLong(4, toMillis(newLockDTO.getModify()));
+            stmt.setLong(5, makeLockId(newLockDTO.getPool(), newLockDTO.getName()));
+            stmt.setString(6, newLockDTO.getPool());
+            stmt.setString(7, newLockDTO.getName());
+            stmt.setLong(8, FREE_NODE_ID);
+            stmt.setLong(9, FREE_OWN_ID);
+            stmt.setLong(10, toMillis(now));
+
+            boolean update = stmt.executeUpdate() >= 1;
+            if (update) {
+                newLockDTO.setTimes(newLockDTO.getTimes() + 1);
+            }
+
+            return update;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean updateRelease(NTLockStoreSession session, NTLockDTO lockDTO, String expire, String modify) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            String updateSQL = String.format("UPDATE %s SET expire=?,version=version+1,modify=? WHERE id=? AND pool=? AND name=? AND node_id=? AND own_id=?", this.getTableName());
+            stmt = this.prepareStatement(session, updateSQL);
+
+            stmt.setLong(1, toMillis(expire));
+            stmt.setLong(2, toMillis(modify));
+            stmt.setLong(3, makeLockId(lockDTO.getPool(), lockDTO.getName()));
+            stmt.setString(4, lockDTO.getPool());
+            stmt.setString(5, lockDTO.getName());
+            stmt.setLong(6, makeNodeId(lockDTO.getOwnHost(), lockDTO.getOwnIp()));
+            stmt.setLong(7, lockDTO.getOwnId());
+
+            return stmt.executeUpdate() > 0;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean updateFree(NTLockStoreSession session, NTLockDTO lockDTO, String expire, String modify) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            String updateSQL = String.format("UPDATE %s SET node_id=?,own_id=?,expire=?,version=version+1,modify=? WHERE id=? AND pool=? AND name=? AND node_id=? AND own_id=?", this.getTableName());
+            stmt = this.prepareStatement(session, updateSQL);
+
+            stmt.setLong(1, FREE_NODE_ID);
+            stmt.setLong(2, FREE_OWN_ID);
+            stmt.setLong(3, toMillis(expire));
+            stmt.setLong(4, toMillis(modify));
+            stmt.setLong(5, makeLockId(lockDTO.getPool(), lockDTO.getName()));
+            stmt.setString(6, lockDTO.getPool());
+            stmt.setString(7, lockDTO.getName());
+            stmt.setLong(8, makeNodeId(lockDTO.getOwnHost(), lockDTO.getOwnIp()));
+            stmt.setLong(9, lockDTO.getOwnId());
+
+            return stmt.executeUpdate() > 0;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean delete(NTLockStoreSession session, NTLockDTO lockDTO) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            String deleteSQL = String.format("DELETE FROM %s WHERE id=? AND pool=? AND name=? AND node_id=? AND own_id=?", this.getTableName());
+            stmt = this.prepareStatement(session, deleteSQL);
+
+            stmt.setLong(1, makeLockId(lockDTO.getPool(), lockDTO.getName()));
+            stmt.setString(2, lockDTO.getPool());
+            stmt.setString(3, lockDTO.getName());
+            stmt.setLong(4, makeNodeId(lockDTO.getOwnHost(), lockDTO.getOwnIp()));
+            stmt.setLong(5, lockDTO.getOwnId());
+
+            return stmt.executeUpdate() > 0;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean[] deleteBatch(NTLockStoreSession session, List<NTLockDTO> lockDTOs) throws SQLException {
+        boolean[] results = new boolean[lockDTOs.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = this.delete(session, lockDTOs.get(i));
+        }
+
+        return results;
+    }
+
+    @Override
+    public int scan(String pool, Predicate<NTLockDTO> filter, Consumer<NTLockDTO> consumer) throws SQLException {
+        // 只读、只进游标，按批获取
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = this.getDataSource().getConnection();
+
+            String selectSQL = pool == null ? this.makeSelectSQL() : String.format("%s WHERE l.pool=?", this.makeSelectSQL());
+            stmt = conn.prepareStatement(selectSQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(this.getScanFetchSize());
+            if (pool != null) {
+                stmt.setString(1, pool);
+            }
+
+            rs = stmt.executeQuery();
+
+            int count = 0;
+            while (rs.next()) {
+                NTLockDTO lockDTO = this.makeLockDTO(rs);
+                if (filter == null || filter.test(lockDTO)) {
+                    consumer.accept(lockDTO);
+                    count++;
+                }
+            }
+
+            return count;
+        } finally {
+            NTJDBCUtils.closeQuietly(rs);
+            NTJDBCUtils.closeQuietly(stmt);
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    @Override
+    public int clean(String expire) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        boolean autoCommit = true;
+        try {
+            // 数据库连接
+            conn = this.getDataSource().getConnection();
+            autoCommit = conn.getAutoCommit();
+
+            if (!autoCommit) {
+                conn.setAutoCommit(true);
+            }
+
+            // 清理数据记录
+            stmt = conn.prepareStatement(String.format("DELETE FROM %s WHERE expire<=?", this.getTableName()));
+
+            stmt.setLong(1, toMillis(expire));
+            return stmt.executeUpdate();
+        } finally {
+            if (!autoCommit) {
+                NTJDBCUtils.closeAutoCommit(conn);
+            }
+
+            NTJDBCUtils.closeQuietly(stmt);
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    /**
+     * 锁ID：锁分组和名称的64位哈希值
+     */
+    public static long makeLockId(String pool, String name) {
+        return hash64(pool + '\u0000' + name);
+    }
+
+    /**
+     * 服务器ID：服务器名称和IP的64位哈希值（0为空闲锁保留）
+     */
+    public static long makeNodeId(String host, String ip) {
+        if (FREE_OWN_HOST.equals(host) && FREE_OWN_IP.equals(ip)) {
+            return FREE_NODE_ID;
+        }
+
+        long nodeId = hash64(host + '\u0000' + ip);
+        return nodeId == FREE_NODE_ID ? 1L : nodeId;
+    }
+
+    /**
+     * 登记服务器（每个服务器只登记1次），服务器ID哈希冲突则报错
+     */
+    private long registerNode(NTLockStoreSession session, String host, String ip) throws SQLException {
+        long nodeId = makeNodeId(host, ip);
+        if (this.registeredNodes.contains(nodeId)) {
+            return nodeId;
+        }
+
+        if (!this.checkNode(session, nodeId, host, ip)) {
+            PreparedStatement stmt = null;
+            try {
+                stmt = this.prepareStatement(session, String.format("INSERT INTO %s (node_id,host,ip,modify) VALUES (?,?,?,?)", this.nodeTableName));
+                stmt.setLong(1, nodeId);
+                stmt.setString(2, host);
+                stmt.setString(3, ip);
+                stmt.setLong(4, System.currentTimeMillis());
+
+                stmt.executeUpdate();
+                LOGGER.info("登记锁服务器[{}/{}]-[{}].", host, ip, nodeId);
+            } catch (SQLException e) {
+                // 其他线程已登记（或者其他服务器ID哈希冲突），重新检测
+                if (this.classify(e) != NTLockErrorType.DUPLICATE_KEY || !this.checkNode(session, nodeId, host, ip)) {
+                    throw e;
+                }
+            } finally {
+                NTJDBCUtils.closeQuietly(stmt);
+            }
+        }
+
+        this.registeredNodes.add(nodeId);
+        return nodeId;
+    }
+
+    /**
+     * 检测服务器是否已登记，服务器ID哈希冲突则报错
+     */
+    private boolean checkNode(NTLockStoreSession session, long nodeId, String host, String ip) throws SQLException {
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = this.prepareStatement(session, String.format("SELECT host,ip FROM %s WHERE node_id=?", this.nodeTableName));
+            stmt.setLong(1, nodeId);
+
+            rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return false;
+            }
+
+            if (!host.equals(rs.getString("host")) || !ip.equals(rs.getString("ip"))) {
+                throw new SQLException(String.format("服务器ID哈希冲突(%s/%s->%s/%s)", host, ip, rs.getString("host"), rs.getString("ip")));
+            }
+
+            return true;
+        } finally {
+            NTJDBCUtils.closeQuietly(rs);
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    /**
+     * 按版本号比较更新，成功后新锁对象的版本号加1
+     */
+    private boolean updateVersion(PreparedStatement stmt, NTLockDTO newLockDTO, NTLockDTO existLockDTO) throws SQLException {
+        boolean update = stmt.executeUpdate() >= 1;
+        if (update) {
+            newLockDTO.setTimes(newLockDTO.getTimes() + 1);
+            newLockDTO.setVersion(existLockDTO.getVersion() + 1L);
+        }
+
+        return update;
+    }
+
+    /**
+     * 查询SQL：关联服务器表获取服务器名称和IP
+     */
+    private String makeSelectSQL() {
+        return String.format("SELECT l.*,n.host,n.ip FROM %s l LEFT JOIN %s n ON l.node_id=n.node_id", this.getTableName(), this.nodeTableName);
+    }
+
+    /**
+     * 构建锁对象
+     */
+    private NTLockDTO makeLockDTO(ResultSet rs) throws SQLException {
+        String host = rs.getString("host");
+        String ip = rs.getString("ip");
+
+        NTLockDTO lockDTO = new NTLockDTO(rs.getString("pool"), rs.getString("name"), host == null ? FREE_OWN_HOST : host
+                , ip == null ? FREE_OWN_IP : ip, rs.getLong("own_id"), NTDateUtils.format(new Date(rs.getLong("expire"))));
+        lockDTO.setSize(rs.getInt("size"));
+        lockDTO.setTimes(rs.getInt("times"));
+        lockDTO.setModify(NTDateUtils.format(new Date(rs.getLong("modify"))));
+        lockDTO.setVersion(rs.getLong("version"));
+
+        return lockDTO;
+    }
+
+    /**
+     * 锁ID哈希冲突检测
+     */
+    private static NTLockDTO checkCollision(NTLockDTO lockDTO, String pool, String name) throws SQLException {
+        if (!lockDTO.getPool().equals(pool) || !lockDTO.getName().equals(name)) {
+            throw new SQLException(String.format("锁ID哈希冲突(%s->%s)-(%s->%s)", pool, name, lockDTO.getPool(), lockDTO.getName()));
+        }
+
+        return lockDTO;
+    }
+
+    /**
+     * 尝试创建数据表，已存在则忽略
+     */
+    private void createTable(String tableName, String createTableSQL) {
+        Connection conn = null;
+        ResultSet rs = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = this.getDataSource().getConnection();
+
+            rs = conn.getMetaData().getTables(null, null, tableName, null);
+            if (rs.next()) {
+                LOGGER.info("锁数据表存在-无需创建[{}].", tableName);
+                return;
+            }
+
+            LOGGER.info("锁数据表建表SQL:{}", createTableSQL);
+            stmt = conn.prepareStatement(createTableSQL);
+            stmt.executeUpdate();
+            LOGGER.info("创建锁数据表成功[{}].", tableName);
+        } catch (Throwable e) {
+            LOGGER.error("检测锁数据表是否存在异常，请求人工创建锁数据表[{}].", tableName, e);
+            throw new RuntimeException("检测锁数据表是否存在异常，请求人工创建锁数据表(" + tableName + ")", e);
+        } finally {
+            NTJDBCUtils.closeQuietly(rs);
+            NTJDBCUtils.closeQuietly(stmt);
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    /**
+     * 时间字符串转为毫秒数
+     */
+    private static long toMillis(String time) {
+        return NTDateUtils.parse(time).getTime();
+    }
+
+    /**
+     * 64位FNV-1a哈希（跨JVM稳定）
+     */
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xFF);
+            hash *= 0x100000001b3L;
+        }
+
+        return hash;
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public String getNodeTableName() {
+        return nodeTableName;
+    }
+
+    public void setNodeTableName(String nodeTableName) {
+        if (nodeTableName == null || nodeTableName.isEmpty()) {
+            throw new IllegalArgumentException("服务器数据表名参数非法(" + nodeTableName + ")");
+        }
+
+        this.nodeTableName = nodeTableName;
+    }
+}
@@ -0,0 +1,443 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.NTDeduplicator;
+import cn.ntopic.lock.utils.NTDateUtils;
+import cn.ntopic.lock.utils.NTJDBCUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式幂等键服务实现：
+ * 1. 抢占为1条INSERT（主键冲突即重复），仅主键冲突且记录已过期（未清理）时再条件UPDATE重新抢占，无需先查询
+ * 2. 批量抢占为1次JDBC批量INSERT（MySQL驱动开启`rewriteBatchedStatements`时改写为多行INSERT）
+ * 3. 按过期时间分区：每条记录保存过期时间所在的时间分区号（`bucket`，有索引），清理时按分区号范围批量删除已整体过期的分区
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTDeduplicatorImpl implements NTDeduplicator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTDeduplicatorImpl.class);
+
+    /**
+     * 属性-数据源
+     */
+    private final DataSource ntDataSource;
+
+    /**
+     * 属性-数据表名
+     */
+    private String tableName = "nt_lock_claim";
+
+    /**
+     * 属性-时间分区宽度（毫秒）
+     */
+    private long bucketMillis = 60000L;
+
+    /**
+     * 属性-自动清理间隔（毫秒）
+     */
+    private long cleanInterval = 60000L;
+
+    /**
+     * 数据库方言（首次访问时检测）
+     */
+    private volatile NTLockDialect dialect;
+
+    /**
+     * 清理线程
+     */
+    private volatile NTClaimCleanThread cleanThread;
+
+    /**
+     * CTOR-构建幂等键组件
+     */
+    public NTDeduplicatorImpl(DataSource ntDataSource) {
+        if (ntDataSource == null) {
+            throw new IllegalArgumentException("幂等键数据源为NULL.");
+        }
+
+        this.ntDataSource = ntDataSource;
+    }
+
+    /**
+     * 尝试创建数据表和时间分区索引
+     */
+    public void createTable() {
+        Connection conn = null;
+        try {
+            conn = this.ntDataSource.getConnection();
+
+            // 1. 检测数据表是否存在
+            ResultSet rs = null;
+            try {
+                rs = conn.getMetaData().getTables(null, null, this.tableName, null);
+                if (rs.next()) {
+                    LOGGER.info("幂等键数据表存在-无需创建[{}].", this.tableName);
+                    return;
+                }
+            } finally {
+                NTJDBCUtils.closeQuietly(rs);
+            }
+
+            // 2. 创建数据表
+            PreparedStatement stmt = null;
+            try {
+                StringBuilder createSQL = new StringBuilder();
+                createSQL.append(String.format("CREATE TABLE %s", this.tableName));
+                createSQL.append("(");
+                createSQL.append("pool       VARCHAR(64)  NOT NULL,");
+                createSQL.append("claim_key  VARCHAR(128) NOT NULL,");
+                createSQL.append("bucket     BIGINT       NOT NULL,");
+                createSQL.append("expire     VARCHAR(32)  NOT NULL,");
+                createSQL.append("modify     VARCHAR(32)  NOT NULL,");
+                createSQL.append("PRIMARY KEY (pool, claim_key)");
+                createSQL.append(")");
+
+                String createTableSQL = createSQL.toString();
+                LOGGER.info("幂等键数据表建表SQL:{}", createTableSQL);
+
+                stmt = conn.prepareStatement(createTableSQL);
+                stmt.executeUpdate();
+            } finally {
+                NTJDBCUtils.closeQuietly(stmt);
+            }
+
+            // 3. 创建时间分区索引
+            try {
+                stmt = conn.prepareStatement(String.format("CREATE INDEX idx_%s_bucket ON %s (bucket)", this.tableName, this.tableName));
+                stmt.executeUpdate();
+            } finally {
+                NTJDBCUtils.closeQuietly(stmt);
+            }
+
+            LOGGER.info("创建幂等键数据表成功[{}].", this.tableName);
+        } catch (Throwable e) {
+            LOGGER.error("检测幂等键数据表是否存在异常，请求人工创建幂等键数据表[{}].", this.tableName, e);
+            throw new RuntimeException("检测幂等键数据表是否存在异常，请求人工创建幂等键数据表(" + this.tableName + ")", e);
+        } finally {
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    /**
+     * 启动自动清理线程
+     */
+    public synchronized void start() {
+        if (this.cleanThread != null) {
+            return;
+        }
+
+        this.cleanThread = new NTClaimCleanThread();
+        this.cleanThread.start();
+    }
+
+    /**
+     * 停止自动清理线程
+     */
+    public synchronized void stop() {
+        NTClaimCleanThread thread = this.cleanThread;
+        if (thread == null) {
+            return;
+        }
+
+        this.cleanThread = null;
+        thread.running = false;
+        thread.interrupt();
+
+        try {
+            thread.join(this.cleanInterval);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean claimOnce(String poolName, String key, int ttl, TimeUnit timeUnit) {
+        // 参数检测
+        this.checkPool(poolName, ttl);
+        this.checkKey(key);
+
+        final long now = System.currentTimeMillis();
+        final long expire = now + timeUnit.toMillis(ttl);
+
+        Connection conn = null;
+        try {
+            conn = this.ntDataSource.getConnection();
+            return this.claim(conn, poolName, key, now, expire);
+        } catch (Throwable e) {
+            LOGGER.error("幂等键抢占异常[{}->{}].", poolName, key, e);
+            throw new RuntimeException(String.format("幂等键抢占异常(%s->%s)", poolName, key), e);
+        } finally {
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    @Override
+    public Set<String> claimAll(String poolName, Collection<String> keys, int ttl, TimeUnit timeUnit) {
+        // 参数检测
+        this.checkPool(poolName, ttl);
+        if (keys == null) {
+            throw new IllegalArgumentException("幂等键列表参数为NULL.");
+        }
+
+        final List<String> claimKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        for (String key : claimKeys) {
+            this.checkKey(key);
+        }
+
+        final Set<String> newKeys = new LinkedHashSet<>();
+        if (claimKeys.isEmpty()) {
+            return newKeys;
+        }
+
+        final long now = System.currentTimeMillis();
+        final long expire = now + timeUnit.toMillis(ttl);
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = this.ntDataSource.getConnection();
+
+            // 1. 批量新增
+            int[] counts;
+            try {
+                stmt = conn.prepareStatement(String.format("INSERT INTO %s (pool, claim_key, bucket, expire, modify) VALUES (?, ?, ?, ?, ?)", this.tableName));
+                for (String key : claimKeys) {
+                    this.bindInsert(stmt, poolName, key, now, expire);
+                    stmt.addBatch();
+                }
+
+                counts = stmt.executeBatch();
+            } catch (SQLException e) {
+                if (this.fetchDialect(conn).classify(e) != NTLockErrorType.DUPLICATE_KEY) {
+                    throw e;
+                }
+
+                // 主键冲突：驱动返回了执行结果的记录直接使用，其余记录（驱动在第1条失败后停止执行）逐个抢占
+                counts = e instanceof BatchUpdateException && ((BatchUpdateException) e).getUpdateCounts() != null
+                        ? ((BatchUpdateException) e).getUpdateCounts() : new int[0];
+            } finally {
+                NTJDBCUtils.closeQuietly(stmt);
+            }
+
+            // 2. 新增失败或者未执行的逐个抢占（新增，已存在则重新抢占已过期的记录）：
+            // MySQL驱动改写为多行INSERT时，1个主键冲突导致整条语句失败，全部记录均为执行失败
+            for (int i = 0; i < claimKeys.size(); i++) {
+                String key = claimKeys.get(i);
+                boolean claimed;
+                if (i < counts.length && counts[i] != Statement.EXECUTE_FAILED) {
+                    claimed = true;
+                } else {
+                    claimed = this.claim(conn, poolName, key, now, expire);
+                }
+
+                if (claimed) {
+                    newKeys.add(key);
+                }
+            }
+
+            return newKeys;
+        } catch (Throwable e) {
+            LOGGER.error("幂等键批量抢占异常[{}]-共{}个.", poolName, claimKeys.size(), e);
+            throw new RuntimeException(String.format("幂等键批量抢占异常(%s)", poolName), e);
+        } finally {
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    /**
+     * 清理已整体过期的时间分区（分区号小于当前时间所在分区）
+     *
+     * @return 清理数量
+     */
+    public int clean() {
+        final long bucket = System.currentTimeMillis() / this.bucketMillis;
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = this.ntDataSource.getConnection();
+            stmt = conn.prepareStatement(String.format("DELETE FROM %s WHERE bucket<?", this.tableName));
+            stmt.setLong(1, bucket);
+
+            int count = stmt.executeUpdate();
+            LOGGER.info("幂等键清理过期分区[{}]-分区号<{}-清理{}个.", this.tableName, bucket, count);
+            return count;
+        } catch (Throwable e) {
+            LOGGER.error("幂等键清理过期分区异常[{}].", this.tableName, e);
+            throw new RuntimeException("幂等键清理过期分区异常(" + this.tableName + ")", e);
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    /**
+     * 抢占1个幂等键：新增，主键冲突则重新抢占已过期的记录
+     */
+    private boolean claim(Connection conn, String poolName, String key, long now, long expire) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement(String.format("INSERT INTO %s (pool, claim_key, bucket, expire, modify) VALUES (?, ?, ?, ?, ?)", this.tableName));
+            this.bindInsert(stmt, poolName, key, now, expire);
+
+            return stmt.executeUpdate() >= 1;
+        } catch (SQLException e) {
+            if (this.fetchDialect(conn).classify(e) != NTLockErrorType.DUPLICATE_KEY) {
+                throw e;
+            }
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+
+        return this.reclaim(conn, poolName, key, now, expire);
+    }
+
+    /**
+     * 重新抢占已过期（未清理）的幂等键
+     */
+    private boolean reclaim(Connection conn, String poolName, String key, long now, long expire) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement(String.format("UPDATE %s SET bucket=?, expire=?, modify=? WHERE pool=? AND claim_key=? AND expire<=?", this.tableName));
+            stmt.setLong(1, expire / this.bucketMillis);
+            stmt.setString(2, NTDateUtils.format(new Date(expire)));
+            stmt.setString(3, NTDateUtils.format(new Date(now)));
+            stmt.setString(4, poolName);
+            stmt.setString(5, key);
+            stmt.setString(6, NTDateUtils.format(new Date(now)));
+
+            return stmt.executeUpdate() >= 1;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    private void bindInsert(PreparedStatement stmt, String poolName, String key, long now, long expire) throws SQLException {
+        stmt.setString(1, poolName);
+        stmt.setString(2, key);
+        stmt.setLong(3, expire / this.bucketMillis);
+        stmt.setString(4, NTDateUtils.format(new Date(expire)));
+        stmt.setString(5, NTDateUtils.format(new Date(now)));
+    }
+
+    private void checkPool(String poolName, int ttl) {
+        if (poolName == null || poolName.isEmpty() || poolName.length() > MAX_POOL_LENGTH) {
+            throw new IllegalArgumentException("幂等键分组参数非法(" + MAX_POOL_LENGTH + ")");
+        }
+
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("幂等键有效期参数非法(" + ttl + ")");
+        }
+    }
+
+    private void checkKey(String key) {
+        if (key == null || key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("幂等键参数非法(" + MAX_KEY_LENGTH + ")");
+        }
+    }
+
+    /**
+     * 获取数据库方言（首次根据连接元数据检测）
+     */
+    private NTLockDialect fetchDialect(Connection conn) {
+        NTLockDialect ntDialect = this.dialect;
+        if (ntDialect != null) {
+            return ntDialect;
+        }
+
+        try {
+            ntDialect = NTLockDialect.of(conn.getMetaData().getDatabaseProductName());
+            this.dialect = ntDialect;
+            return ntDialect;
+        } catch (Throwable e) {
+            LOGGER.warn("检测数据库方言异常[{}].", e.getMessage());
+            return NTLockDialect.GENERIC;
+        }
+    }
+
+    /**
+     * 自动清理线程
+     */
+    private class NTClaimCleanThread extends Thread {
+        /**
+         * 运行标记
+         */
+        private volatile boolean running = true;
+
+        public NTClaimCleanThread() {
+            super("NTClaimCleanThread-" + NTDeduplicatorImpl.this.tableName);
+            this.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (this.running) {
+                try {
+                    Thread.sleep(cleanInterval);
+                } catch (InterruptedException e) {
+                    // 停止清理
+                    break;
+                }
+
+                try {
+                    clean();
+                } catch (Throwable e) {
+                    // 已记录日志，下个周期重试
+                }
+            }
+        }
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    public void setBucketMillis(long bucketMillis) {
+        if (bucketMillis <= 0L) {
+            throw new IllegalArgumentException("幂等键时间分区宽度参数非法(" + bucketMillis + ")");
+        }
+
+        this.bucketMillis = bucketMillis;
+    }
+
+    public long getCleanInterval() {
+        return cleanInterval;
+    }
+
+    public void setCleanInterval(long cleanInterval) {
+        if (cleanInterval <= 0L) {
+            throw new IllegalArgumentException("幂等键清理间隔参数非法(" + cleanInterval + ")");
+        }
+
+        this.cleanInterval = cleanInterval;
+    }
+}
@@ -0,0 +1,327 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.NTHierarchyLock;
+import cn.ntopic.lock.NTLock;
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockReason;
+import cn.ntopic.lock.model.NTLockResult;
+import cn.ntopic.lock.utils.NTDateUtils;
+import cn.ntopic.lock.utils.NTHostUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式多粒度锁实现：分组行（锁名称为`#POOL`）为以下2种状态之一
+ * <p>
+ * 1. 整组排它锁：持有者为抢锁线程，与普通排它锁相同
+ * 2. 意向锁：持有服务器为`#INTENT`，持有者ID为名称锁数量，过期时间为已登记名称锁的最晚过期时间，
+ * 登记和撤销意向均按（持有者+过期时间）条件更新，并发登记不会丢失计数；名称锁数量为0时过期时间置为当前时间
+ * <p>
+ * 意向锁过期后重新登记时开始新的轮次（修改时间为轮次创建时间，轮次内不变），名称锁记录登记时的轮次，
+ * 撤销意向时轮次不一致（意向锁已过期后重建）则不减少名称锁数量
+ * <p>
+ * 名称锁异常退出未撤销的意向在分组行过期后失效（保守：期间整组排它锁失败）
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTHierarchyLockImpl implements NTHierarchyLock {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTHierarchyLockImpl.class);
+
+    /**
+     * 意向锁持有服务器
+     */
+    static final String INTENT_OWN_HOST = "#INTENT";
+
+    /**
+     * 属性-锁服务
+     */
+    private final NTLockImpl ntLock;
+
+    /**
+     * 属性-锁存储
+     */
+    private final NTLockStore ntLockStore;
+
+    /**
+     * 属性-意向登记/撤销并发冲突重试次数
+     */
+    private int intentRetryTimes = 16;
+
+    /**
+     * 当前节点持有的名称锁（分组/名称/线程ID），值为登记意向的轮次（持有整组排它锁时无需登记，为空字符串）
+     */
+    private final Map<String, String> holdings = new ConcurrentHashMap<>();
+
+    /**
+     * CTOR-构建多粒度锁组件
+     */
+    public NTHierarchyLockImpl(NTLockImpl ntLock) {
+        if (ntLock == null) {
+            throw new IllegalArgumentException("锁服务参数为NULL.");
+        }
+
+        this.ntLock = ntLock;
+        this.ntLockStore = ntLock.getLockStore();
+    }
+
+    @Override
+    public NTLockResult lock(String poolName, int timeout, TimeUnit timeUnit) {
+        // 参数检测
+        this.checkPool(poolName);
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("超时时间参数非法(" + timeout + ")");
+        }
+
+        // 分组行为意向锁时持有者为`#INTENT`，未过期则抢占失败，跳过锁占用缓存（意向撤销后立即可抢占）
+        return this.ntLock.lock(this.makeLockDTO(poolName, POOL_LOCK_NAME, new Date()), timeout, timeUnit, true);
+    }
+
+    @Override
+    public NTLockResult lock(String poolName, String lockName, int timeout, TimeUnit timeUnit) {
+        // 参数检测
+        this.checkPool(poolName);
+        this.checkName(lockName);
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("超时时间参数非法(" + timeout + ")");
+        }
+
+        final Date now = new Date();
+        final NTLockDTO newLockDTO = this.makeLockDTO(poolName, lockName, new Date(now.getTime() + timeUnit.toMillis(timeout)));
+        final String key = makeKey(poolName, lockName, newLockDTO.getOwnId());
+        final String epoch = this.holdings.get(key);
+        final boolean renew = epoch != null;
+
+        // 1. 分组行登记意向（延长时同一轮次内只延长意向过期时间）
+        NTLockResult intentResult = this.addIntent(now, newLockDTO, renew ? epoch : null);
+        if (!intentResult.isSuccess()) {
+            return intentResult;
+        }
+
+        // 2. 抢占或者延长名称锁
+        final NTLockDTO intentDTO = intentResult.getLockDTO();
+        final String newEpoch = isIntent(intentDTO) ? intentDTO.getModify() : "";
+        NTLockResult result = this.ntLock.lockAs(newLockDTO, null);
+        if (result.isSuccess() || renew) {
+            // 延长失败仍保留登记（可能已在新轮次登记），由释放时撤销
+            this.holdings.put(key, newEpoch);
+            return result;
+        }
+
+        // 3. 首次抢占失败，撤销意向
+        if (!newEpoch.isEmpty()) {
+            this.removeIntent(poolName, newEpoch);
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean release(String poolName) {
+        // 参数检测
+        this.checkPool(poolName);
+
+        return this.ntLock.release(this.makeLockDTO(poolName, POOL_LOCK_NAME, new Date()));
+    }
+
+    @Override
+    public boolean release(String poolName, String lockName) {
+        // 参数检测
+        this.checkPool(poolName);
+        this.checkName(lockName);
+
+        // 释放名称锁，无论是否释放成功（如已过期被抢占）均撤销本线程登记的意向
+        NTLockDTO lockDTO = this.makeLockDTO(poolName, lockName, new Date());
+        boolean release = this.ntLock.release(lockDTO);
+
+        String epoch = this.holdings.remove(makeKey(poolName, lockName, lockDTO.getOwnId()));
+        if (epoch != null && !epoch.isEmpty()) {
+            this.removeIntent(poolName, epoch);
+        }
+
+        return release;
+    }
+
+    /**
+     * 分组行登记意向：按主键查询分组行，整组排它锁被其他持有者占用则失败，否则延长意向过期时间，
+     * 首次登记或者已登记轮次不是当前轮次时意向数量加1，意向锁已过期则开始新的轮次
+     *
+     * @param epoch 已登记的轮次，首次登记为NULL
+     * @return 成功结果的锁对象为分组行（意向锁，修改时间为轮次；或者当前线程持有的整组排它锁），或者失败结果
+     */
+    private NTLockResult addIntent(Date now, NTLockDTO newLockDTO, String epoch) {
+        final String pool = newLockDTO.getPool();
+        final String modify = NTDateUtils.format(now);
+
+        for (int retry = 0; retry < this.intentRetryTimes; retry++) {
+            NTLockStoreSession session = null;
+            try {
+                session = this.ntLockStore.openSession(null);
+
+                // 1. 分组行不存在，新增意向锁
+                Optional<NTLockDTO> optLockDTO = this.ntLockStore.select(session, pool, POOL_LOCK_NAME);
+                if (!optLockDTO.isPresent()) {
+                    NTLockDTO intentDTO = makeIntent(pool, 1L, newLockDTO.getExpire(), newEpoch(modify, null));
+                    if (this.ntLockStore.insert(session, intentDTO)) {
+                        return NTLockResult.makeSuccess(intentDTO);
+                    }
+
+                    continue;
+                }
+
+                // 2. 整组排它锁未过期：当前线程持有则无需登记，否则失败
+                NTLockDTO existLockDTO = optLockDTO.get();
+                Date existExpire = existLockDTO.fetchExpireTime();
+                boolean expired = !existExpire.after(now);
+                if (!isIntent(existLockDTO) && !expired) {
+                    if (NTLockImpl.isSameOwner(existLockDTO, newLockDTO)) {
+                        return NTLockResult.makeSuccess(existLockDTO);
+                    }
+
+                    return NTLockResult.makeHeld(newLockDTO, existLockDTO.getOwnHost(), existLockDTO.getOwnIp()
+                            , existLockDTO.getOwnId(), existExpire.getTime());
+                }
+
+                // 3. 意向锁（或者已过期的分组行），条件更新意向数量和过期时间，已过期则开始新的轮次
+                NTLockDTO intentDTO;
+                if (expired) {
+                    intentDTO = makeIntent(pool, 1L, newLockDTO.getExpire(), newEpoch(modify, existLockDTO.getModify()));
+                } else {
+                    long count = existLockDTO.getOwnId() + (existLockDTO.getModify().equals(epoch) ? 0L : 1L);
+                    String expire = newLockDTO.getExpire().compareTo(existLockDTO.getExpire()) > 0 ? newLockDTO.getExpire() : existLockDTO.getExpire();
+                    intentDTO = makeIntent(pool, count, expire, existLockDTO.getModify());
+                }
+
+                if (this.ntLockStore.updateTaken(session, intentDTO, existLockDTO)) {
+                    return NTLockResult.makeSuccess(intentDTO);
+                }
+            } catch (Throwable e) {
+                if (this.ntLockStore.classify(e) == NTLockErrorType.TRANSIENT) {
+                    LOGGER.debug("[{}]意向登记瞬时异常-第{}次重试[{}]-{}.", Thread.currentThread().getId(), retry + 1, e.getMessage(), newLockDTO);
+                    continue;
+                }
+
+                LOGGER.error("意向登记未知异常-{}.", newLockDTO, e);
+                return NTLockResult.makeFailure(newLockDTO, NTLockReason.DB_ERROR, String.format("意向登记未知异常(%s)[%s]", pool, e.getMessage()));
+            } finally {
+                if (session != null) {
+                    session.close();
+                }
+            }
+        }
+
+        LOGGER.warn("[{}]意向登记并发冲突-重试{}次后失败-{}.", Thread.currentThread().getId(), this.intentRetryTimes, newLockDTO);
+        return NTLockResult.makeFailure(newLockDTO, NTLockReason.STEAL_LOST, String.format("意向登记并发冲突-重试%s次后失败(%s)", this.intentRetryTimes, pool));
+    }
+
+    /**
+     * 分组行撤销1个意向，意向数量为0时过期时间置为当前时间（整组排它锁可立即抢占）；
+     * 轮次不一致（登记的轮次已过期）则无需撤销；撤销失败则意向在分组行过期后失效
+     */
+    private void removeIntent(String pool, String epoch) {
+        for (int retry = 0; retry < this.intentRetryTimes; retry++) {
+            NTLockStoreSession session = null;
+            try {
+                session = this.ntLockStore.openSession(null);
+
+                Optional<NTLockDTO> optLockDTO = this.ntLockStore.select(session, pool, POOL_LOCK_NAME);
+                if (!optLockDTO.isPresent() || !isIntent(optLockDTO.get()) || !epoch.equals(optLockDTO.get().getModify())) {
+                    return;
+                }
+
+                NTLockDTO existLockDTO = optLockDTO.get();
+                String now = NTDateUtils.format(new Date());
+                long count = Math.max(0L, existLockDTO.getOwnId() - 1L);
+                String expire = count > 0L || existLockDTO.getExpire().compareTo(now) < 0 ? existLockDTO.getExpire() : now;
+
+                if (this.ntLockStore.updateTaken(session, makeIntent(pool, count, expire, epoch), existLockDTO)) {
+                    return;
+                }
+            } catch (Throwable e) {
+                if (this.ntLockStore.classify(e) != NTLockErrorType.TRANSIENT) {
+                    LOGGER.warn("意向撤销异常-分组行过期后失效[{}]-{}.", e.getMessage(), pool);
+                    return;
+                }
+            } finally {
+                if (session != null) {
+                    session.close();
+                }
+            }
+        }
+
+        LOGGER.warn("意向撤销并发冲突-重试{}次后放弃-分组行过期后失效[{}].", this.intentRetryTimes, pool);
+    }
+
+    private NTLockDTO makeLockDTO(String poolName, String lockName, Date expire) {
+        NTLockDTO lockDTO = new NTLockDTO(poolName, lockName, NTHostUtils.HOST, NTHostUtils.IP
+                , Thread.currentThread().getId(), NTDateUtils.format(expire));
+        lockDTO.setSize(1);
+        lockDTO.setTimes(1);
+        lockDTO.setModify(NTDateUtils.format(new Date()));
+
+        return lockDTO;
+    }
+
+    private static NTLockDTO makeIntent(String poolName, long count, String expire, String modify) {
+        NTLockDTO intentDTO = new NTLockDTO(poolName, POOL_LOCK_NAME, INTENT_OWN_HOST, NTLockStore.FREE_OWN_IP, count, expire);
+        intentDTO.setSize(1);
+        intentDTO.setTimes(1);
+        intentDTO.setModify(modify);
+
+        return intentDTO;
+    }
+
+    /**
+     * 新的意向轮次：当前时间，与上个轮次相同（同一毫秒内重建）则加1毫秒
+     */
+    private static String newEpoch(String now, String lastEpoch) {
+        if (lastEpoch == null || lastEpoch.compareTo(now) < 0) {
+            return now;
+        }
+
+        return NTDateUtils.format(new Date(NTDateUtils.parse(lastEpoch).getTime() + 1L));
+    }
+
+    private static boolean isIntent(NTLockDTO lockDTO) {
+        return INTENT_OWN_HOST.equals(lockDTO.getOwnHost());
+    }
+
+    private static String makeKey(String poolName, String lockName, long ownId) {
+        return poolName + "/" + lockName + "/" + ownId;
+    }
+
+    private void checkPool(String poolName) {
+        if (poolName == null || poolName.isEmpty() || poolName.length() > NTLock.MAX_POOL_LENGTH) {
+            throw new IllegalArgumentException("锁分组参数非法(" + NTLock.MAX_POOL_LENGTH + ")");
+        }
+    }
+
+    private void checkName(String lockName) {
+        if (lockName == null || lockName.isEmpty() || lockName.length() > NTLock.MAX_NAME_LENGTH || POOL_LOCK_NAME.equals(lockName)) {
+            throw new IllegalArgumentException("锁名称参数非法(" + NTLock.MAX_NAME_LENGTH + ")");
+        }
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public int getIntentRetryTimes() {
+        return intentRetryTimes;
+    }
+
+    public void setIntentRetryTimes(int intentRetryTimes) {
+        if (intentRetryTimes <= 0) {
+            throw new IllegalArgumentException("意向冲突重试次数参数非法(" + intentRetryTimes + ")");
+        }
+
+        this.intentRetryTimes = intentRetryTimes;
+    }
+}
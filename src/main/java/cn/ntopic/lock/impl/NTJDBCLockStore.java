@@ -0,0 +1,837 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.utils.NTJDBCUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * JDBC锁存储：锁数据保存在数据表中，JDBC支持的数据库均可使用
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTJDBCLockStore implements NTLockStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTJDBCLockStore.class);
+
+    /**
+     * 新增锁SQL
+     */
+    private static final String INSERT_SQL = "INSERT INTO %s (pool,name,own_host,own_ip,own_id,expire,size,times,modify) VALUES (?,?,?,?,?,?,?,?,?)";
+
+    /**
+     * 延长锁定SQL
+     */
+    private static final String UPDATE_EXPIRE_SQL = "UPDATE %s SET expire=?,times=times+1,modify=? WHERE pool=? AND name=? AND own_host=? AND own_ip=? AND own_id=? AND expire=?";
+
+    /**
+     * 抢占锁SQL
+     */
+    private static final String UPDATE_TAKEN_SQL = "UPDATE %s SET own_host=?,own_ip=?,own_id=?,expire=?,times=1,modify=? WHERE pool=? AND name=? AND own_host=? AND own_ip=? AND own_id=? AND expire=?";
+
+    /**
+     * 属性-数据源
+     */
+    private final DataSource ntDataSource;
+
+    /**
+     * 属性-数据表名
+     */
+    private String tableName = "nt_lock";
+
+    /**
+     * 属性-流式遍历每批获取数量（MySQL需要开启`useCursorFetch=true`才能按批获取）
+     */
+    private int scanFetchSize = 500;
+
+    /**
+     * 属性-带截止时间获取连接的最大线程数，线程已满时获取连接直接超时（超时未归还的获取连接请求会占用线程）
+     */
+    private int borrowMaxThreads = 16;
+
+    /**
+     * 数据库方言（首次获取连接时检测）
+     */
+    private volatile NTLockDialect dialect;
+
+    /**
+     * 驱动批量执行不返回更新数量（`SUCCESS_NO_INFO`），批量释放改为逐个删除
+     */
+    private volatile boolean batchNoInfo;
+
+    /**
+     * 带截止时间获取连接的线程池（按需创建，线程数有上限）
+     */
+    private volatile ExecutorService borrowExecutor;
+
+    /**
+     * CTOR-构建JDBC锁存储
+     */
+    public NTJDBCLockStore(DataSource ntDataSource) {
+        if (ntDataSource == null) {
+            throw new IllegalArgumentException("锁数据源为NULL.");
+        }
+
+        this.ntDataSource = ntDataSource;
+    }
+
+    @Override
+    public void createTable() {
+        Connection conn = null;
+        try {
+            conn = this.ntDataSource.getConnection();
+
+            // 1. 检测数据表是否存在
+            ResultSet rs = null;
+            try {
+                rs = conn.getMetaData().getTables(null, null, this.tableName, null);
+                if (rs.next()) {
+                    LOGGER.info("锁数据表存在-无需创建[{}].", this.tableName);
+                    return;
+                }
+            } finally {
+                NTJDBCUtils.closeQuietly(rs);
+            }
+
+            // 2. 创建数据表
+            PreparedStatement stmt = null;
+            try {
+                StringBuilder createSQL = new StringBuilder();
+                createSQL.append(String.format("CREATE TABLE %s", this.tableName));
+                createSQL.append("(");
+                createSQL.append("pool      VARCHAR(64) NOT NULL DEFAULT 'DEFAULT',");
+                createSQL.append("name      VARCHAR(64) NOT NULL,");
+                createSQL.append("own_host  VARCHAR(64) NOT NULL,");
+                createSQL.append("own_ip    VARCHAR(64) NOT NULL,");
+                createSQL.append("own_id    BIGINT      NOT NULL,");
+                createSQL.append("expire    VARCHAR(32) NOT NULL,");
+                createSQL.append("size      INT         NOT NULL DEFAULT 1,");
+                createSQL.append("times     INT         NOT NULL DEFAULT 1,");
+                createSQL.append("modify    VARCHAR(32) NOT NULL,");
+                createSQL.append("PRIMARY KEY (pool, name)");
+                createSQL.append(")");
+
+                String createTableSQL = createSQL.toString();
+                LOGGER.info("锁数据表建表SQL:{}", createTableSQL);
+
+                stmt = conn.prepareStatement(createTableSQL);
+                stmt.executeUpdate();
+                LOGGER.info("创建锁数据表成功[{}].", this.tableName);
+            } finally {
+                NTJDBCUtils.closeQuietly(stmt);
+            }
+        } catch (Throwable e) {
+            LOGGER.error("检测锁数据表是否存在异常，请求人工创建锁数据表[{}].", this.tableName, e);
+            throw new RuntimeException("检测锁数据表是否存在异常，请求人工创建锁数据表(" + this.tableName + ")", e);
+        } finally {
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    @Override
+    public NTLockStoreSession openSession(NTLockDeadline deadline) throws SQLException {
+        Connection conn = this.getConnection(deadline);
+
+        boolean autoCommit;
+        try {
+            autoCommit = conn.getAutoCommit();
+            if (!autoCommit) {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            NTJDBCUtils.closeQuietly(conn);
+            throw e;
+        }
+
+        // 方言检测
+        this.fetchDialect(conn);
+
+        return new NTJDBCLockSession(conn, autoCommit, deadline);
+    }
+
+    @Override
+    public Optional<NTLockDTO> select(NTLockStoreSession session, String pool, String name) throws SQLException {
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            String selectSQL = String.format("SELECT * FROM %s WHERE pool=? AND name=?", this.tableName);
+            stmt = this.prepareStatement(session, selectSQL);
+            stmt.setString(1, pool);
+            stmt.setString(2, name);
+
+            rs = stmt.executeQuery();
+
+            return this.makeLockDTO(rs);
+        } finally {
+            NTJDBCUtils.closeQuietly(rs);
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean insert(NTLockStoreSession session, NTLockDTO newLockDTO) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = this.prepareStatement(session, String.format(INSERT_SQL, this.tableName));
+            this.bindInsert(stmt, newLockDTO);
+
+            stmt.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            // 主键冲突：并发新增
+            if (this.classify(e) == NTLockErrorType.DUPLICATE_KEY) {
+                return false;
+            }
+
+            throw e;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean updateExpire(NTLockStoreSession session, NTLockDTO newLockDTO, NTLockDTO existLockDTO) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = this.prepareStatement(session, String.format(UPDATE_EXPIRE_SQL, this.tableName));
+            this.bindUpdate(stmt, newLockDTO, existLockDTO, false);
+
+            boolean update = stmt.executeUpdate() >= 1;
+            if (update) {
+                newLockDTO.setTimes(newLockDTO.getTimes() + 1);
+            }
+
+            return update;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean updateTaken(NTLockStoreSession session, NTLockDTO newLockDTO, NTLockDTO existLockDTO) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = this.prepareStatement(session, String.format(UPDATE_TAKEN_SQL, this.tableName));
+            this.bindUpdate(stmt, newLockDTO, existLockDTO, true);
+
+            boolean update = stmt.executeUpdate() >= 1;
+            if (update) {
+                newLockDTO.setTimes(newLockDTO.getTimes() + 1);
+            }
+
+            return update;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public Map<String, NTLockDTO> selectBatch(NTLockStoreSession session, List<NTLockDTO> lockDTOs) throws SQLException {
+        Map<String, NTLockDTO> existLockDTOs = new HashMap<>();
+        if (lockDTOs.isEmpty()) {
+            return existLockDTOs;
+        }
+
+        // 1条SQL查询全部锁记录：WHERE (pool=? AND name=?) OR (pool=? AND name=?) ...
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            StringBuilder selectSQL = new StringBuilder(String.format("SELECT * FROM %s WHERE ", this.tableName));
+            for (int i = 0; i < lockDTOs.size(); i++) {
+                selectSQL.append(i == 0 ? "(pool=? AND name=?)" : " OR (pool=? AND name=?)");
+            }
+
+            stmt = this.prepareStatement(session, selectSQL.toString());
+            for (int i = 0; i < lockDTOs.size(); i++) {
+                stmt.setString(2 * i + 1, lockDTOs.get(i).getPool());
+                stmt.setString(2 * i + 2, lockDTOs.get(i).getName());
+            }
+
+            rs = stmt.executeQuery();
+            for (Optional<NTLockDTO> optLockDTO = this.makeLockDTO(rs); optLockDTO.isPresent(); optLockDTO = this.makeLockDTO(rs)) {
+                NTLockDTO existLockDTO = optLockDTO.get();
+                existLockDTOs.put(existLockDTO.getPool() + "/" + existLockDTO.getName(), existLockDTO);
+            }
+
+            return existLockDTOs;
+        } finally {
+            NTJDBCUtils.closeQuietly(rs);
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean[] insertBatch(NTLockStoreSession session, List<NTLockDTO> newLockDTOs) throws SQLException {
+        boolean[] results = new boolean[newLockDTOs.size()];
+        if (results.length == 0) {
+            return results;
+        }
+
+        PreparedStatement stmt = null;
+        try {
+            stmt = this.prepareStatement(session, String.format(INSERT_SQL, this.tableName));
+            for (NTLockDTO newLockDTO : newLockDTOs) {
+                this.bindInsert(stmt, newLockDTO);
+                stmt.addBatch();
+            }
+
+            int[] counts = stmt.executeBatch();
+            for (int i = 0; i < results.length; i++) {
+                results[i] = i < counts.length && counts[i] != Statement.EXECUTE_FAILED;
+            }
+
+            return results;
+        } catch (SQLException e) {
+            // 主键冲突：并发新增，其他异常直接抛出
+            if (this.classify(e) != NTLockErrorType.DUPLICATE_KEY) {
+                throw e;
+            }
+
+            // 驱动返回了执行结果的记录直接使用，其余记录（驱动在第1条失败后停止执行，或者未返回执行结果）逐个确认
+            int[] counts = e instanceof BatchUpdateException && ((BatchUpdateException) e).getUpdateCounts() != null
+                    ? ((BatchUpdateException) e).getUpdateCounts() : new int[0];
+            for (int i = 0; i < results.length; i++) {
+                if (i < counts.length) {
+                    results[i] = counts[i] != Statement.EXECUTE_FAILED;
+                } else {
+                    results[i] = this.confirmInsert(session, newLockDTOs.get(i));
+                }
+            }
+
+            return results;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean[] updateBatch(NTLockStoreSession session, List<NTLockDTO> newLockDTOs, List<NTLockDTO> existLockDTOs, boolean taken) throws SQLException {
+        boolean[] results = new boolean[newLockDTOs.size()];
+        if (results.length == 0) {
+            return results;
+        }
+
+        int[] counts;
+        PreparedStatement stmt = null;
+        try {
+            stmt = this.prepareStatement(session, String.format(taken ? UPDATE_TAKEN_SQL : UPDATE_EXPIRE_SQL, this.tableName));
+            for (int i = 0; i < results.length; i++) {
+                this.bindUpdate(stmt, newLockDTOs.get(i), existLockDTOs.get(i), taken);
+                stmt.addBatch();
+            }
+
+            counts = stmt.executeBatch();
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+
+        for (int i = 0; i < results.length; i++) {
+            NTLockDTO newLockDTO = newLockDTOs.get(i);
+            if (i < counts.length && counts[i] == Statement.SUCCESS_NO_INFO) {
+                // 驱动未返回更新数量，查询确认
+                results[i] = this.isStored(this.select(session, newLockDTO.getPool(), newLockDTO.getName()), newLockDTO);
+            } else {
+                results[i] = i < counts.length && counts[i] >= 1;
+            }
+
+            if (results[i]) {
+                newLockDTO.setTimes(newLockDTO.getTimes() + 1);
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public boolean updateAcquire(NTLockStoreSession session, NTLockDTO newLockDTO, String now) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            String updateSQL = String.format("UPDATE %s SET own_host=?,own_ip=?,own_id=?,expire=?,times=1,modify=? WHERE pool=? AND name=? AND own_host=? AND own_ip=? AND own_id=? AND expire<=?", this.tableName);
+            stmt = this.prepareStatement(session, updateSQL);
+
+            stmt.setString(1, newLockDTO.getOwnHost());
+            stmt.setString(2, newLockDTO.getOwnIp());
+            stmt.setLong(3, newLockDTO.getOwnId());
+            stmt.setString(4, newLockDTO.getExpire());
+            stmt.setString(5, newLockDTO.getModify());
+            stmt.setString(6, newLockDTO.getPool());
+            stmt.setString(7, newLockDTO.getName());
+            stmt.setString(8, FREE_OWN_HOST);
+            stmt.setString(9, FREE_OWN_IP);
+            stmt.setLong(10, FREE_OWN_ID);
+            stmt.setString(11, now);
+
+            boolean update = stmt.executeUpdate() >= 1;
+            if (update) {
+                newLockDTO.setTimes(newLockDTO.getTimes() + 1);
+            }
+
+            return update;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean updateRelease(NTLockStoreSession session, NTLockDTO lockDTO, String expire, String modify) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            String updateSQL = String.format("UPDATE %s SET expire=?,modify=? WHERE pool=? AND name=? AND own_host=? AND own_ip=? AND own_id=?", this.tableName);
+            stmt = this.prepareStatement(session, updateSQL);
+
+            stmt.setString(1, expire);
+            stmt.setString(2, modify);
+            stmt.setString(3, lockDTO.getPool());
+            stmt.setString(4, lockDTO.getName());
+            stmt.setString(5, lockDTO.getOwnHost());
+            stmt.setString(6, lockDTO.getOwnIp());
+            stmt.setLong(7, lockDTO.getOwnId());
+
+            return stmt.executeUpdate() > 0;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean updateFree(NTLockStoreSession session, NTLockDTO lockDTO, String expire, String modify) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            String updateSQL = String.format("UPDATE %s SET own_host=?,own_ip=?,own_id=?,expire=?,modify=? WHERE pool=? AND name=? AND own_host=? AND own_ip=? AND own_id=?", this.tableName);
+            stmt = this.prepareStatement(session, updateSQL);
+
+            stmt.setString(1, FREE_OWN_HOST);
+            stmt.setString(2, FREE_OWN_IP);
+            stmt.setLong(3, FREE_OWN_ID);
+            stmt.setString(4, expire);
+            stmt.setString(5, modify);
+            stmt.setString(6, lockDTO.getPool());
+            stmt.setString(7, lockDTO.getName());
+            stmt.setString(8, lockDTO.getOwnHost());
+            stmt.setString(9, lockDTO.getOwnIp());
+            stmt.setLong(10, lockDTO.getOwnId());
+
+            return stmt.executeUpdate() > 0;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean delete(NTLockStoreSession session, NTLockDTO lockDTO) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            String deleteSQL = String.format("DELETE FROM %s WHERE pool=? AND name=? AND own_host=? AND own_ip=? AND own_id=?", this.tableName);
+            stmt = this.prepareStatement(session, deleteSQL);
+
+            stmt.setString(1, lockDTO.getPool());
+            stmt.setString(2, lockDTO.getName());
+            stmt.setString(3, lockDTO.getOwnHost());
+            stmt.setString(4, lockDTO.getOwnIp());
+            stmt.setLong(5, lockDTO.getOwnId());
+
+            return stmt.executeUpdate() > 0;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    @Override
+    public boolean[] deleteBatch(NTLockStoreSession session, List<NTLockDTO> lockDTOs) throws SQLException {
+        // 驱动不返回删除数量，逐个删除才能确认每把锁的释放结果
+        if (this.batchNoInfo) {
+            return NTLockStore.super.deleteBatch(session, lockDTOs);
+        }
+
+        boolean[] results = new boolean[lockDTOs.size()];
+        if (results.length == 0) {
+            return results;
+        }
+
+        int[] counts;
+        PreparedStatement stmt = null;
+        try {
+            stmt = this.prepareStatement(session, String.format("DELETE FROM %s WHERE pool=? AND name=? AND own_host=? AND own_ip=? AND own_id=?", this.tableName));
+            for (NTLockDTO lockDTO : lockDTOs) {
+                stmt.setString(1, lockDTO.getPool());
+                stmt.setString(2, lockDTO.getName());
+                stmt.setString(3, lockDTO.getOwnHost());
+                stmt.setString(4, lockDTO.getOwnIp());
+                stmt.setLong(5, lockDTO.getOwnId());
+                stmt.addBatch();
+            }
+
+            counts = stmt.executeBatch();
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+
+        for (int i = 0; i < results.length; i++) {
+            if (i < counts.length && counts[i] == Statement.SUCCESS_NO_INFO) {
+                // 驱动未返回删除数量：删除结果未知，不做释放后处理（锁记录已删除或者过期后失效），后续改为逐个删除
+                if (!this.batchNoInfo) {
+                    this.batchNoInfo = true;
+                    LOGGER.info("数据库驱动批量执行不返回更新数量-批量释放改为逐个删除[{}].", this.tableName);
+                }
+
+                results[i] = false;
+            } else {
+                results[i] = i < counts.length && counts[i] >= 1;
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public int scan(String pool, Predicate<NTLockDTO> filter, Consumer<NTLockDTO> consumer) throws SQLException {
+        // 只读、只进游标，按批获取
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = this.ntDataSource.getConnection();
+
+            String selectSQL;
+            if (pool == null) {
+                selectSQL = String.format("SELECT * FROM %s", this.tableName);
+            } else {
+                selectSQL = String.format("SELECT * FROM %s WHERE pool=?", this.tableName);
+            }
+
+            stmt = conn.prepareStatement(selectSQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(this.scanFetchSize);
+            if (pool != null) {
+                stmt.setString(1, pool);
+            }
+
+            rs = stmt.executeQuery();
+
+            int count = 0;
+            for (Optional<NTLockDTO> optLockDTO = this.makeLockDTO(rs); optLockDTO.isPresent(); optLockDTO = this.makeLockDTO(rs)) {
+                NTLockDTO lockDTO = optLockDTO.get();
+                if (filter == null || filter.test(lockDTO)) {
+                    consumer.accept(lockDTO);
+                    count++;
+                }
+            }
+
+            return count;
+        } finally {
+            NTJDBCUtils.closeQuietly(rs);
+            NTJDBCUtils.closeQuietly(stmt);
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    @Override
+    public int clean(String expire) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        boolean autoCommit = true;
+        try {
+            // 数据库连接
+            conn = this.ntDataSource.getConnection();
+            autoCommit = conn.getAutoCommit();
+
+            if (!autoCommit) {
+                conn.setAutoCommit(true);
+            }
+
+            // 清理数据记录
+            String deleteSQL = String.format("DELETE FROM %s WHERE expire<=?", this.tableName);
+            stmt = conn.prepareStatement(deleteSQL);
+
+            stmt.setString(1, expire);
+            return stmt.executeUpdate();
+        } finally {
+            if (!autoCommit) {
+                NTJDBCUtils.closeAutoCommit(conn);
+            }
+
+            NTJDBCUtils.closeQuietly(stmt);
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    @Override
+    public NTLockErrorType classify(Throwable e) {
+        NTLockDialect ntDialect = this.dialect;
+        return (ntDialect == null ? NTLockDialect.GENERIC : ntDialect).classify(e);
+    }
+
+    /**
+     * 获取数据库方言（首次根据连接元数据检测）
+     */
+    private NTLockDialect fetchDialect(Connection conn) {
+        NTLockDialect ntDialect = this.dialect;
+        if (ntDialect != null) {
+            return ntDialect;
+        }
+
+        try {
+            ntDialect = NTLockDialect.of(conn.getMetaData().getDatabaseProductName());
+            this.dialect = ntDialect;
+            return ntDialect;
+        } catch (Throwable e) {
+            LOGGER.warn("检测数据库方言异常[{}].", e.getMessage());
+            return NTLockDialect.GENERIC;
+        }
+    }
+
+    /**
+     * 获取数据库连接，有截止时间时在剩余时间内等待连接
+     *
+     * @throws SQLTimeoutException 获取连接超时，或者获取连接线程已满
+     */
+    private Connection getConnection(NTLockDeadline deadline) throws SQLException {
+        if (deadline == null) {
+            return this.ntDataSource.getConnection();
+        }
+
+        long remainingMillis = deadline.remainingMillis();
+        if (remainingMillis <= 0L) {
+            throw new SQLTimeoutException("获取数据库连接前已超过截止时间");
+        }
+
+        CompletableFuture<Connection> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return this.ntDataSource.getConnection();
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            }, this.fetchBorrowExecutor());
+        } catch (RejectedExecutionException e) {
+            throw new SQLTimeoutException("获取数据库连接线程已满(" + this.borrowMaxThreads + ")", e);
+        }
+
+        try {
+            return future.get(remainingMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 超时后获取到的连接直接归还
+            future.whenComplete((conn, error) -> NTJDBCUtils.closeQuietly(conn));
+            throw new SQLTimeoutException("获取数据库连接超时(" + remainingMillis + "ms)");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.whenComplete((conn, error) -> NTJDBCUtils.closeQuietly(conn));
+            throw new SQLTimeoutException("获取数据库连接被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+
+            throw new SQLException("获取数据库连接异常", e.getCause());
+        }
+    }
+
+    /**
+     * 获取连接线程池（按需创建）：线程数上限为`borrowMaxThreads`，不排队，线程已满时拒绝
+     */
+    private ExecutorService fetchBorrowExecutor() {
+        if (this.borrowExecutor == null) {
+            synchronized (this) {
+                if (this.borrowExecutor == null) {
+                    this.borrowExecutor = new ThreadPoolExecutor(0, this.borrowMaxThreads, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "NTLockBorrowThread");
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.AbortPolicy());
+                }
+            }
+        }
+
+        return this.borrowExecutor;
+    }
+
+    /**
+     * 创建SQL语句，有截止时间时设置剩余查询超时时间
+     * <p>
+     * 查询超时精度为秒（向上取整，最小1秒），SQL执行最多可能超过截止时间1秒
+     *
+     * @throws SQLTimeoutException 已超过截止时间
+     */
+    protected PreparedStatement prepareStatement(NTLockStoreSession session, String sql) throws SQLException {
+        NTJDBCLockSession jdbcSession = (NTJDBCLockSession) session;
+        if (jdbcSession.deadline == null) {
+            return jdbcSession.conn.prepareStatement(sql);
+        }
+
+        int remainingSeconds = jdbcSession.deadline.checkRemainingSeconds();
+
+        PreparedStatement stmt = jdbcSession.conn.prepareStatement(sql);
+        stmt.setQueryTimeout(remainingSeconds);
+
+        return stmt;
+    }
+
+    /**
+     * 确认批量新增结果：锁记录已存在时比较持有者和过期时间，不存在时重新新增
+     */
+    private boolean confirmInsert(NTLockStoreSession session, NTLockDTO newLockDTO) throws SQLException {
+        Optional<NTLockDTO> optLockDTO = this.select(session, newLockDTO.getPool(), newLockDTO.getName());
+        if (!optLockDTO.isPresent()) {
+            return this.insert(session, newLockDTO);
+        }
+
+        return this.isStored(optLockDTO, newLockDTO);
+    }
+
+    /**
+     * 锁记录是否为指定持有者和过期时间
+     */
+    private boolean isStored(Optional<NTLockDTO> optLockDTO, NTLockDTO newLockDTO) {
+        return optLockDTO.isPresent() && optLockDTO.get().getOwnId() == newLockDTO.getOwnId()
+                && optLockDTO.get().getOwnHost().equals(newLockDTO.getOwnHost())
+                && optLockDTO.get().getOwnIp().equals(newLockDTO.getOwnIp())
+                && optLockDTO.get().getExpire().equals(newLockDTO.getExpire());
+    }
+
+    /**
+     * 设置新增锁SQL参数
+     */
+    private void bindInsert(PreparedStatement stmt, NTLockDTO newLockDTO) throws SQLException {
+        stmt.setString(1, newLockDTO.getPool());
+        stmt.setString(2, newLockDTO.getName());
+        stmt.setString(3, newLockDTO.getOwnHost());
+        stmt.setString(4, newLockDTO.getOwnIp());
+        stmt.setLong(5, newLockDTO.getOwnId());
+        stmt.setString(6, newLockDTO.getExpire());
+        stmt.setInt(7, newLockDTO.getSize());
+        stmt.setInt(8, newLockDTO.getTimes());
+        stmt.setString(9, newLockDTO.getModify());
+    }
+
+    /**
+     * 设置抢占锁或者延长锁定SQL参数
+     */
+    private void bindUpdate(PreparedStatement stmt, NTLockDTO newLockDTO, NTLockDTO existLockDTO, boolean taken) throws SQLException {
+        int index = 1;
+        if (taken) {
+            stmt.setString(index++, newLockDTO.getOwnHost());
+            stmt.setString(index++, newLockDTO.getOwnIp());
+            stmt.setLong(index++, newLockDTO.getOwnId());
+        }
+
+        stmt.setString(index++, newLockDTO.getExpire());
+        stmt.setString(index++, newLockDTO.getModify());
+        stmt.setString(index++, newLockDTO.getPool());
+        stmt.setString(index++, newLockDTO.getName());
+        stmt.setString(index++, existLockDTO.getOwnHost());
+        stmt.setString(index++, existLockDTO.getOwnIp());
+        stmt.setLong(index++, existLockDTO.getOwnId());
+        stmt.setString(index, existLockDTO.getExpire());
+    }
+
+    /**
+     * 构建锁对象
+     */
+    private Optional<NTLockDTO> makeLockDTO(ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            return Optional.empty();
+        }
+
+        // 组装锁对象
+        NTLockDTO lockDTO = new NTLockDTO(rs.getString("pool"), rs.getString("name")
+                , rs.getString("own_host"), rs.getString("own_ip"), rs.getLong("own_id"), rs.getString("expire"));
+        lockDTO.setSize(rs.getInt("size"));
+        lockDTO.setTimes(rs.getInt("times"));
+        lockDTO.setModify(rs.getString("modify"));
+
+        return Optional.of(lockDTO);
+    }
+
+    /**
+     * JDBC会话：同一数据库连接
+     */
+    private static class NTJDBCLockSession implements NTLockStoreSession {
+        private final Connection conn;
+        private final boolean autoCommit;
+        private final NTLockDeadline deadline;
+
+        public NTJDBCLockSession(Connection conn, boolean autoCommit, NTLockDeadline deadline) {
+            this.conn = conn;
+            this.autoCommit = autoCommit;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void close() {
+            if (!this.autoCommit) {
+                NTJDBCUtils.closeAutoCommit(this.conn);
+            }
+
+            NTJDBCUtils.closeQuietly(this.conn);
+        }
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public DataSource getDataSource() {
+        return ntDataSource;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        if (tableName == null || tableName.isEmpty()) {
+            throw new IllegalArgumentException("锁数据表名参数非法(" + tableName + ")");
+        }
+
+        this.tableName = tableName;
+    }
+
+    public int getScanFetchSize() {
+        return scanFetchSize;
+    }
+
+    public void setScanFetchSize(int scanFetchSize) {
+        if (scanFetchSize <= 0) {
+            throw new IllegalArgumentException("流式遍历每批数量参数非法(" + scanFetchSize + ")");
+        }
+
+        this.scanFetchSize = scanFetchSize;
+    }
+
+    public int getBorrowMaxThreads() {
+        return borrowMaxThreads;
+    }
+
+    public void setBorrowMaxThreads(int borrowMaxThreads) {
+        if (borrowMaxThreads <= 0) {
+            throw new IllegalArgumentException("获取连接最大线程数参数非法(" + borrowMaxThreads + ")");
+        }
+
+        this.borrowMaxThreads = borrowMaxThreads;
+    }
+}
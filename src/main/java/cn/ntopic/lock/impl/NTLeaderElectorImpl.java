@@ -0,0 +1,302 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.NTLeaderElector;
+import cn.ntopic.lock.NTLeaderListener;
+import cn.ntopic.lock.NTLock;
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式选主服务实现：
+ * 1. 主节点按续约间隔延长同一条锁记录
+ * 2. 从节点只查询锁记录，按主节点租约过期时间对齐休眠，过期后才尝试抢占，选主流量不随候选节点数量增长
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTLeaderElectorImpl implements NTLeaderElector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTLeaderElectorImpl.class);
+
+    /**
+     * 锁服务
+     */
+    private final NTLockImpl ntLock;
+
+    /**
+     * 选主名称（即锁名称）
+     */
+    private final String name;
+
+    /**
+     * 属性-主节点租约时间（毫秒）
+     */
+    private long leaseTime = 30000L;
+
+    /**
+     * 属性-主节点续约间隔（毫秒），需小于租约时间
+     */
+    private long renewInterval = 10000L;
+
+    /**
+     * 属性-从节点最大检测间隔（毫秒）
+     */
+    private long maxCheckInterval = 60000L;
+
+    /**
+     * 监听器
+     */
+    private final List<NTLeaderListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 是否为主节点
+     */
+    private volatile boolean leader = false;
+
+    /**
+     * 本地租约过期时间（毫秒），以续约开始时间计算，保证不晚于数据表中的过期时间
+     */
+    private volatile long leaseExpireMillis = 0L;
+
+    /**
+     * 选主线程
+     */
+    private volatile NTLeaderThread leaderThread;
+
+    /**
+     * CTOR-构建选主组件
+     */
+    public NTLeaderElectorImpl(NTLockImpl ntLock, String name) {
+        if (ntLock == null) {
+            throw new IllegalArgumentException("锁服务参数为NULL.");
+        }
+
+        if (name == null || name.isEmpty() || name.length() > NTLock.MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("选主名称参数非法(" + NTLock.MAX_NAME_LENGTH + ")");
+        }
+
+        this.ntLock = ntLock;
+        this.name = name;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (this.leaderThread != null) {
+            return;
+        }
+
+        if (this.renewInterval >= this.leaseTime) {
+            throw new IllegalArgumentException(String.format("续约间隔(%s)需小于租约时间(%s)", this.renewInterval, this.leaseTime));
+        }
+
+        this.leaderThread = new NTLeaderThread();
+        this.leaderThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        NTLeaderThread thread = this.leaderThread;
+        if (thread == null) {
+            return;
+        }
+
+        this.leaderThread = null;
+        thread.running = false;
+        thread.interrupt();
+
+        try {
+            thread.join(this.renewInterval);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isLeader() {
+        return this.leader && System.currentTimeMillis() < this.leaseExpireMillis;
+    }
+
+    @Override
+    public void addListener(NTLeaderListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("选主监听器参数为NULL.");
+        }
+
+        this.listeners.add(listener);
+    }
+
+    /**
+     * 尝试抢占或者续约，返回下次检测前的休眠时间（毫秒）
+     */
+    private long elect() {
+        final long start = System.currentTimeMillis();
+
+        // 1. 从节点：主节点租约未过期，则休眠至过期时间
+        if (!this.leader) {
+            Optional<NTLockDTO> optOwner = this.ntLock.getOwner(NTLock.DEFAULT_POOL, this.name);
+            if (optOwner.isPresent()) {
+                long expireMillis = optOwner.get().fetchExpireTime().getTime();
+                return Math.max(1L, Math.min(expireMillis - start + 1L, this.maxCheckInterval));
+            }
+        }
+
+        // 2. 抢占或者续约，操作截止时间为续约间隔
+        NTLockResult result = this.ntLock.lock(this.name, (int) this.leaseTime, TimeUnit.MILLISECONDS, this.renewInterval);
+        if (result.isSuccess()) {
+            this.leaseExpireMillis = start + this.leaseTime;
+            if (!this.leader) {
+                this.leader = true;
+                LOGGER.info("[{}]选主成功-成为主节点.", this.name);
+                this.fireElected();
+            }
+
+            return this.renewInterval;
+        }
+
+        // 3. 续约超时，在本地租约过期前继续续约
+        if (this.leader && result.isTimeout() && System.currentTimeMillis() < this.leaseExpireMillis) {
+            LOGGER.warn("[{}]主节点续约超时-稍后重试[{}].", this.name, result.getMessage());
+            return Math.max(1L, Math.min(this.renewInterval, this.leaseExpireMillis - System.currentTimeMillis()) / 2L);
+        }
+
+        // 4. 抢占失败或者失去主节点身份
+        this.revoke(result.getMessage());
+        return this.renewInterval;
+    }
+
+    /**
+     * 失去主节点身份
+     */
+    private void revoke(String message) {
+        if (this.leader) {
+            this.leader = false;
+            this.leaseExpireMillis = 0L;
+            LOGGER.warn("[{}]失去主节点身份[{}].", this.name, message);
+            this.fireRevoked();
+        }
+    }
+
+    /**
+     * 通知成为主节点
+     */
+    private void fireElected() {
+        for (NTLeaderListener listener : this.listeners) {
+            try {
+                listener.onElected(this.name);
+            } catch (Throwable e) {
+                LOGGER.error("[{}]选主监听器回调异常-{}.", this.name, listener, e);
+            }
+        }
+    }
+
+    /**
+     * 通知失去主节点身份
+     */
+    private void fireRevoked() {
+        for (NTLeaderListener listener : this.listeners) {
+            try {
+                listener.onRevoked(this.name);
+            } catch (Throwable e) {
+                LOGGER.error("[{}]选主监听器回调异常-{}.", this.name, listener, e);
+            }
+        }
+    }
+
+    /**
+     * 选主线程：抢占、续约和释放都在同一线程执行，保证锁持有者一致
+     */
+    private class NTLeaderThread extends Thread {
+        /**
+         * 运行标记
+         */
+        private volatile boolean running = true;
+
+        public NTLeaderThread() {
+            super("NTLeaderThread-" + NTLeaderElectorImpl.this.name);
+            this.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (this.running) {
+                long sleepMillis = renewInterval;
+                try {
+                    sleepMillis = elect();
+                } catch (Throwable e) {
+                    LOGGER.error("[{}]选主异常.", name, e);
+                    if (!isLeader()) {
+                        revoke(e.getMessage());
+                    }
+                }
+
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    // 停止选主
+                }
+            }
+
+            // 停止选主：释放主节点身份
+            if (leader) {
+                try {
+                    ntLock.release(name);
+                } catch (Throwable e) {
+                    LOGGER.warn("[{}]停止选主释放锁异常[{}].", name, e.getMessage());
+                }
+
+                revoke("停止选主");
+            }
+        }
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public String getName() {
+        return name;
+    }
+
+    public long getLeaseTime() {
+        return leaseTime;
+    }
+
+    public void setLeaseTime(long leaseTime) {
+        if (leaseTime <= 0L || leaseTime > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("主节点租约时间参数非法(" + leaseTime + ")");
+        }
+
+        this.leaseTime = leaseTime;
+    }
+
+    public long getRenewInterval() {
+        return renewInterval;
+    }
+
+    public void setRenewInterval(long renewInterval) {
+        if (renewInterval <= 0L) {
+            throw new IllegalArgumentException("主节点续约间隔参数非法(" + renewInterval + ")");
+        }
+
+        this.renewInterval = renewInterval;
+    }
+
+    public long getMaxCheckInterval() {
+        return maxCheckInterval;
+    }
+
+    public void setMaxCheckInterval(long maxCheckInterval) {
+        if (maxCheckInterval <= 0L) {
+            throw new IllegalArgumentException("从节点最大检测间隔参数非法(" + maxCheckInterval + ")");
+        }
+
+        this.maxCheckInterval = maxCheckInterval;
+    }
+}
@@ -0,0 +1,393 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.model.NTLockAuditEvent;
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.utils.NTDateUtils;
+import cn.ntopic.lock.utils.NTJDBCUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 锁审计：抢锁线程只把审计事件放入有界环形缓冲区，后台写入线程按批次写入审计数据表，审计不占用抢锁耗时；
+ * 缓冲区满时按策略丢弃事件或者阻塞抢锁线程
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTLockAuditor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTLockAuditor.class);
+
+    /**
+     * 属性-数据源
+     */
+    private final DataSource ntDataSource;
+
+    /**
+     * 属性-数据表名
+     */
+    private String tableName = "nt_lock_history";
+
+    /**
+     * 属性-缓冲区容量（事件数量）
+     */
+    private int bufferSize = 8192;
+
+    /**
+     * 属性-每批写入事件数量
+     */
+    private int batchSize = 256;
+
+    /**
+     * 属性-写入间隔（毫秒），缓冲区事件不足1批时最长等待时间
+     */
+    private long flushInterval = 1000L;
+
+    /**
+     * 属性-停止时等待写入剩余事件的最长时间（毫秒）
+     */
+    private long stopTimeout = 5000L;
+
+    /**
+     * 属性-缓冲区满时的策略
+     */
+    private NTAuditPolicy policy = NTAuditPolicy.DROP;
+
+    /**
+     * 事件缓冲区（启动后创建）
+     */
+    private volatile ArrayBlockingQueue<NTLockAuditEvent> buffer;
+
+    /**
+     * 写入线程
+     */
+    private volatile NTAuditThread auditThread;
+
+    /**
+     * 统计：已写入事件数量
+     */
+    private final AtomicLong written = new AtomicLong();
+
+    /**
+     * 统计：丢弃事件数量（缓冲区满、未启动或者写入异常）
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * CTOR-构建锁审计组件
+     */
+    public NTLockAuditor(DataSource ntDataSource) {
+        if (ntDataSource == null) {
+            throw new IllegalArgumentException("锁审计数据源为NULL.");
+        }
+
+        this.ntDataSource = ntDataSource;
+    }
+
+    /**
+     * 尝试创建数据表
+     */
+    public void createTable() {
+        Connection conn = null;
+        try {
+            conn = this.ntDataSource.getConnection();
+
+            // 1. 检测数据表是否存在
+            ResultSet rs = null;
+            try {
+                rs = conn.getMetaData().getTables(null, null, this.tableName, null);
+                if (rs.next()) {
+                    LOGGER.info("锁审计数据表存在-无需创建[{}].", this.tableName);
+                    return;
+                }
+            } finally {
+                NTJDBCUtils.closeQuietly(rs);
+            }
+
+            // 2. 创建数据表
+            PreparedStatement stmt = null;
+            try {
+                StringBuilder createSQL = new StringBuilder();
+                createSQL.append(String.format("CREATE TABLE %s", this.tableName));
+                createSQL.append("(");
+                createSQL.append("action      VARCHAR(16) NOT NULL,");
+                createSQL.append("pool        VARCHAR(64) NOT NULL,");
+                createSQL.append("name        VARCHAR(64) NOT NULL,");
+                createSQL.append("own_host    VARCHAR(64) NOT NULL,");
+                createSQL.append("own_ip      VARCHAR(64) NOT NULL,");
+                createSQL.append("own_id      BIGINT      NOT NULL,");
+                createSQL.append("expire      VARCHAR(32) NOT NULL,");
+                createSQL.append("event_time  VARCHAR(32) NOT NULL");
+                createSQL.append(")");
+
+                String createTableSQL = createSQL.toString();
+                LOGGER.info("锁审计数据表建表SQL:{}", createTableSQL);
+
+                stmt = conn.prepareStatement(createTableSQL);
+                stmt.executeUpdate();
+                LOGGER.info("创建锁审计数据表成功[{}].", this.tableName);
+            } finally {
+                NTJDBCUtils.closeQuietly(stmt);
+            }
+        } catch (Throwable e) {
+            LOGGER.error("检测锁审计数据表是否存在异常，请求人工创建锁审计数据表[{}].", this.tableName, e);
+            throw new RuntimeException("检测锁审计数据表是否存在异常，请求人工创建锁审计数据表(" + this.tableName + ")", e);
+        } finally {
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    /**
+     * 启动写入线程
+     */
+    public synchronized void start() {
+        if (this.auditThread != null) {
+            return;
+        }
+
+        this.buffer = new ArrayBlockingQueue<>(this.bufferSize);
+        this.auditThread = new NTAuditThread(this.buffer);
+        this.auditThread.start();
+    }
+
+    /**
+     * 停止写入线程，在停止等待时间内写入缓冲区剩余事件（停止等待时间应大于写入间隔）
+     */
+    public synchronized void stop() {
+        NTAuditThread thread = this.auditThread;
+        if (thread == null) {
+            return;
+        }
+
+        this.auditThread = null;
+        this.buffer = null;
+        // 不中断写入线程（JDBC驱动可能因中断而放弃写入），写入线程最长等待1个写入间隔后退出
+        thread.running = false;
+
+        try {
+            thread.join(this.stopTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 记录审计事件：放入缓冲区，缓冲区满时按策略丢弃或者阻塞等待
+     */
+    public void record(NTLockAuditEvent.NTAuditAction action, NTLockDTO lockDTO) {
+        ArrayBlockingQueue<NTLockAuditEvent> theBuffer = this.buffer;
+        if (theBuffer == null) {
+            this.dropped.incrementAndGet();
+            return;
+        }
+
+        NTLockAuditEvent event = new NTLockAuditEvent(action, lockDTO, System.currentTimeMillis());
+        if (theBuffer.offer(event)) {
+            return;
+        }
+
+        if (this.policy == NTAuditPolicy.BLOCK) {
+            try {
+                theBuffer.put(event);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        this.dropped.incrementAndGet();
+    }
+
+    /**
+     * 批量写入审计事件
+     */
+    private void write(List<NTLockAuditEvent> events) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = this.ntDataSource.getConnection();
+
+            String insertSQL = String.format("INSERT INTO %s (action,pool,name,own_host,own_ip,own_id,expire,event_time) VALUES (?,?,?,?,?,?,?,?)", this.tableName);
+            stmt = conn.prepareStatement(insertSQL);
+            for (NTLockAuditEvent event : events) {
+                NTLockDTO lockDTO = event.getLockDTO();
+                stmt.setString(1, event.getAction().name());
+                stmt.setString(2, lockDTO.getPool());
+                stmt.setString(3, lockDTO.getName());
+                stmt.setString(4, lockDTO.getOwnHost());
+                stmt.setString(5, lockDTO.getOwnIp());
+                stmt.setLong(6, lockDTO.getOwnId());
+                stmt.setString(7, lockDTO.getExpire());
+                stmt.setString(8, NTDateUtils.format(new Date(event.getEventTime())));
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+            this.written.addAndGet(events.size());
+        } catch (Throwable e) {
+            LOGGER.warn("锁审计事件写入异常-丢弃{}个[{}].", events.size(), e.getMessage());
+            this.dropped.addAndGet(events.size());
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    /**
+     * 缓冲区满时的策略
+     */
+    public enum NTAuditPolicy {
+        /**
+         * 丢弃新事件，抢锁线程不等待
+         */
+        DROP,
+
+        /**
+         * 阻塞抢锁线程，直到缓冲区有空位
+         */
+        BLOCK,
+        ;
+    }
+
+    /**
+     * 写入线程：等待1批事件或者写入间隔到期后批量写入，停止时写入剩余事件
+     */
+    private class NTAuditThread extends Thread {
+        /**
+         * 运行标记
+         */
+        private volatile boolean running = true;
+
+        /**
+         * 事件缓冲区
+         */
+        private final ArrayBlockingQueue<NTLockAuditEvent> events;
+
+        public NTAuditThread(ArrayBlockingQueue<NTLockAuditEvent> events) {
+            super("NTLockAuditThread");
+            this.setDaemon(true);
+            this.events = events;
+        }
+
+        @Override
+        public void run() {
+            List<NTLockAuditEvent> batch = new ArrayList<>(batchSize);
+            while (this.running) {
+                try {
+                    NTLockAuditEvent event = this.events.poll(flushInterval, TimeUnit.MILLISECONDS);
+                    if (event == null) {
+                        continue;
+                    }
+
+                    batch.add(event);
+                    this.events.drainTo(batch, batchSize - 1);
+                    write(batch);
+                } catch (InterruptedException e) {
+                    LOGGER.warn("锁审计写入线程被中断.");
+                    this.running = false;
+                } catch (Throwable e) {
+                    LOGGER.error("锁审计写入线程异常.", e);
+                } finally {
+                    batch.clear();
+                }
+            }
+
+            // 停止：写入剩余事件
+            while (this.events.drainTo(batch, batchSize) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("锁审计缓冲区容量参数非法(" + bufferSize + ")");
+        }
+
+        this.bufferSize = bufferSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("锁审计每批写入数量参数非法(" + batchSize + ")");
+        }
+
+        this.batchSize = batchSize;
+    }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(long flushInterval) {
+        if (flushInterval <= 0L) {
+            throw new IllegalArgumentException("锁审计写入间隔参数非法(" + flushInterval + ")");
+        }
+
+        this.flushInterval = flushInterval;
+    }
+
+    public long getStopTimeout() {
+        return stopTimeout;
+    }
+
+    public void setStopTimeout(long stopTimeout) {
+        if (stopTimeout < 0L) {
+            throw new IllegalArgumentException("锁审计停止等待时间参数非法(" + stopTimeout + ")");
+        }
+
+        this.stopTimeout = stopTimeout;
+    }
+
+    public NTAuditPolicy getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(NTAuditPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("锁审计缓冲区策略参数为NULL.");
+        }
+
+        this.policy = policy;
+    }
+}
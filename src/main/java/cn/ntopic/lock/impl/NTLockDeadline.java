@@ -0,0 +1,62 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 锁操作截止时间，剩余时间在获取连接、执行SQL和重试之间共享
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTLockDeadline {
+
+    /**
+     * 截止时间（纳秒，基于System.nanoTime()）
+     */
+    private final long deadlineNanos;
+
+    private NTLockDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * 构建截止时间：当前时间之后指定毫秒
+     */
+    public static NTLockDeadline after(long timeoutMillis) {
+        return new NTLockDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    /**
+     * 剩余时间（毫秒），已过期则<=0
+     */
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.deadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * 是否已过期
+     */
+    public boolean isExpired() {
+        return this.deadlineNanos - System.nanoTime() <= 0L;
+    }
+
+    /**
+     * 检测剩余时间，并返回剩余秒数（向上取整，最小1秒），用于`Statement.setQueryTimeout`
+     * <p>
+     * 注意：剩余时间不足1秒时仍返回1秒，按该值设置的查询超时最多可能超过截止时间1秒，SQL返回后调用方需再用`isExpired()`检测
+     *
+     * @throws SQLTimeoutException 已过期
+     */
+    public int checkRemainingSeconds() throws SQLTimeoutException {
+        long remainingMillis = this.remainingMillis();
+        if (remainingMillis <= 0L) {
+            throw new SQLTimeoutException("锁操作已超过截止时间");
+        }
+
+        return (int) Math.max(1L, (remainingMillis + 999L) / 1000L);
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLTransientException;
+
+/**
+ * 数据库方言：根据SQLState和厂商错误码对异常进行分类
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public enum NTLockDialect {
+
+    /**
+     * SQLite：SQLITE_CONSTRAINT_PRIMARYKEY(1555)/SQLITE_CONSTRAINT_UNIQUE(2067)，SQLITE_BUSY(5)/SQLITE_LOCKED(6)及其扩展码
+     * <p>
+     * 其他约束冲突（NOT NULL/CHECK等，同为SQLITE_CONSTRAINT(19)）不是主键冲突；驱动错误码仅为主码(19)时，根据异常消息中的扩展码名称判断
+     */
+    SQLITE {
+        @Override
+        protected NTLockErrorType classifyVendor(SQLException e) {
+            int code = e.getErrorCode();
+            if (code == 1555 || code == 2067) {
+                return NTLockErrorType.DUPLICATE_KEY;
+            }
+
+            if (code == 19) {
+                String message = e.getMessage();
+                if (message != null && (message.contains("SQLITE_CONSTRAINT_PRIMARYKEY") || message.contains("SQLITE_CONSTRAINT_UNIQUE"))) {
+                    return NTLockErrorType.DUPLICATE_KEY;
+                }
+
+                return NTLockErrorType.FATAL;
+            }
+
+            int primaryCode = code & 0xFF;
+            if (primaryCode == 5 || primaryCode == 6) {
+                return NTLockErrorType.TRANSIENT;
+            }
+
+            return null;
+        }
+    },
+
+    /**
+     * MySQL/OceanBase：ER_DUP_ENTRY(1062)，ER_LOCK_DEADLOCK(1213)/ER_LOCK_WAIT_TIMEOUT(1205)
+     */
+    MYSQL {
+        @Override
+        protected NTLockErrorType classifyVendor(SQLException e) {
+            int code = e.getErrorCode();
+            if (code == 1062) {
+                return NTLockErrorType.DUPLICATE_KEY;
+            }
+
+            if (code == 1213 || code == 1205) {
+                return NTLockErrorType.TRANSIENT;
+            }
+
+            return null;
+        }
+    },
+
+    /**
+     * Oracle：ORA-00001，ORA-00060（死锁）/ORA-08177（串行化冲突）
+     */
+    ORACLE {
+        @Override
+        protected NTLockErrorType classifyVendor(SQLException e) {
+            int code = e.getErrorCode();
+            if (code == 1) {
+                return NTLockErrorType.DUPLICATE_KEY;
+            }
+
+            if (code == 60 || code == 8177) {
+                return NTLockErrorType.TRANSIENT;
+            }
+
+            return null;
+        }
+    },
+
+    /**
+     * 其他数据库：仅根据SQLState分类
+     */
+    GENERIC {
+        @Override
+        protected NTLockErrorType classifyVendor(SQLException e) {
+            return null;
+        }
+    },
+    ;
+
+    /**
+     * 根据数据库产品名称获取方言
+     */
+    public static NTLockDialect of(String productName) {
+        if (productName == null) {
+            return GENERIC;
+        }
+
+        String name = productName.toLowerCase();
+        if (name.contains("sqlite")) {
+            return SQLITE;
+        }
+
+        if (name.contains("mysql") || name.contains("mariadb") || name.contains("oceanbase")) {
+            return MYSQL;
+        }
+
+        if (name.contains("oracle")) {
+            return ORACLE;
+        }
+
+        return GENERIC;
+    }
+
+    /**
+     * 异常分类，依次检测异常链上的SQL异常
+     */
+    public NTLockErrorType classify(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (!(e instanceof SQLException)) {
+                continue;
+            }
+
+            SQLException sqlError = (SQLException) e;
+
+            // 1. 超时：结果未知
+            if (sqlError instanceof SQLTimeoutException) {
+                return NTLockErrorType.TIMEOUT;
+            }
+
+            // 2. 厂商错误码
+            NTLockErrorType errorType = this.classifyVendor(sqlError);
+            if (errorType != null) {
+                return errorType;
+            }
+
+            // 3. 标准SQLState和异常类型
+            errorType = classifyStandard(sqlError);
+            if (errorType != null) {
+                return errorType;
+            }
+        }
+
+        return NTLockErrorType.FATAL;
+    }
+
+    /**
+     * 厂商错误码分类，无法分类则返回NULL
+     */
+    protected abstract NTLockErrorType classifyVendor(SQLException e);
+
+    /**
+     * 标准SQLState分类：23xxx-完整性约束冲突，40xxx-事务回滚（死锁/串行化冲突）
+     */
+    private static NTLockErrorType classifyStandard(SQLException e) {
+        if (e instanceof SQLIntegrityConstraintViolationException) {
+            return NTLockErrorType.DUPLICATE_KEY;
+        }
+
+        String sqlState = e.getSQLState();
+        if (sqlState != null) {
+            if ("23000".equals(sqlState) || "23505".equals(sqlState)) {
+                return NTLockErrorType.DUPLICATE_KEY;
+            }
+
+            if (sqlState.startsWith("40")) {
+                return NTLockErrorType.TRANSIENT;
+            }
+        }
+
+        if (e instanceof SQLTransientConnectionException || e instanceof SQLTransientException) {
+            return NTLockErrorType.TRANSIENT;
+        }
+
+        return null;
+    }
+}
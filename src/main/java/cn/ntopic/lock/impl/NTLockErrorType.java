@@ -0,0 +1,34 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+/**
+ * 锁数据库异常分类
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public enum NTLockErrorType {
+
+    /**
+     * 主键冲突：并发新增锁记录，属于正常的抢占失败
+     */
+    DUPLICATE_KEY,
+
+    /**
+     * 瞬时异常：死锁、锁等待超时、数据库繁忙等，语句已回滚，可安全重试
+     */
+    TRANSIENT,
+
+    /**
+     * 操作超时：语句可能已经执行，结果未知，不可重试
+     */
+    TIMEOUT,
+
+    /**
+     * 其他异常：不可重试
+     */
+    FATAL,
+    ;
+}
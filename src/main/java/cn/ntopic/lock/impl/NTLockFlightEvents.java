@@ -0,0 +1,247 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockResult;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR锁事件：只能由`NTLockFlightRecorder`在JFR可用时调用，其他类不能直接引用
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+final class NTLockFlightEvents {
+
+    /**
+     * 持有中的锁（持有事件），KEY为：pool/name/ownHost/ownIp/ownId，超过最大跟踪数量则不记录持有事件
+     */
+    private static final NTLockHoldingTracker<NTLockHoldEvent> HOLDING = new NTLockHoldingTracker<>();
+
+    /**
+     * 事件类型：未开启记录时不创建事件对象
+     */
+    private static final EventType ACQUIRE_TYPE = EventType.getEventType(NTLockAcquireEvent.class);
+    private static final EventType WAIT_TYPE = EventType.getEventType(NTLockWaitEvent.class);
+    private static final EventType HOLD_TYPE = EventType.getEventType(NTLockHoldEvent.class);
+    private static final EventType RENEW_TYPE = EventType.getEventType(NTLockRenewEvent.class);
+    private static final EventType CLEAN_TYPE = EventType.getEventType(NTLockCleanEvent.class);
+
+    private NTLockFlightEvents() {
+    }
+
+    static Object beginAcquire() {
+        if (!ACQUIRE_TYPE.isEnabled()) {
+            return null;
+        }
+
+        NTLockAcquireEvent event = new NTLockAcquireEvent();
+        event.begin();
+        return event;
+    }
+
+    static void addDbTime(Object event, long dbNanos) {
+        ((NTLockAcquireEvent) event).dbTime += dbNanos;
+    }
+
+    static void commitAcquire(Object event, NTLockDTO newLockDTO, NTLockResult result) {
+        NTLockAcquireEvent acquireEvent = (NTLockAcquireEvent) event;
+        acquireEvent.end();
+        if (acquireEvent.shouldCommit()) {
+            acquireEvent.pool = newLockDTO.getPool();
+            acquireEvent.name = newLockDTO.getName();
+            acquireEvent.success = result.isSuccess();
+            acquireEvent.timeout = result.isTimeout();
+            if (!result.isSuccess() && result.getMessage() != null) {
+                acquireEvent.message = result.getMessage();
+            }
+
+            acquireEvent.commit();
+        }
+    }
+
+    static Object beginWait() {
+        if (!WAIT_TYPE.isEnabled()) {
+            return null;
+        }
+
+        NTLockWaitEvent event = new NTLockWaitEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitWait(Object event, NTLockDTO lockDTO, String reason) {
+        NTLockWaitEvent waitEvent = (NTLockWaitEvent) event;
+        waitEvent.end();
+        if (waitEvent.shouldCommit()) {
+            if (lockDTO != null) {
+                waitEvent.pool = lockDTO.getPool();
+                waitEvent.name = lockDTO.getName();
+            }
+
+            waitEvent.reason = reason;
+            waitEvent.commit();
+        }
+    }
+
+    static Object beginRenew() {
+        if (!RENEW_TYPE.isEnabled()) {
+            return null;
+        }
+
+        NTLockRenewEvent event = new NTLockRenewEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitRenew(Object event, NTLockDTO newLockDTO, boolean success) {
+        NTLockRenewEvent renewEvent = (NTLockRenewEvent) event;
+        renewEvent.end();
+        if (renewEvent.shouldCommit()) {
+            renewEvent.pool = newLockDTO.getPool();
+            renewEvent.name = newLockDTO.getName();
+            renewEvent.expire = newLockDTO.getExpire();
+            renewEvent.success = success;
+            renewEvent.commit();
+        }
+    }
+
+    static void acquired(NTLockDTO lockDTO) {
+        if (!HOLD_TYPE.isEnabled()) {
+            return;
+        }
+
+        // 延长锁定不重新开始，已过期的持有记录重新开始
+        HOLDING.acquired(makeKey(lockDTO), System.currentTimeMillis(), lockDTO.fetchExpireTime().getTime(), () -> {
+            NTLockHoldEvent event = new NTLockHoldEvent();
+            event.begin();
+            return event;
+        });
+    }
+
+    static void released(NTLockDTO lockDTO) {
+        NTLockHoldEvent event = HOLDING.released(makeKey(lockDTO));
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.pool = lockDTO.getPool();
+                event.name = lockDTO.getName();
+                event.commit();
+            }
+        }
+    }
+
+    static Object beginClean() {
+        if (!CLEAN_TYPE.isEnabled()) {
+            return null;
+        }
+
+        NTLockCleanEvent event = new NTLockCleanEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitClean(Object event, String store, int count) {
+        NTLockCleanEvent cleanEvent = (NTLockCleanEvent) event;
+        cleanEvent.end();
+        if (cleanEvent.shouldCommit()) {
+            cleanEvent.store = store;
+            cleanEvent.count = count;
+            cleanEvent.commit();
+        }
+    }
+
+    private static String makeKey(NTLockDTO lockDTO) {
+        return lockDTO.getPool() + "/" + lockDTO.getName() + "/" + lockDTO.getOwnHost() + "/" + lockDTO.getOwnIp() + "/" + lockDTO.getOwnId();
+    }
+
+    @Name("cn.ntopic.lock.Acquire")
+    @Label("Lock Acquire")
+    @Category({"NTopic", "Lock"})
+    @Description("抢占或者延长锁（含重试），耗时包括获取连接和执行SQL")
+    static class NTLockAcquireEvent extends Event {
+        @Label("Pool")
+        String pool;
+
+        @Label("Name")
+        String name;
+
+        @Label("Success")
+        boolean success;
+
+        @Label("Timeout")
+        boolean timeout;
+
+        @Label("DB Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long dbTime;
+
+        @Label("Message")
+        String message;
+    }
+
+    @Name("cn.ntopic.lock.Wait")
+    @Label("Lock Wait")
+    @Category({"NTopic", "Lock"})
+    @Description("抢锁过程中的等待：瞬时异常重试间隔、组提交等待")
+    static class NTLockWaitEvent extends Event {
+        @Label("Pool")
+        String pool;
+
+        @Label("Name")
+        String name;
+
+        @Label("Reason")
+        String reason;
+    }
+
+    @Name("cn.ntopic.lock.Hold")
+    @Label("Lock Hold")
+    @Category({"NTopic", "Lock"})
+    @Description("从抢占成功到释放的持有时间")
+    static class NTLockHoldEvent extends Event {
+        @Label("Pool")
+        String pool;
+
+        @Label("Name")
+        String name;
+    }
+
+    @Name("cn.ntopic.lock.Renew")
+    @Label("Lock Renew")
+    @Category({"NTopic", "Lock"})
+    @Description("当前持有者延长锁定")
+    static class NTLockRenewEvent extends Event {
+        @Label("Pool")
+        String pool;
+
+        @Label("Name")
+        String name;
+
+        @Label("Expire")
+        String expire;
+
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("cn.ntopic.lock.Clean")
+    @Label("Lock Clean")
+    @Category({"NTopic", "Lock"})
+    @Description("自动清理过期锁数据")
+    static class NTLockCleanEvent extends Event {
+        @Label("Store")
+        String store;
+
+        @Label("Count")
+        int count;
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockResult;
+
+/**
+ * JFR锁事件记录入口：JFR不可用（如早期JDK8）时全部为空操作；未开启记录时`begin*`返回NULL，调用方据此跳过计时和字段组装
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public final class NTLockFlightRecorder {
+
+    /**
+     * JFR是否可用
+     */
+    private static final boolean AVAILABLE = detect();
+
+    private NTLockFlightRecorder() {
+    }
+
+    /**
+     * 开始抢锁事件
+     *
+     * @return 事件对象，未开启记录时为NULL
+     */
+    public static Object beginAcquire() {
+        return AVAILABLE ? NTLockFlightEvents.beginAcquire() : null;
+    }
+
+    /**
+     * 累加抢锁事件的数据库耗时（纳秒）
+     */
+    public static void addDbTime(Object event, long dbNanos) {
+        if (event != null) {
+            NTLockFlightEvents.addDbTime(event, dbNanos);
+        }
+    }
+
+    /**
+     * 提交抢锁事件，抢占成功时开始跟踪持有时间
+     */
+    public static void commitAcquire(Object event, NTLockDTO newLockDTO, NTLockResult result) {
+        if (event != null) {
+            NTLockFlightEvents.commitAcquire(event, newLockDTO, result);
+        }
+
+        if (AVAILABLE && result.isSuccess()) {
+            NTLockFlightEvents.acquired(result.getLockDTO());
+        }
+    }
+
+    /**
+     * 开始等待事件
+     */
+    public static Object beginWait() {
+        return AVAILABLE ? NTLockFlightEvents.beginWait() : null;
+    }
+
+    /**
+     * 提交等待事件
+     */
+    public static void commitWait(Object event, NTLockDTO lockDTO, String reason) {
+        if (event != null) {
+            NTLockFlightEvents.commitWait(event, lockDTO, reason);
+        }
+    }
+
+    /**
+     * 开始延长锁定事件
+     */
+    public static Object beginRenew() {
+        return AVAILABLE ? NTLockFlightEvents.beginRenew() : null;
+    }
+
+    /**
+     * 提交延长锁定事件
+     */
+    public static void commitRenew(Object event, NTLockDTO newLockDTO, boolean success) {
+        if (event != null) {
+            NTLockFlightEvents.commitRenew(event, newLockDTO, success);
+        }
+    }
+
+    /**
+     * 锁已释放，提交持有事件
+     */
+    public static void released(NTLockDTO lockDTO) {
+        if (AVAILABLE) {
+            NTLockFlightEvents.released(lockDTO);
+        }
+    }
+
+    /**
+     * 开始清理事件
+     */
+    public static Object beginClean() {
+        return AVAILABLE ? NTLockFlightEvents.beginClean() : null;
+    }
+
+    /**
+     * 提交清理事件
+     */
+    public static void commitClean(Object event, String store, int count) {
+        if (event != null) {
+            NTLockFlightEvents.commitClean(event, store, count);
+        }
+    }
+
+    /**
+     * 检测JFR是否可用
+     */
+    private static boolean detect() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+}
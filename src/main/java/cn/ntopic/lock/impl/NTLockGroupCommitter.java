@@ -0,0 +1,239 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 抢锁组提交：合并线程收集短时间窗口内的抢锁请求，用1次连接和批量SQL完成，再分别通知每个请求方
+ * <p>
+ * 停止后不再接收新请求，合并线程在限定时间内处理完队列中的请求，未处理的请求由调用方逐个抢锁
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTLockGroupCommitter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTLockGroupCommitter.class);
+
+    /**
+     * 队列为空时合并线程等待时间（毫秒）
+     */
+    private static final long POLL_MILLIS = 100L;
+
+    /**
+     * 锁服务
+     */
+    private final NTLockImpl ntLock;
+
+    /**
+     * 合并等待窗口（微秒）
+     */
+    private final long windowMicros;
+
+    /**
+     * 每批最大请求数量
+     */
+    private final int maxBatchSize;
+
+    /**
+     * 待提交请求
+     */
+    private final LinkedBlockingQueue<NTLockGroupRequest> requests = new LinkedBlockingQueue<>();
+
+    /**
+     * 合并线程
+     */
+    private final Thread combineThread;
+
+    /**
+     * 运行标记
+     */
+    private volatile boolean running = true;
+
+    public NTLockGroupCommitter(NTLockImpl ntLock, long windowMicros, int maxBatchSize) {
+        this.ntLock = ntLock;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+
+        this.combineThread = new Thread(this::combine, "NTLockGroupCommitThread");
+        this.combineThread.setDaemon(true);
+        this.combineThread.start();
+    }
+
+    /**
+     * 停止合并线程：不再接收新请求，在限定时间内处理完队列中的请求，剩余请求由调用方逐个抢锁
+     */
+    public void stop(long timeoutMillis) {
+        this.running = false;
+
+        try {
+            this.combineThread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (this.combineThread.isAlive()) {
+            LOGGER.warn("抢锁组提交停止超时-剩余{}个请求由调用方逐个抢锁.", this.requests.size());
+            this.rejectPending();
+        }
+    }
+
+    /**
+     * 提交抢锁请求并等待结果
+     *
+     * @return 抢锁结果，为NULL时代表本批提交异常或者已停止，由调用方逐个抢锁
+     */
+    public NTLockResult submit(Date now, NTLockDTO newLockDTO, NTLockDeadline deadline) {
+        if (!this.running) {
+            return null;
+        }
+
+        NTLockGroupRequest request = new NTLockGroupRequest(now, newLockDTO);
+        this.requests.add(request);
+
+        // 放入队列时已停止，合并线程可能已退出
+        if (!this.running && this.requests.remove(request)) {
+            return null;
+        }
+
+        try {
+            if (deadline == null) {
+                return request.future.get();
+            }
+
+            return request.future.get(Math.max(deadline.remainingMillis(), 0L), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 未提交的请求直接取消，已提交的结果未知
+            request.future.cancel(false);
+            return NTLockResult.makeTimeout(newLockDTO, String.format("锁操作超时-结果未知(%s->%s)", newLockDTO.getPool(), newLockDTO.getName()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.future.cancel(false);
+            return NTLockResult.makeTimeout(newLockDTO, String.format("锁操作被中断-结果未知(%s->%s)", newLockDTO.getPool(), newLockDTO.getName()));
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 合并线程：收集请求 -> 批量抢锁 -> 通知结果，同一把锁的多个请求分到不同批次
+     */
+    private void combine() {
+        List<NTLockGroupRequest> deferred = new ArrayList<>();
+        while (this.running || !this.requests.isEmpty() || !deferred.isEmpty()) {
+            List<NTLockGroupRequest> batch = new ArrayList<>();
+            try {
+                // 1. 上一批延后的请求优先，无请求时等待
+                List<NTLockGroupRequest> candidates = new ArrayList<>(deferred);
+                deferred.clear();
+                if (candidates.isEmpty()) {
+                    NTLockGroupRequest first = this.requests.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+
+                    candidates.add(first);
+                }
+
+                // 2. 在窗口内继续收集请求
+                long windowEnd = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(this.windowMicros);
+                while (candidates.size() < this.maxBatchSize) {
+                    long waitNanos = windowEnd - System.nanoTime();
+                    NTLockGroupRequest request = waitNanos > 0L ? this.requests.poll(waitNanos, TimeUnit.NANOSECONDS) : this.requests.poll();
+                    if (request == null) {
+                        break;
+                    }
+
+                    candidates.add(request);
+                }
+
+                // 3. 同一把锁只取1个请求，已超时取消的请求丢弃
+                Set<String> keys = new HashSet<>();
+                for (NTLockGroupRequest request : candidates) {
+                    if (request.future.isDone()) {
+                        continue;
+                    }
+
+                    if (keys.add(request.newLockDTO.getPool() + "/" + request.newLockDTO.getName())) {
+                        batch.add(request);
+                    } else {
+                        deferred.add(request);
+                    }
+                }
+
+                // 4. 批量抢锁
+                if (!batch.isEmpty()) {
+                    this.ntLock.tryLockBatch(batch);
+                }
+            } catch (InterruptedException e) {
+                // 合并线程不响应中断
+            } catch (Throwable e) {
+                LOGGER.warn("抢锁组提交异常-逐个抢锁[{}].", e.getMessage());
+                for (NTLockGroupRequest request : batch) {
+                    request.future.completeExceptionally(e);
+                }
+            }
+        }
+
+        this.rejectPending();
+    }
+
+    /**
+     * 队列中未处理的请求通知调用方逐个抢锁
+     */
+    private void rejectPending() {
+        List<NTLockGroupRequest> pending = new ArrayList<>();
+        this.requests.drainTo(pending);
+        for (NTLockGroupRequest request : pending) {
+            request.future.completeExceptionally(new IllegalStateException("抢锁组提交已停止"));
+        }
+    }
+
+    /**
+     * 组提交抢锁请求
+     */
+    public static class NTLockGroupRequest {
+        private final Date now;
+        private final NTLockDTO newLockDTO;
+        private final CompletableFuture<NTLockResult> future = new CompletableFuture<>();
+
+        public NTLockGroupRequest(Date now, NTLockDTO newLockDTO) {
+            this.now = now;
+            this.newLockDTO = newLockDTO;
+        }
+
+        public Date getNow() {
+            return now;
+        }
+
+        public NTLockDTO getNewLockDTO() {
+            return newLockDTO;
+        }
+
+        public void complete(NTLockResult result) {
+            this.future.complete(result);
+        }
+
+        /**
+         * 抢锁结果，未完成为NULL
+         */
+        public NTLockResult getResult() {
+            return this.future.getNow(null);
+        }
+    }
+}
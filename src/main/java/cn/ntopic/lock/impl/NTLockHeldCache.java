@@ -0,0 +1,205 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 锁占用本地缓存：记录“锁被其他持有者占用至T时刻”，在T之前直接失败，减少热点锁的DB访问
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTLockHeldCache {
+
+    /**
+     * 缓存数据，按锁分组和锁名称两级存储，查询时无需拼接KEY
+     */
+    private final Map<String, Map<String, NTHeldEntry>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 缓存数量
+     */
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * 缓存最大数量
+     */
+    private volatile int maxSize = 1024;
+
+    /**
+     * 提前失效时间（毫秒），在过期时间之前即放行到DB
+     */
+    private volatile long advance = 50L;
+
+    /**
+     * 查询仍然有效的占用记录，已失效的记录则移除
+     *
+     * @return 有效的占用记录，或者NULL
+     */
+    public NTHeldEntry get(String pool, String name, long nowMillis) {
+        Map<String, NTHeldEntry> poolEntries = this.entries.get(pool);
+        NTHeldEntry entry = (poolEntries == null) ? null : poolEntries.get(name);
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry.getExpireMillis() - this.advance <= nowMillis) {
+            if (poolEntries.remove(name, entry)) {
+                this.count.decrementAndGet();
+            }
+
+            return null;
+        }
+
+        return entry;
+    }
+
+    /**
+     * 记录占用信息，超过最大数量时先清理已失效记录，仍然超过则不缓存
+     */
+    public void put(String pool, String name, NTHeldEntry entry, long nowMillis) {
+        if (entry.getExpireMillis() - this.advance <= nowMillis) {
+            return;
+        }
+
+        if (this.count.get() >= this.maxSize) {
+            this.purge(nowMillis);
+
+            if (this.count.get() >= this.maxSize) {
+                return;
+            }
+        }
+
+        if (this.entries.computeIfAbsent(pool, key -> new ConcurrentHashMap<>()).put(name, entry) == null) {
+            this.count.incrementAndGet();
+        }
+    }
+
+    /**
+     * 移除占用记录
+     */
+    public void remove(String pool, String name) {
+        Map<String, NTHeldEntry> poolEntries = this.entries.get(pool);
+        if (poolEntries != null && poolEntries.remove(name) != null) {
+            this.count.decrementAndGet();
+        }
+    }
+
+    /**
+     * 清理已失效记录
+     */
+    public void purge(long nowMillis) {
+        for (Map<String, NTHeldEntry> poolEntries : this.entries.values()) {
+            Iterator<NTHeldEntry> iterator = poolEntries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().getExpireMillis() - this.advance <= nowMillis) {
+                    iterator.remove();
+                    this.count.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * 当前缓存数量
+     */
+    public int size() {
+        return this.count.get();
+    }
+
+    /**
+     * 占用记录
+     */
+    public static class NTHeldEntry {
+        /**
+         * 锁定服务器
+         */
+        private final String ownHost;
+
+        /**
+         * 锁定服务器IP
+         */
+        private final String ownIp;
+
+        /**
+         * 锁定服务器线程ID
+         */
+        private final long ownId;
+
+        /**
+         * 超时时间（格式：yyyy-MM-dd HH:mm:ss.SSS）
+         */
+        private final String expire;
+
+        /**
+         * 超时时间（毫秒）
+         */
+        private final long expireMillis;
+
+        public NTHeldEntry(String ownHost, String ownIp, long ownId, String expire, long expireMillis) {
+            this.ownHost = ownHost;
+            this.ownIp = ownIp;
+            this.ownId = ownId;
+            this.expire = expire;
+            this.expireMillis = expireMillis;
+        }
+
+        /**
+         * 是否为指定持有者
+         */
+        public boolean isOwner(String ownHost, String ownIp, long ownId) {
+            return this.ownId == ownId && this.ownHost.equals(ownHost) && this.ownIp.equals(ownIp);
+        }
+
+        public String getOwnHost() {
+            return ownHost;
+        }
+
+        public String getOwnIp() {
+            return ownIp;
+        }
+
+        public long getOwnId() {
+            return ownId;
+        }
+
+        public String getExpire() {
+            return expire;
+        }
+
+        public long getExpireMillis() {
+            return expireMillis;
+        }
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("锁占用缓存数量参数非法(" + maxSize + ")");
+        }
+
+        this.maxSize = maxSize;
+    }
+
+    public long getAdvance() {
+        return advance;
+    }
+
+    public void setAdvance(long advance) {
+        if (advance < 0L) {
+            throw new IllegalArgumentException("锁占用缓存提前失效时间参数非法(" + advance + ")");
+        }
+
+        this.advance = advance;
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 持有中的锁跟踪：记录抢占成功时的数据（如开始时间、持有事件）和锁过期时间，释放时取回；
+ * 跟踪数量达到上限时先清理已过期未释放的锁（持有者宕机或者未释放），清理为O(n)遍历，限制清理频率
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+final class NTLockHoldingTracker<T> {
+
+    /**
+     * 持有中的锁最大跟踪数量，超过则先清理已过期未释放的锁，仍超过则不记录
+     */
+    static final int MAX_HOLDING = 4096;
+
+    /**
+     * 清理已过期持有记录的最小间隔（毫秒）
+     */
+    private static final long SWEEP_INTERVAL = 1000L;
+
+    /**
+     * 持有中的锁，KEY由调用方组装
+     */
+    private final Map<String, NTHolding<T>> holding = new ConcurrentHashMap<>();
+
+    /**
+     * 上次清理时间（毫秒）
+     */
+    private final AtomicLong lastSweep = new AtomicLong();
+
+    /**
+     * 抢占或者延长成功：未过期的持有记录只更新过期时间（延长锁定不重新开始），否则新建持有记录
+     *
+     * @param key     持有记录KEY
+     * @param now     当前时间（毫秒）
+     * @param expire  锁过期时间（毫秒）
+     * @param factory 新建持有记录的数据，仅在需要新建时调用
+     */
+    void acquired(String key, long now, long expire, Supplier<T> factory) {
+        NTHolding<T> current = this.holding.get(key);
+        if (current != null && current.expire >= now) {
+            current.expire = expire;
+            return;
+        }
+
+        if (current == null && this.holding.size() >= MAX_HOLDING) {
+            // 清理已过期未释放的锁（持有者宕机或者未释放），清理间隔内只清理1次
+            long last = this.lastSweep.get();
+            if (now - last >= SWEEP_INTERVAL && this.lastSweep.compareAndSet(last, now)) {
+                this.holding.values().removeIf(value -> value.expire < now);
+            }
+
+            if (this.holding.size() >= MAX_HOLDING) {
+                return;
+            }
+        }
+
+        this.holding.put(key, new NTHolding<>(factory.get(), expire));
+    }
+
+    /**
+     * 锁已释放：移除持有记录，并返回抢占成功时的数据，不存在则返回NULL
+     */
+    T released(String key) {
+        if (this.holding.isEmpty()) {
+            return null;
+        }
+
+        NTHolding<T> value = this.holding.remove(key);
+        return value == null ? null : value.value;
+    }
+
+    /**
+     * 持有记录：抢占成功时的数据和锁过期时间（毫秒）
+     */
+    private static class NTHolding<T> {
+        private final T value;
+        private volatile long expire;
+
+        private NTHolding(T value, long expire) {
+            this.value = value;
+            this.expire = expire;
+        }
+    }
+}
@@ -5,25 +5,32 @@
 package cn.ntopic.lock.impl;
 
 import cn.ntopic.lock.NTLock;
+import cn.ntopic.lock.model.NTLockAuditEvent.NTAuditAction;
 import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockReason;
 import cn.ntopic.lock.model.NTLockResult;
 import cn.ntopic.lock.utils.NTDateUtils;
 import cn.ntopic.lock.utils.NTHostUtils;
-import cn.ntopic.lock.utils.NTJDBCUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
- * 分布式锁服务实现
+ * 分布式锁服务实现：锁引擎（参数检测、租约判断、占用缓存、异常重试），锁数据由`NTLockStore`存储
  *
  * @author obullxl 2023年06月24日: 新增
  */
@@ -31,14 +38,14 @@ public class NTLockImpl implements NTLock {
     private static final Logger LOGGER = LoggerFactory.getLogger(NTLockImpl.class);
 
     /**
-     * 属性-数据源
+     * 抢占并发池锁时每次批量查询的并发锁数量
      */
-    private final DataSource ntDataSource;
+    private static final int POOL_SELECT_BATCH = 64;
 
     /**
-     * 属性-数据表名
+     * 属性-锁存储
      */
-    private String tableName = "nt_lock";
+    private final NTLockStore ntLockStore;
 
     /**
      * 属性-自动清理过期数据（默认1小时执行1次，清理1小时之前过期的数据）
@@ -46,14 +53,131 @@ public class NTLockImpl implements NTLock {
     private boolean autoClean = true;
 
     /**
-     * CTOR-构建锁组件
+     * 属性-行复用模式：释放锁时保留锁记录（清空持有者、过期时间置为释放时间），抢锁直接条件更新已有记录，
+     * 避免热点锁反复删除和新增记录导致主键索引频繁分裂；自动清理只删除长时间未使用的锁记录
+     */
+    private boolean recycleRow = false;
+
+    /**
+     * 属性-行复用模式下，锁记录超过该时间（小时）未使用才被自动清理
+     */
+    private int recycleColdHours = 24;
+
+    /**
+     * 属性-锁占用缓存开关（锁被其他持有者占用时，在过期前直接失败）
+     */
+    private boolean heldCache = true;
+
+    /**
+     * 锁占用缓存
+     */
+    private final NTLockHeldCache ntHeldCache = new NTLockHeldCache();
+
+    /**
+     * 属性-瞬时异常（死锁、数据库繁忙等）自动重试次数，调用方无需再整体重试
+     */
+    private int retryTimes = 2;
+
+    /**
+     * 属性-瞬时异常重试间隔（毫秒），第N次重试等待N倍间隔
+     */
+    private long retryInterval = 10L;
+
+    /**
+     * 属性-抢锁组提交开关（高并发抢不同锁时，合并短时间窗口内的请求批量提交，以少量延迟换取吞吐量）
+     */
+    private boolean groupCommit = false;
+
+    /**
+     * 属性-组提交合并窗口（微秒）
+     */
+    private long groupCommitWindow = 1000L;
+
+    /**
+     * 属性-组提交每批最大请求数量
+     */
+    private int groupCommitBatchSize = 64;
+
+    /**
+     * 组提交合并器（按需创建）
+     */
+    private volatile NTLockGroupCommitter groupCommitter;
+
+    /**
+     * 属性-锁竞争统计周期（毫秒），每个周期结束时输出最热、持有最长和过期抢占最多的锁
+     */
+    private long profileInterval = 60000L;
+
+    /**
+     * 属性-锁竞争统计每类输出数量
+     */
+    private int profileTopN = 10;
+
+    /**
+     * 锁竞争统计（开启后创建）
+     */
+    private volatile NTLockProfiler profiler;
+
+    /**
+     * 属性-自适应租约持有时间分位值
+     */
+    private double adaptiveLeasePercentile = 99.0D;
+
+    /**
+     * 属性-自适应租约余量（毫秒）
+     */
+    private long adaptiveLeaseMargin = 1000L;
+
+    /**
+     * 属性-自适应租约是否按锁名称统计持有时间（默认按锁分组）
+     */
+    private boolean adaptiveLeaseByName = false;
+
+    /**
+     * 自适应租约持有时间统计
+     */
+    private final NTLockLeaseEstimator leaseEstimator = new NTLockLeaseEstimator();
+
+    /**
+     * 锁审计（可选，NULL则不审计）
+     */
+    private volatile NTLockAuditor auditor;
+
+    /**
+     * 属性-异步释放每批最大数量
+     */
+    private int asyncReleaseBatchSize = 64;
+
+    /**
+     * 属性-异步释放最长等待时间（毫秒）：抢锁等待同一把锁的待释放请求完成，停止时处理队列中的请求
+     */
+    private long asyncReleaseTimeout = 5000L;
+
+    /**
+     * 异步释放器（按需创建）
+     */
+    private volatile NTLockReleaser releaser;
+
+    /**
+     * CTOR-构建锁组件（JDBC锁存储）
      */
     public NTLockImpl(DataSource ntDataSource) {
         if (ntDataSource == null) {
             throw new IllegalArgumentException("锁数据源为NULL.");
         }
 
-        this.ntDataSource = ntDataSource;
+        this.ntLockStore = new NTJDBCLockStore(ntDataSource);
+    }
+
+    /**
+     * CTOR-构建锁组件（指定锁存储）
+     */
+    public NTLockImpl(NTLockStore ntLockStore) {
+        if (ntLockStore == null) {
+            throw new IllegalArgumentException("锁存储为NULL.");
+        }
+
+        this.ntLockStore = ntLockStore;
     }
 
     /**
@@ -62,7 +186,28 @@ public class NTLockImpl implements NTLock {
     public void init() {
         // 1. 自动清理
         if (this.isAutoClean()) {
-            new NTLockCleanThread(this.ntDataSource, this.tableName).start();
+            new NTLockCleanThread(this.ntLockStore, this.recycleRow ? this.recycleColdHours : 1).start();
+        }
+
+        // 2. 锁竞争统计
+        NTLockProfiler ntProfiler = this.profiler;
+        if (ntProfiler != null) {
+            ntProfiler.start(this.profileInterval, this.profileTopN);
+        }
+    }
+
+    /**
+     * 销毁：在限定时间内处理完异步释放队列和组提交队列中的请求
+     */
+    public void destroy() {
+        NTLockReleaser ntReleaser = this.releaser;
+        if (ntReleaser != null) {
+            ntReleaser.stop(this.asyncReleaseTimeout);
+        }
+
+        NTLockGroupCommitter ntGroupCommitter = this.groupCommitter;
+        if (ntGroupCommitter != null) {
+            ntGroupCommitter.stop(this.asyncReleaseTimeout);
         }
     }
 
@@ -70,60 +215,43 @@ public class NTLockImpl implements NTLock {
      * 尝试创建数据表
      */
     public void createTable() {
-        Connection conn = null;
-        try {
-            conn = this.ntDataSource.getConnection();
+        this.ntLockStore.createTable();
+    }
 
-            // 1. 检测数据表是否存在
-            ResultSet rs = null;
-            try {
-                rs = conn.getMetaData().getTables(null, null, this.tableName, null);
-                if (rs.next()) {
-                    LOGGER.info("锁数据表存在-无需创建[{}].", this.tableName);
-                    return;
-                }
-            } finally {
-                NTJDBCUtils.closeQuietly(rs);
-            }
+    @Override
+    public NTLockResult lock(String lockName, int timeout, TimeUnit timeUnit) {
+        return this.lock(lockName, timeout, timeUnit, false);
+    }
 
-            // 2. 创建数据表
-            PreparedStatement stmt = null;
-            try {
-                StringBuilder createSQL = new StringBuilder();
-                createSQL.append(String.format("CREATE TABLE %s", this.tableName));
-                createSQL.append("(");
-                createSQL.append("pool      VARCHAR(64) NOT NULL DEFAULT 'DEFAULT',");
-                createSQL.append("name      VARCHAR(64) NOT NULL,");
-                createSQL.append("own_host  VARCHAR(64) NOT NULL,");
-                createSQL.append("own_ip    VARCHAR(64) NOT NULL,");
-                createSQL.append("own_id    BIGINT      NOT NULL,");
-                createSQL.append("expire    VARCHAR(32) NOT NULL,");
-                createSQL.append("size      INT         NOT NULL DEFAULT 1,");
-                createSQL.append("times     INT         NOT NULL DEFAULT 1,");
-                createSQL.append("modify    VARCHAR(32) NOT NULL,");
-                createSQL.append("PRIMARY KEY (pool, name)");
-                createSQL.append(")");
-
-                String createTableSQL = createSQL.toString();
-                LOGGER.info("锁数据表建表SQL:{}", createTableSQL);
-
-                stmt = conn.prepareStatement(createTableSQL);
-                stmt.executeUpdate();
-                LOGGER.info("创建锁数据表成功[{}].", this.tableName);
-            } finally {
-                NTJDBCUtils.closeQuietly(stmt);
-            }
-        } catch (Throwable e) {
-            LOGGER.error("检测锁数据表是否存在异常，请求人工创建锁数据表[{}].", this.tableName, e);
-            throw new RuntimeException("检测锁数据表是否存在异常，请求人工创建锁数据表(" + this.tableName + ")", e);
-        } finally {
-            NTJDBCUtils.closeQuietly(conn);
-        }
+    /**
+     * 1. 首次抢占排它锁
+     * 2. 延长已抢占的排他锁
+     *
+     * @param lockName    排它锁名称，非空，1~64字符
+     * @param timeout     锁超时时间，值>0
+     * @param timeUnit    超时时间单位
+     * @param bypassCache 是否跳过锁占用缓存，直接访问DB
+     * @return 锁结果
+     * @throws IllegalArgumentException 参数非法
+     */
+    public NTLockResult lock(String lockName, int timeout, TimeUnit timeUnit, boolean bypassCache) {
+        return this.doLock(lockName, timeout, timeUnit, bypassCache, null);
     }
 
     @Override
-    public NTLockResult lock(String lockName, int timeout, TimeUnit timeUnit) {
-        final Date now = new Date();
+    public NTLockResult lock(String lockName, int timeout, TimeUnit timeUnit, long opTimeoutMillis) {
+        if (opTimeoutMillis <= 0L) {
+            throw new IllegalArgumentException("操作超时时间参数非法(" + opTimeoutMillis + ")");
+        }
+
+        return this.doLock(lockName, timeout, timeUnit, false, NTLockDeadline.after(opTimeoutMillis));
+    }
+
+    /**
+     * 抢占或者延长排它锁
+     */
+    private NTLockResult doLock(String lockName, int timeout, TimeUnit timeUnit, boolean bypassCache, NTLockDeadline deadline) {
+        final long nowMillis = System.currentTimeMillis();
 
         // 参数检测
         if (lockName == null || lockName.length() > MAX_NAME_LENGTH) {
@@ -134,22 +262,62 @@ public class NTLockImpl implements NTLock {
             throw new IllegalArgumentException("超时时间参数非法(" + timeout + ")");
         }
 
-        // 组装锁信息
-        final Date newExpire = new Date(now.getTime() + timeUnit.toMillis(timeout));
+        // 锁占用缓存：锁被其他持有者占用且未过期，直接失败，无需组装锁对象
+        final long ownId = Thread.currentThread().getId();
+        final long newExpire = nowMillis + timeUnit.toMillis(timeout);
+        if (this.heldCache && !bypassCache) {
+            NTLockResult heldResult = this.checkHeldCache(DEFAULT_POOL, lockName, ownId, nowMillis, newExpire);
+            if (heldResult != null) {
+                return heldResult;
+            }
+        }
 
+        // 组装锁信息
+        final Date now = new Date(nowMillis);
         final NTLockDTO newLockDTO = new NTLockDTO(DEFAULT_POOL, lockName, NTHostUtils.HOST, NTHostUtils.IP
-                , Thread.currentThread().getId(), NTDateUtils.format(newExpire));
+                , ownId, NTDateUtils.format(new Date(newExpire)));
         newLockDTO.setSize(1);
         newLockDTO.setTimes(1);
-        newLockDTO.setModify(NTDateUtils.format(new Date()));
+        newLockDTO.setModify(NTDateUtils.format(now));
 
-        // 尝试抢占或者延长锁
-        return this.tryLock(now, newLockDTO);
+        // 尝试抢占或者延长锁（已检测锁占用缓存）
+        return this.tryLock(now, newLockDTO, true, deadline);
     }
 
     @Override
     public NTLockResult lock(NTLockDTO lockDTO, int timeout, TimeUnit timeUnit) {
-        final Date now = new Date();
+        return this.lock(lockDTO, timeout, timeUnit, false);
+    }
+
+    /**
+     * 1. 首次抢占：包括排它锁，和并发池锁
+     * 2. 延长已抢占的锁：包括排他锁，和并发池锁
+     *
+     * @param lockDTO     锁信息，包括排它锁和并发池锁
+     * @param timeout     锁超时时间，值>0
+     * @param timeUnit    超时时间单位
+     * @param bypassCache 是否跳过锁占用缓存，直接访问DB
+     * @return 锁结果
+     * @throws IllegalArgumentException 参数非法
+     */
+    public NTLockResult lock(NTLockDTO lockDTO, int timeout, TimeUnit timeUnit, boolean bypassCache) {
+        return this.doLock(lockDTO, timeout, timeUnit, bypassCache, null);
+    }
+
+    @Override
+    public NTLockResult lock(NTLockDTO lockDTO, int timeout, TimeUnit timeUnit, long opTimeoutMillis) {
+        if (opTimeoutMillis <= 0L) {
+            throw new IllegalArgumentException("操作超时时间参数非法(" + opTimeoutMillis + ")");
+        }
+
+        return this.doLock(lockDTO, timeout, timeUnit, false, NTLockDeadline.after(opTimeoutMillis));
+    }
+
+    /**
+     * 抢占或者延长锁（包括排他锁或者并发池锁）
+     */
+    private NTLockResult doLock(NTLockDTO lockDTO, int timeout, TimeUnit timeUnit, boolean bypassCache, NTLockDeadline deadline) {
+        final long nowMillis = System.currentTimeMillis();
 
         // 参数检测
         if (lockDTO == null) {
@@ -177,152 +345,753 @@ public class NTLockImpl implements NTLock {
             throw new IllegalArgumentException("超时时间参数非法(" + timeout + ")");
         }
 
-        // 组装锁信息
-        final Date newExpire = new Date(now.getTime() + timeUnit.toMillis(timeout));
+        // 锁占用缓存：锁被其他持有者占用且未过期，直接失败，无需组装锁对象
+        final long newOwnId = Thread.currentThread().getId();
+        final long newExpire = nowMillis + timeUnit.toMillis(timeout);
+        if (this.heldCache && !bypassCache) {
+            NTLockResult heldResult = this.checkHeldCache(pool, name, newOwnId, nowMillis, newExpire);
+            if (heldResult != null) {
+                return heldResult;
+            }
+        }
 
-        final NTLockDTO newLockDTO = new NTLockDTO(lockDTO.getPool(), lockDTO.getName(), NTHostUtils.HOST, NTHostUtils.IP
-                , Thread.currentThread().getId(), NTDateUtils.format(newExpire));
+        // 组装锁信息
+        final Date now = new Date(nowMillis);
+        final NTLockDTO newLockDTO = new NTLockDTO(pool, name, NTHostUtils.HOST, NTHostUtils.IP
+                , newOwnId, NTDateUtils.format(new Date(newExpire)));
         newLockDTO.setSize(1);
         newLockDTO.setTimes(1);
-        newLockDTO.setModify(NTDateUtils.format(new Date()));
+        newLockDTO.setModify(NTDateUtils.format(now));
+
+        // 尝试抢占或者延长锁（已检测锁占用缓存）
+        return this.tryLock(now, newLockDTO, true, deadline);
+    }
+
+    /**
+     * 锁占用缓存检测：锁被其他持有者占用且未过期，返回失败结果（锁对象和失败描述延迟组装），并记录JFR抢锁事件和锁竞争统计
+     *
+     * @return 失败结果，或者NULL（需访问DB）
+     */
+    private NTLockResult checkHeldCache(String pool, String name, long ownId, long nowMillis, long newExpire) {
+        NTLockHeldCache.NTHeldEntry heldEntry = this.ntHeldCache.get(pool, name, nowMillis);
+        if (heldEntry == null || heldEntry.isOwner(NTHostUtils.HOST, NTHostUtils.IP, ownId)) {
+            return null;
+        }
+
+        NTLockResult result = NTLockResult.makeHeld(pool, name, ownId, newExpire
+                , heldEntry.getOwnHost(), heldEntry.getOwnIp(), heldEntry.getOwnId(), heldEntry.getExpireMillis());
+
+        Object event = NTLockFlightRecorder.beginAcquire();
+        if (event != null) {
+            NTLockFlightRecorder.commitAcquire(event, result.getLockDTO(), result);
+        }
+
+        NTLockProfiler ntProfiler = this.profiler;
+        if (ntProfiler != null) {
+            ntProfiler.recordAttempt(pool, name, false);
+        }
 
-        // 尝试抢占或者延长锁
-        return this.tryLock(now, newLockDTO);
+        return result;
     }
 
     /**
-     * 尝试抢占或者延长锁（包括排他锁或者并发池锁）
+     * 以指定锁对象（含持有者和过期时间）抢占或者延长锁，供多数派锁在其他线程中代替调用线程抢锁
      */
-    private NTLockResult tryLock(final Date now, final NTLockDTO newLockDTO) {
+    NTLockResult lockAs(NTLockDTO newLockDTO, NTLockDeadline deadline) {
+        return this.tryLock(new Date(), newLockDTO, false, deadline);
+    }
+
+    /**
+     * 尝试抢占或者延长锁（包括排他锁或者并发池锁），并记录JFR抢锁事件和锁竞争统计
+     */
+    private NTLockResult tryLock(final Date now, final NTLockDTO newLockDTO, final boolean bypassCache, final NTLockDeadline deadline) {
+        // 本节点同一把锁的异步释放请求先完成
+        NTLockResult awaitResult = this.awaitRelease(newLockDTO, deadline);
+        if (awaitResult != null) {
+            return awaitResult;
+        }
+
+        final Object event = NTLockFlightRecorder.beginAcquire();
+
+        NTLockResult result = this.doTryLock(now, newLockDTO, bypassCache, deadline, event);
+        NTLockFlightRecorder.commitAcquire(event, newLockDTO, result);
+
+        NTLockProfiler ntProfiler = this.profiler;
+        if (ntProfiler != null) {
+            ntProfiler.recordAttempt(newLockDTO.getPool(), newLockDTO.getName(), result.isSuccess());
+            if (result.isSuccess()) {
+                ntProfiler.recordAcquired(result.getLockDTO(), now.getTime());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * 尝试抢占或者延长锁
+     *
+     * @param event JFR抢锁事件，未开启记录时为NULL
+     */
+    private NTLockResult doTryLock(Date now, NTLockDTO newLockDTO, boolean bypassCache, NTLockDeadline deadline, Object event) {
         final String pool = newLockDTO.getPool();
         final String name = newLockDTO.getName();
 
-        // 抢锁：查询 -> 插入 / 过期检测 -> 更新
-        Connection conn = null;
-        boolean autoCommit = true;
-        try {
-            conn = this.ntDataSource.getConnection();
-            autoCommit = conn.getAutoCommit();
+        // 锁占用缓存：锁被其他持有者占用且未过期，直接失败
+        if (this.heldCache && !bypassCache) {
+            NTLockHeldCache.NTHeldEntry heldEntry = this.ntHeldCache.get(pool, name, now.getTime());
+            if (heldEntry != null && !heldEntry.isOwner(newLockDTO.getOwnHost(), newLockDTO.getOwnIp(), newLockDTO.getOwnId())) {
+                return NTLockResult.makeHeld(newLockDTO, heldEntry.getOwnHost(), heldEntry.getOwnIp(), heldEntry.getOwnId(), heldEntry.getExpireMillis());
+            }
+        }
 
-            if (!autoCommit) {
-                conn.setAutoCommit(true);
+        // 组提交：与其他请求合并批量抢锁，批量异常时逐个抢锁
+        if (this.groupCommit) {
+            Object waitEvent = NTLockFlightRecorder.beginWait();
+            NTLockResult result = this.fetchGroupCommitter().submit(now, newLockDTO, deadline);
+            NTLockFlightRecorder.commitWait(waitEvent, newLockDTO, "GROUP_COMMIT");
+
+            if (result != null) {
+                return result;
             }
+        }
 
-            // 1. 查询是否已经存在锁
-            Optional<NTLockDTO> optLockDTO = this.select(conn, newLockDTO.getPool(), newLockDTO.getName());
+        // 抢锁：查询 -> 插入 / 过期检测 -> 更新，瞬时异常（死锁、数据库繁忙等）在重试次数和截止时间内自动重试
+        for (int retry = 0; ; retry++) {
+            NTLockStoreSession session = null;
+            long dbStart = event == null ? 0L : System.nanoTime();
+            try {
+                session = this.ntLockStore.openSession(deadline);
 
-            if (!optLockDTO.isPresent()) {
-                // 2. 不存在锁，插入锁对象
-                try {
-                    this.insert(conn, newLockDTO);
-                    LOGGER.debug("[{}]锁新增抢占成功-{}.", Thread.currentThread().getId(), newLockDTO);
-                } catch (Throwable e) {
-                    LOGGER.warn("[{}]锁新增抢占异常[{}]-{}.", Thread.currentThread().getId(), e.getMessage(), newLockDTO);
-                    return NTLockResult.makeFailure(newLockDTO, String.format("新增锁数据异常(%s->%s)[%s].", pool, name, e.getMessage()));
+                NTLockResult result = this.tryLockOnce(session, now, newLockDTO);
+                if (deadline != null && deadline.isExpired()) {
+                    // 查询超时精度为秒，SQL返回时可能已超过截止时间
+                    LOGGER.warn("[{}]锁操作超过截止时间-结果未知-{}.", Thread.currentThread().getId(), newLockDTO);
+                    return NTLockResult.makeTimeout(newLockDTO, String.format("锁操作超过截止时间-结果未知(%s->%s)", pool, name));
+                }
+
+                return result;
+            } catch (Throwable e) {
+                NTLockErrorType errorType = this.ntLockStore.classify(e);
+                if (errorType == NTLockErrorType.TIMEOUT) {
+                    LOGGER.warn("[{}]锁操作超时-结果未知[{}]-{}.", Thread.currentThread().getId(), e.getMessage(), newLockDTO);
+                    return NTLockResult.makeTimeout(newLockDTO, String.format("锁操作超时-结果未知(%s->%s)", pool, name));
+                }
+
+                if (errorType == NTLockErrorType.TRANSIENT) {
+                    if (this.waitRetry(retry, deadline, newLockDTO)) {
+                        LOGGER.debug("[{}]锁操作瞬时异常-第{}次重试[{}]-{}.", Thread.currentThread().getId(), retry + 1, e.getMessage(), newLockDTO);
+                        continue;
+                    }
+
+                    LOGGER.warn("[{}]锁操作瞬时异常-重试{}次后失败[{}]-{}.", Thread.currentThread().getId(), retry, e.getMessage(), newLockDTO);
+                    return NTLockResult.makeFailure(newLockDTO, NTLockReason.DB_ERROR, String.format("锁操作瞬时异常-重试%s次后失败(%s->%s)[%s]", retry, pool, name, e.getMessage()));
                 }
 
-                // 插入锁/抢锁成功返回
+                LOGGER.error("排他锁抢占未知异常-{}.", newLockDTO, e);
+                return NTLockResult.makeFailure(newLockDTO, NTLockReason.DB_ERROR, String.format("排他锁抢占未知异常(%s->%s)[%s]", pool, name, e.getMessage()));
+            } finally {
+                if (session != null) {
+                    session.close();
+                }
+
+                if (event != null) {
+                    NTLockFlightRecorder.addDbTime(event, System.nanoTime() - dbStart);
+                }
+            }
+        }
+    }
+
+    /**
+     * 尝试1次抢占或者延长锁
+     */
+    private NTLockResult tryLockOnce(NTLockStoreSession session, Date now, NTLockDTO newLockDTO) throws SQLException {
+        // 0. 行复用模式：锁记录已释放则直接条件更新抢占，无需先查询（过期未释放的锁记录按过期抢占处理）
+        if (this.recycleRow && this.ntLockStore.updateAcquire(session, newLockDTO, NTDateUtils.format(now))) {
+            this.audit(NTAuditAction.ACQUIRE, newLockDTO);
+            LOGGER.debug("[{}]锁复用抢占成功[{}->{}].", Thread.currentThread().getId(), newLockDTO.getPool(), newLockDTO.getName());
+            return NTLockResult.makeSuccess(newLockDTO);
+        }
+
+        // 1. 查询是否已经存在锁
+        Optional<NTLockDTO> optLockDTO = this.ntLockStore.select(session, newLockDTO.getPool(), newLockDTO.getName());
+
+        if (!optLockDTO.isPresent()) {
+            // 2. 不存在锁，插入锁对象，并发新增冲突则抢占失败
+            if (!this.ntLockStore.insert(session, newLockDTO)) {
+                LOGGER.debug("[{}]锁新增抢占冲突-已被其他抢占[{}->{}].", Thread.currentThread().getId(), newLockDTO.getPool(), newLockDTO.getName());
+                return NTLockResult.makeFailure(newLockDTO, NTLockReason.INSERT_RACE);
+            }
+
+            this.audit(NTAuditAction.ACQUIRE, newLockDTO);
+            LOGGER.debug("[{}]锁新增抢占成功-{}.", Thread.currentThread().getId(), newLockDTO);
+
+            // 插入锁/抢锁成功返回
+            return NTLockResult.makeSuccess(newLockDTO);
+        }
+
+        // 3. 锁已经存在，则检测是否已经过期
+        final NTLockDTO existLockDTO = optLockDTO.get();
+        final Date existExpire = existLockDTO.fetchExpireTime();
+
+        if (!existExpire.after(now)) {
+            // 3.1 当前锁已过期，尝试重新抢占锁定
+            if (this.ntLockStore.updateTaken(session, newLockDTO, existLockDTO)) {
+                // 更新锁/延长锁定成功返回
+                this.recordSteal(newLockDTO);
+                this.audit(NTAuditAction.STEAL, newLockDTO);
+                LOGGER.debug("[{}]锁过期抢占成功[{}->{}].", Thread.currentThread().getId(), newLockDTO.getPool(), newLockDTO.getName());
                 return NTLockResult.makeSuccess(newLockDTO);
             }
 
-            // 3. 锁已经存在，则检测是否已经过期
-            final NTLockDTO existLockDTO = optLockDTO.get();
-            final Date existExpire = existLockDTO.fetchExpireTime();
+            // 更新锁/延长锁定失败返回
+            LOGGER.debug("[{}]锁过期抢占失败[{}->{}].", Thread.currentThread().getId(), newLockDTO.getPool(), newLockDTO.getName());
+            return NTLockResult.makeFailure(newLockDTO, NTLockReason.STEAL_LOST);
+        }
 
-            if (!existExpire.after(now)) {
-                // 3.1 当前锁已过期，尝试重新抢占锁定
-                if (this.updateTaken(conn, newLockDTO, existLockDTO)) {
+        // 3.2 未过期，检测是否为延长锁定
+        if (!isSameOwner(existLockDTO, newLockDTO)) {
+            // 非当前服务器，锁已经被其他抢占，直接失败
+            return this.makeHeldFailure(now, newLockDTO, existLockDTO, existExpire);
+        } else {
+            // 当前服务器，未过期，则当前操作为延长锁定
+            if (newLockDTO.fetchExpireTime().after(existExpire)) {
+                Object event = NTLockFlightRecorder.beginRenew();
+                boolean renew = this.ntLockStore.updateExpire(session, newLockDTO, existLockDTO);
+                NTLockFlightRecorder.commitRenew(event, newLockDTO, renew);
+
+                if (renew) {
                     // 更新锁/延长锁定成功返回
-                    LOGGER.debug("[{}]锁过期抢占成功[{}->{}].", Thread.currentThread().getId(), newLockDTO.getPool(), newLockDTO.getName());
+                    this.audit(NTAuditAction.EXTEND, newLockDTO);
+                    LOGGER.debug("[{}]锁延长锁定成功[{}->{}].", Thread.currentThread().getId(), newLockDTO.getPool(), newLockDTO.getName());
                     return NTLockResult.makeSuccess(newLockDTO);
                 }
 
-                // 更新锁/延长锁定失败返回
-                LOGGER.debug("[{}]锁过期抢占失败[{}->{}].", Thread.currentThread().getId(), newLockDTO.getPool(), newLockDTO.getName());
-                return NTLockResult.makeFailure(newLockDTO, "锁已经过期-抢占失败");
+                // 更新锁失败，但是还未过期，应该返回成功
+                LOGGER.warn("[{}]锁延长锁定失败-返回之前成功[{}->{}].", Thread.currentThread().getId(), newLockDTO.getPool(), newLockDTO.getName());
+                return NTLockResult.makeSuccess(existLockDTO);
             }
 
-            // 3.2 未过期，检测是否为延长锁定
-            if (!existLockDTO.getOwnHost().equals(newLockDTO.getOwnHost())
-                    || !existLockDTO.getOwnIp().equals(newLockDTO.getOwnIp())
-                    || existLockDTO.getOwnId() != newLockDTO.getOwnId()) {
-                // 非当前服务器，锁已经被其他抢占，直接失败
-                LOGGER.debug("[{}]锁未过期已被占用[{}->{}]-[{}/{}/{}].", Thread.currentThread().getId(), newLockDTO.getPool()
-                        , newLockDTO.getName(), existLockDTO.getOwnHost(), existLockDTO.getOwnIp(), existLockDTO.getOwnId());
-                return NTLockResult.makeFailure(newLockDTO, String.format("锁已经被(%s/%s/%s)抢占-过期时间(%s)"
-                        , existLockDTO.getOwnHost(), existLockDTO.getOwnIp(), existLockDTO.getOwnId(), existLockDTO.getExpire()));
+            // 当前锁定时间更晚，直接返回
+            return NTLockResult.makeSuccess(existLockDTO);
+        }
+    }
+
+    /**
+     * 批量抢占或者延长锁（组提交）：1次查询获取全部锁记录，新增和更新分别批量执行，每个请求分别通知结果
+     */
+    void tryLockBatch(List<NTLockGroupCommitter.NTLockGroupRequest> requests) throws SQLException {
+        NTLockStoreSession session = this.ntLockStore.openSession(null);
+        try {
+            // 1. 批量查询锁记录
+            List<NTLockDTO> newLockDTOs = new ArrayList<>(requests.size());
+            for (NTLockGroupCommitter.NTLockGroupRequest request : requests) {
+                newLockDTOs.add(request.getNewLockDTO());
+            }
+
+            Map<String, NTLockDTO> existLockDTOs = this.ntLockStore.selectBatch(session, newLockDTOs);
+
+            // 2. 按锁记录状态分组：新增、过期抢占、延长锁定，其余直接通知结果
+            List<NTLockGroupCommitter.NTLockGroupRequest> inserts = new ArrayList<>();
+            List<NTLockGroupCommitter.NTLockGroupRequest> takens = new ArrayList<>();
+            List<NTLockGroupCommitter.NTLockGroupRequest> expires = new ArrayList<>();
+            for (NTLockGroupCommitter.NTLockGroupRequest request : requests) {
+                NTLockDTO newLockDTO = request.getNewLockDTO();
+                NTLockDTO existLockDTO = existLockDTOs.get(newLockDTO.getPool() + "/" + newLockDTO.getName());
+                if (existLockDTO == null) {
+                    inserts.add(request);
+                    continue;
+                }
+
+                Date existExpire = existLockDTO.fetchExpireTime();
+                if (!existExpire.after(request.getNow())) {
+                    takens.add(request);
+                } else if (!isSameOwner(existLockDTO, newLockDTO)) {
+                    request.complete(this.makeHeldFailure(request.getNow(), newLockDTO, existLockDTO, existExpire));
+                } else if (newLockDTO.fetchExpireTime().after(existExpire)) {
+                    expires.add(request);
+                } else {
+                    request.complete(NTLockResult.makeSuccess(existLockDTO));
+                }
+            }
+
+            // 3. 批量新增
+            boolean[] results = this.ntLockStore.insertBatch(session, fetchLockDTOs(inserts, null));
+            for (int i = 0; i < results.length; i++) {
+                NTLockDTO newLockDTO = inserts.get(i).getNewLockDTO();
+                if (results[i]) {
+                    this.audit(NTAuditAction.ACQUIRE, newLockDTO);
+                }
+
+                inserts.get(i).complete(results[i] ? NTLockResult.makeSuccess(newLockDTO) : NTLockResult.makeFailure(newLockDTO, NTLockReason.INSERT_RACE));
+            }
+
+            // 4. 批量过期抢占
+            results = this.ntLockStore.updateBatch(session, fetchLockDTOs(takens, null), fetchLockDTOs(takens, existLockDTOs), true);
+            for (int i = 0; i < results.length; i++) {
+                NTLockDTO newLockDTO = takens.get(i).getNewLockDTO();
+                if (results[i]) {
+                    this.recordSteal(newLockDTO);
+                    this.audit(NTAuditAction.STEAL, newLockDTO);
+                }
+
+                takens.get(i).complete(results[i] ? NTLockResult.makeSuccess(newLockDTO) : NTLockResult.makeFailure(newLockDTO, NTLockReason.STEAL_LOST));
+            }
+
+            // 5. 批量延长锁定，更新失败但是还未过期，返回之前成功
+            Object event = expires.isEmpty() ? null : NTLockFlightRecorder.beginRenew();
+            results = this.ntLockStore.updateBatch(session, fetchLockDTOs(expires, null), fetchLockDTOs(expires, existLockDTOs), false);
+            for (int i = 0; i < results.length; i++) {
+                NTLockDTO newLockDTO = expires.get(i).getNewLockDTO();
+                NTLockFlightRecorder.commitRenew(event, newLockDTO, results[i]);
+                if (results[i]) {
+                    this.audit(NTAuditAction.EXTEND, newLockDTO);
+                }
+
+                NTLockDTO existLockDTO = existLockDTOs.get(newLockDTO.getPool() + "/" + newLockDTO.getName());
+                expires.get(i).complete(NTLockResult.makeSuccess(results[i] ? newLockDTO : existLockDTO));
+            }
+
+            LOGGER.debug("锁组提交完成-新增{}个-抢占{}个-延长{}个-共{}个.", inserts.size(), takens.size(), expires.size(), requests.size());
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * 自适应租约抢占或者延长排它锁：租约按该锁分组（或者锁名称）历史持有时间的高分位值加余量估算，
+     * 并限制在最小、最大租约之间，历史样本不足时取最大租约；持有时间在释放时统计
+     *
+     * @param lockName 排它锁名称，非空，1~64字符
+     * @param minLease 最小租约，值>0
+     * @param maxLease 最大租约，值>=最小租约
+     * @param timeUnit 租约时间单位
+     * @return 锁结果
+     * @throws IllegalArgumentException 参数非法
+     */
+    public NTLockResult lockAdaptive(String lockName, long minLease, long maxLease, TimeUnit timeUnit) {
+        // 参数检测
+        if (lockName == null || lockName.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("锁名称参数非法(" + MAX_NAME_LENGTH + ")");
+        }
+
+        NTLockDTO lockDTO = new NTLockDTO(DEFAULT_POOL, lockName, NTHostUtils.HOST, NTHostUtils.IP, Thread.currentThread().getId(), "");
+        return this.lockAdaptive(lockDTO, minLease, maxLease, timeUnit);
+    }
+
+    /**
+     * 自适应租约抢占或者延长锁（包括排他锁或者并发池锁）
+     *
+     * @param lockDTO  锁信息，包括排它锁和并发池锁
+     * @param minLease 最小租约，值>0
+     * @param maxLease 最大租约，值>=最小租约
+     * @param timeUnit 租约时间单位
+     * @return 锁结果
+     * @throws IllegalArgumentException 参数非法
+     * @see #lockAdaptive(String, long, long, TimeUnit)
+     */
+    public NTLockResult lockAdaptive(NTLockDTO lockDTO, long minLease, long maxLease, TimeUnit timeUnit) {
+        // 参数检测
+        if (lockDTO == null || timeUnit == null) {
+            throw new IllegalArgumentException("锁对象或者租约时间单位参数为NULL.");
+        }
+
+        if (lockDTO.getPool() == null || lockDTO.getPool().length() > MAX_POOL_LENGTH) {
+            throw new IllegalArgumentException("锁池参数非法(" + MAX_POOL_LENGTH + ")");
+        }
+
+        if (lockDTO.getName() == null || lockDTO.getName().length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("锁名称参数非法(" + MAX_NAME_LENGTH + ")");
+        }
+
+        final long minMillis = timeUnit.toMillis(minLease);
+        final long maxMillis = timeUnit.toMillis(maxLease);
+        if (minMillis <= 0L || maxMillis < minMillis || maxMillis > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("最小租约或者最大租约参数非法(" + minLease + "/" + maxLease + ")");
+        }
+
+        // 估算租约
+        long lease = this.leaseEstimator.estimate(lockDTO.getPool(), lockDTO.getName(), this.adaptiveLeaseByName
+                , this.adaptiveLeasePercentile, this.adaptiveLeaseMargin, minMillis, maxMillis);
+
+        NTLockResult result = this.lock(lockDTO, (int) lease, TimeUnit.MILLISECONDS);
+        if (result.isSuccess()) {
+            this.leaseEstimator.recordAcquired(result.getLockDTO(), System.currentTimeMillis());
+        }
+
+        return result;
+    }
+
+    /**
+     * 批量抢占或者延长锁：1次连接，批量查询、批量新增和批量更新，持有者为当前线程
+     *
+     * @param lockDTOs 锁信息列表，同一批次锁不能重复
+     * @param timeout  锁超时时间，值>0
+     * @param timeUnit 超时时间单位
+     * @return 锁结果列表，与锁信息列表顺序一致
+     * @throws IllegalArgumentException 参数非法
+     */
+    public List<NTLockResult> lockBatch(List<NTLockDTO> lockDTOs, int timeout, TimeUnit timeUnit) {
+        return this.lockBatchAs(lockDTOs, Thread.currentThread().getId(), timeout, timeUnit);
+    }
+
+    /**
+     * 以指定持有者线程ID批量抢占或者延长锁，供节点级持有者（如锁池本地许可）在后台线程中续约
+     */
+    List<NTLockResult> lockBatchAs(List<NTLockDTO> lockDTOs, long ownId, int timeout, TimeUnit timeUnit) {
+        final Date now = new Date();
+
+        // 参数检测
+        if (lockDTOs == null) {
+            throw new IllegalArgumentException("锁对象列表参数为NULL.");
+        }
+
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("超时时间参数非法(" + timeout + ")");
+        }
+
+        if (timeUnit == null) {
+            throw new IllegalArgumentException("超时时间单位参数为NULL.");
+        }
+
+        // 组装锁信息
+        final String newExpire = NTDateUtils.format(new Date(now.getTime() + timeUnit.toMillis(timeout)));
+        final String modify = NTDateUtils.format(now);
+
+        Set<String> keys = new HashSet<>();
+        List<NTLockGroupCommitter.NTLockGroupRequest> requests = new ArrayList<>(lockDTOs.size());
+        for (NTLockDTO lockDTO : lockDTOs) {
+            if (lockDTO == null || lockDTO.getPool() == null || lockDTO.getPool().length() > MAX_POOL_LENGTH
+                    || lockDTO.getName() == null || lockDTO.getName().length() > MAX_NAME_LENGTH) {
+                throw new IllegalArgumentException("锁对象参数非法(" + lockDTO + ")");
+            }
+
+            if (!keys.add(lockDTO.getPool() + "/" + lockDTO.getName())) {
+                throw new IllegalArgumentException(String.format("锁对象重复(%s->%s)", lockDTO.getPool(), lockDTO.getName()));
+            }
+
+            NTLockDTO newLockDTO = new NTLockDTO(lockDTO.getPool(), lockDTO.getName(), NTHostUtils.HOST, NTHostUtils.IP
+                    , ownId, newExpire);
+            newLockDTO.setSize(Math.max(1, lockDTO.getSize()));
+            newLockDTO.setTimes(1);
+            newLockDTO.setModify(modify);
+
+            requests.add(new NTLockGroupCommitter.NTLockGroupRequest(now, newLockDTO));
+        }
+
+        // 批量抢锁，异常则全部失败
+        List<NTLockResult> results = new ArrayList<>(requests.size());
+        if (requests.isEmpty()) {
+            return results;
+        }
+
+        // 本节点同一把锁的异步释放请求先完成，等待超时的锁不参与批量抢锁
+        List<NTLockGroupCommitter.NTLockGroupRequest> batch = new ArrayList<>(requests.size());
+        for (NTLockGroupCommitter.NTLockGroupRequest request : requests) {
+            NTLockResult awaitResult = this.awaitRelease(request.getNewLockDTO(), null);
+            if (awaitResult != null) {
+                request.complete(awaitResult);
             } else {
-                // 当前服务器，未过期，则当前操作为延长锁定
-                if (newLockDTO.fetchExpireTime().after(existExpire)) {
-                    if (this.updateExpire(conn, newLockDTO, existLockDTO)) {
-                        // 更新锁/延长锁定成功返回
-                        LOGGER.debug("[{}]锁延长锁定成功[{}->{}].", Thread.currentThread().getId(), newLockDTO.getPool(), newLockDTO.getName());
-                        return NTLockResult.makeSuccess(newLockDTO);
+                batch.add(request);
+            }
+        }
+
+        String error = null;
+        try {
+            if (!batch.isEmpty()) {
+                this.tryLockBatch(batch);
+            }
+        } catch (Throwable e) {
+            LOGGER.error("批量抢锁异常-共{}个.", batch.size(), e);
+            error = e.getMessage();
+        }
+
+        for (NTLockGroupCommitter.NTLockGroupRequest request : requests) {
+            NTLockResult result = request.getResult();
+            if (result == null) {
+                NTLockDTO newLockDTO = request.getNewLockDTO();
+                result = NTLockResult.makeFailure(newLockDTO, NTLockReason.DB_ERROR, String.format("批量抢锁异常(%s->%s)[%s]", newLockDTO.getPool(), newLockDTO.getName(), error));
+            }
+
+            results.add(result);
+        }
+
+        return results;
+    }
+
+    /**
+     * 组提交请求的锁对象，`existLockDTOs`不为NULL时取已存在的锁记录
+     */
+    private static List<NTLockDTO> fetchLockDTOs(List<NTLockGroupCommitter.NTLockGroupRequest> requests, Map<String, NTLockDTO> existLockDTOs) {
+        List<NTLockDTO> lockDTOs = new ArrayList<>(requests.size());
+        for (NTLockGroupCommitter.NTLockGroupRequest request : requests) {
+            NTLockDTO newLockDTO = request.getNewLockDTO();
+            lockDTOs.add(existLockDTOs == null ? newLockDTO : existLockDTOs.get(newLockDTO.getPool() + "/" + newLockDTO.getName()));
+        }
+
+        return lockDTOs;
+    }
+
+    /**
+     * 锁已被其他持有者占用：写入锁占用缓存，返回失败
+     */
+    private NTLockResult makeHeldFailure(Date now, NTLockDTO newLockDTO, NTLockDTO existLockDTO, Date existExpire) {
+        if (this.heldCache) {
+            NTLockHeldCache.NTHeldEntry heldEntry = new NTLockHeldCache.NTHeldEntry(existLockDTO.getOwnHost(), existLockDTO.getOwnIp()
+                    , existLockDTO.getOwnId(), existLockDTO.getExpire(), existExpire.getTime());
+            this.ntHeldCache.put(newLockDTO.getPool(), newLockDTO.getName(), heldEntry, now.getTime());
+        }
+
+        return NTLockResult.makeHeld(newLockDTO, existLockDTO.getOwnHost(), existLockDTO.getOwnIp(), existLockDTO.getOwnId(), existExpire.getTime());
+    }
+
+    /**
+     * 是否为同一锁持有者
+     */
+    static boolean isSameOwner(NTLockDTO existLockDTO, NTLockDTO newLockDTO) {
+        return existLockDTO.getOwnHost().equals(newLockDTO.getOwnHost())
+                && existLockDTO.getOwnIp().equals(newLockDTO.getOwnIp())
+                && existLockDTO.getOwnId() == newLockDTO.getOwnId();
+    }
+
+    @Override
+    public NTLockResult lockPool(String poolName, int count, int timeout, TimeUnit timeUnit) {
+        final Date now = new Date();
+
+        // 参数检测
+        if (poolName == null || poolName.length() > MAX_POOL_LENGTH) {
+            throw new IllegalArgumentException("并发锁池名称参数非法(" + MAX_POOL_LENGTH + ")");
+        }
+
+        if (count <= 0) {
+            throw new IllegalArgumentException("锁池并发数量参数非法(" + count + ")");
+        }
+
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("超时时间参数非法(" + timeout + ")");
+        }
+
+        // 从随机位置依次尝试抢占锁池中的并发锁（锁名称为序号：0~count-1）：每批并发锁1次批量查询，
+        // 仅逐个抢占空闲（不存在、已过期或者当前线程持有）的并发锁，锁占用缓存命中的并发锁无需访问DB
+        final long ownId = Thread.currentThread().getId();
+        final long newExpire = now.getTime() + timeUnit.toMillis(timeout);
+        final int offset = ThreadLocalRandom.current().nextInt(count);
+
+        NTLockResult result = null;
+        for (int from = 0; from < count; from += POOL_SELECT_BATCH) {
+            // 1. 组装本批并发锁，跳过锁占用缓存命中的并发锁
+            List<NTLockDTO> newLockDTOs = new ArrayList<>();
+            for (int i = from; i < Math.min(count, from + POOL_SELECT_BATCH); i++) {
+                String name = String.valueOf((offset + i) % count);
+                if (this.heldCache) {
+                    NTLockResult heldResult = this.checkHeldCache(poolName, name, ownId, now.getTime(), newExpire);
+                    if (heldResult != null) {
+                        result = heldResult;
+                        continue;
+                    }
+                }
+
+                NTLockDTO newLockDTO = new NTLockDTO(poolName, name, NTHostUtils.HOST, NTHostUtils.IP, ownId, NTDateUtils.format(new Date(newExpire)));
+                newLockDTO.setSize(count);
+                newLockDTO.setTimes(1);
+                newLockDTO.setModify(NTDateUtils.format(now));
+                newLockDTOs.add(newLockDTO);
+            }
+
+            // 2. 批量查询，逐个抢占空闲的并发锁
+            Map<String, NTLockDTO> existLockDTOs = this.selectPool(poolName, newLockDTOs);
+            for (NTLockDTO newLockDTO : newLockDTOs) {
+                NTLockDTO existLockDTO = existLockDTOs.get(poolName + "/" + newLockDTO.getName());
+                if (existLockDTO != null && !isSameOwner(existLockDTO, newLockDTO)) {
+                    Date existExpire = existLockDTO.fetchExpireTime();
+                    if (existExpire.after(now)) {
+                        result = this.makeHeldFailure(now, newLockDTO, existLockDTO, existExpire);
+                        continue;
                     }
+                }
+
+                result = this.tryLock(now, newLockDTO, true, null);
+                if (result.isSuccess()) {
+                    return result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * 批量查询锁池中的并发锁，查询异常则返回空（逐个抢占）
+     */
+    private Map<String, NTLockDTO> selectPool(String poolName, List<NTLockDTO> newLockDTOs) {
+        if (newLockDTOs.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        NTLockStoreSession session = null;
+        try {
+            session = this.ntLockStore.openSession(null);
+            return this.ntLockStore.selectBatch(session, newLockDTOs);
+        } catch (Throwable e) {
+            LOGGER.warn("并发锁池批量查询异常-逐个抢占[{}]-{}.", poolName, e.getMessage());
+            return Collections.emptyMap();
+        } finally {
+            if (session != null) {
+                session.close();
+            }
+        }
+    }
+
+    @Override
+    public boolean release(String lockName) {
+        // 参数检测
+        if (lockName == null || lockName.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("锁名称参数非法(" + MAX_NAME_LENGTH + ")");
+        }
+
+        // 组装锁信息
+        final NTLockDTO newLockDTO = new NTLockDTO(DEFAULT_POOL, lockName, NTHostUtils.HOST, NTHostUtils.IP
+                , Thread.currentThread().getId(), NTDateUtils.format(new Date()));
+        newLockDTO.setSize(1);
+        newLockDTO.setTimes(1);
+        newLockDTO.setModify(NTDateUtils.format(new Date()));
+
+        // 释放排它锁或并发池锁
+        return this.release(newLockDTO);
+    }
+
+    @Override
+    public boolean release(final NTLockDTO lockDTO) {
+        return this.doRelease(lockDTO, null).isSuccess();
+    }
+
+    @Override
+    public NTLockResult release(final NTLockDTO lockDTO, long opTimeoutMillis) {
+        if (opTimeoutMillis <= 0L) {
+            throw new IllegalArgumentException("操作超时时间参数非法(" + opTimeoutMillis + ")");
+        }
+
+        return this.doRelease(lockDTO, NTLockDeadline.after(opTimeoutMillis));
+    }
+
+    /**
+     * 释放排它锁，或者释放并发池锁
+     */
+    private NTLockResult doRelease(final NTLockDTO lockDTO, final NTLockDeadline deadline) {
+        // 参数检测
+        checkRelease(lockDTO);
+
+        final String pool = lockDTO.getPool();
+        final String name = lockDTO.getName();
+
+        // 删除锁记录，瞬时异常在重试次数和截止时间内自动重试
+        for (int retry = 0; ; retry++) {
+            NTLockStoreSession session = null;
+            try {
+                session = this.ntLockStore.openSession(deadline);
+
+                // 行复用模式保留锁记录，否则删除锁记录
+                boolean release;
+                if (this.recycleRow) {
+                    String now = NTDateUtils.format(new Date());
+                    release = this.ntLockStore.updateFree(session, lockDTO, now, now);
+                } else {
+                    release = this.ntLockStore.delete(session, lockDTO);
+                }
+
+                if (deadline != null && deadline.isExpired()) {
+                    // 查询超时精度为秒，SQL返回时可能已超过截止时间
+                    LOGGER.warn("锁释放超过截止时间-结果未知-{}.", lockDTO);
+                    return NTLockResult.makeTimeout(lockDTO, String.format("锁释放超过截止时间-结果未知(%s->%s)", pool, name));
+                }
+
+                if (release) {
+                    this.onReleased(lockDTO);
+                    return NTLockResult.makeSuccess(lockDTO);
+                }
+
+                return NTLockResult.makeFailure(lockDTO, NTLockReason.NOT_OWNER);
+            } catch (Throwable e) {
+                NTLockErrorType errorType = this.ntLockStore.classify(e);
+                if (errorType == NTLockErrorType.TIMEOUT) {
+                    LOGGER.warn("锁释放超时-结果未知[{}]-{}.", e.getMessage(), lockDTO);
+                    return NTLockResult.makeTimeout(lockDTO, String.format("锁释放超时-结果未知(%s->%s)", pool, name));
+                }
 
-                    // 更新锁失败，但是还未过期，应该返回成功
-                    LOGGER.warn("[{}]锁延长锁定失败-返回之前成功[{}->{}].", Thread.currentThread().getId(), newLockDTO.getPool(), newLockDTO.getName());
-                    return NTLockResult.makeSuccess(existLockDTO);
+                if (errorType == NTLockErrorType.TRANSIENT && this.waitRetry(retry, deadline, lockDTO)) {
+                    LOGGER.debug("锁释放瞬时异常-第{}次重试[{}]-{}.", retry + 1, e.getMessage(), lockDTO);
+                    continue;
                 }
 
-                // 当前锁定时间更晚，直接返回
-                return NTLockResult.makeSuccess(existLockDTO);
-            }
-        } catch (Throwable e) {
-            LOGGER.error("排他锁抢占未知异常-{}.", newLockDTO, e);
-            return NTLockResult.makeFailure(newLockDTO, String.format("排他锁抢占未知异常(%s->%s)", pool, name));
-        } finally {
-            if (!autoCommit) {
-                NTJDBCUtils.closeAutoCommit(conn);
+                LOGGER.error("锁释放删除记录异常-{}.", lockDTO, e);
+                return NTLockResult.makeFailure(lockDTO, NTLockReason.DB_ERROR, String.format("锁释放删除记录异常(%s->%s)[%s]", pool, name, e.getMessage()));
+            } finally {
+                if (session != null) {
+                    session.close();
+                }
             }
-
-            NTJDBCUtils.closeQuietly(conn);
         }
     }
 
-    @Override
-    public NTLockResult lockPool(String poolName, int count, int timeout, TimeUnit timeUnit) {
-        final Date now = new Date();
+    /**
+     * 批量释放锁（异步释放线程）：1次连接批量删除，行复用模式逐个释放，异常则逐个释放（含瞬时异常重试）
+     */
+    void releaseBatch(List<NTLockDTO> lockDTOs) {
+        if (this.recycleRow) {
+            for (NTLockDTO lockDTO : lockDTOs) {
+                this.doRelease(lockDTO, null);
+            }
 
-        // 参数检测
-        if (poolName == null || poolName.length() > MAX_POOL_LENGTH) {
-            throw new IllegalArgumentException("并发锁池名称参数非法(" + MAX_POOL_LENGTH + ")");
+            return;
         }
 
-        if (count <= 0) {
-            throw new IllegalArgumentException("锁池并发数量参数非法(" + count + ")");
+        boolean[] results = null;
+        NTLockStoreSession session = null;
+        try {
+            session = this.ntLockStore.openSession(null);
+            results = this.ntLockStore.deleteBatch(session, lockDTOs);
+        } catch (Throwable e) {
+            LOGGER.warn("锁批量释放异常-逐个释放[{}]-共{}个.", e.getMessage(), lockDTOs.size());
+        } finally {
+            if (session != null) {
+                session.close();
+            }
         }
 
-        if (timeout <= 0) {
-            throw new IllegalArgumentException("超时时间参数非法(" + timeout + ")");
+        for (int i = 0; i < lockDTOs.size(); i++) {
+            if (results == null) {
+                this.doRelease(lockDTOs.get(i), null);
+            } else if (results[i]) {
+                this.onReleased(lockDTOs.get(i));
+            }
         }
-
-        // 抢占或者延长抢占锁时间
-        // TODO:
-        return null;
     }
 
-    @Override
-    public boolean release(String lockName) {
+    /**
+     * 异步释放排它锁，或者释放并发池锁：释放请求放入队列立即返回，由后台线程批量删除；
+     * 本节点再次抢占该锁时先完成该释放请求
+     *
+     * @param lockDTO 申请锁对象
+     * @return true-已放入队列（或者已同步释放成功），false-同步释放失败
+     * @throws IllegalArgumentException 参数非法
+     */
+    public boolean releaseAsync(final NTLockDTO lockDTO) {
         // 参数检测
-        if (lockName == null || lockName.length() > MAX_NAME_LENGTH) {
-            throw new IllegalArgumentException("锁名称参数非法(" + MAX_NAME_LENGTH + ")");
-        }
+        checkRelease(lockDTO);
 
-        // 组装锁信息
-        final NTLockDTO newLockDTO = new NTLockDTO(DEFAULT_POOL, lockName, NTHostUtils.HOST, NTHostUtils.IP
-                , Thread.currentThread().getId(), NTDateUtils.format(new Date()));
-        newLockDTO.setSize(1);
-        newLockDTO.setTimes(1);
-        newLockDTO.setModify(NTDateUtils.format(new Date()));
+        // 已停止或者该锁已有待释放请求，同步释放
+        if (!this.fetchReleaser().submit(lockDTO)) {
+            return this.release(lockDTO);
+        }
 
-        // 释放排它锁或并发池锁
-        return this.release(newLockDTO);
+        // 本节点其他线程抢锁无需等待锁占用缓存过期
+        this.ntHeldCache.remove(lockDTO.getPool(), lockDTO.getName());
+        return true;
     }
 
-    @Override
-    public boolean release(final NTLockDTO lockDTO) {
-        // 参数检测
+    /**
+     * 释放参数检测
+     */
+    private static void checkRelease(NTLockDTO lockDTO) {
         if (lockDTO == null) {
             throw new IllegalArgumentException("锁对象参数为NULL.");
         }
@@ -343,167 +1112,233 @@ public class NTLockImpl implements NTLock {
         if (ownHost == null || ownIp == null || ownId < 0L) {
             throw new IllegalArgumentException(String.format("锁服务器参数非法(%s/%s/%s)", ownHost, ownIp, ownId));
         }
+    }
+
+    /**
+     * 锁已释放：清除锁占用缓存，记录JFR事件、锁竞争统计、审计事件和持有时间
+     */
+    private void onReleased(NTLockDTO lockDTO) {
+        this.ntHeldCache.remove(lockDTO.getPool(), lockDTO.getName());
+        NTLockFlightRecorder.released(lockDTO);
+        this.recordReleased(lockDTO);
+        this.audit(NTAuditAction.RELEASE, lockDTO);
+        this.leaseEstimator.recordReleased(lockDTO, System.currentTimeMillis());
+    }
+
+    /**
+     * 本节点同一把锁的异步释放请求先完成
+     *
+     * @return NULL-无待释放请求或者已完成，否则为等待超时结果
+     */
+    private NTLockResult awaitRelease(NTLockDTO newLockDTO, NTLockDeadline deadline) {
+        NTLockReleaser ntReleaser = this.releaser;
+        if (ntReleaser == null) {
+            return null;
+        }
+
+        long waitMillis = deadline == null ? this.asyncReleaseTimeout : Math.min(this.asyncReleaseTimeout, deadline.remainingMillis());
+        return ntReleaser.await(newLockDTO, waitMillis);
+    }
+
+    /**
+     * 延迟释放锁：将锁过期时间调整为指定时间（可早于当前过期时间），到期后可被其他持有者抢占
+     *
+     * @param lockDTO     申请锁对象
+     * @param releaseTime 释放时间，不晚于当前时间则直接释放
+     * @return 结果，true-代表成功，false-代表锁不存在、非当前持有者或者未知异常
+     * @throws IllegalArgumentException 参数非法
+     */
+    public boolean releaseAt(final NTLockDTO lockDTO, final Date releaseTime) {
+        // 参数检测
+        if (lockDTO == null || releaseTime == null) {
+            throw new IllegalArgumentException("锁对象或者释放时间参数为NULL.");
+        }
+
+        if (!releaseTime.after(new Date())) {
+            return this.release(lockDTO);
+        }
 
-        // 删除数据表记录
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        boolean autoCommit = true;
+        // 更新锁过期时间
+        NTLockStoreSession session = null;
         try {
-            // 数据库连接
-            conn = this.ntDataSource.getConnection();
+            session = this.ntLockStore.openSession(null);
+
+            boolean update = this.ntLockStore.updateRelease(session, lockDTO, NTDateUtils.format(releaseTime), NTDateUtils.format(new Date()));
+            if (update) {
+                this.ntHeldCache.remove(lockDTO.getPool(), lockDTO.getName());
+                NTLockFlightRecorder.released(lockDTO);
+                this.recordReleased(lockDTO);
+                this.audit(NTAuditAction.RELEASE, lockDTO);
+                this.leaseEstimator.recordReleased(lockDTO, releaseTime.getTime());
+            }
 
-            autoCommit = conn.getAutoCommit();
-            if (!autoCommit) {
-                conn.setAutoCommit(true);
+            return update;
+        } catch (Throwable e) {
+            LOGGER.error("锁延迟释放异常-{}.", lockDTO, e);
+            return false;
+        } finally {
+            if (session != null) {
+                session.close();
             }
+        }
+    }
+
+    @Override
+    public boolean isLocked(String poolName, String lockName) {
+        return this.getOwner(poolName, lockName).isPresent();
+    }
+
+    @Override
+    public Optional<NTLockDTO> getOwner(String poolName, String lockName) {
+        // 参数检测
+        if (poolName == null || poolName.length() > MAX_POOL_LENGTH) {
+            throw new IllegalArgumentException("锁池参数非法(" + MAX_POOL_LENGTH + ")");
+        }
+
+        if (lockName == null || lockName.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("锁名称参数非法(" + MAX_NAME_LENGTH + ")");
+        }
+
+        // 查询锁记录
+        final Date now = new Date();
 
-            // 删除锁记录
-            String deleteSQL = String.format("DELETE FROM %s WHERE pool=? AND name=? AND own_host=? AND own_ip=? AND own_id=?", this.tableName);
-            stmt = conn.prepareStatement(deleteSQL);
+        NTLockStoreSession session = null;
+        try {
+            session = this.ntLockStore.openSession(null);
 
-            stmt.setString(1, pool);
-            stmt.setString(2, name);
-            stmt.setString(3, ownHost);
-            stmt.setString(4, ownIp);
-            stmt.setLong(5, ownId);
+            Optional<NTLockDTO> optLockDTO = this.ntLockStore.select(session, poolName, lockName);
+            if (optLockDTO.isPresent() && optLockDTO.get().fetchExpireTime().after(now)) {
+                return optLockDTO;
+            }
 
-            return stmt.executeUpdate() > 0;
+            return Optional.empty();
         } catch (Throwable e) {
-            LOGGER.error("锁释放删除记录异常-{}.", lockDTO, e);
-            return false;
+            LOGGER.error("查询锁持有者异常[{}->{}].", poolName, lockName, e);
+            throw new RuntimeException(String.format("查询锁持有者异常(%s->%s)", poolName, lockName), e);
         } finally {
-            if (!autoCommit) {
-                NTJDBCUtils.closeAutoCommit(conn);
+            if (session != null) {
+                session.close();
             }
+        }
+    }
+
+    @Override
+    public int scan(String poolName, Predicate<NTLockDTO> filter, Consumer<NTLockDTO> consumer) {
+        // 参数检测
+        if (poolName != null && poolName.length() > MAX_POOL_LENGTH) {
+            throw new IllegalArgumentException("锁池参数非法(" + MAX_POOL_LENGTH + ")");
+        }
+
+        if (consumer == null) {
+            throw new IllegalArgumentException("锁数据消费者参数为NULL.");
+        }
 
-            NTJDBCUtils.closeQuietly(stmt);
-            NTJDBCUtils.closeQuietly(conn);
+        try {
+            return this.ntLockStore.scan(poolName, filter, consumer);
+        } catch (SQLException e) {
+            LOGGER.error("遍历锁数据异常[{}].", poolName, e);
+            throw new RuntimeException(String.format("遍历锁数据异常(%s)", poolName), e);
         }
     }
 
     /**
-     * 查询锁信息
+     * 瞬时异常重试等待，超过重试次数或者截止时间则不再重试
+     *
+     * @return true-可以重试，false-不可重试
      */
-    private Optional<NTLockDTO> select(Connection conn, String pool, String name) throws SQLException {
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        try {
-            String selectSQL = String.format("SELECT * FROM %s WHERE pool=? AND name=?", this.tableName);
-            stmt = conn.prepareStatement(selectSQL);
-            stmt.setString(1, pool);
-            stmt.setString(2, name);
+    private boolean waitRetry(int retry, NTLockDeadline deadline, NTLockDTO lockDTO) {
+        if (retry >= this.retryTimes) {
+            return false;
+        }
 
-            rs = stmt.executeQuery();
+        long waitMillis = this.retryInterval * (retry + 1);
+        if (deadline != null && deadline.remainingMillis() <= waitMillis) {
+            return false;
+        }
 
-            return this.makeLockDTO(rs);
+        Object event = NTLockFlightRecorder.beginWait();
+        try {
+            Thread.sleep(waitMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         } finally {
-            NTJDBCUtils.closeQuietly(rs);
-            NTJDBCUtils.closeQuietly(stmt);
+            NTLockFlightRecorder.commitWait(event, lockDTO, "RETRY");
         }
     }
 
     /**
-     * 插入锁信息
+     * 锁竞争统计：过期抢占
      */
-    private void insert(Connection conn, NTLockDTO newLockDTO) throws SQLException {
-        PreparedStatement stmt = null;
-        try {
-            String insertSQL = String.format("INSERT INTO %s (pool,name,own_host,own_ip,own_id,expire,size,times,modify) VALUES (?,?,?,?,?,?,?,?,?)", this.tableName);
-            stmt = conn.prepareStatement(insertSQL);
-
-            stmt.setString(1, newLockDTO.getPool());
-            stmt.setString(2, newLockDTO.getName());
-            stmt.setString(3, newLockDTO.getOwnHost());
-            stmt.setString(4, newLockDTO.getOwnIp());
-            stmt.setLong(5, newLockDTO.getOwnId());
-            stmt.setString(6, newLockDTO.getExpire());
-            stmt.setInt(7, newLockDTO.getSize());
-            stmt.setInt(8, newLockDTO.getTimes());
-            stmt.setString(9, newLockDTO.getModify());
-
-            stmt.executeUpdate();
-        } finally {
-            NTJDBCUtils.closeQuietly(stmt);
+    private void recordSteal(NTLockDTO newLockDTO) {
+        NTLockProfiler ntProfiler = this.profiler;
+        if (ntProfiler != null) {
+            ntProfiler.recordSteal(newLockDTO.getPool(), newLockDTO.getName());
         }
     }
 
     /**
-     * 更新锁信息--延长锁定
+     * 锁审计：记录审计事件（只放入缓冲区）
      */
-    private boolean updateExpire(Connection conn, NTLockDTO newLockDTO, NTLockDTO existLockDTO) throws SQLException {
-        PreparedStatement stmt = null;
-        try {
-            String updateSQL = String.format("UPDATE %s SET expire=?,times=times+1,modify=? WHERE pool=? AND name=? AND own_host=? AND own_ip=? AND own_id=? AND expire=?", this.tableName);
-            stmt = conn.prepareStatement(updateSQL);
-
-            stmt.setString(1, newLockDTO.getExpire());
-            stmt.setString(2, newLockDTO.getModify());
-            stmt.setString(3, newLockDTO.getPool());
-            stmt.setString(4, newLockDTO.getName());
-            stmt.setString(5, existLockDTO.getOwnHost());
-            stmt.setString(6, existLockDTO.getOwnIp());
-            stmt.setLong(7, existLockDTO.getOwnId());
-            stmt.setString(8, existLockDTO.getExpire());
-
-            boolean update = stmt.executeUpdate() >= 1;
-            if (update) {
-                newLockDTO.setTimes(newLockDTO.getTimes() + 1);
-            }
+    private void audit(NTAuditAction action, NTLockDTO lockDTO) {
+        NTLockAuditor ntAuditor = this.auditor;
+        if (ntAuditor != null) {
+            ntAuditor.record(action, lockDTO);
+        }
+    }
 
-            return update;
-        } finally {
-            NTJDBCUtils.closeQuietly(stmt);
+    /**
+     * 锁竞争统计：锁已释放
+     */
+    private void recordReleased(NTLockDTO lockDTO) {
+        NTLockProfiler ntProfiler = this.profiler;
+        if (ntProfiler != null) {
+            ntProfiler.recordReleased(lockDTO, System.currentTimeMillis());
         }
     }
 
     /**
-     * 更新锁信息--抢占锁定
+     * 获取组提交合并器（按需创建）
      */
-    private boolean updateTaken(Connection conn, NTLockDTO newLockDTO, NTLockDTO existLockDTO) throws SQLException {
-        PreparedStatement stmt = null;
-        try {
-            String updateSQL = String.format("UPDATE %s SET own_host=?,own_ip=?,own_id=?,expire=?,times=1,modify=? WHERE pool=? AND name=? AND own_host=? AND own_ip=? AND own_id=? AND expire=?", this.tableName);
-            stmt = conn.prepareStatement(updateSQL);
-
-            stmt.setString(1, newLockDTO.getOwnHost());
-            stmt.setString(2, newLockDTO.getOwnIp());
-            stmt.setLong(3, newLockDTO.getOwnId());
-            stmt.setString(4, newLockDTO.getExpire());
-            stmt.setString(5, newLockDTO.getModify());
-            stmt.setString(6, newLockDTO.getPool());
-            stmt.setString(7, newLockDTO.getName());
-            stmt.setString(8, existLockDTO.getOwnHost());
-            stmt.setString(9, existLockDTO.getOwnIp());
-            stmt.setLong(10, existLockDTO.getOwnId());
-            stmt.setString(11, existLockDTO.getExpire());
-
-            boolean update = stmt.executeUpdate() >= 1;
-            if (update) {
-                newLockDTO.setTimes(newLockDTO.getTimes() + 1);
+    private NTLockGroupCommitter fetchGroupCommitter() {
+        if (this.groupCommitter == null) {
+            synchronized (this) {
+                if (this.groupCommitter == null) {
+                    this.groupCommitter = new NTLockGroupCommitter(this, this.groupCommitWindow, this.groupCommitBatchSize);
+                }
             }
-
-            return update;
-        } finally {
-            NTJDBCUtils.closeQuietly(stmt);
         }
+
+        return this.groupCommitter;
     }
 
     /**
-     * 构建锁对象
+     * 获取异步释放器（按需创建）
      */
-    private Optional<NTLockDTO> makeLockDTO(ResultSet rs) throws SQLException {
-        if (!rs.next()) {
-            return Optional.empty();
+    private NTLockReleaser fetchReleaser() {
+        if (this.releaser == null) {
+            synchronized (this) {
+                if (this.releaser == null) {
+                    this.releaser = new NTLockReleaser(this, this.asyncReleaseBatchSize);
+                }
+            }
         }
 
-        // 组装锁对象
-        NTLockDTO lockDTO = new NTLockDTO(rs.getString("pool"), rs.getString("name")
-                , rs.getString("own_host"), rs.getString("own_ip"), rs.getLong("own_id"), rs.getString("expire"));
-        lockDTO.setSize(rs.getInt("size"));
-        lockDTO.setTimes(rs.getInt("times"));
-        lockDTO.setModify(rs.getString("modify"));
+        return this.releaser;
+    }
+
+    /**
+     * 获取JDBC锁存储
+     *
+     * @throws IllegalStateException 非JDBC锁存储
+     */
+    private NTJDBCLockStore fetchJDBCLockStore() {
+        if (!(this.ntLockStore instanceof NTJDBCLockStore)) {
+            throw new IllegalStateException("非JDBC锁存储(" + this.ntLockStore.getClass().getSimpleName() + ")");
+        }
 
-        return Optional.of(lockDTO);
+        return (NTJDBCLockStore) this.ntLockStore;
     }
 
     /**
@@ -511,18 +1346,18 @@ public class NTLockImpl implements NTLock {
      */
     private static class NTLockCleanThread extends Thread {
         /**
-         * 锁数据表数据源
+         * 锁存储
          */
-        private final DataSource ntDataSource;
+        private final NTLockStore ntLockStore;
 
         /**
-         * 数据表名
+         * 清理该时间（小时）之前过期的数据
          */
-        private final String tableName;
+        private final int cleanHours;
 
-        public NTLockCleanThread(DataSource ntDataSource, String tableName) {
-            this.ntDataSource = ntDataSource;
-            this.tableName = tableName;
+        public NTLockCleanThread(NTLockStore ntLockStore, int cleanHours) {
+            this.ntLockStore = ntLockStore;
+            this.cleanHours = cleanHours;
         }
 
         @Override
@@ -535,7 +1370,7 @@ public class NTLockImpl implements NTLock {
                     // 睡眠
                     Thread.sleep(TimeUnit.HOURS.toMillis(1L));
                 } catch (Throwable e) {
-                    LOGGER.error("周期清理过期数据异常[{}].", this.tableName, e);
+                    LOGGER.error("周期清理过期数据异常[{}].", this.ntLockStore, e);
                 }
             }
         }
@@ -544,52 +1379,32 @@ public class NTLockImpl implements NTLock {
          * 清理过期数据
          */
         private void clean() {
-            Connection conn = null;
-            PreparedStatement stmt = null;
-            boolean autoCommit = true;
             try {
-                // 数据库连接
-                conn = this.ntDataSource.getConnection();
-                autoCommit = conn.getAutoCommit();
-
-                if (!autoCommit) {
-                    conn.setAutoCommit(true);
-                }
-
                 // 清理数据记录
-                String expire = NTDateUtils.format(NTDateUtils.addHours(new Date(), -1));
-                String deleteSQL = String.format("DELETE FROM %s WHERE expire<=?", this.tableName);
-                stmt = conn.prepareStatement(deleteSQL);
-
-                stmt.setString(1, expire);
-                int count = stmt.executeUpdate();
+                Object event = NTLockFlightRecorder.beginClean();
+                String expire = NTDateUtils.format(NTDateUtils.addHours(new Date(), -this.cleanHours));
+                int count = this.ntLockStore.clean(expire);
+                NTLockFlightRecorder.commitClean(event, this.ntLockStore.getClass().getSimpleName(), count);
 
-                LOGGER.info("自动清理过期数据[{}]条[{}].", count, this.tableName);
+                LOGGER.info("自动清理过期数据[{}]条[{}].", count, this.ntLockStore);
             } catch (Throwable e) {
-                LOGGER.warn("清理锁过期数据异常[{}].", this.tableName, e);
-            } finally {
-                if (!autoCommit) {
-                    NTJDBCUtils.closeAutoCommit(conn);
-                }
-
-                NTJDBCUtils.closeQuietly(stmt);
-                NTJDBCUtils.closeQuietly(conn);
+                LOGGER.warn("清理锁过期数据异常[{}].", this.ntLockStore, e);
             }
         }
     }
 
     // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
 
+    public NTLockStore getLockStore() {
+        return ntLockStore;
+    }
+
     public String getTableName() {
-        return tableName;
+        return this.fetchJDBCLockStore().getTableName();
     }
 
     public void setTableName(String tableName) {
-        if (tableName == null || tableName.isEmpty()) {
-            throw new IllegalArgumentException("锁数据表名参数非法(" + tableName + ")");
-        }
-
-        this.tableName = tableName;
+        this.fetchJDBCLockStore().setTableName(tableName);
     }
 
     public boolean isAutoClean() {
@@ -599,4 +1414,220 @@ public class NTLockImpl implements NTLock {
     public void setAutoClean(boolean autoClean) {
         this.autoClean = autoClean;
     }
+
+    public int getScanFetchSize() {
+        return this.fetchJDBCLockStore().getScanFetchSize();
+    }
+
+    public void setScanFetchSize(int scanFetchSize) {
+        this.fetchJDBCLockStore().setScanFetchSize(scanFetchSize);
+    }
+
+    public int getRetryTimes() {
+        return retryTimes;
+    }
+
+    public void setRetryTimes(int retryTimes) {
+        if (retryTimes < 0) {
+            throw new IllegalArgumentException("瞬时异常重试次数参数非法(" + retryTimes + ")");
+        }
+
+        this.retryTimes = retryTimes;
+    }
+
+    public long getRetryInterval() {
+        return retryInterval;
+    }
+
+    public void setRetryInterval(long retryInterval) {
+        if (retryInterval < 0L) {
+            throw new IllegalArgumentException("瞬时异常重试间隔参数非法(" + retryInterval + ")");
+        }
+
+        this.retryInterval = retryInterval;
+    }
+
+    public boolean isRecycleRow() {
+        return recycleRow;
+    }
+
+    public void setRecycleRow(boolean recycleRow) {
+        this.recycleRow = recycleRow;
+    }
+
+    public int getRecycleColdHours() {
+        return recycleColdHours;
+    }
+
+    public void setRecycleColdHours(int recycleColdHours) {
+        if (recycleColdHours <= 0) {
+            throw new IllegalArgumentException("行复用清理小时数参数非法(" + recycleColdHours + ")");
+        }
+
+        this.recycleColdHours = recycleColdHours;
+    }
+
+    public boolean isHeldCache() {
+        return heldCache;
+    }
+
+    public void setHeldCache(boolean heldCache) {
+        this.heldCache = heldCache;
+    }
+
+    public void setHeldCacheSize(int heldCacheSize) {
+        this.ntHeldCache.setMaxSize(heldCacheSize);
+    }
+
+    public void setHeldCacheAdvance(long heldCacheAdvance) {
+        this.ntHeldCache.setAdvance(heldCacheAdvance);
+    }
+
+    public boolean isGroupCommit() {
+        return groupCommit;
+    }
+
+    public void setGroupCommit(boolean groupCommit) {
+        this.groupCommit = groupCommit;
+    }
+
+    public long getGroupCommitWindow() {
+        return groupCommitWindow;
+    }
+
+    public void setGroupCommitWindow(long groupCommitWindow) {
+        if (groupCommitWindow < 0L) {
+            throw new IllegalArgumentException("组提交合并窗口参数非法(" + groupCommitWindow + ")");
+        }
+
+        this.groupCommitWindow = groupCommitWindow;
+    }
+
+    public int getGroupCommitBatchSize() {
+        return groupCommitBatchSize;
+    }
+
+    public void setGroupCommitBatchSize(int groupCommitBatchSize) {
+        if (groupCommitBatchSize <= 0) {
+            throw new IllegalArgumentException("组提交每批数量参数非法(" + groupCommitBatchSize + ")");
+        }
+
+        this.groupCommitBatchSize = groupCommitBatchSize;
+    }
+
+    public boolean isProfile() {
+        return this.profiler != null;
+    }
+
+    /**
+     * 锁竞争统计开关，需要在`init()`之前开启才会周期输出快照
+     */
+    public synchronized void setProfile(boolean profile) {
+        if (profile && this.profiler == null) {
+            this.profiler = new NTLockProfiler();
+        } else if (!profile && this.profiler != null) {
+            this.profiler.stop();
+            this.profiler = null;
+        }
+    }
+
+    public NTLockProfiler getProfiler() {
+        return profiler;
+    }
+
+    public NTLockLeaseEstimator getLeaseEstimator() {
+        return leaseEstimator;
+    }
+
+    public double getAdaptiveLeasePercentile() {
+        return adaptiveLeasePercentile;
+    }
+
+    public void setAdaptiveLeasePercentile(double adaptiveLeasePercentile) {
+        if (adaptiveLeasePercentile <= 0.0D || adaptiveLeasePercentile > 100.0D) {
+            throw new IllegalArgumentException("自适应租约分位值参数非法(" + adaptiveLeasePercentile + ")");
+        }
+
+        this.adaptiveLeasePercentile = adaptiveLeasePercentile;
+    }
+
+    public long getAdaptiveLeaseMargin() {
+        return adaptiveLeaseMargin;
+    }
+
+    public void setAdaptiveLeaseMargin(long adaptiveLeaseMargin) {
+        if (adaptiveLeaseMargin < 0L) {
+            throw new IllegalArgumentException("自适应租约余量参数非法(" + adaptiveLeaseMargin + ")");
+        }
+
+        this.adaptiveLeaseMargin = adaptiveLeaseMargin;
+    }
+
+    public boolean isAdaptiveLeaseByName() {
+        return adaptiveLeaseByName;
+    }
+
+    public void setAdaptiveLeaseByName(boolean adaptiveLeaseByName) {
+        this.adaptiveLeaseByName = adaptiveLeaseByName;
+    }
+
+    public NTLockAuditor getAuditor() {
+        return auditor;
+    }
+
+    public void setAuditor(NTLockAuditor auditor) {
+        this.auditor = auditor;
+    }
+
+    public int getAsyncReleaseBatchSize() {
+        return asyncReleaseBatchSize;
+    }
+
+    public void setAsyncReleaseBatchSize(int asyncReleaseBatchSize) {
+        if (asyncReleaseBatchSize <= 0) {
+            throw new IllegalArgumentException("异步释放批量数量参数非法(" + asyncReleaseBatchSize + ")");
+        }
+
+        this.asyncReleaseBatchSize = asyncReleaseBatchSize;
+    }
+
+    public long getAsyncReleaseTimeout() {
+        return asyncReleaseTimeout;
+    }
+
+    public void setAsyncReleaseTimeout(long asyncReleaseTimeout) {
+        if (asyncReleaseTimeout <= 0L) {
+            throw new IllegalArgumentException("异步释放等待时间参数非法(" + asyncReleaseTimeout + ")");
+        }
+
+        this.asyncReleaseTimeout = asyncReleaseTimeout;
+    }
+
+    public NTLockReleaser getReleaser() {
+        return releaser;
+    }
+
+    public long getProfileInterval() {
+        return profileInterval;
+    }
+
+    public void setProfileInterval(long profileInterval) {
+        if (profileInterval <= 0L) {
+            throw new IllegalArgumentException("锁竞争统计周期参数非法(" + profileInterval + ")");
+        }
+
+        this.profileInterval = profileInterval;
+    }
+
+    public int getProfileTopN() {
+        return profileTopN;
+    }
+
+    public void setProfileTopN(int profileTopN) {
+        if (profileTopN <= 0) {
+            throw new IllegalArgumentException("锁竞争统计输出数量参数非法(" + profileTopN + ")");
+        }
+
+        this.profileTopN = profileTopN;
+    }
 }
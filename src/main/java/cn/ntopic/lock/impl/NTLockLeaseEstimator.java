@@ -0,0 +1,177 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.model.NTLockDTO;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 自适应租约：按锁分组（或者锁名称）统计持有时间分布，租约取持有时间的高分位值加余量，并限制在调用方指定的最小、最大租约之间；
+ * 租约过长时持有者宕机后其他节点要等待很久，过短时需要频繁续约
+ * <p>
+ * 持有时间分布为对数分桶直方图（每2倍区间4个桶，误差约19%），样本数达到上限后计数减半，近期样本权重更高；
+ * 样本不足时租约取最大租约
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTLockLeaseEstimator {
+
+    /**
+     * 直方图桶数量（最大约2^24毫秒）
+     */
+    private static final int BUCKETS = 96;
+
+    /**
+     * 估算租约的最少样本数
+     */
+    private static final int MIN_SAMPLES = 10;
+
+    /**
+     * 样本数达到该值时计数减半
+     */
+    private static final long DECAY_SAMPLES = 1000L;
+
+    /**
+     * 直方图最大数量（分组+名称），超过则只统计分组
+     */
+    private static final int MAX_HISTOGRAMS = 4096;
+
+    /**
+     * 持有时间直方图，KEY为：pool（分组）或者pool/name（名称）
+     */
+    private final Map<String, NTHoldHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * 持有中的锁（抢占成功时间），KEY为：pool/name/ownId
+     */
+    private final NTLockHoldingTracker<Long> holding = new NTLockHoldingTracker<>();
+
+    /**
+     * 估算租约（毫秒）
+     *
+     * @param byName     是否按锁名称统计，名称样本不足时使用分组统计
+     * @param percentile 持有时间分位值，(0, 100]
+     * @param margin     余量（毫秒）
+     * @param minLease   最小租约（毫秒）
+     * @param maxLease   最大租约（毫秒）
+     */
+    public long estimate(String pool, String name, boolean byName, double percentile, long margin, long minLease, long maxLease) {
+        NTHoldHistogram histogram = byName ? this.histograms.get(pool + "/" + name) : null;
+        if (histogram == null || histogram.total.get() < MIN_SAMPLES) {
+            histogram = this.histograms.get(pool);
+        }
+
+        if (histogram == null || histogram.total.get() < MIN_SAMPLES) {
+            return maxLease;
+        }
+
+        long lease = histogram.percentile(percentile) + margin;
+        return Math.max(minLease, Math.min(maxLease, lease));
+    }
+
+    /**
+     * 抢占或者延长成功：记录首次抢占时间（已过期的持有记录重新开始）
+     */
+    public void recordAcquired(NTLockDTO lockDTO, long now) {
+        this.holding.acquired(holdingKey(lockDTO), now, lockDTO.fetchExpireTime().getTime(), () -> now);
+    }
+
+    /**
+     * 释放成功：记录持有时间
+     */
+    public void recordReleased(NTLockDTO lockDTO, long now) {
+        Long start = this.holding.released(holdingKey(lockDTO));
+        if (start == null) {
+            return;
+        }
+
+        long holdTime = Math.max(0L, now - start);
+        this.histogram(lockDTO.getPool()).record(holdTime);
+
+        String nameKey = lockDTO.getPool() + "/" + lockDTO.getName();
+        NTHoldHistogram nameHistogram = this.histograms.get(nameKey);
+        if (nameHistogram == null && this.histograms.size() < MAX_HISTOGRAMS) {
+            nameHistogram = this.histogram(nameKey);
+        }
+
+        if (nameHistogram != null) {
+            nameHistogram.record(holdTime);
+        }
+    }
+
+    /**
+     * 样本数量
+     */
+    public long getSamples(String pool, String name) {
+        NTHoldHistogram histogram = this.histograms.get(name == null ? pool : pool + "/" + name);
+        return histogram == null ? 0L : histogram.total.get();
+    }
+
+    private NTHoldHistogram histogram(String key) {
+        return this.histograms.computeIfAbsent(key, k -> new NTHoldHistogram());
+    }
+
+    private static String holdingKey(NTLockDTO lockDTO) {
+        return lockDTO.getPool() + "/" + lockDTO.getName() + "/" + lockDTO.getOwnId();
+    }
+
+    /**
+     * 对数分桶直方图：桶i的上界为2^((i+1)/4)毫秒
+     */
+    private static class NTHoldHistogram {
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong total = new AtomicLong();
+
+        public void record(long holdTime) {
+            int index = holdTime <= 1L ? 0 : (int) Math.min(BUCKETS - 1, Math.floor(4.0D * Math.log(holdTime) / Math.log(2.0D)));
+            this.counts.incrementAndGet(index);
+
+            if (this.total.incrementAndGet() >= DECAY_SAMPLES) {
+                this.decay();
+            }
+        }
+
+        /**
+         * 计数减半
+         */
+        private synchronized void decay() {
+            if (this.total.get() < DECAY_SAMPLES) {
+                return;
+            }
+
+            long sum = 0L;
+            for (int i = 0; i < BUCKETS; i++) {
+                long count = this.counts.get(i) / 2L;
+                this.counts.set(i, count);
+                sum += count;
+            }
+
+            this.total.set(sum);
+        }
+
+        /**
+         * 分位值（桶上界，毫秒）
+         */
+        public long percentile(double percentile) {
+            long target = (long) Math.ceil(this.total.get() * percentile / 100.0D);
+
+            long sum = 0L;
+            int index = BUCKETS - 1;
+            for (int i = 0; i < BUCKETS; i++) {
+                sum += this.counts.get(i);
+                if (sum >= target) {
+                    index = i;
+                    break;
+                }
+            }
+
+            return (long) Math.ceil(Math.pow(2.0D, (index + 1) / 4.0D));
+        }
+    }
+}
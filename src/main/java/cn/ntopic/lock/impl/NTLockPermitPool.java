@@ -0,0 +1,500 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.NTLock;
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockReason;
+import cn.ntopic.lock.model.NTLockResult;
+import cn.ntopic.lock.utils.NTDateUtils;
+import cn.ntopic.lock.utils.NTHostUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 锁池本地许可：节点批量租用锁池中的并发锁（锁名称为序号：0~count-1，与`lockPool`一致），
+ * 通过本地信号量分发给本节点的线程，大部分获取许可无需访问DB
+ * <p>
+ * 1. 本地许可不足时，1个线程以1次批量SQL租用最多`leaseBatch`个并发锁，其他线程等待许可
+ * 2. 后台线程批量续约已租用的并发锁，并把超过上个周期使用峰值的空闲并发锁归还锁池
+ * 3. 并发锁的持有者为节点（后台线程ID），全集群持有的并发锁不超过`count`，本地许可不超过本节点租用的并发锁
+ * 4. 停止时只归还空闲的并发锁，使用中的并发锁（停止后不再续约）在许可释放时逐个归还，不会产生多余的本地许可
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTLockPermitPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTLockPermitPool.class);
+
+    /**
+     * 属性-锁服务
+     */
+    private final NTLockImpl ntLock;
+
+    /**
+     * 属性-锁池名称
+     */
+    private final String poolName;
+
+    /**
+     * 属性-锁池全集群并发数量
+     */
+    private final int count;
+
+    /**
+     * 属性-并发锁租约时间（毫秒）
+     */
+    private long leaseTime = 30000L;
+
+    /**
+     * 属性-续约和归还空闲并发锁间隔（毫秒），需小于租约时间
+     */
+    private long renewInterval = 10000L;
+
+    /**
+     * 属性-每次最多租用的并发锁数量
+     */
+    private int leaseBatch = 4;
+
+    /**
+     * 属性-租用失败（锁池已满）后再次租用的间隔（毫秒），避免频繁访问DB
+     */
+    private long leaseRetryInterval = 50L;
+
+    /**
+     * 本地许可
+     */
+    private final Semaphore permits = new Semaphore(0);
+
+    /**
+     * 已租用的并发锁，KEY为锁名称，VALUE为租约过期时间（毫秒）
+     */
+    private final Map<String, Long> leased = new ConcurrentHashMap<>();
+
+    /**
+     * 使用中的许可数量，以及本周期使用峰值
+     */
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+
+    /**
+     * 续约失败丢失的并发锁中，仍在使用的许可数量（释放时作废）
+     */
+    private final AtomicInteger debt = new AtomicInteger();
+
+    /**
+     * 租用、续约和归还互斥
+     */
+    private final ReentrantLock leaseLock = new ReentrantLock();
+
+    /**
+     * 下次允许租用的时间（纳秒）
+     */
+    private volatile long nextLeaseNanos;
+
+    /**
+     * 并发锁持有者线程ID（首次启动的后台线程ID，重启后不变，停止前使用中的并发锁重启后仍可续约和归还）
+     */
+    private volatile long ownId = -1L;
+
+    /**
+     * 续约线程
+     */
+    private volatile NTPermitThread permitThread;
+
+    /**
+     * CTOR-构建锁池本地许可
+     */
+    public NTLockPermitPool(NTLockImpl ntLock, String poolName, int count) {
+        if (ntLock == null) {
+            throw new IllegalArgumentException("锁服务参数为NULL.");
+        }
+
+        if (poolName == null || poolName.isEmpty() || poolName.length() > NTLock.MAX_POOL_LENGTH) {
+            throw new IllegalArgumentException("并发锁池名称参数非法(" + NTLock.MAX_POOL_LENGTH + ")");
+        }
+
+        if (count <= 0) {
+            throw new IllegalArgumentException("锁池并发数量参数非法(" + count + ")");
+        }
+
+        this.ntLock = ntLock;
+        this.poolName = poolName;
+        this.count = count;
+    }
+
+    /**
+     * 启动续约线程
+     */
+    public synchronized void start() {
+        if (this.permitThread != null) {
+            return;
+        }
+
+        if (this.renewInterval >= this.leaseTime) {
+            throw new IllegalArgumentException(String.format("续约间隔(%s)需小于租约时间(%s)", this.renewInterval, this.leaseTime));
+        }
+
+        this.permitThread = new NTPermitThread();
+        if (this.ownId < 0L) {
+            this.ownId = this.permitThread.getId();
+        }
+        this.permitThread.start();
+    }
+
+    /**
+     * 停止续约线程，归还空闲的并发锁，使用中的并发锁在许可释放时归还
+     */
+    public synchronized void stop() {
+        NTPermitThread thread = this.permitThread;
+        if (thread == null) {
+            return;
+        }
+
+        this.permitThread = null;
+        thread.running = false;
+        thread.interrupt();
+
+        try {
+            thread.join(this.renewInterval);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 获取1个许可
+     *
+     * @param timeout  最长等待时间，值>=0
+     * @param timeUnit 等待时间单位
+     * @return true-获取成功，false-等待超时（锁池已满）
+     * @throws IllegalArgumentException 参数非法或者未启动
+     */
+    public boolean tryAcquire(long timeout, TimeUnit timeUnit) {
+        if (this.permitThread == null) {
+            throw new IllegalArgumentException("锁池本地许可未启动(" + this.poolName + ")");
+        }
+
+        if (timeout < 0L) {
+            throw new IllegalArgumentException("等待时间参数非法(" + timeout + ")");
+        }
+
+        final long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+        for (; ; ) {
+            // 1. 本地许可
+            if (this.permits.tryAcquire()) {
+                this.onAcquired();
+                return true;
+            }
+
+            // 2. 本地许可不足：1个线程批量租用，其他线程等待许可
+            if (System.nanoTime() - this.nextLeaseNanos >= 0L && this.leaseLock.tryLock()) {
+                try {
+                    if (this.permits.tryAcquire()) {
+                        this.onAcquired();
+                        return true;
+                    }
+
+                    if (this.lease() <= 0) {
+                        this.nextLeaseNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.leaseRetryInterval);
+                    }
+                } finally {
+                    this.leaseLock.unlock();
+                }
+
+                continue;
+            }
+
+            // 3. 等待其他线程释放或者租用许可
+            long remain = deadline - System.nanoTime();
+            if (remain <= 0L) {
+                return false;
+            }
+
+            try {
+                long wait = Math.min(remain, TimeUnit.MILLISECONDS.toNanos(this.leaseRetryInterval));
+                if (this.permits.tryAcquire(wait, TimeUnit.NANOSECONDS)) {
+                    this.onAcquired();
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 释放1个许可
+     */
+    public void release() {
+        this.inUse.decrementAndGet();
+
+        // 许可对应的并发锁已丢失（续约失败），直接作废
+        for (int value = this.debt.get(); value > 0; value = this.debt.get()) {
+            if (this.debt.compareAndSet(value, value - 1)) {
+                return;
+            }
+        }
+
+        this.permits.release();
+
+        // 已停止：归还许可对应的并发锁（停止时的空闲归还可能已完成）
+        if (this.permitThread == null) {
+            this.giveBackIdle();
+        }
+    }
+
+    /**
+     * 获取许可成功，更新使用峰值
+     */
+    private void onAcquired() {
+        int current = this.inUse.incrementAndGet();
+        this.peak.accumulateAndGet(current, Math::max);
+    }
+
+    /**
+     * 租用并发锁：从随机位置选择未租用的并发锁，每批最多`leaseBatch`个，租用成功至少1个或者全部尝试后返回
+     *
+     * @return 租用成功数量
+     */
+    private int lease() {
+        List<String> candidates = new ArrayList<>();
+        int offset = ThreadLocalRandom.current().nextInt(this.count);
+        for (int i = 0; i < this.count; i++) {
+            String name = String.valueOf((offset + i) % this.count);
+            if (!this.leased.containsKey(name)) {
+                candidates.add(name);
+            }
+        }
+
+        for (int from = 0; from < candidates.size(); from += this.leaseBatch) {
+            List<String> names = candidates.subList(from, Math.min(from + this.leaseBatch, candidates.size()));
+            List<NTLockResult> results = this.ntLock.lockBatchAs(this.makeLockDTOs(names), this.ownId, (int) this.leaseTime, TimeUnit.MILLISECONDS);
+
+            int leaseCount = 0;
+            for (NTLockResult result : results) {
+                if (result.isSuccess()) {
+                    this.leased.put(result.getLockDTO().getName(), result.getLockDTO().fetchExpireTime().getTime());
+                    this.permits.release();
+                    leaseCount++;
+                }
+            }
+
+            if (leaseCount > 0) {
+                LOGGER.debug("[{}]锁池租用并发锁{}个-共{}个.", this.poolName, leaseCount, this.leased.size());
+                return leaseCount;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * 续约已租用的并发锁，并归还超过上个周期使用峰值的空闲并发锁
+     */
+    private void renew() {
+        this.leaseLock.lock();
+        try {
+            // 1. 批量续约，已被其他持有者抢占或者来不及再次续约的并发锁作废1个许可
+            List<String> names = new ArrayList<>(this.leased.keySet());
+            if (!names.isEmpty()) {
+                long now = System.currentTimeMillis();
+                List<NTLockResult> results = this.ntLock.lockBatchAs(this.makeLockDTOs(names), this.ownId, (int) this.leaseTime, TimeUnit.MILLISECONDS);
+                for (int i = 0; i < results.size(); i++) {
+                    NTLockResult result = results.get(i);
+                    if (result.isSuccess()) {
+                        this.leased.put(names.get(i), result.getLockDTO().fetchExpireTime().getTime());
+                        continue;
+                    }
+
+                    Long expire = this.leased.get(names.get(i));
+                    boolean unknown = result.getReason() == NTLockReason.DB_ERROR || result.getReason() == NTLockReason.TIMEOUT;
+                    if (unknown && expire != null && expire - now > this.renewInterval) {
+                        continue;
+                    }
+
+                    LOGGER.warn("[{}]锁池并发锁续约失败-作废1个许可[{}]-{}.", this.poolName, names.get(i), result.getMessage());
+                    this.leased.remove(names.get(i));
+                    if (!this.permits.tryAcquire()) {
+                        this.debt.incrementAndGet();
+                    }
+                }
+            }
+
+            // 2. 归还空闲并发锁：保留上个周期的使用峰值
+            int using = this.inUse.get();
+            int target = Math.max(this.peak.getAndSet(using), using);
+            int excess = Math.min(this.leased.size() - target, this.permits.availablePermits());
+            if (excess > 0 && this.permits.tryAcquire(excess)) {
+                this.giveBack(excess);
+            }
+        } finally {
+            this.leaseLock.unlock();
+        }
+    }
+
+    /**
+     * 归还全部空闲的并发锁（扣减全部本地许可）
+     */
+    private void giveBackIdle() {
+        this.leaseLock.lock();
+        try {
+            int idle = this.permits.drainPermits();
+            if (idle > 0) {
+                this.giveBack(idle);
+            }
+        } finally {
+            this.leaseLock.unlock();
+        }
+    }
+
+    /**
+     * 归还指定数量的并发锁（对应的许可已扣减）
+     */
+    private void giveBack(int number) {
+        String now = NTDateUtils.format(new Date());
+        List<String> names = new ArrayList<>(this.leased.keySet());
+        for (int i = 0; i < number && i < names.size(); i++) {
+            this.leased.remove(names.get(i));
+            try {
+                this.ntLock.release(new NTLockDTO(this.poolName, names.get(i), NTHostUtils.HOST, NTHostUtils.IP, this.ownId, now));
+            } catch (Throwable e) {
+                LOGGER.warn("[{}]锁池归还并发锁异常[{}]-{}.", this.poolName, names.get(i), e.getMessage());
+            }
+        }
+
+        LOGGER.debug("[{}]锁池归还空闲并发锁{}个-剩余{}个.", this.poolName, number, this.leased.size());
+    }
+
+    /**
+     * 组装并发锁对象
+     */
+    private List<NTLockDTO> makeLockDTOs(List<String> names) {
+        List<NTLockDTO> lockDTOs = new ArrayList<>(names.size());
+        for (String name : names) {
+            NTLockDTO lockDTO = new NTLockDTO(this.poolName, name, NTHostUtils.HOST, NTHostUtils.IP, this.ownId, "");
+            lockDTO.setSize(this.count);
+            lockDTOs.add(lockDTO);
+        }
+
+        return lockDTOs;
+    }
+
+    /**
+     * 续约线程
+     */
+    private class NTPermitThread extends Thread {
+        /**
+         * 运行标记
+         */
+        private volatile boolean running = true;
+
+        public NTPermitThread() {
+            super("NTPermitThread-" + NTLockPermitPool.this.poolName);
+            this.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (this.running) {
+                try {
+                    Thread.sleep(renewInterval);
+                } catch (InterruptedException e) {
+                    // 停止续约
+                    break;
+                }
+
+                try {
+                    renew();
+                } catch (Throwable e) {
+                    LOGGER.error("[{}]锁池续约异常.", poolName, e);
+                }
+            }
+
+            // 停止续约：只归还空闲的并发锁，使用中的并发锁在许可释放时归还
+            giveBackIdle();
+            if (!leased.isEmpty()) {
+                LOGGER.info("[{}]锁池停止-使用中的并发锁{}个在许可释放时归还.", poolName, leased.size());
+            }
+        }
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getLeased() {
+        return leased.size();
+    }
+
+    public int getAvailable() {
+        return permits.availablePermits();
+    }
+
+    public long getLeaseTime() {
+        return leaseTime;
+    }
+
+    public void setLeaseTime(long leaseTime) {
+        if (leaseTime <= 0L || leaseTime > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("并发锁租约时间参数非法(" + leaseTime + ")");
+        }
+
+        this.leaseTime = leaseTime;
+    }
+
+    public long getRenewInterval() {
+        return renewInterval;
+    }
+
+    public void setRenewInterval(long renewInterval) {
+        if (renewInterval <= 0L) {
+            throw new IllegalArgumentException("续约间隔参数非法(" + renewInterval + ")");
+        }
+
+        this.renewInterval = renewInterval;
+    }
+
+    public int getLeaseBatch() {
+        return leaseBatch;
+    }
+
+    public void setLeaseBatch(int leaseBatch) {
+        if (leaseBatch <= 0) {
+            throw new IllegalArgumentException("每次租用并发锁数量参数非法(" + leaseBatch + ")");
+        }
+
+        this.leaseBatch = leaseBatch;
+    }
+
+    public long getLeaseRetryInterval() {
+        return leaseRetryInterval;
+    }
+
+    public void setLeaseRetryInterval(long leaseRetryInterval) {
+        if (leaseRetryInterval <= 0L) {
+            throw new IllegalArgumentException("租用重试间隔参数非法(" + leaseRetryInterval + ")");
+        }
+
+        this.leaseRetryInterval = leaseRetryInterval;
+    }
+}
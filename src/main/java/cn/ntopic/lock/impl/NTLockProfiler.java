@@ -0,0 +1,397 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockProfileSnapshot;
+import cn.ntopic.lock.model.NTLockProfileStat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 锁竞争统计：每个统计周期用Count-Min Sketch近似统计每把锁的抢锁、失败、成功和过期抢占次数，
+ * 用容量固定的TopK小顶堆保留最热、持有最长和过期抢占最多的锁，锁名称数量再多内存也不会增长
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTLockProfiler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTLockProfiler.class);
+
+    /**
+     * Sketch每行计数器数量（2的幂）
+     */
+    private final int width;
+
+    /**
+     * Sketch行数（哈希函数数量）
+     */
+    private final int depth;
+
+    /**
+     * 每个TopK堆的容量
+     */
+    private final int topK;
+
+    /**
+     * 当前统计周期
+     */
+    private volatile NTProfileWindow window;
+
+    /**
+     * 上一统计周期快照
+     */
+    private volatile NTLockProfileSnapshot lastSnapshot;
+
+    /**
+     * 持有中的锁（抢占成功时间），KEY为：pool/name/ownHost/ownIp/ownId，超过最大跟踪数量则不统计持有时间
+     */
+    private final NTLockHoldingTracker<Long> holding = new NTLockHoldingTracker<>();
+
+    /**
+     * 周期快照线程
+     */
+    private volatile Thread snapshotThread;
+
+    /**
+     * CTOR-默认Sketch为4x4096，TopK为64
+     */
+    public NTLockProfiler() {
+        this(4096, 4, 64);
+    }
+
+    public NTLockProfiler(int width, int depth, int topK) {
+        if (width <= 0 || Integer.bitCount(width) != 1 || depth <= 0 || topK <= 0) {
+            throw new IllegalArgumentException(String.format("锁竞争统计参数非法(%s/%s/%s)", width, depth, topK));
+        }
+
+        this.width = width;
+        this.depth = depth;
+        this.topK = topK;
+        this.window = new NTProfileWindow(System.currentTimeMillis());
+    }
+
+    /**
+     * 统计抢锁结果
+     */
+    public void recordAttempt(String pool, String name, boolean success) {
+        NTProfileWindow current = this.window;
+        String key = makeKey(pool, name);
+        long hash = hash(key);
+
+        long attempts = current.attempts.add(hash);
+        if (success) {
+            current.acquires.add(hash);
+        } else {
+            current.failures.add(hash);
+        }
+
+        current.hottest.offer(key, pool, name, attempts);
+    }
+
+    /**
+     * 统计过期抢占
+     */
+    public void recordSteal(String pool, String name) {
+        NTProfileWindow current = this.window;
+        String key = makeKey(pool, name);
+
+        current.mostStolen.offer(key, pool, name, current.steals.add(hash(key)));
+    }
+
+    /**
+     * 抢占成功，开始统计持有时间（延长锁定不重新开始，已过期的持有记录重新开始）
+     */
+    public void recordAcquired(NTLockDTO lockDTO, long now) {
+        this.holding.acquired(makeHoldingKey(lockDTO), now, lockDTO.fetchExpireTime().getTime(), () -> now);
+    }
+
+    /**
+     * 锁已释放，统计持有时间
+     */
+    public void recordReleased(NTLockDTO lockDTO, long now) {
+        Long start = this.holding.released(makeHoldingKey(lockDTO));
+        if (start != null) {
+            String key = makeKey(lockDTO.getPool(), lockDTO.getName());
+            this.window.longestHeld.offer(key, lockDTO.getPool(), lockDTO.getName(), Math.max(now - start, 0L));
+        }
+    }
+
+    /**
+     * 当前统计周期快照
+     */
+    public NTLockProfileSnapshot snapshot(int topN) {
+        return this.window.snapshot(topN, System.currentTimeMillis());
+    }
+
+    /**
+     * 结束当前统计周期：生成快照，并开始新的统计周期
+     */
+    public NTLockProfileSnapshot rotate(int topN) {
+        long now = System.currentTimeMillis();
+
+        NTProfileWindow current = this.window;
+        this.window = new NTProfileWindow(now);
+
+        NTLockProfileSnapshot snapshot = current.snapshot(topN, now);
+        this.lastSnapshot = snapshot;
+
+        return snapshot;
+    }
+
+    /**
+     * 启动周期快照线程：每个周期结束时生成快照并输出日志
+     */
+    public synchronized void start(final long interval, final int topN) {
+        if (this.snapshotThread != null) {
+            return;
+        }
+
+        Thread thread = new Thread(() -> {
+            for (; ; ) {
+                try {
+                    Thread.sleep(interval);
+
+                    NTLockProfileSnapshot snapshot = this.rotate(topN);
+                    if (!snapshot.getHottest().isEmpty()) {
+                        LOGGER.info("锁竞争统计-{}.", snapshot);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                } catch (Throwable e) {
+                    LOGGER.warn("锁竞争统计快照异常[{}].", e.getMessage());
+                }
+            }
+        }, "NTLockProfileThread");
+        thread.setDaemon(true);
+        thread.start();
+
+        this.snapshotThread = thread;
+    }
+
+    /**
+     * 停止周期快照线程
+     */
+    public synchronized void stop() {
+        Thread thread = this.snapshotThread;
+        if (thread != null) {
+            this.snapshotThread = null;
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * 上一统计周期快照，首个周期结束前为NULL
+     */
+    public NTLockProfileSnapshot getLastSnapshot() {
+        return lastSnapshot;
+    }
+
+    private static String makeKey(String pool, String name) {
+        return pool + "/" + name;
+    }
+
+    private static String makeHoldingKey(NTLockDTO lockDTO) {
+        return lockDTO.getPool() + "/" + lockDTO.getName() + "/" + lockDTO.getOwnHost() + "/" + lockDTO.getOwnIp() + "/" + lockDTO.getOwnId();
+    }
+
+    private static long hash(String key) {
+        long hash = key.hashCode() * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * 统计周期
+     */
+    private class NTProfileWindow {
+        private final long startTime;
+        private final NTCountMinSketch attempts = new NTCountMinSketch(width, depth);
+        private final NTCountMinSketch failures = new NTCountMinSketch(width, depth);
+        private final NTCountMinSketch acquires = new NTCountMinSketch(width, depth);
+        private final NTCountMinSketch steals = new NTCountMinSketch(width, depth);
+        private final NTTopK hottest = new NTTopK(topK);
+        private final NTTopK longestHeld = new NTTopK(topK);
+        private final NTTopK mostStolen = new NTTopK(topK);
+
+        public NTProfileWindow(long startTime) {
+            this.startTime = startTime;
+        }
+
+        public NTLockProfileSnapshot snapshot(int topN, long endTime) {
+            Map<String, Long> holdMillis = this.longestHeld.values();
+
+            List<NTLockProfileStat> hottestStats = this.makeStats(this.hottest.entries(), holdMillis);
+            hottestStats.sort(Comparator.comparingLong(NTLockProfileStat::getAttempts).reversed());
+
+            List<NTLockProfileStat> longestHeldStats = this.makeStats(this.longestHeld.entries(), holdMillis);
+            longestHeldStats.sort(Comparator.comparingLong(NTLockProfileStat::getMaxHoldMillis).reversed());
+
+            List<NTLockProfileStat> mostStolenStats = this.makeStats(this.mostStolen.entries(), holdMillis);
+            mostStolenStats.sort(Comparator.comparingDouble(NTLockProfileStat::getStealRate)
+                    .thenComparingLong(NTLockProfileStat::getSteals).reversed());
+
+            return new NTLockProfileSnapshot(this.startTime, endTime, limit(hottestStats, topN)
+                    , limit(longestHeldStats, topN), limit(mostStolenStats, topN));
+        }
+
+        private List<NTLockProfileStat> makeStats(List<NTTopEntry> entries, Map<String, Long> holdMillis) {
+            List<NTLockProfileStat> stats = new ArrayList<>(entries.size());
+            for (NTTopEntry entry : entries) {
+                long hash = hash(entry.key);
+
+                NTLockProfileStat stat = new NTLockProfileStat(entry.pool, entry.name);
+                stat.setAttempts(this.attempts.estimate(hash));
+                stat.setFailures(this.failures.estimate(hash));
+                stat.setAcquires(this.acquires.estimate(hash));
+                stat.setSteals(this.steals.estimate(hash));
+                stat.setMaxHoldMillis(holdMillis.getOrDefault(entry.key, 0L));
+
+                stats.add(stat);
+            }
+
+            return stats;
+        }
+
+        private List<NTLockProfileStat> limit(List<NTLockProfileStat> stats, int topN) {
+            return stats.size() <= topN ? stats : new ArrayList<>(stats.subList(0, topN));
+        }
+    }
+
+    /**
+     * Count-Min Sketch：估算值不小于真实值，误差与`width`成反比
+     */
+    private static class NTCountMinSketch {
+        private final int width;
+        private final int depth;
+        private final AtomicLongArray counters;
+
+        public NTCountMinSketch(int width, int depth) {
+            this.width = width;
+            this.depth = depth;
+            this.counters = new AtomicLongArray(width * depth);
+        }
+
+        /**
+         * 计数加1，返回估算值
+         */
+        public long add(long hash) {
+            long estimate = Long.MAX_VALUE;
+            for (int i = 0; i < this.depth; i++) {
+                estimate = Math.min(estimate, this.counters.incrementAndGet(this.index(hash, i)));
+            }
+
+            return estimate;
+        }
+
+        public long estimate(long hash) {
+            long estimate = Long.MAX_VALUE;
+            for (int i = 0; i < this.depth; i++) {
+                estimate = Math.min(estimate, this.counters.get(this.index(hash, i)));
+            }
+
+            return estimate;
+        }
+
+        private int index(long hash, int row) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            return row * this.width + ((h1 + row * h2) & (this.width - 1));
+        }
+    }
+
+    /**
+     * TopK小顶堆：值小于堆顶时无需加锁直接忽略
+     */
+    private static class NTTopK {
+        private final int k;
+        private final Map<String, NTTopEntry> entries = new HashMap<>();
+        private final PriorityQueue<NTTopEntry> heap = new PriorityQueue<>(Comparator.comparingLong((NTTopEntry entry) -> entry.value));
+
+        /**
+         * 入堆门槛：堆满时为堆顶值
+         */
+        private volatile long threshold;
+
+        public NTTopK(int k) {
+            this.k = k;
+        }
+
+        /**
+         * 提交统计值，同一把锁取较大值
+         */
+        public void offer(String key, String pool, String name, long value) {
+            if (value < this.threshold) {
+                return;
+            }
+
+            synchronized (this) {
+                NTTopEntry entry = this.entries.get(key);
+                if (entry != null) {
+                    if (value > entry.value) {
+                        this.heap.remove(entry);
+                        entry.value = value;
+                        this.heap.add(entry);
+                    }
+                } else if (this.heap.size() < this.k) {
+                    entry = new NTTopEntry(key, pool, name, value);
+                    this.entries.put(key, entry);
+                    this.heap.add(entry);
+                } else if (value > this.heap.peek().value) {
+                    this.entries.remove(this.heap.poll().key);
+
+                    entry = new NTTopEntry(key, pool, name, value);
+                    this.entries.put(key, entry);
+                    this.heap.add(entry);
+                }
+
+                if (this.heap.size() >= this.k) {
+                    this.threshold = this.heap.peek().value;
+                }
+            }
+        }
+
+        public synchronized List<NTTopEntry> entries() {
+            List<NTTopEntry> copies = new ArrayList<>(this.heap.size());
+            for (NTTopEntry entry : this.heap) {
+                copies.add(new NTTopEntry(entry.key, entry.pool, entry.name, entry.value));
+            }
+
+            return copies;
+        }
+
+        public synchronized Map<String, Long> values() {
+            Map<String, Long> values = new HashMap<>();
+            for (NTTopEntry entry : this.heap) {
+                values.put(entry.key, entry.value);
+            }
+
+            return values;
+        }
+    }
+
+    /**
+     * TopK堆元素
+     */
+    private static class NTTopEntry {
+        private final String key;
+        private final String pool;
+        private final String name;
+        private long value;
+
+        public NTTopEntry(String key, String pool, String name, long value) {
+            this.key = key;
+            this.pool = pool;
+            this.name = name;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 锁异步释放（写后释放）：释放请求放入队列立即返回，释放线程收集队列中的请求，用1次连接和批量DELETE完成
+ * <p>
+ * 1. 同一把锁在本节点只能有1个待释放请求，本节点再次抢占该锁时，先完成待释放请求（由抢锁线程直接释放，或者等待释放线程完成）
+ * 2. 每个待释放请求只由抢锁线程或者释放线程之一执行，不会在重新抢占后被延迟删除
+ * 3. 停止时释放线程在限定时间内处理完队列中的请求，不中断正在执行的SQL
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTLockReleaser {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTLockReleaser.class);
+
+    /**
+     * 队列为空时释放线程等待时间（毫秒）
+     */
+    private static final long POLL_MILLIS = 100L;
+
+    /**
+     * 锁服务
+     */
+    private final NTLockImpl ntLock;
+
+    /**
+     * 每批最大释放数量
+     */
+    private final int maxBatchSize;
+
+    /**
+     * 待释放请求队列
+     */
+    private final LinkedBlockingQueue<NTReleaseRequest> requests = new LinkedBlockingQueue<>();
+
+    /**
+     * 待释放请求（分组/名称）
+     */
+    private final Map<String, NTReleaseRequest> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 释放线程
+     */
+    private final Thread releaseThread;
+
+    /**
+     * 运行标记
+     */
+    private volatile boolean running = true;
+
+    public NTLockReleaser(NTLockImpl ntLock, int maxBatchSize) {
+        this.ntLock = ntLock;
+        this.maxBatchSize = maxBatchSize;
+
+        this.releaseThread = new Thread(this::flush, "NTLockReleaseThread");
+        this.releaseThread.setDaemon(true);
+        this.releaseThread.start();
+    }
+
+    /**
+     * 提交释放请求，不等待结果
+     *
+     * @return true-已放入队列，false-已停止或者该锁已有待释放请求（由调用方同步释放）
+     */
+    public boolean submit(NTLockDTO lockDTO) {
+        if (!this.running) {
+            return false;
+        }
+
+        NTReleaseRequest request = new NTReleaseRequest(lockDTO);
+        if (this.pending.putIfAbsent(makeKey(lockDTO.getPool(), lockDTO.getName()), request) != null) {
+            return false;
+        }
+
+        this.requests.add(request);
+        return true;
+    }
+
+    /**
+     * 抢锁前完成该锁的待释放请求：未被释放线程领取则由当前线程同步释放，否则等待释放线程完成
+     *
+     * @param waitMillis 最长等待时间（毫秒）
+     * @return NULL-无待释放请求或者已完成，否则为等待超时结果
+     */
+    public NTLockResult await(NTLockDTO newLockDTO, long waitMillis) {
+        String key = makeKey(newLockDTO.getPool(), newLockDTO.getName());
+        NTReleaseRequest request = this.pending.get(key);
+        if (request == null) {
+            return null;
+        }
+
+        if (request.claim()) {
+            try {
+                this.ntLock.release(request.lockDTO);
+            } finally {
+                this.complete(key, request);
+            }
+
+            return null;
+        }
+
+        try {
+            if (request.done.await(Math.max(waitMillis, 0L), TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return NTLockResult.makeTimeout(newLockDTO, String.format("锁异步释放未完成-等待超时(%s->%s)", newLockDTO.getPool(), newLockDTO.getName()));
+    }
+
+    /**
+     * 停止释放线程：不再接收新请求，在限定时间内处理完队列中的请求
+     */
+    public void stop(long timeoutMillis) {
+        this.running = false;
+
+        try {
+            this.releaseThread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!this.requests.isEmpty()) {
+            LOGGER.warn("锁异步释放停止超时-剩余{}个释放请求未处理-锁过期后失效.", this.requests.size());
+        }
+    }
+
+    /**
+     * 待释放请求数量
+     */
+    public int getPending() {
+        return this.pending.size();
+    }
+
+    /**
+     * 释放线程：收集请求 -> 领取未被抢锁线程执行的请求 -> 批量释放 -> 通知完成
+     */
+    private void flush() {
+        while (this.running || !this.requests.isEmpty()) {
+            List<NTReleaseRequest> batch = new ArrayList<>();
+            try {
+                NTReleaseRequest first = this.requests.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                List<NTReleaseRequest> candidates = new ArrayList<>();
+                candidates.add(first);
+                this.requests.drainTo(candidates, this.maxBatchSize - 1);
+
+                List<NTLockDTO> lockDTOs = new ArrayList<>(candidates.size());
+                for (NTReleaseRequest request : candidates) {
+                    if (request.claim()) {
+                        batch.add(request);
+                        lockDTOs.add(request.lockDTO);
+                    }
+                }
+
+                if (!lockDTOs.isEmpty()) {
+                    this.ntLock.releaseBatch(lockDTOs);
+                }
+            } catch (InterruptedException e) {
+                // 释放线程不响应中断
+            } catch (Throwable e) {
+                LOGGER.warn("锁异步释放异常-锁过期后失效[{}].", e.getMessage());
+            } finally {
+                for (NTReleaseRequest request : batch) {
+                    this.complete(makeKey(request.lockDTO.getPool(), request.lockDTO.getName()), request);
+                }
+            }
+        }
+    }
+
+    private void complete(String key, NTReleaseRequest request) {
+        this.pending.remove(key, request);
+        request.done.countDown();
+    }
+
+    private static String makeKey(String pool, String name) {
+        return pool + "/" + name;
+    }
+
+    /**
+     * 待释放请求
+     */
+    private static class NTReleaseRequest {
+        private final NTLockDTO lockDTO;
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private NTReleaseRequest(NTLockDTO lockDTO) {
+            this.lockDTO = lockDTO;
+        }
+
+        /**
+         * 领取请求（抢锁线程或者释放线程只有1个成功）
+         */
+        private boolean claim() {
+            return this.claimed.compareAndSet(false, true);
+        }
+    }
+}
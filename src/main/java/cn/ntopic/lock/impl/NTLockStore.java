@@ -0,0 +1,178 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.model.NTLockDTO;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 锁存储SPI：锁引擎（参数检测、租约判断、占用缓存、异常重试）与锁数据存储分离，
+ * 存储实现只需要提供按锁持有者和过期时间比较的原子操作
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public interface NTLockStore {
+
+    /**
+     * 空闲锁持有者（行复用模式释放后的锁记录）
+     */
+    String FREE_OWN_HOST = "";
+    String FREE_OWN_IP = "";
+    long FREE_OWN_ID = 0L;
+
+    /**
+     * 是否为空闲持有者
+     */
+    static boolean isFree(NTLockDTO lockDTO) {
+        return FREE_OWN_HOST.equals(lockDTO.getOwnHost()) && FREE_OWN_IP.equals(lockDTO.getOwnIp()) && lockDTO.getOwnId() == FREE_OWN_ID;
+    }
+
+    /**
+     * 尝试创建存储（如数据表），已存在则忽略
+     */
+    void createTable();
+
+    /**
+     * 打开存储会话
+     *
+     * @param deadline 操作截止时间，可为NULL
+     * @throws java.sql.SQLTimeoutException 超过截止时间
+     */
+    NTLockStoreSession openSession(NTLockDeadline deadline) throws SQLException;
+
+    /**
+     * 查询锁信息
+     */
+    Optional<NTLockDTO> select(NTLockStoreSession session, String pool, String name) throws SQLException;
+
+    /**
+     * 新增锁信息
+     *
+     * @return true-新增成功，false-锁已存在（并发新增冲突）
+     */
+    boolean insert(NTLockStoreSession session, NTLockDTO newLockDTO) throws SQLException;
+
+    /**
+     * 批量查询锁信息（组提交），默认逐个查询
+     *
+     * @return KEY为：pool/name
+     */
+    default Map<String, NTLockDTO> selectBatch(NTLockStoreSession session, List<NTLockDTO> lockDTOs) throws SQLException {
+        Map<String, NTLockDTO> existLockDTOs = new HashMap<>();
+        for (NTLockDTO lockDTO : lockDTOs) {
+            Optional<NTLockDTO> optLockDTO = this.select(session, lockDTO.getPool(), lockDTO.getName());
+            optLockDTO.ifPresent(existLockDTO -> existLockDTOs.put(lockDTO.getPool() + "/" + lockDTO.getName(), existLockDTO));
+        }
+
+        return existLockDTOs;
+    }
+
+    /**
+     * 批量新增锁信息（组提交），默认逐个新增
+     *
+     * @return 与入参顺序一致，true-新增成功，false-锁已存在
+     */
+    default boolean[] insertBatch(NTLockStoreSession session, List<NTLockDTO> newLockDTOs) throws SQLException {
+        boolean[] results = new boolean[newLockDTOs.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = this.insert(session, newLockDTOs.get(i));
+        }
+
+        return results;
+    }
+
+    /**
+     * 抢占锁：当前锁持有者和过期时间与`existLockDTO`一致时，更新为新持有者
+     */
+    boolean updateTaken(NTLockStoreSession session, NTLockDTO newLockDTO, NTLockDTO existLockDTO) throws SQLException;
+
+    /**
+     * 延长锁定：当前锁持有者和过期时间与`existLockDTO`一致时，更新过期时间
+     */
+    boolean updateExpire(NTLockStoreSession session, NTLockDTO newLockDTO, NTLockDTO existLockDTO) throws SQLException;
+
+    /**
+     * 批量抢占或者延长锁定（组提交），默认逐个更新
+     *
+     * @param taken true-抢占锁，false-延长锁定
+     * @return 与入参顺序一致，true-更新成功
+     */
+    default boolean[] updateBatch(NTLockStoreSession session, List<NTLockDTO> newLockDTOs, List<NTLockDTO> existLockDTOs, boolean taken) throws SQLException {
+        boolean[] results = new boolean[newLockDTOs.size()];
+        for (int i = 0; i < results.length; i++) {
+            if (taken) {
+                results[i] = this.updateTaken(session, newLockDTOs.get(i), existLockDTOs.get(i));
+            } else {
+                results[i] = this.updateExpire(session, newLockDTOs.get(i), existLockDTOs.get(i));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * 抢占空闲锁（行复用模式）：锁记录已释放（空闲持有者）且已过期时，直接更新为新持有者，无需先查询；
+     * 过期未释放的锁记录不更新，由调用方查询后按过期抢占处理
+     *
+     * @param now 当前时间，过期时间不晚于该时间的锁记录可被抢占
+     */
+    boolean updateAcquire(NTLockStoreSession session, NTLockDTO newLockDTO, String now) throws SQLException;
+
+    /**
+     * 延迟释放：锁持有者一致时，将过期时间更新为指定时间
+     */
+    boolean updateRelease(NTLockStoreSession session, NTLockDTO lockDTO, String expire, String modify) throws SQLException;
+
+    /**
+     * 释放锁：锁持有者一致时，删除锁信息
+     */
+    boolean delete(NTLockStoreSession session, NTLockDTO lockDTO) throws SQLException;
+
+    /**
+     * 批量释放锁（异步释放），默认逐个删除
+     *
+     * @return 与入参顺序一致，true-删除成功，false-锁不存在、非当前持有者或者删除结果未知（不做释放后处理）
+     */
+    default boolean[] deleteBatch(NTLockStoreSession session, List<NTLockDTO> lockDTOs) throws SQLException {
+        boolean[] results = new boolean[lockDTOs.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = this.delete(session, lockDTOs.get(i));
+        }
+
+        return results;
+    }
+
+    /**
+     * 释放锁（行复用模式）：锁持有者一致时，清空持有者并将过期时间更新为指定时间，保留锁记录
+     */
+    boolean updateFree(NTLockStoreSession session, NTLockDTO lockDTO, String expire, String modify) throws SQLException;
+
+    /**
+     * 流式遍历锁信息
+     *
+     * @param pool 锁分组，为NULL时遍历全部分组
+     * @return 回调的锁数据数量
+     */
+    int scan(String pool, Predicate<NTLockDTO> filter, Consumer<NTLockDTO> consumer) throws SQLException;
+
+    /**
+     * 清理过期时间不晚于指定时间的锁信息
+     *
+     * @return 清理数量
+     */
+    int clean(String expire) throws SQLException;
+
+    /**
+     * 存储异常分类
+     */
+    NTLockErrorType classify(Throwable e);
+}
@@ -0,0 +1,19 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+/**
+ * 锁存储会话：1次抢占/释放操作内的多次存储访问共享同一会话（如同一数据库连接）
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public interface NTLockStoreSession extends AutoCloseable {
+
+    /**
+     * 关闭会话，不抛出异常
+     */
+    @Override
+    void close();
+}
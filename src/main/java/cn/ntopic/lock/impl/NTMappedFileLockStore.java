@@ -0,0 +1,654 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.utils.NTDateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * 映射文件锁存储：同一服务器上多个进程通过内存映射文件协调，租约语义与JDBC锁存储一致，
+ * 适用于单服务器部署多个JVM、无需数据库的场景
+ * <p>
+ * 文件为固定大小的哈希表：锁按`pool/name`哈希到桶，每个桶包含固定数量的槽位，1个槽位存储1把锁；
+ * 访问桶时先获取进程内的桶锁，再获取桶所在文件区域的`FileLock`（跨进程），然后直接读写映射内存，不经过文件系统读写调用。
+ * 桶内槽位已满时，新增锁复用已过期的槽位。
+ * <p>
+ * 容量限制：同一个桶内最多同时持有`每桶槽位数量`把未过期的锁（默认1024个桶，每桶8个槽位），
+ * 锁名称分布不均时单个桶可能先满；桶内槽位已满且没有已过期的槽位时，新增锁失败（抢锁结果为失败，而不是存储异常）。
+ * <p>
+ * 区域锁通过`AsynchronousFileChannel`获取并且不可中断地等待，线程中断不会关闭通道（`FileChannel`被中断时关闭通道，
+ * 同时释放其他线程持有的全部区域锁）。每个槽位保存数据校验和，写入过程中进程崩溃的槽位（校验和不一致）视为空闲：
+ * 写入者为锁的新持有者或者当前持有者，进程崩溃后该锁不再有效。
+ * <p>
+ * 同一JVM内同一文件只能有1个存储实例（`FileLock`属于JVM，同一JVM内的区域锁重叠会抛出异常）
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTMappedFileLockStore implements NTLockStore, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTMappedFileLockStore.class);
+
+    /**
+     * 文件头：魔数、格式版本、桶数量、每桶槽位数量
+     */
+    private static final int MAGIC = 0x4E544C4B;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 4096;
+
+    /**
+     * 槽位大小和字段容量（UTF-8字节数）
+     */
+    private static final int SLOT_SIZE = 1024;
+    private static final int POOL_CAPACITY = 192;
+    private static final int NAME_CAPACITY = 192;
+    private static final int HOST_CAPACITY = 256;
+    private static final int IP_CAPACITY = 64;
+    private static final int TIME_CAPACITY = 32;
+
+    /**
+     * 槽位数据大小（状态之后、校验和之前的字段），槽位最后4字节为数据校验和
+     */
+    private static final int DATA_SIZE = (2 + POOL_CAPACITY) + (2 + NAME_CAPACITY) + (2 + HOST_CAPACITY) + (2 + IP_CAPACITY)
+            + (2 + TIME_CAPACITY) * 2 + 8 + 4 + 4;
+    private static final int CHECKSUM_OFFSET = SLOT_SIZE - 4;
+
+    /**
+     * 槽位状态
+     */
+    private static final int SLOT_EMPTY = 0;
+    private static final int SLOT_USED = 1;
+
+    /**
+     * 进程标识：同一服务器的进程服务器名和IP相同、线程ID可能相同，持有服务器写入时追加进程标识，
+     * 读取时去掉当前进程的标识，其他进程的锁因持有服务器不同而不会被误认为当前线程持有
+     */
+    private static final String PROCESS_TAG = "#" + ManagementFactory.getRuntimeMXBean().getName();
+
+    /**
+     * 空会话
+     */
+    private static final NTLockStoreSession NO_SESSION = () -> {
+    };
+
+    /**
+     * 属性-锁文件
+     */
+    private final File file;
+
+    /**
+     * 属性-桶数量
+     */
+    private final int bucketCount;
+
+    /**
+     * 属性-每桶槽位数量
+     */
+    private final int bucketSlots;
+
+    /**
+     * 桶大小（字节）
+     */
+    private final int bucketSize;
+
+    /**
+     * 进程内桶锁
+     */
+    private final ReentrantLock[] bucketLocks;
+
+    /**
+     * 区域锁通道和映射内存（映射后映射通道即关闭，映射内存不受影响）
+     */
+    private AsynchronousFileChannel lockChannel;
+    private final MappedByteBuffer mapped;
+
+    /**
+     * CTOR-构建映射文件锁存储（1024个桶，每桶8个槽位）
+     */
+    public NTMappedFileLockStore(File file) {
+        this(file, 1024, 8);
+    }
+
+    /**
+     * CTOR-构建映射文件锁存储，文件已存在时桶数量和每桶槽位数量必须与文件一致
+     */
+    public NTMappedFileLockStore(File file, int bucketCount, int bucketSlots) {
+        if (file == null) {
+            throw new IllegalArgumentException("锁文件参数为NULL.");
+        }
+
+        if (bucketCount <= 0 || bucketSlots <= 0 || (long) bucketCount * bucketSlots * SLOT_SIZE + HEADER_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("锁文件桶数量或者每桶槽位数量参数非法(" + bucketCount + "/" + bucketSlots + ")");
+        }
+
+        this.file = file;
+        this.bucketCount = bucketCount;
+        this.bucketSlots = bucketSlots;
+        this.bucketSize = bucketSlots * SLOT_SIZE;
+
+        this.bucketLocks = new ReentrantLock[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            this.bucketLocks[i] = new ReentrantLock();
+        }
+
+        int fileSize = HEADER_SIZE + bucketCount * this.bucketSize;
+        try {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                this.mapped = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0L, fileSize);
+            }
+
+            this.lockChannel = AsynchronousFileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.initHeader();
+        } catch (IOException e) {
+            this.close();
+            throw new RuntimeException("锁文件打开异常(" + file.getAbsolutePath() + ")", e);
+        }
+
+        LOGGER.info("锁文件打开成功[{}]-{}个桶-每桶{}个槽位.", file.getAbsolutePath(), bucketCount, bucketSlots);
+    }
+
+    /**
+     * 初始化或者校验文件头（持有文件头区域锁，多个进程同时创建文件时只有1个写入文件头）
+     */
+    private void initHeader() throws IOException {
+        FileLock lock = this.lockRegion(0L, HEADER_SIZE);
+        try {
+            int magic = this.mapped.getInt(0);
+            if (magic == 0) {
+                this.mapped.putInt(4, FORMAT_VERSION);
+                this.mapped.putInt(8, this.bucketCount);
+                this.mapped.putInt(12, this.bucketSlots);
+                this.mapped.putInt(0, MAGIC);
+                return;
+            }
+
+            if (magic != MAGIC || this.mapped.getInt(4) != FORMAT_VERSION
+                    || this.mapped.getInt(8) != this.bucketCount || this.mapped.getInt(12) != this.bucketSlots) {
+                throw new IOException(String.format("锁文件格式不一致-魔数(%x)-版本(%d)-桶数量(%d)-每桶槽位数量(%d)"
+                        , magic, this.mapped.getInt(4), this.mapped.getInt(8), this.mapped.getInt(12)));
+            }
+        } finally {
+            lock.release();
+        }
+    }
+
+    @Override
+    public void createTable() {
+        // 打开文件时已初始化
+    }
+
+    @Override
+    public NTLockStoreSession openSession(NTLockDeadline deadline) {
+        return NO_SESSION;
+    }
+
+    @Override
+    public Optional<NTLockDTO> select(NTLockStoreSession session, String pool, String name) throws SQLException {
+        return this.withBucket(this.bucketOf(pool, name), buffer -> {
+            int slot = this.findSlot(buffer, pool, name);
+            return slot < 0 ? Optional.empty() : Optional.of(this.readSlot(buffer, slot));
+        });
+    }
+
+    @Override
+    public boolean insert(NTLockStoreSession session, NTLockDTO newLockDTO) throws SQLException {
+        final String now = NTDateUtils.format(new Date());
+        return this.withBucket(this.bucketOf(newLockDTO.getPool(), newLockDTO.getName()), buffer -> {
+            if (this.findSlot(buffer, newLockDTO.getPool(), newLockDTO.getName()) >= 0) {
+                return false;
+            }
+
+            // 优先空槽位，其次已过期的槽位
+            int freeSlot = -1;
+            for (int i = 0; i < this.bucketSlots && freeSlot < 0; i++) {
+                if (!isUsed(buffer, i)) {
+                    freeSlot = i;
+                }
+            }
+
+            for (int i = 0; i < this.bucketSlots && freeSlot < 0; i++) {
+                if (readString(buffer, this.expireOffset(i)).compareTo(now) <= 0) {
+                    freeSlot = i;
+                }
+            }
+
+            if (freeSlot < 0) {
+                // 容量不足不是存储故障，按新增失败返回，调用方得到抢锁失败结果
+                LOGGER.warn("锁文件桶内槽位已满-新增锁失败[{}->{}].", newLockDTO.getPool(), newLockDTO.getName());
+                return false;
+            }
+
+            this.writeSlot(buffer, freeSlot, newLockDTO, newLockDTO.getOwnHost(), newLockDTO.getOwnIp(), newLockDTO.getOwnId()
+                    , newLockDTO.getExpire(), newLockDTO.getTimes(), newLockDTO.getModify());
+            return true;
+        });
+    }
+
+    @Override
+    public boolean updateTaken(NTLockStoreSession session, NTLockDTO newLockDTO, NTLockDTO existLockDTO) throws SQLException {
+        return this.withSlot(newLockDTO, (buffer, slot) -> {
+            NTLockDTO current = this.readSlot(buffer, slot);
+            if (!isOwner(current, existLockDTO) || !current.getExpire().equals(existLockDTO.getExpire())) {
+                return false;
+            }
+
+            this.writeSlot(buffer, slot, newLockDTO, newLockDTO.getOwnHost(), newLockDTO.getOwnIp(), newLockDTO.getOwnId()
+                    , newLockDTO.getExpire(), 1, newLockDTO.getModify());
+            newLockDTO.setTimes(newLockDTO.getTimes() + 1);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean updateExpire(NTLockStoreSession session, NTLockDTO newLockDTO, NTLockDTO existLockDTO) throws SQLException {
+        return this.withSlot(newLockDTO, (buffer, slot) -> {
+            NTLockDTO current = this.readSlot(buffer, slot);
+            if (!isOwner(current, existLockDTO) || !current.getExpire().equals(existLockDTO.getExpire())) {
+                return false;
+            }
+
+            this.writeSlot(buffer, slot, current, current.getOwnHost(), current.getOwnIp(), current.getOwnId()
+                    , newLockDTO.getExpire(), current.getTimes() + 1, newLockDTO.getModify());
+            newLockDTO.setTimes(newLockDTO.getTimes() + 1);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean updateAcquire(NTLockStoreSession session, NTLockDTO newLockDTO, String now) throws SQLException {
+        return this.withSlot(newLockDTO, (buffer, slot) -> {
+            NTLockDTO current = this.readSlot(buffer, slot);
+            if (!NTLockStore.isFree(current) || current.getExpire().compareTo(now) > 0) {
+                return false;
+            }
+
+            this.writeSlot(buffer, slot, newLockDTO, newLockDTO.getOwnHost(), newLockDTO.getOwnIp(), newLockDTO.getOwnId()
+                    , newLockDTO.getExpire(), 1, newLockDTO.getModify());
+            newLockDTO.setTimes(newLockDTO.getTimes() + 1);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean updateRelease(NTLockStoreSession session, NTLockDTO lockDTO, String expire, String modify) throws SQLException {
+        return this.withSlot(lockDTO, (buffer, slot) -> {
+            NTLockDTO current = this.readSlot(buffer, slot);
+            if (!isOwner(current, lockDTO)) {
+                return false;
+            }
+
+            this.writeSlot(buffer, slot, current, current.getOwnHost(), current.getOwnIp(), current.getOwnId()
+                    , expire, current.getTimes(), modify);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean delete(NTLockStoreSession session, NTLockDTO lockDTO) throws SQLException {
+        return this.withSlot(lockDTO, (buffer, slot) -> {
+            if (!isOwner(this.readSlot(buffer, slot), lockDTO)) {
+                return false;
+            }
+
+            buffer.putInt(slot * SLOT_SIZE, SLOT_EMPTY);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean updateFree(NTLockStoreSession session, NTLockDTO lockDTO, String expire, String modify) throws SQLException {
+        return this.withSlot(lockDTO, (buffer, slot) -> {
+            NTLockDTO current = this.readSlot(buffer, slot);
+            if (!isOwner(current, lockDTO)) {
+                return false;
+            }
+
+            this.writeSlot(buffer, slot, current, FREE_OWN_HOST, FREE_OWN_IP, FREE_OWN_ID, expire, current.getTimes(), modify);
+            return true;
+        });
+    }
+
+    @Override
+    public int scan(String pool, Predicate<NTLockDTO> filter, Consumer<NTLockDTO> consumer) throws SQLException {
+        int count = 0;
+        for (int bucket = 0; bucket < this.bucketCount; bucket++) {
+            // 持有桶锁时只复制锁数据，回调在释放桶锁后执行
+            List<NTLockDTO> lockDTOs = this.withBucket(bucket, buffer -> {
+                List<NTLockDTO> values = new ArrayList<>();
+                for (int i = 0; i < this.bucketSlots; i++) {
+                    if (isUsed(buffer, i)) {
+                        NTLockDTO lockDTO = this.readSlot(buffer, i);
+                        if (pool == null || pool.equals(lockDTO.getPool())) {
+                            values.add(lockDTO);
+                        }
+                    }
+                }
+
+                return values;
+            });
+
+            for (NTLockDTO lockDTO : lockDTOs) {
+                if (filter == null || filter.test(lockDTO)) {
+                    consumer.accept(lockDTO);
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public int clean(String expire) throws SQLException {
+        int count = 0;
+        for (int bucket = 0; bucket < this.bucketCount; bucket++) {
+            count += this.withBucket(bucket, buffer -> {
+                int cleaned = 0;
+                for (int i = 0; i < this.bucketSlots; i++) {
+                    // 已过期的槽位，或者写入过程中进程崩溃的槽位
+                    if (buffer.getInt(i * SLOT_SIZE) == SLOT_USED && (!isUsed(buffer, i) || readString(buffer, this.expireOffset(i)).compareTo(expire) <= 0)) {
+                        buffer.putInt(i * SLOT_SIZE, SLOT_EMPTY);
+                        cleaned++;
+                    }
+                }
+
+                return cleaned;
+            });
+        }
+
+        return count;
+    }
+
+    @Override
+    public NTLockErrorType classify(Throwable e) {
+        return e instanceof SQLTransientException ? NTLockErrorType.TRANSIENT : NTLockErrorType.FATAL;
+    }
+
+    /**
+     * 关闭区域锁通道，映射内存在回收后解除映射
+     */
+    @Override
+    public synchronized void close() {
+        if (this.lockChannel != null) {
+            try {
+                this.lockChannel.close();
+            } catch (IOException e) {
+                LOGGER.warn("锁文件关闭异常[{}].", this.file.getAbsolutePath(), e);
+            }
+        }
+    }
+
+    /**
+     * 持有桶锁（进程内桶锁和文件区域锁）访问桶，回调入参为桶的内存视图（位置0为桶内第1个槽位）
+     */
+    private <T> T withBucket(int bucket, NTBucketAction<T> action) throws SQLException {
+        ReentrantLock bucketLock = this.bucketLocks[bucket];
+        bucketLock.lock();
+        try {
+            long position = HEADER_SIZE + (long) bucket * this.bucketSize;
+            try {
+                FileLock lock = this.lockRegion(position, this.bucketSize);
+                try {
+                    ByteBuffer buffer = this.mapped.duplicate();
+                    buffer.position((int) position);
+                    buffer.limit((int) position + this.bucketSize);
+
+                    return action.apply(buffer.slice());
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                throw new SQLException("锁文件访问异常(" + this.file.getAbsolutePath() + ")", e);
+            }
+        } finally {
+            bucketLock.unlock();
+        }
+    }
+
+    /**
+     * 持有桶锁访问锁所在槽位，锁不存在则返回false
+     */
+    private boolean withSlot(NTLockDTO lockDTO, NTSlotAction action) throws SQLException {
+        return this.withBucket(this.bucketOf(lockDTO.getPool(), lockDTO.getName()), buffer -> {
+            int slot = this.findSlot(buffer, lockDTO.getPool(), lockDTO.getName());
+            return slot >= 0 && action.apply(buffer, slot);
+        });
+    }
+
+    /**
+     * 获取文件区域锁：不可中断地等待（中断时放弃等待会遗留之后获取的区域锁），等待结束后恢复中断标记
+     */
+    private FileLock lockRegion(long position, long size) throws IOException {
+        Future<FileLock> future = this.lockChannel.lock(position, size, false);
+
+        boolean interrupted = false;
+        try {
+            for (; ; ) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 锁所在的桶（`String.hashCode()`算法固定，所有进程结果一致）
+     */
+    private int bucketOf(String pool, String name) {
+        int hash = pool.hashCode() * 31 + name.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), this.bucketCount);
+    }
+
+    /**
+     * 查找锁所在槽位，不存在返回-1
+     */
+    private int findSlot(ByteBuffer buffer, String pool, String name) {
+        for (int i = 0; i < this.bucketSlots; i++) {
+            int offset = i * SLOT_SIZE;
+            if (buffer.getInt(offset) == SLOT_USED
+                    && name.equals(readString(buffer, offset + 4 + 2 + POOL_CAPACITY))
+                    && pool.equals(readString(buffer, offset + 4))
+                    && isUsed(buffer, i)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * 过期时间字段偏移
+     */
+    private int expireOffset(int slot) {
+        return slot * SLOT_SIZE + 4 + (2 + POOL_CAPACITY) + (2 + NAME_CAPACITY) + (2 + HOST_CAPACITY) + (2 + IP_CAPACITY);
+    }
+
+    /**
+     * 读取槽位锁数据
+     * <p>
+     * 槽位格式：状态、分组、名称、持有服务器、持有IP、过期时间、修改时间、持有线程ID、锁定次数、锁池大小
+     */
+    private NTLockDTO readSlot(ByteBuffer buffer, int slot) {
+        int offset = slot * SLOT_SIZE + 4;
+        String pool = readString(buffer, offset);
+        offset += 2 + POOL_CAPACITY;
+        String name = readString(buffer, offset);
+        offset += 2 + NAME_CAPACITY;
+        String ownHost = decodeHost(readString(buffer, offset));
+        offset += 2 + HOST_CAPACITY;
+        String ownIp = readString(buffer, offset);
+        offset += 2 + IP_CAPACITY;
+        String expire = readString(buffer, offset);
+        offset += 2 + TIME_CAPACITY;
+        String modify = readString(buffer, offset);
+        offset += 2 + TIME_CAPACITY;
+
+        NTLockDTO lockDTO = new NTLockDTO(pool, name, ownHost, ownIp, buffer.getLong(offset), expire);
+        lockDTO.setTimes(buffer.getInt(offset + 8));
+        lockDTO.setSize(buffer.getInt(offset + 12));
+        lockDTO.setModify(modify);
+
+        return lockDTO;
+    }
+
+    /**
+     * 写入槽位锁数据，再写入数据校验和，最后写入槽位状态
+     */
+    private void writeSlot(ByteBuffer buffer, int slot, NTLockDTO keyDTO, String ownHost, String ownIp, long ownId
+            , String expire, int times, String modify) throws SQLException {
+        int offset = slot * SLOT_SIZE + 4;
+        writeString(buffer, offset, keyDTO.getPool(), POOL_CAPACITY);
+        offset += 2 + POOL_CAPACITY;
+        writeString(buffer, offset, keyDTO.getName(), NAME_CAPACITY);
+        offset += 2 + NAME_CAPACITY;
+        writeString(buffer, offset, encodeHost(ownHost), HOST_CAPACITY);
+        offset += 2 + HOST_CAPACITY;
+        writeString(buffer, offset, ownIp, IP_CAPACITY);
+        offset += 2 + IP_CAPACITY;
+        writeString(buffer, offset, expire, TIME_CAPACITY);
+        offset += 2 + TIME_CAPACITY;
+        writeString(buffer, offset, modify == null ? "" : modify, TIME_CAPACITY);
+        offset += 2 + TIME_CAPACITY;
+
+        buffer.putLong(offset, ownId);
+        buffer.putInt(offset + 8, times);
+        buffer.putInt(offset + 12, keyDTO.getSize());
+        buffer.putInt(slot * SLOT_SIZE + CHECKSUM_OFFSET, checksum(buffer, slot));
+        buffer.putInt(slot * SLOT_SIZE, SLOT_USED);
+    }
+
+    /**
+     * 槽位是否已使用：状态为已使用并且数据校验和一致（写入过程中进程崩溃的槽位视为空闲）
+     */
+    private static boolean isUsed(ByteBuffer buffer, int slot) {
+        return buffer.getInt(slot * SLOT_SIZE) == SLOT_USED
+                && buffer.getInt(slot * SLOT_SIZE + CHECKSUM_OFFSET) == checksum(buffer, slot);
+    }
+
+    /**
+     * 槽位数据校验和（CRC32）
+     */
+    private static int checksum(ByteBuffer buffer, int slot) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(slot * SLOT_SIZE + 4);
+        view.limit(slot * SLOT_SIZE + 4 + DATA_SIZE);
+
+        CRC32 crc = new CRC32();
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 持有服务器追加当前进程标识（空闲锁和其他进程的锁除外）
+     */
+    private static String encodeHost(String ownHost) {
+        return ownHost.isEmpty() || ownHost.indexOf('#') >= 0 ? ownHost : ownHost + PROCESS_TAG;
+    }
+
+    /**
+     * 持有服务器去掉当前进程标识
+     */
+    private static String decodeHost(String ownHost) {
+        return ownHost.endsWith(PROCESS_TAG) ? ownHost.substring(0, ownHost.length() - PROCESS_TAG.length()) : ownHost;
+    }
+
+    /**
+     * 读取字符串字段：2字节长度+UTF-8字节
+     */
+    private static String readString(ByteBuffer buffer, int offset) {
+        int length = buffer.getShort(offset);
+        byte[] bytes = new byte[length];
+
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset + 2);
+        view.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 写入字符串字段：2字节长度+UTF-8字节
+     */
+    private static void writeString(ByteBuffer buffer, int offset, String value, int capacity) throws SQLException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > capacity) {
+            throw new SQLException(String.format("锁文件字段超长(%d>%d)[%s]", bytes.length, capacity, value));
+        }
+
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset + 2);
+        view.put(bytes);
+        buffer.putShort(offset, (short) bytes.length);
+    }
+
+    /**
+     * 是否为同一锁持有者
+     */
+    private static boolean isOwner(NTLockDTO current, NTLockDTO lockDTO) {
+        return current.getOwnId() == lockDTO.getOwnId()
+                && current.getOwnHost().equals(lockDTO.getOwnHost())
+                && current.getOwnIp().equals(lockDTO.getOwnIp());
+    }
+
+    /**
+     * 桶访问回调
+     */
+    private interface NTBucketAction<T> {
+        T apply(ByteBuffer buffer) throws SQLException;
+    }
+
+    /**
+     * 槽位访问回调
+     */
+    private interface NTSlotAction {
+        boolean apply(ByteBuffer buffer, int slot) throws SQLException;
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    public int getBucketSlots() {
+        return bucketSlots;
+    }
+}
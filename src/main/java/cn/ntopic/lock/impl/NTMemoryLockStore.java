@@ -0,0 +1,227 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.model.NTLockDTO;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 内存锁存储：无锁的`ConcurrentHashMap`实现，租约语义与JDBC锁存储一致，
+ * 适用于单节点部署和单元测试等无需跨进程协调的场景
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTMemoryLockStore implements NTLockStore {
+
+    /**
+     * 空会话
+     */
+    private static final NTLockStoreSession NO_SESSION = () -> {
+    };
+
+    /**
+     * 锁数据，KEY为：pool/name，VALUE为不对外暴露的锁对象
+     */
+    private final Map<String, NTLockDTO> locks = new ConcurrentHashMap<>();
+
+    @Override
+    public void createTable() {
+        // 无需创建
+    }
+
+    @Override
+    public NTLockStoreSession openSession(NTLockDeadline deadline) {
+        return NO_SESSION;
+    }
+
+    @Override
+    public Optional<NTLockDTO> select(NTLockStoreSession session, String pool, String name) {
+        NTLockDTO lockDTO = this.locks.get(makeKey(pool, name));
+        return lockDTO == null ? Optional.empty() : Optional.of(copy(lockDTO, lockDTO.getExpire(), lockDTO.getTimes(), lockDTO.getModify()));
+    }
+
+    @Override
+    public boolean insert(NTLockStoreSession session, NTLockDTO newLockDTO) {
+        NTLockDTO lockDTO = copy(newLockDTO, newLockDTO.getExpire(), newLockDTO.getTimes(), newLockDTO.getModify());
+        return this.locks.putIfAbsent(makeKey(newLockDTO.getPool(), newLockDTO.getName()), lockDTO) == null;
+    }
+
+    @Override
+    public boolean updateTaken(NTLockStoreSession session, NTLockDTO newLockDTO, NTLockDTO existLockDTO) {
+        String key = makeKey(newLockDTO.getPool(), newLockDTO.getName());
+        NTLockDTO takenDTO = copy(newLockDTO, newLockDTO.getExpire(), 1, newLockDTO.getModify());
+
+        for (; ; ) {
+            NTLockDTO current = this.locks.get(key);
+            if (current == null || !isOwner(current, existLockDTO) || !current.getExpire().equals(existLockDTO.getExpire())) {
+                return false;
+            }
+
+            if (this.locks.replace(key, current, takenDTO)) {
+                newLockDTO.setTimes(newLockDTO.getTimes() + 1);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean updateExpire(NTLockStoreSession session, NTLockDTO newLockDTO, NTLockDTO existLockDTO) {
+        String key = makeKey(newLockDTO.getPool(), newLockDTO.getName());
+
+        for (; ; ) {
+            NTLockDTO current = this.locks.get(key);
+            if (current == null || !isOwner(current, existLockDTO) || !current.getExpire().equals(existLockDTO.getExpire())) {
+                return false;
+            }
+
+            if (this.locks.replace(key, current, copy(current, newLockDTO.getExpire(), current.getTimes() + 1, newLockDTO.getModify()))) {
+                newLockDTO.setTimes(newLockDTO.getTimes() + 1);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean updateAcquire(NTLockStoreSession session, NTLockDTO newLockDTO, String now) {
+        String key = makeKey(newLockDTO.getPool(), newLockDTO.getName());
+        NTLockDTO takenDTO = copy(newLockDTO, newLockDTO.getExpire(), 1, newLockDTO.getModify());
+
+        for (; ; ) {
+            NTLockDTO current = this.locks.get(key);
+            if (current == null || !NTLockStore.isFree(current) || current.getExpire().compareTo(now) > 0) {
+                return false;
+            }
+
+            if (this.locks.replace(key, current, takenDTO)) {
+                newLockDTO.setTimes(newLockDTO.getTimes() + 1);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean updateRelease(NTLockStoreSession session, NTLockDTO lockDTO, String expire, String modify) {
+        String key = makeKey(lockDTO.getPool(), lockDTO.getName());
+
+        for (; ; ) {
+            NTLockDTO current = this.locks.get(key);
+            if (current == null || !isOwner(current, lockDTO)) {
+                return false;
+            }
+
+            if (this.locks.replace(key, current, copy(current, expire, current.getTimes(), modify))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean updateFree(NTLockStoreSession session, NTLockDTO lockDTO, String expire, String modify) {
+        String key = makeKey(lockDTO.getPool(), lockDTO.getName());
+
+        for (; ; ) {
+            NTLockDTO current = this.locks.get(key);
+            if (current == null || !isOwner(current, lockDTO)) {
+                return false;
+            }
+
+            NTLockDTO freeDTO = new NTLockDTO(current.getPool(), current.getName(), FREE_OWN_HOST, FREE_OWN_IP, FREE_OWN_ID, expire);
+            freeDTO.setSize(current.getSize());
+            freeDTO.setTimes(current.getTimes());
+            freeDTO.setModify(modify);
+
+            if (this.locks.replace(key, current, freeDTO)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean delete(NTLockStoreSession session, NTLockDTO lockDTO) {
+        String key = makeKey(lockDTO.getPool(), lockDTO.getName());
+
+        for (; ; ) {
+            NTLockDTO current = this.locks.get(key);
+            if (current == null || !isOwner(current, lockDTO)) {
+                return false;
+            }
+
+            if (this.locks.remove(key, current)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public int scan(String pool, Predicate<NTLockDTO> filter, Consumer<NTLockDTO> consumer) {
+        int count = 0;
+        for (NTLockDTO current : this.locks.values()) {
+            if (pool != null && !pool.equals(current.getPool())) {
+                continue;
+            }
+
+            NTLockDTO lockDTO = copy(current, current.getExpire(), current.getTimes(), current.getModify());
+            if (filter == null || filter.test(lockDTO)) {
+                consumer.accept(lockDTO);
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public int clean(String expire) {
+        int count = 0;
+
+        // 按遍历时的锁对象条件删除，期间被延长或者重新抢占的锁不删除
+        for (Map.Entry<String, NTLockDTO> entry : this.locks.entrySet()) {
+            if (entry.getValue().getExpire().compareTo(expire) <= 0 && this.locks.remove(entry.getKey(), entry.getValue())) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public NTLockErrorType classify(Throwable e) {
+        return NTLockErrorType.FATAL;
+    }
+
+    /**
+     * 存储KEY
+     */
+    private static String makeKey(String pool, String name) {
+        return pool + "/" + name;
+    }
+
+    /**
+     * 是否为同一锁持有者
+     */
+    private static boolean isOwner(NTLockDTO current, NTLockDTO lockDTO) {
+        return current.getOwnId() == lockDTO.getOwnId()
+                && current.getOwnHost().equals(lockDTO.getOwnHost())
+                && current.getOwnIp().equals(lockDTO.getOwnIp());
+    }
+
+    /**
+     * 复制锁对象，存储内部对象不对外暴露
+     */
+    private static NTLockDTO copy(NTLockDTO source, String expire, int times, String modify) {
+        NTLockDTO lockDTO = new NTLockDTO(source.getPool(), source.getName(), source.getOwnHost(), source.getOwnIp()
+                , source.getOwnId(), expire);
+        lockDTO.setSize(source.getSize());
+        lockDTO.setTimes(times);
+        lockDTO.setModify(modify);
+
+        return lockDTO;
+    }
+}
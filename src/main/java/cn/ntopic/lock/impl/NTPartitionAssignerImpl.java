@@ -0,0 +1,463 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.NTLock;
+import cn.ntopic.lock.NTPartitionAssigner;
+import cn.ntopic.lock.NTPartitionListener;
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockResult;
+import cn.ntopic.lock.utils.NTDateUtils;
+import cn.ntopic.lock.utils.NTHostUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式分区分配服务实现，基于锁数据表：
+ * 1. 节点心跳：锁分组`{group}#NODE`中每个存活节点1条锁记录
+ * 2. 分区归属：锁分组`{group}`中每个分区1条锁记录，锁名称为分区编号
+ * 3. 每个周期：1次续约心跳，2次遍历（存活节点和分区归属），分区的续约和抢占按批次合并为批量SQL
+ * 4. 分配规则：P个分区平分给N个节点，每个节点P/N个，已持有分区最多的P%N个节点多分1个；
+ * 节点优先保留已持有的分区，只释放超出份额的分区、只抢占空闲分区，节点加入或者离开时只迁移必要的分区
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTPartitionAssignerImpl implements NTPartitionAssigner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTPartitionAssignerImpl.class);
+
+    /**
+     * 节点心跳锁分组后缀
+     */
+    private static final String NODE_SUFFIX = "#NODE";
+
+    /**
+     * 锁服务
+     */
+    private final NTLockImpl ntLock;
+
+    /**
+     * 分区分组名称（即分区归属锁分组）
+     */
+    private final String group;
+
+    /**
+     * 分区数量
+     */
+    private final int partitions;
+
+    /**
+     * 属性-分区租约时间（毫秒）
+     */
+    private long leaseTime = 30000L;
+
+    /**
+     * 属性-续约间隔（毫秒），需小于租约时间
+     */
+    private long renewInterval = 10000L;
+
+    /**
+     * 属性-每批续约和抢占的分区数量
+     */
+    private int batchSize = 64;
+
+    /**
+     * 监听器
+     */
+    private final List<NTPartitionListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 当前节点已分配的分区
+     */
+    private volatile Set<Integer> assigned = Collections.emptySet();
+
+    /**
+     * 本地租约过期时间（毫秒），以续约开始时间计算，保证不晚于数据表中的过期时间
+     */
+    private volatile long leaseExpireMillis = 0L;
+
+    /**
+     * 分区分配线程
+     */
+    private volatile NTPartitionThread partitionThread;
+
+    /**
+     * CTOR-构建分区分配组件
+     */
+    public NTPartitionAssignerImpl(NTLockImpl ntLock, String group, int partitions) {
+        if (ntLock == null) {
+            throw new IllegalArgumentException("锁服务参数为NULL.");
+        }
+
+        if (group == null || group.isEmpty() || group.length() > NTLock.MAX_POOL_LENGTH - NODE_SUFFIX.length()) {
+            throw new IllegalArgumentException("分区分组名称参数非法(" + (NTLock.MAX_POOL_LENGTH - NODE_SUFFIX.length()) + ")");
+        }
+
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("分区数量参数非法(" + partitions + ")");
+        }
+
+        this.ntLock = ntLock;
+        this.group = group;
+        this.partitions = partitions;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (this.partitionThread != null) {
+            return;
+        }
+
+        if (this.renewInterval >= this.leaseTime) {
+            throw new IllegalArgumentException(String.format("续约间隔(%s)需小于租约时间(%s)", this.renewInterval, this.leaseTime));
+        }
+
+        this.partitionThread = new NTPartitionThread();
+        this.partitionThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        NTPartitionThread thread = this.partitionThread;
+        if (thread == null) {
+            return;
+        }
+
+        this.partitionThread = null;
+        thread.running = false;
+        thread.interrupt();
+
+        try {
+            thread.join(this.renewInterval);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public Set<Integer> getAssigned() {
+        return System.currentTimeMillis() < this.leaseExpireMillis ? this.assigned : Collections.emptySet();
+    }
+
+    @Override
+    public boolean isAssigned(int partition) {
+        return this.getAssigned().contains(partition);
+    }
+
+    @Override
+    public void addListener(NTPartitionListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("分区分配监听器参数为NULL.");
+        }
+
+        this.listeners.add(listener);
+    }
+
+    /**
+     * 1个分配周期：心跳 -> 查询存活节点和分区归属 -> 计算份额 -> 释放超出份额的分区 -> 批量续约和抢占
+     */
+    private void assign() {
+        final long start = System.currentTimeMillis();
+        final String now = NTDateUtils.format(new Date(start));
+        final long ownId = Thread.currentThread().getId();
+        final String self = makeMember(NTHostUtils.HOST, NTHostUtils.IP, ownId);
+
+        // 1. 节点心跳
+        NTLockDTO nodeDTO = new NTLockDTO(this.group + NODE_SUFFIX, NTHostUtils.IP + "-" + ownId, NTHostUtils.HOST, NTHostUtils.IP, ownId, now);
+        NTLockResult heartbeat = this.ntLock.lock(nodeDTO, (int) this.leaseTime, TimeUnit.MILLISECONDS);
+        if (!heartbeat.isSuccess()) {
+            LOGGER.warn("[{}]分区分配节点心跳失败[{}].", this.group, heartbeat.getMessage());
+        }
+
+        // 2. 存活节点和分区归属（只取未过期的记录）
+        final Set<String> members = new TreeSet<>();
+        members.add(self);
+        this.ntLock.scan(this.group + NODE_SUFFIX, lockDTO -> lockDTO.getExpire().compareTo(now) > 0
+                , lockDTO -> members.add(makeMember(lockDTO.getOwnHost(), lockDTO.getOwnIp(), lockDTO.getOwnId())));
+
+        final Map<Integer, String> owners = new HashMap<>();
+        this.ntLock.scan(this.group, lockDTO -> lockDTO.getExpire().compareTo(now) > 0, lockDTO -> {
+            int partition = parsePartition(lockDTO.getName());
+            if (partition >= 0 && partition < this.partitions) {
+                owners.put(partition, makeMember(lockDTO.getOwnHost(), lockDTO.getOwnIp(), lockDTO.getOwnId()));
+            }
+        });
+
+        // 3. 当前节点份额
+        int quota = this.makeQuota(self, members, owners);
+
+        // 4. 当前节点持有的分区，超出份额的释放（编号大的优先释放）
+        List<Integer> keeps = new ArrayList<>();
+        for (int partition = 0; partition < this.partitions; partition++) {
+            if (self.equals(owners.get(partition))) {
+                keeps.add(partition);
+            }
+        }
+
+        while (keeps.size() > quota) {
+            int partition = keeps.remove(keeps.size() - 1);
+            NTLockDTO lockDTO = new NTLockDTO(this.group, String.valueOf(partition), NTHostUtils.HOST, NTHostUtils.IP, ownId, now);
+            if (!this.ntLock.release(lockDTO)) {
+                LOGGER.warn("[{}]分区再平衡释放失败[{}].", this.group, partition);
+            }
+        }
+
+        // 5. 抢占空闲分区：优先之前已分配的分区，其余从节点散列位置开始，减少节点之间抢占冲突
+        Set<Integer> candidates = new LinkedHashSet<>(keeps);
+        for (Integer partition : this.assigned) {
+            if (candidates.size() >= quota) {
+                break;
+            }
+
+            if (partition < this.partitions && !owners.containsKey(partition)) {
+                candidates.add(partition);
+            }
+        }
+
+        int offset = (self.hashCode() & Integer.MAX_VALUE) % this.partitions;
+        for (int i = 0; i < this.partitions && candidates.size() < quota; i++) {
+            int partition = (offset + i) % this.partitions;
+            if (!owners.containsKey(partition)) {
+                candidates.add(partition);
+            }
+        }
+
+        // 6. 批量续约和抢占
+        Set<Integer> newAssigned = new TreeSet<>();
+        List<Integer> batch = new ArrayList<>(this.batchSize);
+        for (Integer partition : candidates) {
+            batch.add(partition);
+            if (batch.size() >= this.batchSize) {
+                this.lockBatch(batch, ownId, now, newAssigned);
+                batch.clear();
+            }
+        }
+
+        this.lockBatch(batch, ownId, now, newAssigned);
+
+        // 7. 更新分配结果并通知
+        this.leaseExpireMillis = start + this.leaseTime;
+        this.update(newAssigned);
+
+        LOGGER.debug("[{}]分区分配完成-节点{}个-份额{}个-分配{}个.", this.group, members.size(), quota, newAssigned.size());
+    }
+
+    /**
+     * 计算当前节点份额：每个节点P/N个，已持有分区最多的P%N个节点（持有数相同按节点排序）多分1个
+     */
+    private int makeQuota(String self, Set<String> members, Map<Integer, String> owners) {
+        int base = this.partitions / members.size();
+        int extra = this.partitions % members.size();
+        if (extra == 0) {
+            return base;
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (String member : members) {
+            counts.put(member, 0);
+        }
+
+        for (String owner : owners.values()) {
+            counts.computeIfPresent(owner, (member, count) -> count + 1);
+        }
+
+        List<String> ranks = new ArrayList<>(members);
+        ranks.sort((m1, m2) -> {
+            int compare = Integer.compare(counts.get(m2), counts.get(m1));
+            return compare != 0 ? compare : m1.compareTo(m2);
+        });
+
+        return ranks.indexOf(self) < extra ? base + 1 : base;
+    }
+
+    /**
+     * 批量续约或者抢占分区
+     */
+    private void lockBatch(List<Integer> batch, long ownId, String now, Set<Integer> newAssigned) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<NTLockDTO> lockDTOs = new ArrayList<>(batch.size());
+        for (Integer partition : batch) {
+            lockDTOs.add(new NTLockDTO(this.group, String.valueOf(partition), NTHostUtils.HOST, NTHostUtils.IP, ownId, now));
+        }
+
+        List<NTLockResult> results = this.ntLock.lockBatch(lockDTOs, (int) this.leaseTime, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).isSuccess()) {
+                newAssigned.add(batch.get(i));
+            }
+        }
+    }
+
+    /**
+     * 更新已分配的分区，并通知新分配和失去的分区
+     */
+    private void update(Set<Integer> newAssigned) {
+        Set<Integer> oldAssigned = this.assigned;
+
+        Set<Integer> revoked = new TreeSet<>(oldAssigned);
+        revoked.removeAll(newAssigned);
+
+        Set<Integer> added = new TreeSet<>(newAssigned);
+        added.removeAll(oldAssigned);
+
+        this.assigned = Collections.unmodifiableSet(newAssigned);
+
+        if (!revoked.isEmpty()) {
+            LOGGER.info("[{}]失去分区{}.", this.group, revoked);
+            this.fire(revoked, false);
+        }
+
+        if (!added.isEmpty()) {
+            LOGGER.info("[{}]新分配分区{}.", this.group, added);
+            this.fire(added, true);
+        }
+    }
+
+    /**
+     * 通知监听器
+     */
+    private void fire(Set<Integer> partitions, boolean assign) {
+        Set<Integer> view = Collections.unmodifiableSet(partitions);
+        for (NTPartitionListener listener : this.listeners) {
+            try {
+                if (assign) {
+                    listener.onAssigned(this.group, view);
+                } else {
+                    listener.onRevoked(this.group, view);
+                }
+            } catch (Throwable e) {
+                LOGGER.error("[{}]分区分配监听器回调异常-{}.", this.group, listener, e);
+            }
+        }
+    }
+
+    /**
+     * 节点标识
+     */
+    private static String makeMember(String ownHost, String ownIp, long ownId) {
+        return ownHost + "/" + ownIp + "/" + ownId;
+    }
+
+    /**
+     * 锁名称转换为分区编号，非法则为-1
+     */
+    private static int parsePartition(String name) {
+        try {
+            return Integer.parseInt(name);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 分区分配线程：心跳、抢占、续约和释放都在同一线程执行，保证锁持有者一致
+     */
+    private class NTPartitionThread extends Thread {
+        /**
+         * 运行标记
+         */
+        private volatile boolean running = true;
+
+        public NTPartitionThread() {
+            super("NTPartitionThread-" + NTPartitionAssignerImpl.this.group);
+            this.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (this.running) {
+                try {
+                    assign();
+                } catch (Throwable e) {
+                    LOGGER.error("[{}]分区分配异常.", group, e);
+                    if (System.currentTimeMillis() >= leaseExpireMillis) {
+                        update(new TreeSet<>());
+                    }
+                }
+
+                try {
+                    Thread.sleep(renewInterval);
+                } catch (InterruptedException e) {
+                    // 停止分配
+                }
+            }
+
+            // 停止分配：释放全部分区和节点心跳
+            String now = NTDateUtils.format(new Date());
+            long ownId = Thread.currentThread().getId();
+            try {
+                for (Integer partition : assigned) {
+                    ntLock.release(new NTLockDTO(group, String.valueOf(partition), NTHostUtils.HOST, NTHostUtils.IP, ownId, now));
+                }
+
+                ntLock.release(new NTLockDTO(group + NODE_SUFFIX, NTHostUtils.IP + "-" + ownId, NTHostUtils.HOST, NTHostUtils.IP, ownId, now));
+            } catch (Throwable e) {
+                LOGGER.warn("[{}]停止分区分配释放锁异常[{}].", group, e.getMessage());
+            }
+
+            update(new TreeSet<>());
+        }
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public String getGroup() {
+        return group;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public long getLeaseTime() {
+        return leaseTime;
+    }
+
+    public void setLeaseTime(long leaseTime) {
+        if (leaseTime <= 0L || leaseTime > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("分区租约时间参数非法(" + leaseTime + ")");
+        }
+
+        this.leaseTime = leaseTime;
+    }
+
+    public long getRenewInterval() {
+        return renewInterval;
+    }
+
+    public void setRenewInterval(long renewInterval) {
+        if (renewInterval <= 0L) {
+            throw new IllegalArgumentException("续约间隔参数非法(" + renewInterval + ")");
+        }
+
+        this.renewInterval = renewInterval;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("每批分区数量参数非法(" + batchSize + ")");
+        }
+
+        this.batchSize = batchSize;
+    }
+}
@@ -0,0 +1,548 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.NTLock;
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockReason;
+import cn.ntopic.lock.model.NTLockResult;
+import cn.ntopic.lock.utils.NTDateUtils;
+import cn.ntopic.lock.utils.NTHostUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 多数派分布式锁服务实现：锁数据存储在N个相互独立的数据源中，
+ * 1. 并行向所有数据源抢锁，在抢锁窗口内多数派（N/2+1）成功即抢锁成功，耗时取决于最快的多数派，不受最慢数据源影响
+ * 2. 有效租约时间扣除抢锁耗时和时钟漂移，返回锁对象的过期时间即为有效截止时间
+ * 3. 抢锁失败时异步释放已抢占的数据源，抢锁窗口结束后才完成的抢占在完成时释放
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTQuorumLockImpl implements NTLock {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTQuorumLockImpl.class);
+
+    /**
+     * 各数据源的锁服务
+     */
+    private final List<NTLockImpl> ntLocks;
+
+    /**
+     * 多数派数量
+     */
+    private final int quorum;
+
+    /**
+     * 并行抢锁线程池
+     */
+    private final ExecutorService executor;
+
+    /**
+     * 属性-抢锁窗口（毫秒），多数派需在窗口内抢锁成功，不超过租约时间
+     */
+    private long acquireTimeout = 1000L;
+
+    /**
+     * 属性-时钟漂移比例（租约时间的百分比）
+     */
+    private int clockDriftPercent = 1;
+
+    /**
+     * 属性-时钟漂移固定值（毫秒）
+     */
+    private long clockDriftMillis = 2L;
+
+    /**
+     * CTOR-每个数据源1个锁服务
+     */
+    public NTQuorumLockImpl(List<DataSource> ntDataSources) {
+        this(makeLocks(ntDataSources));
+    }
+
+    /**
+     * CTOR-指定各数据源的锁服务
+     */
+    public NTQuorumLockImpl(NTLockImpl... ntLocks) {
+        if (ntLocks == null || ntLocks.length == 0) {
+            throw new IllegalArgumentException("锁服务参数为空.");
+        }
+
+        for (NTLockImpl ntLock : ntLocks) {
+            if (ntLock == null) {
+                throw new IllegalArgumentException("锁服务参数为NULL.");
+            }
+        }
+
+        this.ntLocks = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(ntLocks)));
+        this.quorum = ntLocks.length / 2 + 1;
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "NTQuorumLockThread-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static NTLockImpl[] makeLocks(List<DataSource> ntDataSources) {
+        if (ntDataSources == null || ntDataSources.isEmpty()) {
+            throw new IllegalArgumentException("数据源参数为空.");
+        }
+
+        NTLockImpl[] ntLocks = new NTLockImpl[ntDataSources.size()];
+        for (int i = 0; i < ntLocks.length; i++) {
+            ntLocks[i] = new NTLockImpl(ntDataSources.get(i));
+        }
+
+        return ntLocks;
+    }
+
+    /**
+     * 初始化各数据源的锁服务
+     */
+    public void init() {
+        this.ntLocks.forEach(NTLockImpl::init);
+    }
+
+    /**
+     * 在各数据源创建锁数据表
+     */
+    public void createTable() {
+        this.ntLocks.forEach(NTLockImpl::createTable);
+    }
+
+    /**
+     * 停止并行抢锁线程池，未完成的释放操作不再等待
+     */
+    public void destroy() {
+        this.executor.shutdown();
+    }
+
+    @Override
+    public NTLockResult lock(String lockName, int timeout, TimeUnit timeUnit) {
+        return this.doLock(DEFAULT_POOL, lockName, 1, timeout, timeUnit, this.acquireTimeout);
+    }
+
+    @Override
+    public NTLockResult lock(String lockName, int timeout, TimeUnit timeUnit, long opTimeoutMillis) {
+        if (opTimeoutMillis <= 0L) {
+            throw new IllegalArgumentException("操作超时时间参数非法(" + opTimeoutMillis + ")");
+        }
+
+        return this.doLock(DEFAULT_POOL, lockName, 1, timeout, timeUnit, Math.min(opTimeoutMillis, this.acquireTimeout));
+    }
+
+    @Override
+    public NTLockResult lock(NTLockDTO lockDTO, int timeout, TimeUnit timeUnit) {
+        if (lockDTO == null) {
+            throw new IllegalArgumentException("锁对象参数为NULL.");
+        }
+
+        return this.doLock(lockDTO.getPool(), lockDTO.getName(), 1, timeout, timeUnit, this.acquireTimeout);
+    }
+
+    @Override
+    public NTLockResult lock(NTLockDTO lockDTO, int timeout, TimeUnit timeUnit, long opTimeoutMillis) {
+        if (lockDTO == null) {
+            throw new IllegalArgumentException("锁对象参数为NULL.");
+        }
+
+        if (opTimeoutMillis <= 0L) {
+            throw new IllegalArgumentException("操作超时时间参数非法(" + opTimeoutMillis + ")");
+        }
+
+        return this.doLock(lockDTO.getPool(), lockDTO.getName(), 1, timeout, timeUnit, Math.min(opTimeoutMillis, this.acquireTimeout));
+    }
+
+    /**
+     * 并行向所有数据源抢占或者延长锁，多数派成功且有效租约时间>0才算成功
+     */
+    private NTLockResult doLock(String pool, String name, int size, int timeout, TimeUnit timeUnit, long windowMillis) {
+        // 参数检测
+        if (pool == null || pool.length() > MAX_POOL_LENGTH) {
+            throw new IllegalArgumentException("锁池参数非法(" + MAX_POOL_LENGTH + ")");
+        }
+
+        if (name == null || name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("锁名称参数非法(" + MAX_NAME_LENGTH + ")");
+        }
+
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("超时时间参数非法(" + timeout + ")");
+        }
+
+        // 组装锁信息：所有数据源使用相同的持有者和过期时间
+        final long leaseMillis = timeUnit.toMillis(timeout);
+        final long startNanos = System.nanoTime();
+        final Date now = new Date();
+        final long ownId = Thread.currentThread().getId();
+        final String expire = NTDateUtils.format(new Date(now.getTime() + leaseMillis));
+        final NTLockDeadline deadline = NTLockDeadline.after(Math.min(windowMillis, leaseMillis));
+
+        // 并行抢锁，按完成顺序收集结果
+        final LinkedBlockingQueue<NTLockResult> completed = new LinkedBlockingQueue<>();
+        final List<CompletableFuture<NTLockResult>> futures = new ArrayList<>(this.ntLocks.size());
+        for (NTLockImpl ntLock : this.ntLocks) {
+            NTLockDTO newLockDTO = new NTLockDTO(pool, name, NTHostUtils.HOST, NTHostUtils.IP, ownId, expire);
+            newLockDTO.setSize(size);
+            newLockDTO.setTimes(1);
+            newLockDTO.setModify(NTDateUtils.format(now));
+
+            CompletableFuture<NTLockResult> future = CompletableFuture.supplyAsync(() -> ntLock.lockAs(newLockDTO, deadline), this.executor)
+                    .exceptionally(e -> NTLockResult.makeFailure(newLockDTO, NTLockReason.DB_ERROR, String.format("锁抢占异常(%s->%s)[%s]", pool, name, e.getMessage())));
+            future.thenAccept(completed::add);
+            futures.add(future);
+        }
+
+        // 等待多数派成功，或者多数派已不可能成功，或者抢锁窗口结束
+        int success = 0;
+        int failure = 0;
+        NTLockResult successResult = null;
+        NTLockResult failureResult = null;
+        while (success < this.quorum && failure <= this.ntLocks.size() - this.quorum) {
+            NTLockResult result;
+            try {
+                result = completed.poll(Math.max(deadline.remainingMillis(), 0L), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result = null;
+            }
+
+            if (result == null) {
+                break;
+            }
+
+            if (result.isSuccess()) {
+                success++;
+                successResult = result;
+            } else {
+                failure++;
+                failureResult = result;
+            }
+        }
+
+        // 有效租约时间 = 租约时间 - 抢锁耗时 - 时钟漂移
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        final long driftMillis = leaseMillis * this.clockDriftPercent / 100 + this.clockDriftMillis;
+        final long validityMillis = leaseMillis - elapsedMillis - driftMillis;
+
+        final NTLockDTO lockDTO = new NTLockDTO(pool, name, NTHostUtils.HOST, NTHostUtils.IP, ownId
+                , NTDateUtils.format(new Date(now.getTime() + leaseMillis - driftMillis)));
+        lockDTO.setSize(size);
+        lockDTO.setTimes(successResult != null ? successResult.getLockDTO().getTimes() : 1);
+        lockDTO.setModify(NTDateUtils.format(now));
+
+        if (success >= this.quorum && validityMillis > 0L) {
+            return NTLockResult.makeSuccess(lockDTO);
+        }
+
+        // 抢锁失败，异步释放本次新抢占和之后才完成抢占的数据源；延长锁定的数据源原已持有锁（持有者相同），
+        // 释放会丢掉调用方仍有效的租约，因此保留（多出的租约在调用方释放锁时一并释放）
+        for (int i = 0; i < futures.size(); i++) {
+            final NTLockImpl ntLock = this.ntLocks.get(i);
+            futures.get(i).thenAcceptAsync(result -> {
+                if (result.isSuccess() && !isRenewal(result, expire)) {
+                    ntLock.release(result.getLockDTO());
+                }
+            }, this.executor);
+        }
+
+        if (success + failure < this.ntLocks.size() && failure <= this.ntLocks.size() - this.quorum) {
+            return NTLockResult.makeTimeout(lockDTO, String.format("多数派锁抢占超时(%s->%s)-成功%s/%s-耗时%sms", pool, name, success, this.ntLocks.size(), elapsedMillis));
+        }
+
+        String message = String.format("多数派锁抢占失败(%s->%s)-成功%s/%s-耗时%sms", pool, name, success, this.ntLocks.size(), elapsedMillis);
+        if (failureResult != null && failureResult.getMessage() != null) {
+            message += "[" + failureResult.getMessage() + "]";
+        }
+
+        NTLockReason reason = NTLockReason.TIMEOUT;
+        if (success < this.quorum) {
+            reason = (failureResult != null && failureResult.getReason() != null) ? failureResult.getReason() : NTLockReason.DB_ERROR;
+        }
+
+        return NTLockResult.makeFailure(lockDTO, reason, message);
+    }
+
+    /**
+     * 检测数据源抢锁结果是否为延长锁定：延长成功锁定次数>1，原过期时间更晚或者延长失败则返回原锁（过期时间不同）
+     */
+    private static boolean isRenewal(NTLockResult result, String expire) {
+        NTLockDTO lockDTO = result.getLockDTO();
+        return lockDTO.getTimes() > 1 || !expire.equals(lockDTO.getExpire());
+    }
+
+    /**
+     * 从随机位置依次尝试锁池中的并发锁（锁名称为序号：0~count-1），每个并发锁按多数派并行抢占，
+     * 最长耗时为`count`个抢锁窗口
+     */
+    @Override
+    public NTLockResult lockPool(String poolName, int count, int timeout, TimeUnit timeUnit) {
+        // 参数检测
+        if (poolName == null || poolName.length() > MAX_POOL_LENGTH) {
+            throw new IllegalArgumentException("并发锁池名称参数非法(" + MAX_POOL_LENGTH + ")");
+        }
+
+        if (count <= 0) {
+            throw new IllegalArgumentException("锁池并发数量参数非法(" + count + ")");
+        }
+
+        final int offset = ThreadLocalRandom.current().nextInt(count);
+
+        NTLockResult result = null;
+        for (int i = 0; i < count; i++) {
+            result = this.doLock(poolName, String.valueOf((offset + i) % count), count, timeout, timeUnit, this.acquireTimeout);
+            if (result.isSuccess()) {
+                return result;
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean release(String lockName) {
+        // 参数检测
+        if (lockName == null || lockName.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("锁名称参数非法(" + MAX_NAME_LENGTH + ")");
+        }
+
+        // 组装锁信息
+        final NTLockDTO newLockDTO = new NTLockDTO(DEFAULT_POOL, lockName, NTHostUtils.HOST, NTHostUtils.IP
+                , Thread.currentThread().getId(), NTDateUtils.format(new Date()));
+        newLockDTO.setSize(1);
+        newLockDTO.setTimes(1);
+        newLockDTO.setModify(NTDateUtils.format(new Date()));
+
+        return this.release(newLockDTO);
+    }
+
+    @Override
+    public boolean release(NTLockDTO lockDTO) {
+        return this.doRelease(lockDTO, null).isSuccess();
+    }
+
+    @Override
+    public NTLockResult release(NTLockDTO lockDTO, long opTimeoutMillis) {
+        if (opTimeoutMillis <= 0L) {
+            throw new IllegalArgumentException("操作超时时间参数非法(" + opTimeoutMillis + ")");
+        }
+
+        return this.doRelease(lockDTO, NTLockDeadline.after(opTimeoutMillis));
+    }
+
+    /**
+     * 并行释放所有数据源的锁，多数派释放成功即成功（抢锁时未抢占的数据源释放失败）
+     */
+    private NTLockResult doRelease(NTLockDTO lockDTO, NTLockDeadline deadline) {
+        if (lockDTO == null) {
+            throw new IllegalArgumentException("锁对象参数为NULL.");
+        }
+
+        List<CompletableFuture<NTLockResult>> futures = this.forEachLock(ntLock -> {
+            if (deadline == null) {
+                return ntLock.release(lockDTO) ? NTLockResult.makeSuccess(lockDTO) : NTLockResult.makeFailure(lockDTO, NTLockReason.NOT_OWNER);
+            }
+
+            return ntLock.release(lockDTO, Math.max(deadline.remainingMillis(), 1L));
+        });
+
+        int success = 0;
+        boolean timeout = false;
+        for (CompletableFuture<NTLockResult> future : futures) {
+            NTLockResult result = this.join(future, deadline);
+            if (result == null || result.isTimeout()) {
+                timeout = true;
+            } else if (result.isSuccess()) {
+                success++;
+            }
+        }
+
+        if (success >= this.quorum) {
+            return NTLockResult.makeSuccess(lockDTO);
+        }
+
+        String message = String.format("多数派锁释放失败(%s->%s)-成功%s/%s", lockDTO.getPool(), lockDTO.getName(), success, this.ntLocks.size());
+        return timeout ? NTLockResult.makeTimeout(lockDTO, message) : NTLockResult.makeFailure(lockDTO, NTLockReason.NOT_OWNER, message);
+    }
+
+    @Override
+    public boolean isLocked(String poolName, String lockName) {
+        return this.getOwner(poolName, lockName).isPresent();
+    }
+
+    /**
+     * 查询所有数据源，多数派一致的未过期持有者才是锁持有者，过期时间取多数派中最早的过期时间
+     */
+    @Override
+    public Optional<NTLockDTO> getOwner(String poolName, String lockName) {
+        List<CompletableFuture<Optional<NTLockDTO>>> futures = this.forEachLock(ntLock -> ntLock.getOwner(poolName, lockName));
+
+        List<NTLockDTO> owners = new ArrayList<>(futures.size());
+        for (CompletableFuture<Optional<NTLockDTO>> future : futures) {
+            try {
+                future.join().ifPresent(owners::add);
+            } catch (Throwable e) {
+                if (e.getCause() instanceof IllegalArgumentException) {
+                    throw (IllegalArgumentException) e.getCause();
+                }
+
+                LOGGER.warn("多数派锁查询持有者异常[{}->{}][{}].", poolName, lockName, e.getMessage());
+            }
+        }
+
+        return Optional.ofNullable(this.vote(owners));
+    }
+
+    /**
+     * 扫描所有数据源，多数派一致的锁数据才提交给消费者（需在内存中按锁汇总，适合锁数量可控的场景）
+     */
+    @Override
+    public int scan(String poolName, Predicate<NTLockDTO> filter, Consumer<NTLockDTO> consumer) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("锁数据消费者参数为NULL.");
+        }
+
+        Map<String, List<NTLockDTO>> lockDTOs = new HashMap<>();
+        for (NTLockImpl ntLock : this.ntLocks) {
+            ntLock.scan(poolName, filter, lockDTO -> lockDTOs.computeIfAbsent(lockDTO.getPool() + "/" + lockDTO.getName(), key -> new ArrayList<>()).add(lockDTO));
+        }
+
+        int count = 0;
+        for (List<NTLockDTO> candidates : lockDTOs.values()) {
+            NTLockDTO lockDTO = this.vote(candidates);
+            if (lockDTO != null) {
+                consumer.accept(lockDTO);
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * 选出多数派一致的持有者，无多数派返回NULL
+     */
+    private NTLockDTO vote(List<NTLockDTO> candidates) {
+        if (candidates.size() < this.quorum) {
+            return null;
+        }
+
+        for (NTLockDTO candidate : candidates) {
+            int votes = 0;
+            NTLockDTO earliest = candidate;
+            for (NTLockDTO other : candidates) {
+                if (NTLockImpl.isSameOwner(candidate, other)) {
+                    votes++;
+                    if (other.getExpire().compareTo(earliest.getExpire()) < 0) {
+                        earliest = other;
+                    }
+                }
+            }
+
+            if (votes >= this.quorum) {
+                return earliest;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 在线程池中对每个数据源的锁服务执行操作
+     */
+    private <T> List<CompletableFuture<T>> forEachLock(Function<NTLockImpl, T> action) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(this.ntLocks.size());
+        for (NTLockImpl ntLock : this.ntLocks) {
+            futures.add(CompletableFuture.supplyAsync(() -> action.apply(ntLock), this.executor));
+        }
+
+        return futures;
+    }
+
+    /**
+     * 在截止时间内等待结果，超时或者异常返回NULL
+     */
+    private NTLockResult join(CompletableFuture<NTLockResult> future, NTLockDeadline deadline) {
+        try {
+            if (deadline == null) {
+                return future.get();
+            }
+
+            return future.get(Math.max(deadline.remainingMillis(), 0L), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public List<NTLockImpl> getLocks() {
+        return ntLocks;
+    }
+
+    public int getQuorum() {
+        return quorum;
+    }
+
+    public long getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+    public void setAcquireTimeout(long acquireTimeout) {
+        if (acquireTimeout <= 0L) {
+            throw new IllegalArgumentException("抢锁窗口参数非法(" + acquireTimeout + ")");
+        }
+
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    public int getClockDriftPercent() {
+        return clockDriftPercent;
+    }
+
+    public void setClockDriftPercent(int clockDriftPercent) {
+        if (clockDriftPercent < 0 || clockDriftPercent >= 100) {
+            throw new IllegalArgumentException("时钟漂移比例参数非法(" + clockDriftPercent + ")");
+        }
+
+        this.clockDriftPercent = clockDriftPercent;
+    }
+
+    public long getClockDriftMillis() {
+        return clockDriftMillis;
+    }
+
+    public void setClockDriftMillis(long clockDriftMillis) {
+        if (clockDriftMillis < 0L) {
+            throw new IllegalArgumentException("时钟漂移固定值参数非法(" + clockDriftMillis + ")");
+        }
+
+        this.clockDriftMillis = clockDriftMillis;
+    }
+}
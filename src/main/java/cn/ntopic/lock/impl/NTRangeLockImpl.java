@@ -0,0 +1,475 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.NTRangeLock;
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockReason;
+import cn.ntopic.lock.model.NTLockResult;
+import cn.ntopic.lock.utils.NTDateUtils;
+import cn.ntopic.lock.utils.NTHostUtils;
+import cn.ntopic.lock.utils.NTJDBCUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式区间锁服务实现：
+ * 1. 1条记录代表1个区间，主键为(pool, range_from)，已存储的区间互不重叠，重叠检测为2次主键索引定位：起点在[from, to]内的区间，以及起点小于from的前一个区间
+ * 2. 同一分组的抢锁在事务中先更新分组守护记录（range_from=range_to=Long.MIN_VALUE），串行化"检测重叠+新增区间"，避免并发抢占重叠区间
+ * 3. 与抢占区间重叠的过期区间在抢锁时删除
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTRangeLockImpl implements NTRangeLock {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTRangeLockImpl.class);
+
+    /**
+     * 分组守护记录的区间值，区间参数必须大于该值，因此守护记录不会与任何区间重叠
+     */
+    private static final long GUARD_RANGE = Long.MIN_VALUE;
+
+    /**
+     * 属性-数据源
+     */
+    private final DataSource ntDataSource;
+
+    /**
+     * 属性-数据表名
+     */
+    private String tableName = "nt_lock_range";
+
+    /**
+     * CTOR-构建区间锁组件
+     */
+    public NTRangeLockImpl(DataSource ntDataSource) {
+        if (ntDataSource == null) {
+            throw new IllegalArgumentException("区间锁数据源为NULL.");
+        }
+
+        this.ntDataSource = ntDataSource;
+    }
+
+    /**
+     * 尝试创建数据表
+     */
+    public void createTable() {
+        Connection conn = null;
+        try {
+            conn = this.ntDataSource.getConnection();
+
+            // 1. 检测数据表是否存在
+            ResultSet rs = null;
+            try {
+                rs = conn.getMetaData().getTables(null, null, this.tableName, null);
+                if (rs.next()) {
+                    LOGGER.info("区间锁数据表存在-无需创建[{}].", this.tableName);
+                    return;
+                }
+            } finally {
+                NTJDBCUtils.closeQuietly(rs);
+            }
+
+            // 2. 创建数据表
+            PreparedStatement stmt = null;
+            try {
+                StringBuilder createSQL = new StringBuilder();
+                createSQL.append(String.format("CREATE TABLE %s", this.tableName));
+                createSQL.append("(");
+                createSQL.append("pool        VARCHAR(64) NOT NULL,");
+                createSQL.append("range_from  BIGINT      NOT NULL,");
+                createSQL.append("range_to    BIGINT      NOT NULL,");
+                createSQL.append("own_host    VARCHAR(64) NOT NULL,");
+                createSQL.append("own_ip      VARCHAR(64) NOT NULL,");
+                createSQL.append("own_id      BIGINT      NOT NULL,");
+                createSQL.append("expire      VARCHAR(32) NOT NULL,");
+                createSQL.append("times       INT         NOT NULL,");
+                createSQL.append("modify      VARCHAR(32) NOT NULL,");
+                createSQL.append("PRIMARY KEY (pool, range_from)");
+                createSQL.append(")");
+
+                String createTableSQL = createSQL.toString();
+                LOGGER.info("区间锁数据表建表SQL:{}", createTableSQL);
+
+                stmt = conn.prepareStatement(createTableSQL);
+                stmt.executeUpdate();
+                LOGGER.info("创建区间锁数据表成功[{}].", this.tableName);
+            } finally {
+                NTJDBCUtils.closeQuietly(stmt);
+            }
+        } catch (Throwable e) {
+            LOGGER.error("检测区间锁数据表是否存在异常，请求人工创建区间锁数据表[{}].", this.tableName, e);
+            throw new RuntimeException("检测区间锁数据表是否存在异常，请求人工创建区间锁数据表(" + this.tableName + ")", e);
+        } finally {
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    @Override
+    public NTLockResult lockRange(String poolName, long from, long to, int timeout, TimeUnit timeUnit) {
+        final Date now = new Date();
+
+        // 参数检测
+        this.checkRange(poolName, from, to);
+
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("超时时间参数非法(" + timeout + ")");
+        }
+
+        // 组装锁信息
+        final NTLockDTO newLockDTO = new NTLockDTO(poolName, makeName(from, to), NTHostUtils.HOST, NTHostUtils.IP
+                , Thread.currentThread().getId(), NTDateUtils.format(new Date(now.getTime() + timeUnit.toMillis(timeout))));
+        newLockDTO.setSize(1);
+        newLockDTO.setTimes(1);
+        newLockDTO.setModify(NTDateUtils.format(now));
+
+        // 事务内：串行化分组 -> 检测重叠 -> 删除重叠的过期区间 -> 新增或者延长区间
+        Connection conn = null;
+        boolean autoCommit = true;
+        try {
+            conn = this.ntDataSource.getConnection();
+            autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try {
+                this.lockGuard(conn, poolName, newLockDTO.getModify());
+
+                String nowText = NTDateUtils.format(now);
+                NTRangeRow renewRow = null;
+                List<NTRangeRow> expiredRows = new ArrayList<>();
+                for (NTRangeRow row : this.selectOverlap(conn, poolName, from, to)) {
+                    if (row.lockDTO.getExpire().compareTo(nowText) <= 0) {
+                        expiredRows.add(row);
+                        continue;
+                    }
+
+                    if (row.from == from && row.to == to && NTLockImpl.isSameOwner(row.lockDTO, newLockDTO)) {
+                        renewRow = row;
+                        continue;
+                    }
+
+                    conn.rollback();
+                    return NTLockResult.makeFailure(row.lockDTO, NTLockReason.HELD_BY_OTHER, String.format("区间锁重叠(%s->%s)-已被持有%s", poolName, newLockDTO.getName(), row.lockDTO));
+                }
+
+                if (renewRow != null) {
+                    this.updateExpire(conn, newLockDTO, from);
+                    newLockDTO.setTimes(renewRow.lockDTO.getTimes() + 1);
+                } else {
+                    this.deleteExpired(conn, poolName, expiredRows, nowText);
+                    this.insert(conn, newLockDTO, from, to);
+                }
+
+                conn.commit();
+                return NTLockResult.makeSuccess(newLockDTO);
+            } catch (Throwable e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (Throwable e) {
+            LOGGER.error("区间锁抢占异常-{}.", newLockDTO, e);
+            return NTLockResult.makeFailure(newLockDTO, NTLockReason.DB_ERROR, String.format("区间锁抢占异常(%s->%s)[%s]", poolName, newLockDTO.getName(), e.getMessage()));
+        } finally {
+            this.closeQuietly(conn, autoCommit);
+        }
+    }
+
+    @Override
+    public boolean releaseRange(String poolName, long from, long to) {
+        // 参数检测
+        this.checkRange(poolName, from, to);
+
+        // 删除当前线程持有的区间（主键定位）
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = this.ntDataSource.getConnection();
+
+            String deleteSQL = String.format("DELETE FROM %s WHERE pool=? AND range_from=? AND range_to=? AND own_host=? AND own_ip=? AND own_id=?", this.tableName);
+            stmt = conn.prepareStatement(deleteSQL);
+            stmt.setString(1, poolName);
+            stmt.setLong(2, from);
+            stmt.setLong(3, to);
+            stmt.setString(4, NTHostUtils.HOST);
+            stmt.setString(5, NTHostUtils.IP);
+            stmt.setLong(6, Thread.currentThread().getId());
+
+            return stmt.executeUpdate() >= 1;
+        } catch (Throwable e) {
+            LOGGER.error("区间锁释放异常[{}->{}].", poolName, makeName(from, to), e);
+            return false;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    @Override
+    public Optional<NTLockDTO> getRangeOwner(String poolName, long key) {
+        // 参数检测
+        this.checkRange(poolName, key, key);
+
+        Connection conn = null;
+        try {
+            conn = this.ntDataSource.getConnection();
+
+            String now = NTDateUtils.format(new Date());
+            for (NTRangeRow row : this.selectOverlap(conn, poolName, key, key)) {
+                if (row.lockDTO.getExpire().compareTo(now) > 0) {
+                    return Optional.of(row.lockDTO);
+                }
+            }
+
+            return Optional.empty();
+        } catch (Throwable e) {
+            LOGGER.error("查询区间锁持有者异常[{}->{}].", poolName, key, e);
+            throw new RuntimeException(String.format("查询区间锁持有者异常(%s->%s)", poolName, key), e);
+        } finally {
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    /**
+     * 区间参数检测
+     */
+    private void checkRange(String poolName, long from, long to) {
+        if (poolName == null || poolName.isEmpty() || poolName.length() > MAX_POOL_LENGTH) {
+            throw new IllegalArgumentException("区间锁分组参数非法(" + MAX_POOL_LENGTH + ")");
+        }
+
+        if (from == GUARD_RANGE || to < from) {
+            throw new IllegalArgumentException(String.format("区间参数非法(%s,%s)", from, to));
+        }
+    }
+
+    /**
+     * 更新分组守护记录，持有该记录的行锁直到事务结束；分组首次使用时先新增守护记录（并发新增主键冲突则忽略）
+     */
+    private void lockGuard(Connection conn, String poolName, String modify) throws SQLException {
+        if (this.updateGuard(conn, poolName, modify)) {
+            return;
+        }
+
+        PreparedStatement stmt = null;
+        try {
+            String insertSQL = String.format("INSERT INTO %s (pool,range_from,range_to,own_host,own_ip,own_id,expire,times,modify) VALUES (?,?,?,'','',0,'',0,?)", this.tableName);
+            stmt = conn.prepareStatement(insertSQL);
+            stmt.setString(1, poolName);
+            stmt.setLong(2, GUARD_RANGE);
+            stmt.setLong(3, GUARD_RANGE);
+            stmt.setString(4, modify);
+
+            stmt.executeUpdate();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            LOGGER.debug("区间锁分组守护记录已存在[{}]-{}.", poolName, e.getMessage());
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+
+        if (!this.updateGuard(conn, poolName, modify)) {
+            throw new SQLException("区间锁分组守护记录不存在(" + poolName + ")");
+        }
+    }
+
+    private boolean updateGuard(Connection conn, String poolName, String modify) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            String updateSQL = String.format("UPDATE %s SET modify=? WHERE pool=? AND range_from=?", this.tableName);
+            stmt = conn.prepareStatement(updateSQL);
+            stmt.setString(1, modify);
+            stmt.setString(2, poolName);
+            stmt.setLong(3, GUARD_RANGE);
+
+            return stmt.executeUpdate() >= 1;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    /**
+     * 查询与区间重叠的全部区间（含已过期）：已存储的区间互不重叠（新增前已删除重叠的过期区间），按主键(pool, range_from)两次索引定位
+     * <p>
+     * 1. 起点在[from, to]内的区间
+     * 2. 起点小于from的前一个区间，终点>=from时重叠
+     */
+    private List<NTRangeRow> selectOverlap(Connection conn, String poolName, long from, long to) throws SQLException {
+        List<NTRangeRow> rows = new ArrayList<>();
+
+        // 1. 前一个区间
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            String selectSQL = String.format("SELECT * FROM %s WHERE pool=? AND range_from<? ORDER BY range_from DESC", this.tableName);
+            stmt = conn.prepareStatement(selectSQL);
+            stmt.setMaxRows(1);
+            stmt.setString(1, poolName);
+            stmt.setLong(2, from);
+
+            rs = stmt.executeQuery();
+            if (rs.next()) {
+                NTRangeRow row = this.readRow(rs);
+                if (row.from != GUARD_RANGE && row.to >= from) {
+                    rows.add(row);
+                }
+            }
+        } finally {
+            NTJDBCUtils.closeQuietly(rs);
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+
+        // 2. 起点在区间内
+        try {
+            String selectSQL = String.format("SELECT * FROM %s WHERE pool=? AND range_from BETWEEN ? AND ?", this.tableName);
+            stmt = conn.prepareStatement(selectSQL);
+            stmt.setString(1, poolName);
+            stmt.setLong(2, from);
+            stmt.setLong(3, to);
+
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                rows.add(this.readRow(rs));
+            }
+        } finally {
+            NTJDBCUtils.closeQuietly(rs);
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+
+        return rows;
+    }
+
+    private NTRangeRow readRow(ResultSet rs) throws SQLException {
+        long rangeFrom = rs.getLong("range_from");
+        long rangeTo = rs.getLong("range_to");
+
+        NTLockDTO lockDTO = new NTLockDTO(rs.getString("pool"), makeName(rangeFrom, rangeTo), rs.getString("own_host")
+                , rs.getString("own_ip"), rs.getLong("own_id"), rs.getString("expire"));
+        lockDTO.setSize(1);
+        lockDTO.setTimes(rs.getInt("times"));
+        lockDTO.setModify(rs.getString("modify"));
+
+        return new NTRangeRow(rangeFrom, rangeTo, lockDTO);
+    }
+
+    /**
+     * 删除与区间重叠的过期区间（主键定位）
+     */
+    private void deleteExpired(Connection conn, String poolName, List<NTRangeRow> expiredRows, String now) throws SQLException {
+        if (expiredRows.isEmpty()) {
+            return;
+        }
+
+        PreparedStatement stmt = null;
+        try {
+            String deleteSQL = String.format("DELETE FROM %s WHERE pool=? AND range_from=? AND expire<=?", this.tableName);
+            stmt = conn.prepareStatement(deleteSQL);
+            for (NTRangeRow row : expiredRows) {
+                stmt.setString(1, poolName);
+                stmt.setLong(2, row.from);
+                stmt.setString(3, now);
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    private void insert(Connection conn, NTLockDTO newLockDTO, long from, long to) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            String insertSQL = String.format("INSERT INTO %s (pool,range_from,range_to,own_host,own_ip,own_id,expire,times,modify) VALUES (?,?,?,?,?,?,?,?,?)", this.tableName);
+            stmt = conn.prepareStatement(insertSQL);
+            stmt.setString(1, newLockDTO.getPool());
+            stmt.setLong(2, from);
+            stmt.setLong(3, to);
+            stmt.setString(4, newLockDTO.getOwnHost());
+            stmt.setString(5, newLockDTO.getOwnIp());
+            stmt.setLong(6, newLockDTO.getOwnId());
+            stmt.setString(7, newLockDTO.getExpire());
+            stmt.setInt(8, newLockDTO.getTimes());
+            stmt.setString(9, newLockDTO.getModify());
+
+            stmt.executeUpdate();
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    private void updateExpire(Connection conn, NTLockDTO newLockDTO, long from) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            String updateSQL = String.format("UPDATE %s SET expire=?,times=times+1,modify=? WHERE pool=? AND range_from=?", this.tableName);
+            stmt = conn.prepareStatement(updateSQL);
+            stmt.setString(1, newLockDTO.getExpire());
+            stmt.setString(2, newLockDTO.getModify());
+            stmt.setString(3, newLockDTO.getPool());
+            stmt.setLong(4, from);
+
+            stmt.executeUpdate();
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    /**
+     * 恢复自动提交设置并关闭连接
+     */
+    private void closeQuietly(Connection conn, boolean autoCommit) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(autoCommit);
+            } catch (Throwable e) {
+                // ignore
+            }
+        }
+
+        NTJDBCUtils.closeQuietly(conn);
+    }
+
+    /**
+     * 区间锁名称
+     */
+    private static String makeName(long from, long to) {
+        return "[" + from + "," + to + "]";
+    }
+
+    /**
+     * 区间记录
+     */
+    private static class NTRangeRow {
+        private final long from;
+        private final long to;
+        private final NTLockDTO lockDTO;
+
+        private NTRangeRow(long from, long to, NTLockDTO lockDTO) {
+            this.from = from;
+            this.to = to;
+            this.lockDTO = lockDTO;
+        }
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+}
@@ -0,0 +1,447 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.NTRateLimiter;
+import cn.ntopic.lock.utils.NTDateUtils;
+import cn.ntopic.lock.utils.NTJDBCUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分布式限流服务实现：
+ * 1. 令牌桶状态保存在数据表中，令牌数量以千分之一许可为单位，补充和扣减在1条条件UPDATE中完成
+ * 2. 每次从数据表批量预留许可，在本地分发，大部分获取许可无需访问DB
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTRateLimiterImpl implements NTRateLimiter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTRateLimiterImpl.class);
+
+    /**
+     * 1个许可对应的令牌数量
+     */
+    private static final long TOKEN_SCALE = 1000L;
+
+    /**
+     * 属性-数据源
+     */
+    private final DataSource ntDataSource;
+
+    /**
+     * 属性-数据表名
+     */
+    private String tableName = "nt_rate_limit";
+
+    /**
+     * 属性-每次从数据表预留的许可数量
+     */
+    private int batchSize = 10;
+
+    /**
+     * 属性-本地预留许可有效期（毫秒），过期未使用的许可作废，避免本地长期囤积
+     */
+    private long reserveTimeout = 1000L;
+
+    /**
+     * 限流配置和本地预留许可
+     */
+    private final Map<String, NTRateBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * 数据库方言（首次使用时根据连接元数据检测）
+     */
+    private volatile NTLockDialect dialect;
+
+    /**
+     * CTOR-构建限流组件
+     */
+    public NTRateLimiterImpl(DataSource ntDataSource) {
+        if (ntDataSource == null) {
+            throw new IllegalArgumentException("限流数据源为NULL.");
+        }
+
+        this.ntDataSource = ntDataSource;
+    }
+
+    /**
+     * 尝试创建数据表
+     */
+    public void createTable() {
+        Connection conn = null;
+        try {
+            conn = this.ntDataSource.getConnection();
+
+            // 1. 检测数据表是否存在
+            ResultSet rs = null;
+            try {
+                rs = conn.getMetaData().getTables(null, null, this.tableName, null);
+                if (rs.next()) {
+                    LOGGER.info("限流数据表存在-无需创建[{}].", this.tableName);
+                    return;
+                }
+            } finally {
+                NTJDBCUtils.closeQuietly(rs);
+            }
+
+            // 2. 创建数据表
+            PreparedStatement stmt = null;
+            try {
+                StringBuilder createSQL = new StringBuilder();
+                createSQL.append(String.format("CREATE TABLE %s", this.tableName));
+                createSQL.append("(");
+                createSQL.append("name      VARCHAR(64) NOT NULL,");
+                createSQL.append("tokens    BIGINT      NOT NULL,");
+                createSQL.append("capacity  BIGINT      NOT NULL,");
+                createSQL.append("rate      BIGINT      NOT NULL,");
+                createSQL.append("refill    BIGINT      NOT NULL,");
+                createSQL.append("modify    VARCHAR(32) NOT NULL,");
+                createSQL.append("PRIMARY KEY (name)");
+                createSQL.append(")");
+
+                String createTableSQL = createSQL.toString();
+                LOGGER.info("限流数据表建表SQL:{}", createTableSQL);
+
+                stmt = conn.prepareStatement(createTableSQL);
+                stmt.executeUpdate();
+                LOGGER.info("创建限流数据表成功[{}].", this.tableName);
+            } finally {
+                NTJDBCUtils.closeQuietly(stmt);
+            }
+        } catch (Throwable e) {
+            LOGGER.error("检测限流数据表是否存在异常，请求人工创建限流数据表[{}].", this.tableName, e);
+            throw new RuntimeException("检测限流数据表是否存在异常，请求人工创建限流数据表(" + this.tableName + ")", e);
+        } finally {
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    @Override
+    public void setRate(String name, long permitsPerSecond, long capacity) {
+        // 参数检测
+        if (name == null || name.isEmpty() || name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("限流名称参数非法(" + MAX_NAME_LENGTH + ")");
+        }
+
+        if (permitsPerSecond <= 0L) {
+            throw new IllegalArgumentException("限流速率参数非法(" + permitsPerSecond + ")");
+        }
+
+        if (capacity <= 0L) {
+            throw new IllegalArgumentException("令牌桶容量参数非法(" + capacity + ")");
+        }
+
+        // 原子新增或者更新，并发设置不会覆盖其他线程创建的令牌桶（及其本地预留许可）
+        this.buckets.compute(name, (key, bucket) -> {
+            if (bucket == null) {
+                return new NTRateBucket(permitsPerSecond, capacity);
+            }
+
+            bucket.rate = permitsPerSecond;
+            bucket.capacity = capacity;
+            return bucket;
+        });
+    }
+
+    @Override
+    public boolean tryAcquire(String name) {
+        return this.tryAcquire(name, 1);
+    }
+
+    @Override
+    public boolean tryAcquire(String name, int permits) {
+        // 参数检测
+        NTRateBucket bucket = (name == null) ? null : this.buckets.get(name);
+        if (bucket == null) {
+            throw new IllegalArgumentException("限流名称未设置限流速率(" + name + ")");
+        }
+
+        if (permits <= 0 || permits > bucket.capacity) {
+            throw new IllegalArgumentException("许可数量参数非法(" + permits + ")");
+        }
+
+        // 1. 本地预留许可
+        if (bucket.tryTake(permits, System.currentTimeMillis())) {
+            return true;
+        }
+
+        // 2. 从数据表预留许可，同一限流名称串行预留
+        synchronized (bucket) {
+            long now = System.currentTimeMillis();
+            if (bucket.tryTake(permits, now)) {
+                return true;
+            }
+
+            try {
+                long reserve = Math.min(Math.max(this.batchSize, permits), bucket.capacity);
+                if (this.reserve(name, bucket, reserve, now)) {
+                    bucket.give(reserve - permits, now + this.reserveTimeout);
+                    return true;
+                }
+
+                // 批量预留失败，仅预留当前需要的许可
+                return reserve > permits && this.reserve(name, bucket, permits, now);
+            } catch (Throwable e) {
+                LOGGER.error("限流预留许可异常[{}].", name, e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 从数据表预留许可：补充令牌并扣减，令牌不足则不更新
+     */
+    private boolean reserve(String name, NTRateBucket bucket, long permits, long now) throws SQLException {
+        Connection conn = null;
+        boolean autoCommit = true;
+        try {
+            conn = this.ntDataSource.getConnection();
+            autoCommit = conn.getAutoCommit();
+
+            if (!autoCommit) {
+                conn.setAutoCommit(true);
+            }
+
+            // 1. 条件更新：补充令牌后足够则扣减
+            if (this.update(conn, name, bucket, permits, now)) {
+                return true;
+            }
+
+            // 2. 首次使用，初始化令牌桶（满桶）
+            if (!bucket.persisted) {
+                try {
+                    this.insert(conn, name, bucket, permits, now);
+                    bucket.persisted = true;
+                    return true;
+                } catch (SQLException e) {
+                    // 仅主键冲突表示其他服务器已经初始化，当前许可不足；其他异常抛出
+                    if (this.fetchDialect(conn).classify(e) != NTLockErrorType.DUPLICATE_KEY) {
+                        throw e;
+                    }
+
+                    bucket.persisted = true;
+                    LOGGER.debug("限流令牌桶已存在[{}]-{}.", name, e.getMessage());
+                }
+            }
+
+            return false;
+        } finally {
+            if (!autoCommit) {
+                NTJDBCUtils.closeAutoCommit(conn);
+            }
+
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    /**
+     * 补充并扣减令牌：tokens = MIN(capacity, tokens + elapsed * rate) - permits
+     */
+    private boolean update(Connection conn, String name, NTRateBucket bucket, long permits, long now) throws SQLException {
+        String elapsed = "(CASE WHEN ?>refill THEN ?-refill ELSE 0 END)";
+        String refilled = String.format("(CASE WHEN tokens+%s*rate>=capacity*%s THEN capacity*%s ELSE tokens+%s*rate END)"
+                , elapsed, TOKEN_SCALE, TOKEN_SCALE, elapsed);
+
+        PreparedStatement stmt = null;
+        try {
+            String updateSQL = String.format("UPDATE %s SET tokens=%s-?,refill=CASE WHEN ?>refill THEN ? ELSE refill END,rate=?,capacity=?,modify=? WHERE name=? AND %s>=?"
+                    , this.tableName, refilled, refilled);
+            stmt = conn.prepareStatement(updateSQL);
+
+            int index = 1;
+            index = this.bindNow(stmt, index, now, 4);
+            stmt.setLong(index++, permits * TOKEN_SCALE);
+            index = this.bindNow(stmt, index, now, 2);
+            stmt.setLong(index++, bucket.rate);
+            stmt.setLong(index++, bucket.capacity);
+            stmt.setString(index++, NTDateUtils.format(new Date(now)));
+            stmt.setString(index++, name);
+            index = this.bindNow(stmt, index, now, 4);
+            stmt.setLong(index, permits * TOKEN_SCALE);
+
+            boolean update = stmt.executeUpdate() >= 1;
+            if (update) {
+                bucket.persisted = true;
+            }
+
+            return update;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    /**
+     * 绑定当前时间参数
+     */
+    private int bindNow(PreparedStatement stmt, int index, long now, int count) throws SQLException {
+        for (int i = 0; i < count; i++) {
+            stmt.setLong(index++, now);
+        }
+
+        return index;
+    }
+
+    /**
+     * 初始化令牌桶，并扣减首次预留许可
+     */
+    private void insert(Connection conn, String name, NTRateBucket bucket, long permits, long now) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            String insertSQL = String.format("INSERT INTO %s (name,tokens,capacity,rate,refill,modify) VALUES (?,?,?,?,?,?)", this.tableName);
+            stmt = conn.prepareStatement(insertSQL);
+
+            stmt.setString(1, name);
+            stmt.setLong(2, (bucket.capacity - permits) * TOKEN_SCALE);
+            stmt.setLong(3, bucket.capacity);
+            stmt.setLong(4, bucket.rate);
+            stmt.setLong(5, now);
+            stmt.setString(6, NTDateUtils.format(new Date(now)));
+
+            stmt.executeUpdate();
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    /**
+     * 获取数据库方言（首次根据连接元数据检测）
+     */
+    private NTLockDialect fetchDialect(Connection conn) {
+        NTLockDialect ntDialect = this.dialect;
+        if (ntDialect != null) {
+            return ntDialect;
+        }
+
+        try {
+            ntDialect = NTLockDialect.of(conn.getMetaData().getDatabaseProductName());
+            this.dialect = ntDialect;
+            return ntDialect;
+        } catch (Throwable e) {
+            LOGGER.warn("检测数据库方言异常[{}].", e.getMessage());
+            return NTLockDialect.GENERIC;
+        }
+    }
+
+    /**
+     * 限流配置和本地预留许可
+     */
+    private static class NTRateBucket {
+        /**
+         * 每秒补充许可数量
+         */
+        private volatile long rate;
+
+        /**
+         * 令牌桶容量
+         */
+        private volatile long capacity;
+
+        /**
+         * 数据表是否已经存在令牌桶记录
+         */
+        private volatile boolean persisted;
+
+        /**
+         * 本地预留许可数量
+         */
+        private final AtomicLong permits = new AtomicLong();
+
+        /**
+         * 本地预留许可过期时间（毫秒）
+         */
+        private volatile long expireMillis;
+
+        public NTRateBucket(long rate, long capacity) {
+            this.rate = rate;
+            this.capacity = capacity;
+        }
+
+        /**
+         * 从本地预留许可中获取
+         */
+        public boolean tryTake(long count, long now) {
+            for (; ; ) {
+                // 先读许可数量再读过期时间：增加许可先更新过期时间，读到新增的许可则一定读到新的过期时间
+                long current = this.permits.get();
+                if (this.expireMillis <= now) {
+                    // 过期作废，条件清零，不覆盖并发增加的许可
+                    if (current == 0L || this.permits.compareAndSet(current, 0L)) {
+                        return false;
+                    }
+
+                    continue;
+                }
+
+                if (current < count) {
+                    return false;
+                }
+
+                if (this.permits.compareAndSet(current, current - count)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * 增加本地预留许可
+         */
+        public void give(long count, long expireMillis) {
+            if (count <= 0L) {
+                return;
+            }
+
+            this.expireMillis = expireMillis;
+            this.permits.addAndGet(count);
+        }
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        if (tableName == null || tableName.isEmpty()) {
+            throw new IllegalArgumentException("限流数据表名参数非法(" + tableName + ")");
+        }
+
+        this.tableName = tableName;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("批量预留许可数量参数非法(" + batchSize + ")");
+        }
+
+        this.batchSize = batchSize;
+    }
+
+    public long getReserveTimeout() {
+        return reserveTimeout;
+    }
+
+    public void setReserveTimeout(long reserveTimeout) {
+        if (reserveTimeout <= 0L) {
+            throw new IllegalArgumentException("本地预留许可有效期参数非法(" + reserveTimeout + ")");
+        }
+
+        this.reserveTimeout = reserveTimeout;
+    }
+}
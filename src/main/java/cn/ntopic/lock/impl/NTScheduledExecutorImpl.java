@@ -0,0 +1,394 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.NTLock;
+import cn.ntopic.lock.NTScheduledExecutor;
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockResult;
+import cn.ntopic.lock.model.NTScheduledTaskStat;
+import cn.ntopic.lock.utils.NTDateUtils;
+import cn.ntopic.lock.utils.NTHostUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 集群单例定时任务服务实现：
+ * 1. 每个任务对应1条锁记录（锁分组为`pool`，锁名称为任务名称）
+ * 2. 每次调度只用1条查询检测当前节点全部到期任务的锁记录，仅对未被锁定的任务尝试抢占
+ * 3. 任务执行完成后，锁保持到`开始时间+lockAtLeast`，避免其他节点在同一周期内重复执行
+ * 4. 每个周期至多执行1次依赖`lockAtLeast`大于节点间时钟偏差与调度检测间隔之和；`lockAtLeast=0`时执行完成即释放锁，
+ * 仅保证任务不会被多个节点同时执行，时钟偏差或者调度延迟较大的节点可能在同一周期内再次执行
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTScheduledExecutorImpl implements NTScheduledExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTScheduledExecutorImpl.class);
+
+    /**
+     * 锁服务
+     */
+    private final NTLockImpl ntLock;
+
+    /**
+     * 属性-定时任务锁分组
+     */
+    private String pool = "NT_SCHEDULE";
+
+    /**
+     * 属性-调度检测间隔（毫秒）
+     */
+    private long tickInterval = 1000L;
+
+    /**
+     * 属性-任务执行线程数量
+     */
+    private int workerThreads = 4;
+
+    /**
+     * 属性-停止调度时等待正在执行任务完成的最长时间（毫秒）
+     */
+    private long stopTimeout = 10000L;
+
+    /**
+     * 定时任务
+     */
+    private final Map<String, NTScheduledTask> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * 调度线程
+     */
+    private volatile NTScheduleThread scheduleThread;
+
+    /**
+     * 任务执行线程池
+     */
+    private volatile ExecutorService workerExecutor;
+
+    /**
+     * CTOR-构建定时任务组件
+     */
+    public NTScheduledExecutorImpl(NTLockImpl ntLock) {
+        if (ntLock == null) {
+            throw new IllegalArgumentException("锁服务参数为NULL.");
+        }
+
+        this.ntLock = ntLock;
+    }
+
+    @Override
+    public void schedule(String taskName, long interval, long lockAtMost, long lockAtLeast, Runnable task) {
+        // 参数检测
+        if (taskName == null || taskName.isEmpty() || taskName.length() > NTLock.MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("定时任务名称参数非法(" + NTLock.MAX_NAME_LENGTH + ")");
+        }
+
+        if (interval <= 0L) {
+            throw new IllegalArgumentException("定时任务执行周期参数非法(" + interval + ")");
+        }
+
+        if (lockAtLeast < 0L || lockAtMost < lockAtLeast || lockAtMost <= 0L || lockAtMost > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("定时任务锁定时间参数非法(%s/%s)", lockAtMost, lockAtLeast));
+        }
+
+        if (task == null) {
+            throw new IllegalArgumentException("定时任务参数为NULL.");
+        }
+
+        if (this.tasks.putIfAbsent(taskName, new NTScheduledTask(taskName, interval, lockAtMost, lockAtLeast, task)) != null) {
+            throw new IllegalArgumentException("定时任务已经存在(" + taskName + ")");
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (this.scheduleThread != null) {
+            return;
+        }
+
+        this.workerExecutor = Executors.newFixedThreadPool(this.workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "NTScheduledWorkerThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.scheduleThread = new NTScheduleThread();
+        this.scheduleThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        NTScheduleThread thread = this.scheduleThread;
+        if (thread == null) {
+            return;
+        }
+
+        this.scheduleThread = null;
+        thread.running = false;
+        thread.interrupt();
+
+        // 等待正在执行的任务完成，超时则不再等待（任务继续执行，锁在执行完成后释放）
+        ExecutorService executor = this.workerExecutor;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(this.stopTimeout, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("停止定时调度-等待任务完成超时[{}]-{}ms.", this.pool, this.stopTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public Map<String, NTScheduledTaskStat> getTaskStats() {
+        Map<String, NTScheduledTaskStat> stats = new HashMap<>();
+        for (NTScheduledTask task : this.tasks.values()) {
+            synchronized (task) {
+                NTScheduledTaskStat stat = new NTScheduledTaskStat(task.name);
+                stat.setRunTimes(task.stat.getRunTimes());
+                stat.setSkipTimes(task.stat.getSkipTimes());
+                stat.setLastSkew(task.stat.getLastSkew());
+                stat.setMaxSkew(task.stat.getMaxSkew());
+                stat.setLastElapsed(task.stat.getLastElapsed());
+                stat.setMaxElapsed(task.stat.getMaxElapsed());
+
+                stats.put(task.name, stat);
+            }
+        }
+
+        return stats;
+    }
+
+    /**
+     * 调度检测：1条查询获取全部到期任务的锁记录，未被锁定的任务提交执行
+     */
+    private void tick() {
+        final long now = System.currentTimeMillis();
+
+        // 1. 当前节点到期任务
+        List<NTScheduledTask> dueTasks = new ArrayList<>();
+        Set<String> dueNames = new HashSet<>();
+        for (NTScheduledTask task : this.tasks.values()) {
+            if (!task.running && task.nextRun <= now) {
+                dueTasks.add(task);
+                dueNames.add(task.name);
+            }
+        }
+
+        if (dueTasks.isEmpty()) {
+            return;
+        }
+
+        // 2. 查询到期任务的锁记录
+        Map<String, Long> heldExpires = new HashMap<>();
+        this.ntLock.scan(this.pool, lockDTO -> dueNames.contains(lockDTO.getName())
+                , lockDTO -> heldExpires.put(lockDTO.getName(), lockDTO.fetchExpireTime().getTime()));
+
+        // 3. 已被锁定的任务跳过，其余任务尝试抢占并执行
+        for (NTScheduledTask task : dueTasks) {
+            Long heldExpire = heldExpires.get(task.name);
+            if (heldExpire != null && heldExpire > now) {
+                this.skip(task, now);
+                continue;
+            }
+
+            task.running = true;
+            try {
+                this.workerExecutor.execute(() -> this.execute(task));
+            } catch (Throwable e) {
+                task.running = false;
+                LOGGER.warn("[{}]定时任务提交执行异常[{}].", task.name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 抢占任务锁并执行任务，执行线程即锁持有者
+     */
+    private void execute(NTScheduledTask task) {
+        final long scheduled = task.nextRun;
+        final long start = System.currentTimeMillis();
+        try {
+            NTLockDTO lockDTO = new NTLockDTO(this.pool, task.name, NTHostUtils.HOST, NTHostUtils.IP
+                    , Thread.currentThread().getId(), NTDateUtils.format(new Date(start)));
+            NTLockResult result = this.ntLock.lock(lockDTO, (int) task.lockAtMost, TimeUnit.MILLISECONDS);
+            if (!result.isSuccess()) {
+                this.skip(task, start);
+                return;
+            }
+
+            // 执行任务
+            try {
+                task.task.run();
+            } catch (Throwable e) {
+                LOGGER.error("[{}]定时任务执行异常.", task.name, e);
+            } finally {
+                this.ntLock.releaseAt(result.getLockDTO(), new Date(start + task.lockAtLeast));
+            }
+
+            // 执行统计
+            long skew = start - scheduled;
+            long elapsed = System.currentTimeMillis() - start;
+            synchronized (task) {
+                task.stat.setRunTimes(task.stat.getRunTimes() + 1);
+                task.stat.setLastSkew(skew);
+                task.stat.setMaxSkew(Math.max(task.stat.getMaxSkew(), skew));
+                task.stat.setLastElapsed(elapsed);
+                task.stat.setMaxElapsed(Math.max(task.stat.getMaxElapsed(), elapsed));
+                task.nextRun = task.nextAligned(System.currentTimeMillis());
+            }
+
+            LOGGER.info("[{}]定时任务执行完成-调度偏差{}ms-执行耗时{}ms.", task.name, skew, elapsed);
+        } catch (Throwable e) {
+            LOGGER.error("[{}]定时任务调度异常.", task.name, e);
+            task.nextRun = task.nextAligned(System.currentTimeMillis());
+        } finally {
+            task.running = false;
+        }
+    }
+
+    /**
+     * 其他节点已执行，跳过当前周期
+     */
+    private void skip(NTScheduledTask task, long now) {
+        synchronized (task) {
+            task.stat.setSkipTimes(task.stat.getSkipTimes() + 1);
+            task.nextRun = task.nextAligned(now);
+        }
+    }
+
+    /**
+     * 定时任务
+     */
+    private static class NTScheduledTask {
+        private final String name;
+        private final long interval;
+        private final long lockAtMost;
+        private final long lockAtLeast;
+        private final Runnable task;
+        private final NTScheduledTaskStat stat;
+
+        /**
+         * 下次计划执行时间（毫秒），按执行周期对齐
+         */
+        private volatile long nextRun;
+
+        /**
+         * 当前节点是否正在执行
+         */
+        private volatile boolean running;
+
+        public NTScheduledTask(String name, long interval, long lockAtMost, long lockAtLeast, Runnable task) {
+            this.name = name;
+            this.interval = interval;
+            this.lockAtMost = lockAtMost;
+            this.lockAtLeast = lockAtLeast;
+            this.task = task;
+            this.stat = new NTScheduledTaskStat(name);
+            this.nextRun = this.nextAligned(System.currentTimeMillis());
+        }
+
+        /**
+         * 指定时间之后的下一个周期时间
+         */
+        public long nextAligned(long time) {
+            return (time / this.interval + 1L) * this.interval;
+        }
+    }
+
+    /**
+     * 调度线程
+     */
+    private class NTScheduleThread extends Thread {
+        /**
+         * 运行标记
+         */
+        private volatile boolean running = true;
+
+        public NTScheduleThread() {
+            super("NTScheduleThread");
+            this.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (this.running) {
+                try {
+                    tick();
+                } catch (Throwable e) {
+                    LOGGER.error("定时任务调度检测异常[{}].", pool, e);
+                }
+
+                try {
+                    Thread.sleep(tickInterval);
+                } catch (InterruptedException e) {
+                    // 停止调度
+                }
+            }
+        }
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public String getPool() {
+        return pool;
+    }
+
+    public void setPool(String pool) {
+        if (pool == null || pool.isEmpty() || pool.length() > NTLock.MAX_POOL_LENGTH) {
+            throw new IllegalArgumentException("定时任务锁分组参数非法(" + NTLock.MAX_POOL_LENGTH + ")");
+        }
+
+        this.pool = pool;
+    }
+
+    public long getTickInterval() {
+        return tickInterval;
+    }
+
+    public void setTickInterval(long tickInterval) {
+        if (tickInterval <= 0L) {
+            throw new IllegalArgumentException("调度检测间隔参数非法(" + tickInterval + ")");
+        }
+
+        this.tickInterval = tickInterval;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        if (workerThreads <= 0) {
+            throw new IllegalArgumentException("任务执行线程数量参数非法(" + workerThreads + ")");
+        }
+
+        this.workerThreads = workerThreads;
+    }
+
+    public long getStopTimeout() {
+        return stopTimeout;
+    }
+
+    public void setStopTimeout(long stopTimeout) {
+        if (stopTimeout < 0L) {
+            throw new IllegalArgumentException("停止等待时间参数非法(" + stopTimeout + ")");
+        }
+
+        this.stopTimeout = stopTimeout;
+    }
+}
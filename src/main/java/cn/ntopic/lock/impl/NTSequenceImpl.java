@@ -0,0 +1,513 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.impl;
+
+import cn.ntopic.lock.NTSequence;
+import cn.ntopic.lock.utils.NTDateUtils;
+import cn.ntopic.lock.utils.NTJDBCUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分布式序列服务实现：
+ * 1. 每次用1条原子UPDATE（value=value+step）从数据表分配1个序列区间，同一事务内读取更新后的值，多个节点的区间互不重叠；
+ * 序列首次使用、剩余不足1个区间（截断或者循环）时，查询当前值后条件UPDATE（比较当前值），并发冲突则重试
+ * 2. 区间内的序列值在本地原子递增分发，无锁、无需访问DB
+ * 3. 双缓冲：当前区间使用到预取比例时，后台线程提前分配下一个区间，当前区间用完时直接切换
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTSequenceImpl implements NTSequence {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NTSequenceImpl.class);
+
+    /**
+     * 属性-数据源
+     */
+    private final DataSource ntDataSource;
+
+    /**
+     * 属性-数据表名
+     */
+    private String tableName = "nt_sequence";
+
+    /**
+     * 属性-区间分配冲突重试次数
+     */
+    private int retryTimes = 10;
+
+    /**
+     * 属性-每次分配的区间大小，值越大，访问DB次数越少，性能越好
+     */
+    private long step = 1000L;
+
+    /**
+     * 属性-序列最小值
+     */
+    private long minValue = 1L;
+
+    /**
+     * 属性-序列最大值，超过该值则循环从`minValue`开始，需小于`Long.MAX_VALUE`
+     */
+    private long maxValue = 99999999L;
+
+    /**
+     * 属性-预取比例（百分比），当前区间已使用该比例时提前分配下一个区间
+     */
+    private int prefetchPercent = 80;
+
+    /**
+     * 序列缓冲区，KEY为序列名称
+     */
+    private final Map<String, NTSequenceBuffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * 预取线程池
+     */
+    private final ExecutorService executor;
+
+    /**
+     * CTOR-构建序列组件
+     */
+    public NTSequenceImpl(DataSource ntDataSource) {
+        if (ntDataSource == null) {
+            throw new IllegalArgumentException("序列数据源为NULL.");
+        }
+
+        this.ntDataSource = ntDataSource;
+
+        final AtomicInteger threadNo = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "NTSequenceThread-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 初始化
+     */
+    public void init() {
+        if (this.minValue > this.maxValue) {
+            throw new IllegalArgumentException("序列最小值或者最大值参数非法(" + this.minValue + "/" + this.maxValue + ")");
+        }
+
+        // 区间结束值+1为下个区间的开始值，区间内递增也会超过结束值
+        if (this.maxValue == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("序列最大值参数非法(" + this.maxValue + ")");
+        }
+
+        LOGGER.info("序列初始化完成[{}]-区间大小{}-取值范围[{}, {}].", this.tableName, this.step, this.minValue, this.maxValue);
+    }
+
+    /**
+     * 销毁，停止预取线程池
+     */
+    public void destroy() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * 尝试创建数据表
+     */
+    public void createTable() {
+        Connection conn = null;
+        try {
+            conn = this.ntDataSource.getConnection();
+
+            // 1. 检测数据表是否存在
+            ResultSet rs = null;
+            try {
+                rs = conn.getMetaData().getTables(null, null, this.tableName, null);
+                if (rs.next()) {
+                    LOGGER.info("序列数据表存在-无需创建[{}].", this.tableName);
+                    return;
+                }
+            } finally {
+                NTJDBCUtils.closeQuietly(rs);
+            }
+
+            // 2. 创建数据表
+            PreparedStatement stmt = null;
+            try {
+                StringBuilder createSQL = new StringBuilder();
+                createSQL.append(String.format("CREATE TABLE %s", this.tableName));
+                createSQL.append("(");
+                createSQL.append("name      VARCHAR(64) NOT NULL,");
+                createSQL.append("value     BIGINT      NOT NULL,");
+                createSQL.append("modify    VARCHAR(32) NOT NULL,");
+                createSQL.append("PRIMARY KEY (name)");
+                createSQL.append(")");
+
+                String createTableSQL = createSQL.toString();
+                LOGGER.info("序列数据表建表SQL:{}", createTableSQL);
+
+                stmt = conn.prepareStatement(createTableSQL);
+                stmt.executeUpdate();
+                LOGGER.info("创建序列数据表成功[{}].", this.tableName);
+            } finally {
+                NTJDBCUtils.closeQuietly(stmt);
+            }
+        } catch (Throwable e) {
+            LOGGER.error("检测序列数据表是否存在异常，请求人工创建序列数据表[{}].", this.tableName, e);
+            throw new RuntimeException("检测序列数据表是否存在异常，请求人工创建序列数据表(" + this.tableName + ")", e);
+        } finally {
+            NTJDBCUtils.closeQuietly(conn);
+        }
+    }
+
+    @Override
+    public long next() {
+        return this.next(DEFAULT_SEQUENCE_NAME);
+    }
+
+    @Override
+    public long next(String sequenceName) {
+        // 参数检测
+        NTSequenceBuffer buffer = (sequenceName == null) ? null : this.buffers.get(sequenceName);
+        if (buffer == null) {
+            if (sequenceName == null || sequenceName.isEmpty() || sequenceName.length() > MAX_NAME_LENGTH) {
+                throw new IllegalArgumentException("序列名称参数非法(" + MAX_NAME_LENGTH + ")");
+            }
+
+            buffer = this.buffers.computeIfAbsent(sequenceName, name -> new NTSequenceBuffer());
+        }
+
+        for (; ; ) {
+            // 1. 当前区间内原子递增
+            NTSegment segment = buffer.current;
+            if (segment != null) {
+                long value = segment.cursor.getAndIncrement();
+                if (value <= segment.end) {
+                    // 到达预取位置（只有1个线程取到该值），后台分配下一个区间
+                    if (value == segment.prefetchAt) {
+                        this.prefetch(sequenceName, buffer);
+                    }
+
+                    return value;
+                }
+            }
+
+            // 2. 当前区间已用完，切换到下一个区间
+            this.switchSegment(sequenceName, buffer, segment);
+        }
+    }
+
+    /**
+     * 后台分配下一个区间
+     */
+    private void prefetch(final String sequenceName, NTSequenceBuffer buffer) {
+        synchronized (buffer) {
+            if (buffer.next != null) {
+                return;
+            }
+
+            try {
+                buffer.next = CompletableFuture.supplyAsync(() -> this.allocate(sequenceName), this.executor);
+            } catch (Throwable e) {
+                LOGGER.warn("序列预取区间提交异常-用完后同步分配[{}]-{}.", sequenceName, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 切换区间：优先使用预取的区间，预取失败或者未预取则同步分配
+     */
+    private void switchSegment(String sequenceName, NTSequenceBuffer buffer, NTSegment segment) {
+        synchronized (buffer) {
+            if (buffer.current != segment) {
+                // 其他线程已切换
+                return;
+            }
+
+            NTSegment newSegment = null;
+
+            CompletableFuture<NTSegment> next = buffer.next;
+            buffer.next = null;
+            if (next != null) {
+                try {
+                    newSegment = next.join();
+                } catch (Throwable e) {
+                    LOGGER.warn("序列预取区间异常-同步分配[{}]-{}.", sequenceName, e.getMessage());
+                }
+            }
+
+            if (newSegment == null) {
+                newSegment = this.allocate(sequenceName);
+            }
+
+            buffer.current = newSegment;
+        }
+    }
+
+    /**
+     * 分配序列区间：事务内执行，并发冲突则重试
+     */
+    private NTSegment allocate(String sequenceName) {
+        for (int retry = 0; retry <= this.retryTimes; retry++) {
+            Connection conn = null;
+            boolean autoCommit = true;
+            try {
+                conn = this.ntDataSource.getConnection();
+                autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+
+                try {
+                    NTSegment segment = this.allocateOnce(conn, sequenceName);
+                    if (segment != null) {
+                        conn.commit();
+                        return segment;
+                    }
+
+                    conn.rollback();
+                } catch (Throwable e) {
+                    conn.rollback();
+                    throw e;
+                }
+
+                LOGGER.debug("序列分配区间冲突-第{}次[{}].", retry + 1, sequenceName);
+            } catch (Throwable e) {
+                LOGGER.error("序列分配区间异常[{}].", sequenceName, e);
+                throw new RuntimeException("序列分配区间异常(" + sequenceName + ")", e);
+            } finally {
+                this.closeQuietly(conn, autoCommit);
+            }
+        }
+
+        throw new RuntimeException("序列分配区间冲突-超过重试次数(" + sequenceName + ")");
+    }
+
+    /**
+     * 1次分配序列区间，并发冲突返回NULL：
+     * 1. 当前值加区间大小不超过最大值+1时，1条UPDATE（value=value+step）原子分配整个区间，同一事务内读取更新后的值
+     * 2. 序列不存在、当前值不在取值范围内，或者剩余不足1个区间（需要截断或者循环）时，查询当前值后条件UPDATE（当前值未变）
+     */
+    private NTSegment allocateOnce(Connection conn, String sequenceName) throws SQLException {
+        // 1. 原子递增（取值范围不足1个区间时跳过，最小值为负数时差值按无符号比较，避免溢出）
+        if (Long.compareUnsigned(this.maxValue - this.minValue, this.step - 1) >= 0 && this.incrementValue(conn, sequenceName)) {
+            Long value = this.selectValue(conn, sequenceName);
+            if (value == null) {
+                return null;
+            }
+
+            return this.makeSegment(sequenceName, value - this.step, value - 1);
+        }
+
+        // 2. 查询当前值，序列不存在则新增
+        Long value = this.selectValue(conn, sequenceName);
+        if (value == null) {
+            if (!this.insertValue(conn, sequenceName)) {
+                return null;
+            }
+
+            value = this.minValue;
+        }
+
+        // 3. 计算区间，超过最大值则循环从最小值开始（最小值为负数时差值按无符号比较，避免溢出）
+        long start = (value < this.minValue || value > this.maxValue) ? this.minValue : value;
+        long end = (Long.compareUnsigned(this.maxValue - start, this.step) < 0) ? this.maxValue : start + this.step - 1;
+
+        // 4. 条件更新
+        return this.updateValue(conn, sequenceName, value, end + 1) ? this.makeSegment(sequenceName, start, end) : null;
+    }
+
+    /**
+     * 构建序列区间[start, end]
+     */
+    private NTSegment makeSegment(String sequenceName, long start, long end) {
+        long size = end - start + 1;
+        long prefetchAt = start + size / 100 * this.prefetchPercent + size % 100 * this.prefetchPercent / 100;
+        LOGGER.debug("序列分配区间成功[{}]-[{}, {}].", sequenceName, start, end);
+        return new NTSegment(start, end, prefetchAt);
+    }
+
+    /**
+     * 查询序列当前值
+     */
+    private Long selectValue(Connection conn, String sequenceName) throws SQLException {
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = conn.prepareStatement(String.format("SELECT value FROM %s WHERE name=?", this.tableName));
+            stmt.setString(1, sequenceName);
+
+            rs = stmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : null;
+        } finally {
+            NTJDBCUtils.closeQuietly(rs);
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    /**
+     * 新增序列（当前值为最小值），并发新增冲突返回false
+     */
+    private boolean insertValue(Connection conn, String sequenceName) {
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement(String.format("INSERT INTO %s (name, value, modify) VALUES (?, ?, ?)", this.tableName));
+            stmt.setString(1, sequenceName);
+            stmt.setLong(2, this.minValue);
+            stmt.setString(3, NTDateUtils.format(new Date()));
+
+            return stmt.executeUpdate() >= 1;
+        } catch (SQLException e) {
+            LOGGER.debug("序列新增冲突[{}]-{}.", sequenceName, e.getMessage());
+            return false;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    /**
+     * 原子递增序列当前值：当前值在[minValue, maxValue-step+1]范围内时加区间大小
+     */
+    private boolean incrementValue(Connection conn, String sequenceName) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement(String.format("UPDATE %s SET value=value+?, modify=? WHERE name=? AND value>=? AND value<=?", this.tableName));
+            stmt.setLong(1, this.step);
+            stmt.setString(2, NTDateUtils.format(new Date()));
+            stmt.setString(3, sequenceName);
+            stmt.setLong(4, this.minValue);
+            stmt.setLong(5, this.maxValue - this.step + 1);
+
+            return stmt.executeUpdate() >= 1;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    /**
+     * 条件更新序列当前值
+     */
+    private boolean updateValue(Connection conn, String sequenceName, long value, long newValue) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement(String.format("UPDATE %s SET value=?, modify=? WHERE name=? AND value=?", this.tableName));
+            stmt.setLong(1, newValue);
+            stmt.setString(2, NTDateUtils.format(new Date()));
+            stmt.setString(3, sequenceName);
+            stmt.setLong(4, value);
+
+            return stmt.executeUpdate() >= 1;
+        } finally {
+            NTJDBCUtils.closeQuietly(stmt);
+        }
+    }
+
+    /**
+     * 恢复自动提交并关闭连接
+     */
+    private void closeQuietly(Connection conn, boolean autoCommit) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(autoCommit);
+            } catch (Throwable e) {
+                // ignore
+            }
+        }
+
+        NTJDBCUtils.closeQuietly(conn);
+    }
+
+    /**
+     * 序列缓冲区：当前区间和预取的下一个区间
+     */
+    private static class NTSequenceBuffer {
+        private volatile NTSegment current;
+        private CompletableFuture<NTSegment> next;
+    }
+
+    /**
+     * 序列区间[start, end]
+     */
+    private static class NTSegment {
+        private final long end;
+        private final long prefetchAt;
+        private final AtomicLong cursor;
+
+        public NTSegment(long start, long end, long prefetchAt) {
+            this.end = end;
+            this.prefetchAt = prefetchAt;
+            this.cursor = new AtomicLong(start);
+        }
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public int getRetryTimes() {
+        return retryTimes;
+    }
+
+    public void setRetryTimes(int retryTimes) {
+        if (retryTimes < 0) {
+            throw new IllegalArgumentException("序列重试次数参数非法(" + retryTimes + ")");
+        }
+
+        this.retryTimes = retryTimes;
+    }
+
+    public long getStep() {
+        return step;
+    }
+
+    public void setStep(long step) {
+        if (step <= 0L) {
+            throw new IllegalArgumentException("序列区间大小参数非法(" + step + ")");
+        }
+
+        this.step = step;
+    }
+
+    public long getMinValue() {
+        return minValue;
+    }
+
+    public void setMinValue(long minValue) {
+        this.minValue = minValue;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    public void setMaxValue(long maxValue) {
+        this.maxValue = maxValue;
+    }
+
+    public int getPrefetchPercent() {
+        return prefetchPercent;
+    }
+
+    public void setPrefetchPercent(int prefetchPercent) {
+        if (prefetchPercent < 0 || prefetchPercent > 100) {
+            throw new IllegalArgumentException("序列预取比例参数非法(" + prefetchPercent + ")");
+        }
+
+        this.prefetchPercent = prefetchPercent;
+    }
+}
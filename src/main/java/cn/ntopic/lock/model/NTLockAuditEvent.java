@@ -0,0 +1,81 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.model;
+
+import java.io.Serializable;
+
+/**
+ * 锁审计事件：谁在什么时间抢占、过期抢占、延长或者释放了哪把锁
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTLockAuditEvent implements Serializable {
+
+    /**
+     * 审计动作
+     */
+    private final NTAuditAction action;
+
+    /**
+     * 锁对象（抢占、延长时为新的锁对象，释放时为释放的锁对象）
+     */
+    private final NTLockDTO lockDTO;
+
+    /**
+     * 事件时间（毫秒）
+     */
+    private final long eventTime;
+
+    public NTLockAuditEvent(NTAuditAction action, NTLockDTO lockDTO, long eventTime) {
+        this.action = action;
+        this.lockDTO = lockDTO;
+        this.eventTime = eventTime;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NTLockAuditEvent[action=%s, eventTime=%s, lockDTO=%s]", this.action, this.eventTime, this.lockDTO);
+    }
+
+    /**
+     * 审计动作
+     */
+    public enum NTAuditAction {
+        /**
+         * 新增抢占（含行复用模式下抢占已释放的锁记录）
+         */
+        ACQUIRE,
+
+        /**
+         * 锁已过期，被新的持有者抢占
+         */
+        STEAL,
+
+        /**
+         * 当前持有者延长锁定
+         */
+        EXTEND,
+
+        /**
+         * 当前持有者释放锁（含延迟释放）
+         */
+        RELEASE,
+        ;
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public NTAuditAction getAction() {
+        return action;
+    }
+
+    public NTLockDTO getLockDTO() {
+        return lockDTO;
+    }
+
+    public long getEventTime() {
+        return eventTime;
+    }
+}
@@ -61,6 +61,11 @@ public class NTLockDTO implements Serializable {
      */
     private String modify;
 
+    /**
+     * 版本号（紧凑存储按版本号比较更新，其他存储为0）
+     */
+    private long version;
+
     /**
      * CTOR-构建锁对象
      */
@@ -137,4 +142,12 @@ public class NTLockDTO implements Serializable {
     public void setModify(String modify) {
         this.modify = modify;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
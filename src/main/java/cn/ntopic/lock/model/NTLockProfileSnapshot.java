@@ -0,0 +1,78 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 锁竞争统计快照（当前节点，1个统计周期内的TopN）
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTLockProfileSnapshot implements Serializable {
+
+    /**
+     * 统计开始时间（毫秒）
+     */
+    private final long startTime;
+
+    /**
+     * 统计结束时间（毫秒）
+     */
+    private final long endTime;
+
+    /**
+     * 抢锁次数最多的锁
+     */
+    private final List<NTLockProfileStat> hottest;
+
+    /**
+     * 持有时间最长的锁
+     */
+    private final List<NTLockProfileStat> longestHeld;
+
+    /**
+     * 过期抢占比例最高的锁
+     */
+    private final List<NTLockProfileStat> mostStolen;
+
+    public NTLockProfileSnapshot(long startTime, long endTime, List<NTLockProfileStat> hottest
+            , List<NTLockProfileStat> longestHeld, List<NTLockProfileStat> mostStolen) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.hottest = hottest;
+        this.longestHeld = longestHeld;
+        this.mostStolen = mostStolen;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NTLockProfileSnapshot[startTime=%s, endTime=%s, hottest=%s, longestHeld=%s, mostStolen=%s]",
+                this.startTime, this.endTime, this.hottest, this.longestHeld, this.mostStolen);
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public List<NTLockProfileStat> getHottest() {
+        return hottest;
+    }
+
+    public List<NTLockProfileStat> getLongestHeld() {
+        return longestHeld;
+    }
+
+    public List<NTLockProfileStat> getMostStolen() {
+        return mostStolen;
+    }
+}
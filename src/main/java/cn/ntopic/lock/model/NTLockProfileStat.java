@@ -0,0 +1,121 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.model;
+
+import java.io.Serializable;
+
+/**
+ * 锁竞争统计（当前节点，近似值）
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTLockProfileStat implements Serializable {
+
+    /**
+     * 锁分组
+     */
+    private final String pool;
+
+    /**
+     * 锁名称
+     */
+    private final String name;
+
+    /**
+     * 抢锁次数
+     */
+    private long attempts;
+
+    /**
+     * 抢锁失败次数
+     */
+    private long failures;
+
+    /**
+     * 抢锁成功次数
+     */
+    private long acquires;
+
+    /**
+     * 过期抢占次数（锁到期未释放，被其他持有者抢占）
+     */
+    private long steals;
+
+    /**
+     * 最长持有时间（毫秒）
+     */
+    private long maxHoldMillis;
+
+    /**
+     * CTOR-构建锁竞争统计
+     */
+    public NTLockProfileStat(String pool, String name) {
+        this.pool = pool;
+        this.name = name;
+    }
+
+    /**
+     * 过期抢占比例：过期抢占次数/抢锁成功次数
+     */
+    public double getStealRate() {
+        return this.acquires <= 0L ? 0.0D : Math.min(1.0D, (double) this.steals / this.acquires);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NTLockProfileStat[pool=%s, name=%s, attempts=%s, failures=%s, acquires=%s, steals=%s, maxHoldMillis=%s]",
+                this.pool, this.name, this.attempts, this.failures, this.acquires, this.steals, this.maxHoldMillis);
+    }
+
+    // ~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~ //
+
+    public String getPool() {
+        return pool;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(long attempts) {
+        this.attempts = attempts;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+
+    public long getAcquires() {
+        return acquires;
+    }
+
+    public void setAcquires(long acquires) {
+        this.acquires = acquires;
+    }
+
+    public long getSteals() {
+        return steals;
+    }
+
+    public void setSteals(long steals) {
+        this.steals = steals;
+    }
+
+    public long getMaxHoldMillis() {
+        return maxHoldMillis;
+    }
+
+    public void setMaxHoldMillis(long maxHoldMillis) {
+        this.maxHoldMillis = maxHoldMillis;
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.model;
+
+/**
+ * 锁操作失败原因
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public enum NTLockReason {
+
+    /**
+     * 锁未过期，已被其他持有者占用
+     */
+    HELD_BY_OTHER,
+
+    /**
+     * 锁已过期，但是被其他请求抢先抢占
+     */
+    STEAL_LOST,
+
+    /**
+     * 锁不存在，但是并发新增冲突（已被其他请求抢先新增）
+     */
+    INSERT_RACE,
+
+    /**
+     * 释放锁时锁不存在，或者非当前持有者
+     */
+    NOT_OWNER,
+
+    /**
+     * 数据库异常（含重试后仍然失败的瞬时异常）
+     */
+    DB_ERROR,
+
+    /**
+     * 操作超时，结果未知
+     */
+    TIMEOUT,
+    ;
+}
@@ -4,10 +4,17 @@
  */
 package cn.ntopic.lock.model;
 
+import cn.ntopic.lock.utils.NTDateUtils;
+import cn.ntopic.lock.utils.NTHostUtils;
+
 import java.io.Serializable;
+import java.util.Date;
 
 /**
  * 锁定、延长锁定结果对象
+ * <p>
+ * 失败描述在首次调用`getMessage()`时才组装；锁被其他持有者占用（占用缓存命中）时，锁对象也在首次调用`getLockDTO()`时才组装，
+ * 竞争失败的路径不分配字符串
  *
  * @author obullxl 2023年06月24日: 新增
  */
@@ -19,15 +26,41 @@ public class NTLockResult implements Serializable {
     private final boolean success;
 
     /**
-     * 锁对象
+     * 锁对象，延迟组装时为NULL
+     */
+    private NTLockDTO lockDTO;
+
+    /**
+     * 操作超时，结果未知（锁可能已抢占/释放成功）
      */
-    private final NTLockDTO lockDTO;
+    private boolean timeout;
 
     /**
-     * 锁定失败描述
+     * 失败原因，成功或者未知原因为NULL
+     */
+    private NTLockReason reason;
+
+    /**
+     * 锁定失败描述，延迟组装时为NULL
      */
     private String message;
 
+    /**
+     * 延迟组装锁对象：锁分组、名称、持有者线程ID和过期时间（毫秒）
+     */
+    private String pool;
+    private String name;
+    private long ownId;
+    private long expireMillis;
+
+    /**
+     * 锁被其他持有者占用时的持有者信息，过期时间为毫秒（未知为0）
+     */
+    private String holderHost;
+    private String holderIp;
+    private long holderId;
+    private long holderExpireMillis;
+
     /**
      * CTOR-构建锁结果
      */
@@ -60,10 +93,91 @@ public class NTLockResult implements Serializable {
         return result;
     }
 
+    /**
+     * 构建失败结果，失败描述按失败原因延迟组装
+     */
+    public static NTLockResult makeFailure(NTLockDTO lockDTO, NTLockReason reason) {
+        NTLockResult result = makeFailure(lockDTO);
+        result.reason = reason;
+
+        return result;
+    }
+
+    /**
+     * 构建失败结果
+     */
+    public static NTLockResult makeFailure(NTLockDTO lockDTO, NTLockReason reason, String message) {
+        NTLockResult result = makeFailure(lockDTO, message);
+        result.reason = reason;
+
+        return result;
+    }
+
+    /**
+     * 构建锁被其他持有者占用的失败结果
+     */
+    public static NTLockResult makeHeld(NTLockDTO lockDTO, String holderHost, String holderIp, long holderId, long holderExpireMillis) {
+        NTLockResult result = makeFailure(lockDTO, NTLockReason.HELD_BY_OTHER);
+        result.holderHost = holderHost;
+        result.holderIp = holderIp;
+        result.holderId = holderId;
+        result.holderExpireMillis = holderExpireMillis;
+
+        return result;
+    }
+
+    /**
+     * 构建锁被其他持有者占用的失败结果，申请的锁对象（持有者为本机）延迟组装
+     */
+    public static NTLockResult makeHeld(String pool, String name, long ownId, long expireMillis
+            , String holderHost, String holderIp, long holderId, long holderExpireMillis) {
+        NTLockResult result = makeHeld((NTLockDTO) null, holderHost, holderIp, holderId, holderExpireMillis);
+        result.pool = pool;
+        result.name = name;
+        result.ownId = ownId;
+        result.expireMillis = expireMillis;
+
+        return result;
+    }
+
+    /**
+     * 构建超时结果（结果未知）
+     */
+    public static NTLockResult makeTimeout(NTLockDTO lockDTO, String message) {
+        NTLockResult result = makeFailure(lockDTO, NTLockReason.TIMEOUT, message);
+        result.timeout = true;
+
+        return result;
+    }
+
     @Override
     public String toString() {
-        return String.format("NTLockResult[success=%s, message=%s, lockDTO=%s]",
-                this.isSuccess(), this.getMessage(), this.getLockDTO());
+        return String.format("NTLockResult[success=%s, timeout=%s, reason=%s, message=%s, lockDTO=%s]",
+                this.isSuccess(), this.isTimeout(), this.getReason(), this.getMessage(), this.getLockDTO());
+    }
+
+    /**
+     * 按失败原因组装失败描述
+     */
+    private String makeMessage() {
+        NTLockDTO theLockDTO = this.getLockDTO();
+        String target = theLockDTO == null ? "" : String.format("(%s->%s)", theLockDTO.getPool(), theLockDTO.getName());
+
+        switch (this.reason) {
+            case HELD_BY_OTHER:
+                return String.format("锁已经被(%s/%s/%s)抢占-过期时间(%s)", this.holderHost, this.holderIp, this.holderId
+                        , this.holderExpireMillis > 0L ? NTDateUtils.format(new Date(this.holderExpireMillis)) : "");
+            case STEAL_LOST:
+                return "锁已经过期-抢占失败" + target;
+            case INSERT_RACE:
+                return "锁新增抢占冲突-已被其他抢占" + target;
+            case NOT_OWNER:
+                return "锁不存在或者非当前持有者" + target;
+            case TIMEOUT:
+                return "锁操作超时-结果未知" + target;
+            default:
+                return "锁操作数据库异常" + target;
+        }
     }
 
     // ~~~~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~~~~~~ //
@@ -73,15 +187,52 @@ public class NTLockResult implements Serializable {
         return success;
     }
 
+    public boolean isTimeout() {
+        return timeout;
+    }
+
     public NTLockDTO getLockDTO() {
+        if (this.lockDTO == null && this.pool != null) {
+            NTLockDTO newLockDTO = new NTLockDTO(this.pool, this.name, NTHostUtils.HOST, NTHostUtils.IP, this.ownId
+                    , NTDateUtils.format(new Date(this.expireMillis)));
+            newLockDTO.setSize(1);
+            newLockDTO.setTimes(1);
+            newLockDTO.setModify(NTDateUtils.format(new Date()));
+            this.lockDTO = newLockDTO;
+        }
+
         return lockDTO;
     }
 
+    public NTLockReason getReason() {
+        return reason;
+    }
+
     public String getMessage() {
+        if (this.message == null && this.reason != null) {
+            this.message = this.makeMessage();
+        }
+
         return message;
     }
 
     public void setMessage(String message) {
         this.message = message;
     }
+
+    public String getHolderHost() {
+        return holderHost;
+    }
+
+    public String getHolderIp() {
+        return holderIp;
+    }
+
+    public long getHolderId() {
+        return holderId;
+    }
+
+    public long getHolderExpireMillis() {
+        return holderExpireMillis;
+    }
 }
@@ -0,0 +1,119 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock.model;
+
+import java.io.Serializable;
+
+/**
+ * 定时任务执行统计（当前节点）
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTScheduledTaskStat implements Serializable {
+
+    /**
+     * 任务名称
+     */
+    private final String taskName;
+
+    /**
+     * 当前节点执行次数
+     */
+    private long runTimes;
+
+    /**
+     * 当前节点跳过次数（其他节点已执行）
+     */
+    private long skipTimes;
+
+    /**
+     * 最近1次调度偏差（毫秒）：实际开始时间-计划执行时间
+     */
+    private long lastSkew;
+
+    /**
+     * 最大调度偏差（毫秒）
+     */
+    private long maxSkew;
+
+    /**
+     * 最近1次执行耗时（毫秒）
+     */
+    private long lastElapsed;
+
+    /**
+     * 最大执行耗时（毫秒）
+     */
+    private long maxElapsed;
+
+    /**
+     * CTOR-构建任务统计
+     */
+    public NTScheduledTaskStat(String taskName) {
+        this.taskName = taskName;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NTScheduledTaskStat[taskName=%s, runTimes=%s, skipTimes=%s, lastSkew=%s, maxSkew=%s, lastElapsed=%s, maxElapsed=%s]",
+                this.getTaskName(), this.getRunTimes(), this.getSkipTimes(), this.getLastSkew(), this.getMaxSkew()
+                , this.getLastElapsed(), this.getMaxElapsed());
+    }
+
+    // ~~~~~~~~~~~~~~~~ getters and setters ~~~~~~~~~~~~~~~~~~~ //
+
+
+    public String getTaskName() {
+        return taskName;
+    }
+
+    public long getRunTimes() {
+        return runTimes;
+    }
+
+    public void setRunTimes(long runTimes) {
+        this.runTimes = runTimes;
+    }
+
+    public long getSkipTimes() {
+        return skipTimes;
+    }
+
+    public void setSkipTimes(long skipTimes) {
+        this.skipTimes = skipTimes;
+    }
+
+    public long getLastSkew() {
+        return lastSkew;
+    }
+
+    public void setLastSkew(long lastSkew) {
+        this.lastSkew = lastSkew;
+    }
+
+    public long getMaxSkew() {
+        return maxSkew;
+    }
+
+    public void setMaxSkew(long maxSkew) {
+        this.maxSkew = maxSkew;
+    }
+
+    public long getLastElapsed() {
+        return lastElapsed;
+    }
+
+    public void setLastElapsed(long lastElapsed) {
+        this.lastElapsed = lastElapsed;
+    }
+
+    public long getMaxElapsed() {
+        return maxElapsed;
+    }
+
+    public void setMaxElapsed(long maxElapsed) {
+        this.maxElapsed = maxElapsed;
+    }
+}
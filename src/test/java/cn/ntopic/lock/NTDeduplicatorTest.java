@@ -0,0 +1,145 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import cn.ntopic.lock.impl.NTDeduplicatorImpl;
+import com.alibaba.druid.pool.DruidDataSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分布式幂等键服务单元测试
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTDeduplicatorTest {
+
+    private DruidDataSource makeDataSource() {
+        DruidDataSource dataSource = new DruidDataSource();
+        dataSource.setUrl("jdbc:sqlite:/Users/obullxl/CodeSpace/lock-jdbc/LockJDBC.sqlite");
+        dataSource.setDriverClassName("org.sqlite.JDBC");
+        dataSource.setPoolPreparedStatements(false);
+        dataSource.setMaxPoolPreparedStatementPerConnectionSize(-1);
+        dataSource.setTestOnBorrow(true);
+        dataSource.setTestOnReturn(false);
+        dataSource.setTestWhileIdle(true);
+
+        return dataSource;
+    }
+
+    @Test
+    public void test_claim() throws Exception {
+        // 1. 创建数据源
+        DruidDataSource dataSource = this.makeDataSource();
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        try {
+            // 2. 实例化幂等键服务：时间分区宽度10毫秒
+            NTDeduplicatorImpl ntDeduplicator = new NTDeduplicatorImpl(dataSource);
+            ntDeduplicator.createTable();
+            ntDeduplicator.setBucketMillis(10L);
+
+            // 3. 首次抢占成功，重复抢占失败
+            Assert.assertTrue(ntDeduplicator.claimOnce(testName, "K1", 10, TimeUnit.SECONDS));
+            Assert.assertFalse(ntDeduplicator.claimOnce(testName, "K1", 10, TimeUnit.SECONDS));
+
+            // 4. 批量抢占：返回新幂等键，重复的只抢占1次
+            Assert.assertEquals(new LinkedHashSet<>(Arrays.asList("K2", "K3"))
+                    , ntDeduplicator.claimAll(testName, Arrays.asList("K1", "K2", "K3", "K2"), 10, TimeUnit.SECONDS));
+            Assert.assertTrue(ntDeduplicator.claimAll(testName, Arrays.asList("K3", "K2"), 10, TimeUnit.SECONDS).isEmpty());
+
+            // 5. 过期（未清理）后重新抢占成功
+            Assert.assertTrue(ntDeduplicator.claimOnce(testName, "K4", 20, TimeUnit.MILLISECONDS));
+            Thread.sleep(50L);
+            Assert.assertEquals(new LinkedHashSet<>(Arrays.asList("K4", "K5"))
+                    , ntDeduplicator.claimAll(testName, Arrays.asList("K1", "K4", "K5"), 20, TimeUnit.MILLISECONDS));
+
+            // 6. 按时间分区批量清理已过期的幂等键
+            Thread.sleep(50L);
+            Assert.assertTrue(ntDeduplicator.clean() >= 2);
+            Assert.assertTrue(ntDeduplicator.claimOnce(testName, "K5", 10, TimeUnit.SECONDS));
+            Assert.assertFalse(ntDeduplicator.claimOnce(testName, "K1", 10, TimeUnit.SECONDS));
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    public void test_claimAll_batchFailed() throws Exception {
+        // 1. 创建数据源：批量新增主键冲突时全部记录均为执行失败（模拟MySQL驱动改写为多行INSERT）
+        DruidDataSource dataSource = this.makeDataSource();
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        try {
+            // 2. 实例化幂等键服务
+            NTDeduplicatorImpl ntDeduplicator = new NTDeduplicatorImpl(this.makeRewriteBatchDataSource(dataSource));
+            ntDeduplicator.createTable();
+
+            // 3. 批量中1个幂等键已存在，其他新幂等键仍抢占成功
+            Assert.assertTrue(ntDeduplicator.claimOnce(testName, "K1", 10, TimeUnit.SECONDS));
+            Assert.assertEquals(new LinkedHashSet<>(Arrays.asList("K2", "K3"))
+                    , ntDeduplicator.claimAll(testName, Arrays.asList("K1", "K2", "K3"), 10, TimeUnit.SECONDS));
+            Assert.assertTrue(ntDeduplicator.claimAll(testName, Arrays.asList("K1", "K2", "K3"), 10, TimeUnit.SECONDS).isEmpty());
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    /**
+     * 批量执行失败时全部记录均返回执行失败的数据源
+     */
+    private DataSource makeRewriteBatchDataSource(DataSource dataSource) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class[]{DataSource.class}, (dsProxy, dsMethod, dsArgs) -> {
+            Object result = invoke(dataSource, dsMethod, dsArgs);
+            if (!"getConnection".equals(dsMethod.getName())) {
+                return result;
+            }
+
+            Connection conn = (Connection) result;
+            return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[]{Connection.class}, (connProxy, connMethod, connArgs) -> {
+                Object stmt = invoke(conn, connMethod, connArgs);
+                if (!"prepareStatement".equals(connMethod.getName())) {
+                    return stmt;
+                }
+
+                AtomicInteger batchSize = new AtomicInteger();
+                return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class[]{PreparedStatement.class}, (stmtProxy, stmtMethod, stmtArgs) -> {
+                    if ("addBatch".equals(stmtMethod.getName())) {
+                        batchSize.incrementAndGet();
+                    }
+
+                    try {
+                        return invoke(stmt, stmtMethod, stmtArgs);
+                    } catch (BatchUpdateException e) {
+                        int[] counts = new int[batchSize.get()];
+                        Arrays.fill(counts, Statement.EXECUTE_FAILED);
+                        throw new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(), counts, e);
+                    }
+                });
+            });
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import cn.ntopic.lock.impl.NTHierarchyLockImpl;
+import cn.ntopic.lock.impl.NTLockImpl;
+import cn.ntopic.lock.impl.NTMemoryLockStore;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式多粒度锁单元测试
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTHierarchyLockTest {
+
+    @Test
+    public void test_lock() throws Exception {
+        // 1. 实例化锁服务（内存锁存储）和多粒度锁
+        NTLockImpl ntLock = new NTLockImpl(new NTMemoryLockStore());
+        final NTHierarchyLock hierarchyLock = new NTHierarchyLockImpl(ntLock);
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // 2. 当前线程抢占名称锁（含延长），其他线程整组排它锁失败
+            Assert.assertTrue(hierarchyLock.lock(testName, "A", 10, TimeUnit.SECONDS).isSuccess());
+            Assert.assertTrue(hierarchyLock.lock(testName, "A", 20, TimeUnit.SECONDS).isSuccess());
+            Assert.assertTrue(hierarchyLock.lock(testName, "B", 10, TimeUnit.SECONDS).isSuccess());
+            Assert.assertFalse(executor.submit(() -> hierarchyLock.lock(testName, 10, TimeUnit.SECONDS).isSuccess()).get());
+
+            // 3. 释放1个名称锁，仍有意向，整组排它锁失败
+            Assert.assertTrue(hierarchyLock.release(testName, "A"));
+            Assert.assertFalse(executor.submit(() -> hierarchyLock.lock(testName, 10, TimeUnit.SECONDS).isSuccess()).get());
+
+            // 4. 全部释放后整组排它锁成功
+            Assert.assertTrue(hierarchyLock.release(testName, "B"));
+            Assert.assertTrue(executor.submit(() -> hierarchyLock.lock(testName, 10, TimeUnit.SECONDS).isSuccess()).get());
+
+            // 5. 整组排它锁被其他线程持有，名称锁失败；持有者可抢占分组内名称锁
+            Assert.assertFalse(hierarchyLock.lock(testName, "A", 10, TimeUnit.SECONDS).isSuccess());
+            Assert.assertTrue(executor.submit(() -> hierarchyLock.lock(testName, "C", 10, TimeUnit.SECONDS).isSuccess()).get());
+            Assert.assertTrue(executor.submit(() -> hierarchyLock.release(testName, "C")).get());
+            Assert.assertTrue(executor.submit(() -> hierarchyLock.release(testName)).get());
+
+            // 6. 整组排它锁释放后名称锁成功
+            Assert.assertTrue(hierarchyLock.lock(testName, "A", 10, TimeUnit.SECONDS).isSuccess());
+            Assert.assertTrue(hierarchyLock.release(testName, "A"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_staleRelease() throws Exception {
+        // 1. 实例化锁服务（内存锁存储）和多粒度锁
+        NTLockImpl ntLock = new NTLockImpl(new NTMemoryLockStore());
+        final NTHierarchyLock hierarchyLock = new NTHierarchyLockImpl(ntLock);
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // 2. 当前线程抢占名称锁，等待名称锁和意向锁过期
+            Assert.assertTrue(hierarchyLock.lock(testName, "A", 100, TimeUnit.MILLISECONDS).isSuccess());
+            Thread.sleep(200L);
+
+            // 3. 其他线程抢占名称锁（意向锁新的轮次）
+            Assert.assertTrue(executor.submit(() -> hierarchyLock.lock(testName, "B", 10, TimeUnit.SECONDS).isSuccess()).get());
+
+            // 4. 过期轮次的名称锁释放不撤销新轮次的意向，整组排它锁失败
+            hierarchyLock.release(testName, "A");
+            Assert.assertFalse(hierarchyLock.lock(testName, 10, TimeUnit.SECONDS).isSuccess());
+
+            // 5. 新轮次的名称锁释放后整组排它锁成功
+            Assert.assertTrue(executor.submit(() -> hierarchyLock.release(testName, "B")).get());
+            Assert.assertTrue(hierarchyLock.lock(testName, 10, TimeUnit.SECONDS).isSuccess());
+            Assert.assertTrue(hierarchyLock.release(testName));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import cn.ntopic.lock.impl.NTLeaderElectorImpl;
+import cn.ntopic.lock.impl.NTLockImpl;
+import com.alibaba.druid.pool.DruidDataSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分布式选主服务单元测试
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTLeaderElectorTest {
+
+    private DruidDataSource makeDataSource() {
+        DruidDataSource dataSource = new DruidDataSource();
+        dataSource.setUrl("jdbc:sqlite:/Users/obullxl/CodeSpace/lock-jdbc/LockJDBC.sqlite");
+        dataSource.setDriverClassName("org.sqlite.JDBC");
+        dataSource.setPoolPreparedStatements(false);
+        dataSource.setMaxPoolPreparedStatementPerConnectionSize(-1);
+        dataSource.setTestOnBorrow(true);
+        dataSource.setTestOnReturn(false);
+        dataSource.setTestWhileIdle(true);
+
+        return dataSource;
+    }
+
+    @Test
+    public void test_elect() throws Exception {
+        // 1. 创建数据源
+        DruidDataSource dataSource = this.makeDataSource();
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        try {
+            // 2. 实例化锁服务
+            NTLockImpl ntLock = new NTLockImpl(dataSource);
+            ntLock.createTable();
+            ntLock.init();
+
+            // 3. 两个候选者参与选主
+            AtomicInteger elected = new AtomicInteger();
+            NTLeaderElectorImpl first = this.makeElector(ntLock, testName, elected);
+            NTLeaderElectorImpl second = this.makeElector(ntLock, testName, elected);
+
+            first.start();
+            Thread.sleep(300L);
+            second.start();
+            Thread.sleep(500L);
+
+            // 4. 仅有1个主节点
+            Assert.assertTrue(first.isLeader());
+            Assert.assertFalse(second.isLeader());
+            Assert.assertEquals(1, elected.get());
+
+            // 5. 主节点停止后，另一候选者接管
+            first.stop();
+            Assert.assertFalse(first.isLeader());
+
+            Thread.sleep(1500L);
+            Assert.assertTrue(second.isLeader());
+            Assert.assertEquals(2, elected.get());
+
+            second.stop();
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    private NTLeaderElectorImpl makeElector(NTLockImpl ntLock, String testName, AtomicInteger elected) {
+        NTLeaderElectorImpl elector = new NTLeaderElectorImpl(ntLock, testName);
+        elector.setLeaseTime(1000L);
+        elector.setRenewInterval(300L);
+        elector.addListener(new NTLeaderListener() {
+            @Override
+            public void onElected(String name) {
+                elected.incrementAndGet();
+            }
+
+            @Override
+            public void onRevoked(String name) {
+                // ignore
+            }
+        });
+
+        return elector;
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import cn.ntopic.lock.impl.NTLockImpl;
+import cn.ntopic.lock.impl.NTLockPermitPool;
+import cn.ntopic.lock.impl.NTMemoryLockStore;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 锁池本地许可单元测试
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTLockPermitPoolTest {
+
+    @Test
+    public void test_tryAcquire() throws Exception {
+        // 1. 实例化锁服务（内存锁存储）和2个节点的锁池本地许可，全集群并发数量为3
+        NTLockImpl ntLock = new NTLockImpl(new NTMemoryLockStore());
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        NTLockPermitPool permitPool1 = this.makePermitPool(ntLock, testName);
+        NTLockPermitPool permitPool2 = this.makePermitPool(ntLock, testName);
+        try {
+            // 2. 节点1获取2个许可：1次租用2个并发锁
+            Assert.assertTrue(permitPool1.tryAcquire(0L, TimeUnit.MILLISECONDS));
+            Assert.assertTrue(permitPool1.tryAcquire(0L, TimeUnit.MILLISECONDS));
+            Assert.assertEquals(2, permitPool1.getLeased());
+
+            // 3. 节点2只能获取剩余的1个许可，全集群不超过3个
+            Assert.assertTrue(permitPool2.tryAcquire(0L, TimeUnit.MILLISECONDS));
+            Assert.assertFalse(permitPool2.tryAcquire(100L, TimeUnit.MILLISECONDS));
+            Assert.assertEquals(1, permitPool2.getLeased());
+
+            // 4. 节点1释放许可后本地复用，无需访问DB
+            permitPool1.release();
+            Assert.assertEquals(1, permitPool1.getAvailable());
+            Assert.assertTrue(permitPool1.tryAcquire(0L, TimeUnit.MILLISECONDS));
+
+            // 5. 节点1全部释放，空闲并发锁归还后节点2可获取
+            permitPool1.release();
+            permitPool1.release();
+            Assert.assertTrue(permitPool2.tryAcquire(1000L, TimeUnit.MILLISECONDS));
+            Assert.assertEquals(0, permitPool1.getLeased());
+        } finally {
+            permitPool1.stop();
+            permitPool2.stop();
+        }
+    }
+
+    @Test
+    public void test_stop() throws Exception {
+        // 1. 实例化锁服务（内存锁存储）和2个节点的锁池本地许可，全集群并发数量为3
+        NTLockImpl ntLock = new NTLockImpl(new NTMemoryLockStore());
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        NTLockPermitPool permitPool1 = this.makePermitPool(ntLock, testName);
+        NTLockPermitPool permitPool2 = this.makePermitPool(ntLock, testName);
+        try {
+            // 2. 节点1租用2个并发锁，使用其中1个
+            Assert.assertTrue(permitPool1.tryAcquire(0L, TimeUnit.MILLISECONDS));
+            Assert.assertEquals(2, permitPool1.getLeased());
+            Assert.assertEquals(1, permitPool1.getAvailable());
+
+            // 3. 节点1停止：只归还空闲的并发锁，节点2最多获取2个许可
+            permitPool1.stop();
+            Assert.assertEquals(1, permitPool1.getLeased());
+            Assert.assertTrue(permitPool2.tryAcquire(0L, TimeUnit.MILLISECONDS));
+            Assert.assertTrue(permitPool2.tryAcquire(0L, TimeUnit.MILLISECONDS));
+            Assert.assertFalse(permitPool2.tryAcquire(100L, TimeUnit.MILLISECONDS));
+
+            // 4. 节点1释放许可时归还并发锁，不产生本地许可
+            permitPool1.release();
+            Assert.assertEquals(0, permitPool1.getLeased());
+            Assert.assertEquals(0, permitPool1.getAvailable());
+            Assert.assertTrue(permitPool2.tryAcquire(1000L, TimeUnit.MILLISECONDS));
+
+            // 5. 节点1重启后锁池已满
+            permitPool1.start();
+            Assert.assertFalse(permitPool1.tryAcquire(100L, TimeUnit.MILLISECONDS));
+        } finally {
+            permitPool1.stop();
+            permitPool2.stop();
+        }
+    }
+
+    private NTLockPermitPool makePermitPool(NTLockImpl ntLock, String poolName) {
+        NTLockPermitPool permitPool = new NTLockPermitPool(ntLock, poolName, 3);
+        permitPool.setLeaseTime(1000L);
+        permitPool.setRenewInterval(100L);
+        permitPool.setLeaseBatch(2);
+        permitPool.start();
+
+        return permitPool;
+    }
+}
@@ -4,22 +4,45 @@
  */
 package cn.ntopic.lock;
 
+import cn.ntopic.lock.impl.NTCompactJDBCLockStore;
+import cn.ntopic.lock.impl.NTJDBCLockStore;
+import cn.ntopic.lock.impl.NTLockAuditor;
+import cn.ntopic.lock.impl.NTLockDialect;
+import cn.ntopic.lock.impl.NTLockErrorType;
 import cn.ntopic.lock.impl.NTLockImpl;
+import cn.ntopic.lock.impl.NTLockStoreSession;
+import cn.ntopic.lock.impl.NTMappedFileLockStore;
+import cn.ntopic.lock.impl.NTMemoryLockStore;
 import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockProfileSnapshot;
+import cn.ntopic.lock.model.NTLockReason;
 import cn.ntopic.lock.model.NTLockResult;
+import cn.ntopic.lock.utils.NTDateUtils;
 import cn.ntopic.lock.utils.NTJDBCUtils;
 import com.alibaba.druid.pool.DruidDataSource;
 import org.junit.Assert;
 import org.junit.Test;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
 import javax.sql.DataSource;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 分布式锁服务单元测试
@@ -119,6 +142,831 @@ public class NTLockTest {
         }
     }
 
+    @Test
+    public void test_lock_heldCache() throws Exception {
+        // 1. 创建数据源
+        DruidDataSource dataSource = this.makeDataSource();
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        try {
+            // 2. 实例化锁服务
+            NTLockImpl ntLock = new NTLockImpl(dataSource);
+            ntLock.createTable();
+            ntLock.init();
+
+            // 3. 当前线程抢占排它锁
+            NTLockResult lockResult = ntLock.lock(testName, 10, TimeUnit.SECONDS);
+            Assert.assertTrue(lockResult.isSuccess());
+
+            // 4. 其他线程抢占失败：首次访问DB，再次命中缓存
+            Assert.assertFalse(this.lockInThread(ntLock, testName, false));
+            Assert.assertFalse(this.lockInThread(ntLock, testName, false));
+            Assert.assertFalse(this.lockInThread(ntLock, testName, true));
+
+            // 5. 释放后缓存失效，其他线程可抢占
+            Assert.assertTrue(ntLock.release(testName));
+            Assert.assertTrue(this.lockInThread(ntLock, testName, false));
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    public void test_inspect() {
+        // 1. 创建数据源
+        DruidDataSource dataSource = this.makeDataSource();
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        try {
+            // 2. 实例化锁服务
+            NTLockImpl ntLock = new NTLockImpl(dataSource);
+            ntLock.createTable();
+            ntLock.init();
+
+            // 3. 未抢占
+            Assert.assertFalse(ntLock.isLocked(NTLock.DEFAULT_POOL, testName));
+
+            // 4. 抢占后查询持有者
+            NTLockResult lockResult = ntLock.lock(testName, 10, TimeUnit.SECONDS);
+            Assert.assertTrue(lockResult.isSuccess());
+            Assert.assertTrue(ntLock.isLocked(NTLock.DEFAULT_POOL, testName));
+
+            Optional<NTLockDTO> optOwner = ntLock.getOwner(NTLock.DEFAULT_POOL, testName);
+            Assert.assertTrue(optOwner.isPresent());
+            Assert.assertEquals(Thread.currentThread().getId(), optOwner.get().getOwnId());
+
+            // 5. 流式遍历
+            List<NTLockDTO> lockDTOs = new ArrayList<>();
+            int count = ntLock.scan(NTLock.DEFAULT_POOL, lockDTO -> testName.equals(lockDTO.getName()), lockDTOs::add);
+            Assert.assertEquals(1, count);
+            Assert.assertEquals(testName, lockDTOs.get(0).getName());
+
+            // 6. 释放后不再持有
+            Assert.assertTrue(ntLock.release(testName));
+            Assert.assertFalse(ntLock.isLocked(NTLock.DEFAULT_POOL, testName));
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    public void test_lock_opTimeout() {
+        // 1. 创建数据源
+        DruidDataSource dataSource = this.makeDataSource();
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        try {
+            // 2. 实例化锁服务
+            NTLockImpl ntLock = new NTLockImpl(dataSource);
+            ntLock.createTable();
+            ntLock.init();
+
+            // 3. 截止时间内抢占、释放成功
+            NTLockResult lockResult = ntLock.lock(testName, 10, TimeUnit.SECONDS, 5000L);
+            Assert.assertTrue(lockResult.isSuccess());
+            Assert.assertFalse(lockResult.isTimeout());
+
+            NTLockResult releaseResult = ntLock.release(lockResult.getLockDTO(), 5000L);
+            Assert.assertTrue(releaseResult.isSuccess());
+
+            // 4. 获取连接缓慢，超过截止时间返回超时
+            DataSource slowDataSource = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader()
+                    , new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                        if ("getConnection".equals(method.getName())) {
+                            Thread.sleep(1000L);
+                        }
+                        return method.invoke(dataSource, args);
+                    });
+
+            NTLockImpl slowLock = new NTLockImpl(slowDataSource);
+            long start = System.currentTimeMillis();
+            NTLockResult slowResult = slowLock.lock(testName, 10, TimeUnit.SECONDS, 100L);
+            Assert.assertFalse(slowResult.isSuccess());
+            Assert.assertTrue(slowResult.isTimeout());
+            Assert.assertTrue(System.currentTimeMillis() - start < 1000L);
+
+            // 5. SQL执行缓慢，返回时已超过截止时间（查询超时向上取整为1秒未生效），返回超时
+            DataSource slowSQLDataSource = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader()
+                    , new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                        Object value = method.invoke(dataSource, args);
+                        if (!"getConnection".equals(method.getName())) {
+                            return value;
+                        }
+
+                        Connection conn = (Connection) value;
+                        return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (cproxy, cmethod, cargs) -> {
+                            Object cvalue = cmethod.invoke(conn, cargs);
+                            if (!"prepareStatement".equals(cmethod.getName())) {
+                                return cvalue;
+                            }
+
+                            PreparedStatement stmt = (PreparedStatement) cvalue;
+                            return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (sproxy, smethod, sargs) -> {
+                                if ("executeUpdate".equals(smethod.getName())) {
+                                    Thread.sleep(300L);
+                                }
+                                return smethod.invoke(stmt, sargs);
+                            });
+                        });
+                    });
+
+            lockResult = ntLock.lock(testName, 10, TimeUnit.SECONDS);
+            Assert.assertTrue(lockResult.isSuccess());
+
+            NTLockImpl slowSQLLock = new NTLockImpl(slowSQLDataSource);
+            releaseResult = slowSQLLock.release(lockResult.getLockDTO(), 100L);
+            Assert.assertFalse(releaseResult.isSuccess());
+            Assert.assertTrue(releaseResult.isTimeout());
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    public void test_lock_defaultMethods() {
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+
+        // 1. 仅实现必须方法的锁服务
+        final Set<String> locks = ConcurrentHashMap.newKeySet();
+        NTLock ntLock = new NTLock() {
+            @Override
+            public NTLockResult lock(String lockName, int timeout, TimeUnit timeUnit) {
+                return this.lock(new NTLockDTO(NTLock.DEFAULT_POOL, lockName, "", "", 0L, ""), timeout, timeUnit);
+            }
+
+            @Override
+            public NTLockResult lock(NTLockDTO lockDTO, int timeout, TimeUnit timeUnit) {
+                return locks.add(lockDTO.getName()) ? NTLockResult.makeSuccess(lockDTO) : NTLockResult.makeFailure(lockDTO, NTLockReason.HELD_BY_OTHER);
+            }
+
+            @Override
+            public NTLockResult lockPool(String poolName, int count, int timeout, TimeUnit timeUnit) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean release(String lockName) {
+                return locks.remove(lockName);
+            }
+
+            @Override
+            public boolean release(NTLockDTO lockDTO) {
+                return locks.remove(lockDTO.getName());
+            }
+        };
+
+        // 2. 默认方法
+        NTLockResult lockResult = ntLock.lock(testName, 10, TimeUnit.SECONDS, 5000L);
+        Assert.assertTrue(lockResult.isSuccess());
+        Assert.assertFalse(ntLock.lock(testName, 10, TimeUnit.SECONDS, 5000L).isSuccess());
+
+        Assert.assertTrue(ntLock.release(lockResult.getLockDTO(), 5000L).isSuccess());
+        Assert.assertEquals(NTLockReason.NOT_OWNER, ntLock.release(lockResult.getLockDTO(), 5000L).getReason());
+
+        try {
+            ntLock.release(lockResult.getLockDTO(), 0L);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // 参数非法
+        }
+
+        try {
+            ntLock.getOwner(NTLock.DEFAULT_POOL, testName);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // 不支持
+        }
+    }
+
+    @Test
+    public void test_dialect_classify() {
+        // 1. 主键冲突
+        Assert.assertEquals(NTLockErrorType.DUPLICATE_KEY, NTLockDialect.MYSQL.classify(new SQLException("dup", "23000", 1062)));
+        Assert.assertEquals(NTLockErrorType.DUPLICATE_KEY, NTLockDialect.SQLITE.classify(new SQLException("[SQLITE_CONSTRAINT_PRIMARYKEY] A PRIMARY KEY constraint failed", null, 19)));
+        Assert.assertEquals(NTLockErrorType.DUPLICATE_KEY, NTLockDialect.SQLITE.classify(new SQLException("[SQLITE_CONSTRAINT_UNIQUE] A UNIQUE constraint failed", null, 2067)));
+        Assert.assertEquals(NTLockErrorType.DUPLICATE_KEY, NTLockDialect.SQLITE.classify(new SQLException("constraint", null, 1555)));
+        Assert.assertEquals(NTLockErrorType.DUPLICATE_KEY, NTLockDialect.GENERIC.classify(new SQLException("dup", "23505", 0)));
+
+        // 2. 瞬时异常
+        Assert.assertEquals(NTLockErrorType.TRANSIENT, NTLockDialect.MYSQL.classify(new SQLException("deadlock", "40001", 1213)));
+        Assert.assertEquals(NTLockErrorType.TRANSIENT, NTLockDialect.SQLITE.classify(new SQLException("busy", null, 5)));
+        Assert.assertEquals(NTLockErrorType.TRANSIENT, NTLockDialect.ORACLE.classify(new RuntimeException(new SQLException("ORA-00060", "61000", 60))));
+
+        // 3. 超时和其他异常
+        Assert.assertEquals(NTLockErrorType.TIMEOUT, NTLockDialect.MYSQL.classify(new SQLTimeoutException("timeout")));
+        Assert.assertEquals(NTLockErrorType.FATAL, NTLockDialect.MYSQL.classify(new SQLException("syntax", "42000", 1064)));
+        Assert.assertEquals(NTLockErrorType.FATAL, NTLockDialect.GENERIC.classify(new IllegalStateException("unknown")));
+        Assert.assertEquals(NTLockErrorType.FATAL, NTLockDialect.SQLITE.classify(new SQLException("[SQLITE_CONSTRAINT_NOTNULL] A NOT NULL constraint failed", null, 19)));
+        Assert.assertEquals(NTLockErrorType.FATAL, NTLockDialect.SQLITE.classify(new SQLException("[SQLITE_CONSTRAINT_CHECK] A CHECK constraint failed", null, 275)));
+        Assert.assertEquals(NTLockDialect.SQLITE, NTLockDialect.of("SQLite"));
+    }
+
+    @Test
+    public void test_lock_recycleRow() throws Exception {
+        // 1. 创建数据源
+        DruidDataSource dataSource = this.makeDataSource();
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        try {
+            // 2. 实例化锁服务（行复用模式）
+            NTLockImpl ntLock = new NTLockImpl(dataSource);
+            ntLock.createTable();
+            ntLock.setRecycleRow(true);
+            ntLock.setProfile(true);
+
+            // 3. 抢占后释放，锁记录保留且已空闲
+            NTLockResult lockResult = ntLock.lock(testName, 10, TimeUnit.SECONDS);
+            Assert.assertTrue(lockResult.isSuccess());
+            Assert.assertTrue(ntLock.release(testName));
+            Assert.assertTrue(this.checkLockDTO(dataSource, ntLock, lockResult.getLockDTO()));
+            Assert.assertFalse(ntLock.isLocked(NTLock.DEFAULT_POOL, testName));
+
+            // 4. 其他线程复用锁记录抢占成功，当前线程抢占失败
+            Assert.assertTrue(this.lockInThread(ntLock, testName, true));
+            Assert.assertTrue(ntLock.isLocked(NTLock.DEFAULT_POOL, testName));
+            Assert.assertFalse(ntLock.lock(testName, 10, TimeUnit.SECONDS).isSuccess());
+
+            // 5. 过期未释放的锁记录被其他线程抢占，统计为过期抢占
+            Assert.assertTrue(ntLock.lock(testName + "-STEAL", 1, TimeUnit.MILLISECONDS).isSuccess());
+            Thread.sleep(10L);
+            Assert.assertTrue(this.lockInThread(ntLock, testName + "-STEAL", true));
+            Assert.assertEquals(testName + "-STEAL", ntLock.getProfiler().snapshot(1).getMostStolen().get(0).getName());
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    public void test_lock_groupCommit() throws Exception {
+        // 1. 创建数据源
+        DruidDataSource dataSource = this.makeDataSource();
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        try {
+            // 2. 实例化锁服务（开启组提交）
+            NTLockImpl ntLock = new NTLockImpl(dataSource);
+            ntLock.createTable();
+            ntLock.setGroupCommit(true);
+
+            // 3. 批量新增：重复的锁新增冲突
+            NTJDBCLockStore lockStore = (NTJDBCLockStore) ntLock.getLockStore();
+            NTLockStoreSession session = lockStore.openSession(null);
+            try {
+                String expire = NTDateUtils.format(NTDateUtils.addHours(new Date(), 1));
+                NTLockDTO firstDTO = new NTLockDTO(NTLock.DEFAULT_POOL, testName + "-A", "host", "ip", 1L, expire);
+                NTLockDTO otherDTO = new NTLockDTO(NTLock.DEFAULT_POOL, testName + "-A", "host", "ip", 2L, expire);
+                NTLockDTO secondDTO = new NTLockDTO(NTLock.DEFAULT_POOL, testName + "-B", "host", "ip", 1L, expire);
+                firstDTO.setModify(expire);
+                otherDTO.setModify(expire);
+                secondDTO.setModify(expire);
+
+                boolean[] results = lockStore.insertBatch(session, Arrays.asList(firstDTO, otherDTO, secondDTO));
+                Assert.assertArrayEquals(new boolean[]{true, false, true}, results);
+                Assert.assertEquals(2, lockStore.selectBatch(session, Arrays.asList(firstDTO, secondDTO)).size());
+            } finally {
+                session.close();
+            }
+
+            // 4. 多线程同时抢占不同的锁，全部成功；其他线程再次抢占，全部失败
+            final int threadCount = 16;
+            Assert.assertEquals(threadCount, this.lockConcurrently(ntLock, testName, threadCount));
+            Assert.assertEquals(0, this.lockConcurrently(ntLock, testName, threadCount));
+
+            // 5. 销毁后合并线程停止，抢锁逐个执行
+            ntLock.destroy();
+            Assert.assertFalse(this.findThread("NTLockGroupCommitThread"));
+            Assert.assertTrue(ntLock.lock(testName + "-DESTROY", 10, TimeUnit.SECONDS).isSuccess());
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    /**
+     * 是否存在指定名称的存活线程
+     */
+    private boolean findThread(String threadName) {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (threadName.equals(thread.getName()) && thread.isAlive()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Test
+    public void test_flightRecorder() throws Exception {
+        // 1. 实例化锁服务（内存锁存储）
+        NTLockImpl ntLock = new NTLockImpl(new NTMemoryLockStore());
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+
+        // 2. 开启JFR记录：抢占、延长、释放
+        Path path = Files.createTempFile("lock-jdbc-", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("cn.ntopic.lock.Acquire");
+            recording.enable("cn.ntopic.lock.Renew");
+            recording.enable("cn.ntopic.lock.Hold");
+            recording.start();
+
+            Assert.assertTrue(ntLock.lock(testName, 10, TimeUnit.SECONDS).isSuccess());
+            Assert.assertTrue(ntLock.lock(testName, 20, TimeUnit.SECONDS).isSuccess());
+            Assert.assertTrue(ntLock.release(testName));
+
+            recording.stop();
+            recording.dump(path);
+        }
+
+        // 3. 检测事件
+        Map<String, Integer> counts = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(path)) {
+            if (testName.equals(event.getString("name"))) {
+                counts.merge(event.getEventType().getName(), 1, Integer::sum);
+            }
+        }
+
+        Files.deleteIfExists(path);
+
+        Assert.assertEquals(Integer.valueOf(2), counts.get("cn.ntopic.lock.Acquire"));
+        Assert.assertEquals(Integer.valueOf(1), counts.get("cn.ntopic.lock.Renew"));
+        Assert.assertEquals(Integer.valueOf(1), counts.get("cn.ntopic.lock.Hold"));
+    }
+
+    @Test
+    public void test_profiler() throws Exception {
+        // 1. 实例化锁服务（内存锁存储，开启锁竞争统计）
+        NTLockImpl ntLock = new NTLockImpl(new NTMemoryLockStore());
+        ntLock.setProfile(true);
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+
+        // 2. 热点锁：当前线程持有，其他线程抢占失败
+        Assert.assertTrue(ntLock.lock(testName + "-HOT", 10, TimeUnit.SECONDS).isSuccess());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertFalse(this.lockInThread(ntLock, testName + "-HOT", true));
+        }
+
+        Thread.sleep(20L);
+        Assert.assertTrue(ntLock.release(testName + "-HOT"));
+
+        // 3. 大量冷门锁不影响热点锁统计
+        for (int i = 0; i < 2000; i++) {
+            Assert.assertTrue(ntLock.lock(testName + "-" + i, 10, TimeUnit.SECONDS).isSuccess());
+        }
+
+        // 4. 过期抢占
+        Assert.assertTrue(ntLock.lock(testName + "-STEAL", 1, TimeUnit.MILLISECONDS).isSuccess());
+        Thread.sleep(10L);
+        Assert.assertTrue(this.lockInThread(ntLock, testName + "-STEAL", true));
+
+        // 5. 快照
+        NTLockProfileSnapshot snapshot = ntLock.getProfiler().rotate(3);
+        Assert.assertEquals(3, snapshot.getHottest().size());
+        Assert.assertEquals(testName + "-HOT", snapshot.getHottest().get(0).getName());
+        Assert.assertTrue(snapshot.getHottest().get(0).getFailures() >= 5L);
+        Assert.assertEquals(testName + "-HOT", snapshot.getLongestHeld().get(0).getName());
+        Assert.assertTrue(snapshot.getLongestHeld().get(0).getMaxHoldMillis() >= 20L);
+        Assert.assertEquals(testName + "-STEAL", snapshot.getMostStolen().get(0).getName());
+        Assert.assertTrue(snapshot.getMostStolen().get(0).getStealRate() > 0.0D);
+
+        // 6. 新的统计周期
+        Assert.assertTrue(ntLock.getProfiler().snapshot(3).getHottest().isEmpty());
+    }
+
+    @Test
+    public void test_profilerExpired() throws Exception {
+        // 1. 实例化锁服务（内存锁存储，开启锁竞争统计）
+        NTLockImpl ntLock = new NTLockImpl(new NTMemoryLockStore());
+        ntLock.setProfile(true);
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+
+        // 2. 持有中的锁达到最大跟踪数量，全部过期未释放
+        for (int i = 0; i < 4096; i++) {
+            Assert.assertTrue(ntLock.lock(testName + "-" + i, 1, TimeUnit.MILLISECONDS).isSuccess());
+        }
+        Thread.sleep(10L);
+
+        // 3. 清理已过期的持有记录后，新的锁仍统计持有时间
+        Assert.assertTrue(ntLock.lock(testName + "-NEW", 10, TimeUnit.SECONDS).isSuccess());
+        Thread.sleep(20L);
+        Assert.assertTrue(ntLock.release(testName + "-NEW"));
+
+        NTLockProfileSnapshot snapshot = ntLock.getProfiler().rotate(3);
+        Assert.assertEquals(testName + "-NEW", snapshot.getLongestHeld().get(0).getName());
+        Assert.assertTrue(snapshot.getLongestHeld().get(0).getMaxHoldMillis() >= 20L);
+    }
+
+    /**
+     * 多线程同时抢占不同的锁，返回成功数量
+     */
+    private int lockConcurrently(NTLockImpl ntLock, String testName, int threadCount) throws InterruptedException {
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch doneLatch = new CountDownLatch(threadCount);
+        AtomicInteger successCount = new AtomicInteger();
+        for (int i = 0; i < threadCount; i++) {
+            final String lockName = testName + "-" + i;
+            new Thread(() -> {
+                try {
+                    startLatch.await();
+                    if (ntLock.lock(lockName, 10, TimeUnit.SECONDS, true).isSuccess()) {
+                        successCount.incrementAndGet();
+                    }
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                } finally {
+                    doneLatch.countDown();
+                }
+            }).start();
+        }
+
+        startLatch.countDown();
+        doneLatch.await();
+
+        return successCount.get();
+    }
+
+    @Test
+    public void test_compactStore() throws Exception {
+        // 1. 创建数据源
+        DruidDataSource dataSource = this.makeDataSource();
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        try {
+            // 2. 实例化锁服务（紧凑JDBC锁存储）
+            NTLockImpl ntLock = new NTLockImpl(new NTCompactJDBCLockStore(dataSource));
+            ntLock.createTable();
+
+            // 3. 抢占、重入和延长锁定
+            Assert.assertTrue(ntLock.lock(testName, 10, TimeUnit.SECONDS).isSuccess());
+            Assert.assertTrue(ntLock.lock(testName, 20, TimeUnit.SECONDS).isSuccess());
+
+            Optional<NTLockDTO> owner = ntLock.getOwner(NTLock.DEFAULT_POOL, testName);
+            Assert.assertTrue(owner.isPresent());
+            Assert.assertEquals(Thread.currentThread().getId(), owner.get().getOwnId());
+            Assert.assertEquals(2L, owner.get().getVersion());
+            Assert.assertEquals(1, ntLock.scan(NTLock.DEFAULT_POOL, lockDTO -> testName.equals(lockDTO.getName()), lockDTO -> {
+            }));
+
+            // 4. 其他线程抢占失败，释放后抢占成功
+            Assert.assertFalse(this.lockInThread(ntLock, testName, true));
+            Assert.assertTrue(ntLock.release(testName));
+            Assert.assertTrue(this.lockInThread(ntLock, testName, true));
+            Assert.assertFalse(ntLock.release(testName));
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    public void test_lockResult_reason() throws Exception {
+        // 1. 实例化锁服务（内存锁存储）
+        NTLockImpl ntLock = new NTLockImpl(new NTMemoryLockStore());
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+
+        // 2. 其他线程持有锁
+        final NTLockResult[] holder = new NTLockResult[1];
+        Thread thread = new Thread(() -> holder[0] = ntLock.lock(testName, 10, TimeUnit.SECONDS));
+        thread.start();
+        thread.join();
+        Assert.assertTrue(holder[0].isSuccess());
+
+        // 3. 访问DB抢占失败：持有者信息和过期时间
+        NTLockResult result = ntLock.lock(testName, 10, TimeUnit.SECONDS);
+        Assert.assertFalse(result.isSuccess());
+        Assert.assertEquals(NTLockReason.HELD_BY_OTHER, result.getReason());
+        Assert.assertEquals(thread.getId(), result.getHolderId());
+        Assert.assertEquals(holder[0].getLockDTO().fetchExpireTime().getTime(), result.getHolderExpireMillis());
+
+        // 4. 锁占用缓存命中：锁对象和失败描述延迟组装
+        result = ntLock.lock(testName, 10, TimeUnit.SECONDS);
+        Assert.assertEquals(NTLockReason.HELD_BY_OTHER, result.getReason());
+        Assert.assertEquals(holder[0].getLockDTO().fetchExpireTime().getTime(), result.getHolderExpireMillis());
+        Assert.assertEquals(Thread.currentThread().getId(), result.getLockDTO().getOwnId());
+        Assert.assertEquals(testName, result.getLockDTO().getName());
+        Assert.assertTrue(result.getMessage().contains(holder[0].getLockDTO().getExpire()));
+
+        // 5. 非持有者释放失败
+        NTLockResult releaseResult = ntLock.release(result.getLockDTO(), 1000L);
+        Assert.assertEquals(NTLockReason.NOT_OWNER, releaseResult.getReason());
+        Assert.assertNotNull(releaseResult.getMessage());
+    }
+
+    @Test
+    public void test_audit() throws Exception {
+        DruidDataSource dataSource = this.makeDataSource();
+        try {
+            // 1. 实例化锁审计和锁服务（内存锁存储）
+            NTLockAuditor auditor = new NTLockAuditor(dataSource);
+            auditor.createTable();
+            auditor.setFlushInterval(100L);
+            auditor.start();
+
+            NTLockImpl ntLock = new NTLockImpl(new NTMemoryLockStore());
+            ntLock.setAuditor(auditor);
+
+            final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+
+            // 2. 抢占、延长和释放
+            Assert.assertTrue(ntLock.lock(testName, 10, TimeUnit.SECONDS).isSuccess());
+            Thread.sleep(5L);
+            Assert.assertTrue(ntLock.lock(testName, 20, TimeUnit.SECONDS, true).isSuccess());
+            Assert.assertTrue(ntLock.release(testName));
+
+            // 3. 停止后剩余事件写入完成
+            auditor.stop();
+            Assert.assertEquals(0L, auditor.getDropped());
+
+            List<String> actions = new ArrayList<>();
+            Connection conn = null;
+            PreparedStatement stmt = null;
+            ResultSet rs = null;
+            try {
+                conn = dataSource.getConnection();
+                stmt = conn.prepareStatement(String.format("SELECT action FROM %s WHERE name=? ORDER BY event_time", auditor.getTableName()));
+                stmt.setString(1, testName);
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    actions.add(rs.getString(1));
+                }
+            } finally {
+                NTJDBCUtils.closeQuietly(rs);
+                NTJDBCUtils.closeQuietly(stmt);
+                NTJDBCUtils.closeQuietly(conn);
+            }
+
+            Assert.assertEquals(Arrays.asList("ACQUIRE", "EXTEND", "RELEASE"), actions);
+
+            // 4. 停止后不再写入
+            ntLock.lock(testName, 10, TimeUnit.SECONDS);
+            Assert.assertEquals(1L, auditor.getDropped());
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    public void test_memoryStore() throws Exception {
+        // 1. 实例化锁服务（内存锁存储）
+        NTLockImpl ntLock = new NTLockImpl(new NTMemoryLockStore());
+        ntLock.createTable();
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+
+        // 2. 抢占和重入
+        Assert.assertTrue(ntLock.lock(testName, 10, TimeUnit.SECONDS).isSuccess());
+        Assert.assertTrue(ntLock.lock(testName, 10, TimeUnit.SECONDS).isSuccess());
+        Assert.assertTrue(ntLock.isLocked(NTLock.DEFAULT_POOL, testName));
+
+        // 3. 其他线程抢占失败
+        Assert.assertFalse(this.lockInThread(ntLock, testName, true));
+
+        // 4. 释放后其他线程抢占成功
+        Assert.assertTrue(ntLock.release(testName));
+        Assert.assertFalse(ntLock.isLocked(NTLock.DEFAULT_POOL, testName));
+        Assert.assertTrue(this.lockInThread(ntLock, testName, true));
+
+        // 5. 多线程并发抢占
+        this.multiThreadTest(ntLock, testName + "-MT");
+    }
+
+    @Test
+    public void test_lockPool() throws Exception {
+        // 1. 实例化锁服务（内存锁存储）
+        NTLockImpl ntLock = new NTLockImpl(new NTMemoryLockStore());
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+
+        // 2. 3个线程各抢占1个并发锁，第4个线程失败
+        List<NTLockResult> results = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> results.add(ntLock.lockPool(testName, 3, 10, TimeUnit.SECONDS)));
+            thread.start();
+            thread.join();
+        }
+
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(results.get(i).isSuccess());
+            Assert.assertEquals(3, results.get(i).getLockDTO().getSize());
+            names.add(results.get(i).getLockDTO().getName());
+        }
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList("0", "1", "2")), names);
+        Assert.assertFalse(results.get(3).isSuccess());
+
+        // 3. 释放1个并发锁后可再次抢占
+        Assert.assertTrue(ntLock.release(results.get(0).getLockDTO()));
+        Assert.assertTrue(ntLock.lockPool(testName, 3, 10, TimeUnit.SECONDS).isSuccess());
+
+        // 4. 并发数量超过1次批量查询的数量，分批查询后仍能抢占全部并发锁
+        final String bigName = testName + "-BIG";
+        List<NTLockResult> bigResults = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 101; i++) {
+            Thread thread = new Thread(() -> bigResults.add(ntLock.lockPool(bigName, 100, 10, TimeUnit.SECONDS)));
+            thread.start();
+            thread.join();
+        }
+
+        Set<String> bigNames = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(bigResults.get(i).isSuccess());
+            bigNames.add(bigResults.get(i).getLockDTO().getName());
+        }
+
+        Assert.assertEquals(100, bigNames.size());
+        Assert.assertEquals(NTLockReason.HELD_BY_OTHER, bigResults.get(100).getReason());
+    }
+
+    @Test
+    public void test_lock_illegalArgument() {
+        NTLockImpl ntLock = new NTLockImpl(new NTMemoryLockStore());
+
+        // 1. 批量抢锁时间单位为NULL
+        try {
+            ntLock.lockBatch(Collections.emptyList(), 10, null);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // 参数非法
+        }
+
+        // 2. 自适应租约锁名称非法
+        try {
+            ntLock.lockAdaptive((String) null, 100L, 60000L, TimeUnit.MILLISECONDS);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // 参数非法
+        }
+    }
+
+    @Test
+    public void test_lockAdaptive() throws Exception {
+        // 1. 实例化锁服务（内存锁存储）
+        NTLockImpl ntLock = new NTLockImpl(new NTMemoryLockStore());
+        ntLock.setAdaptiveLeaseMargin(50L);
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+
+        // 2. 样本不足：租约取最大租约
+        NTLockResult result = ntLock.lockAdaptive(testName, 100L, 60000L, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(result.isSuccess());
+        Assert.assertTrue(result.getLockDTO().fetchExpireTime().getTime() - System.currentTimeMillis() > 30000L);
+        Assert.assertTrue(ntLock.release(testName));
+
+        // 3. 持有时间约5毫秒：租约为分位值加余量，不小于最小租约
+        for (int i = 0; i < 20; i++) {
+            Assert.assertTrue(ntLock.lockAdaptive(testName, 100L, 60000L, TimeUnit.MILLISECONDS).isSuccess());
+            Thread.sleep(5L);
+            Assert.assertTrue(ntLock.release(testName));
+        }
+
+        Assert.assertEquals(21L, ntLock.getLeaseEstimator().getSamples(NTLock.DEFAULT_POOL, null));
+
+        result = ntLock.lockAdaptive(testName, 100L, 60000L, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(result.isSuccess());
+        long lease = result.getLockDTO().fetchExpireTime().getTime() - System.currentTimeMillis();
+        Assert.assertTrue(String.valueOf(lease), lease > 50L && lease <= 1000L);
+        Assert.assertTrue(ntLock.release(testName));
+    }
+
+    @Test
+    public void test_mappedFileStore() throws Exception {
+        // 1. 实例化锁服务（映射文件锁存储，4个桶便于覆盖槽位复用）
+        Path file = Files.createTempFile("NTLock-", ".lock");
+        try (NTMappedFileLockStore lockStore = new NTMappedFileLockStore(file.toFile(), 4, 8)) {
+            NTLockImpl ntLock = new NTLockImpl(lockStore);
+
+            final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+
+            // 2. 抢占、重入和延长
+            Assert.assertTrue(ntLock.lock(testName, 10, TimeUnit.SECONDS).isSuccess());
+            Assert.assertTrue(ntLock.lock(testName, 20, TimeUnit.SECONDS, true).isSuccess());
+            Assert.assertEquals(Thread.currentThread().getId(), ntLock.getOwner(NTLock.DEFAULT_POOL, testName).get().getOwnId());
+
+            // 3. 其他线程抢占失败，释放后抢占成功
+            Assert.assertFalse(this.lockInThread(ntLock, testName, true));
+            Assert.assertTrue(ntLock.release(testName));
+            Assert.assertTrue(this.lockInThread(ntLock, testName, true));
+
+            // 4. 写入过程中进程崩溃（槽位数据与校验和不一致）的槽位视为空闲
+            byte[] bytes = Files.readAllBytes(file);
+            byte[] nameBytes = testName.getBytes(StandardCharsets.UTF_8);
+            int nameOffset = -1;
+            for (int i = 0; i + nameBytes.length <= bytes.length && nameOffset < 0; i++) {
+                if (Arrays.equals(nameBytes, Arrays.copyOfRange(bytes, i, i + nameBytes.length))) {
+                    nameOffset = i;
+                }
+            }
+
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                raf.seek(nameOffset + 192 + 2);
+                raf.write(bytes[nameOffset + 192 + 2] ^ 0x01);
+            }
+
+            Assert.assertFalse(ntLock.isLocked(NTLock.DEFAULT_POOL, testName));
+            Assert.assertTrue(ntLock.lock(testName, 10, TimeUnit.SECONDS).isSuccess());
+
+            // 5. 槽位已满时复用已过期的槽位
+            for (int i = 0; i < 4 * 8 * 2; i++) {
+                Assert.assertTrue(ntLock.lock(testName + "-" + i, 1, TimeUnit.MILLISECONDS).isSuccess());
+                Thread.sleep(2L);
+            }
+
+            // 6. 多线程并发抢占
+            this.multiThreadTest(ntLock, testName + "-MT");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        // 7. 桶内槽位已满且均未过期，抢锁失败（不是存储异常）
+        Path fullFile = Files.createTempFile("NTLock-", ".lock");
+        try (NTMappedFileLockStore lockStore = new NTMappedFileLockStore(fullFile.toFile(), 1, 1)) {
+            NTLockImpl ntLock = new NTLockImpl(lockStore);
+
+            final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+            Assert.assertTrue(ntLock.lock(testName + "-0", 10, TimeUnit.SECONDS).isSuccess());
+
+            NTLockResult fullResult = ntLock.lock(testName + "-1", 10, TimeUnit.SECONDS);
+            Assert.assertFalse(fullResult.isSuccess());
+            Assert.assertEquals(NTLockReason.INSERT_RACE, fullResult.getReason());
+        } finally {
+            Files.deleteIfExists(fullFile);
+        }
+
+        // 8. 文件格式不一致
+        Path otherFile = Files.createTempFile("NTLock-", ".lock");
+        try {
+            new NTMappedFileLockStore(otherFile.toFile(), 4, 8).close();
+            try {
+                new NTMappedFileLockStore(otherFile.toFile(), 8, 8);
+                Assert.fail();
+            } catch (RuntimeException e) {
+                // 格式不一致
+            }
+        } finally {
+            Files.deleteIfExists(otherFile);
+        }
+    }
+
+    @Test
+    public void test_releaseAsync() throws Exception {
+        // 1. 创建数据源
+        DruidDataSource dataSource = this.makeDataSource();
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        try {
+            // 2. 实例化锁服务
+            NTLockImpl ntLock = new NTLockImpl(dataSource);
+            ntLock.createTable();
+            ntLock.setAsyncReleaseBatchSize(8);
+
+            // 3. 抢占多个排它锁后异步释放，立即返回
+            List<NTLockDTO> lockDTOs = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                NTLockResult lockResult = ntLock.lock(testName + "-" + i, 10, TimeUnit.SECONDS);
+                Assert.assertTrue(lockResult.isSuccess());
+                lockDTOs.add(lockResult.getLockDTO());
+            }
+
+            for (NTLockDTO lockDTO : lockDTOs) {
+                Assert.assertTrue(ntLock.releaseAsync(lockDTO));
+            }
+
+            // 4. 本节点重新抢占时先完成待释放请求，不会被延迟删除
+            NTLockResult lockResult = ntLock.lock(testName + "-0", 10, TimeUnit.SECONDS);
+            Assert.assertTrue(lockResult.isSuccess());
+
+            // 5. 停止时处理完队列中的请求
+            Assert.assertTrue(ntLock.releaseAsync(lockResult.getLockDTO()));
+            ntLock.destroy();
+            Assert.assertEquals(0, ntLock.getReleaser().getPending());
+
+            for (NTLockDTO lockDTO : lockDTOs) {
+                Assert.assertFalse(ntLock.isLocked(lockDTO.getPool(), lockDTO.getName()));
+            }
+
+            // 6. 停止后同步释放
+            lockResult = ntLock.lock(testName + "-0", 10, TimeUnit.SECONDS);
+            Assert.assertTrue(ntLock.releaseAsync(lockResult.getLockDTO()));
+            Assert.assertFalse(ntLock.isLocked(NTLock.DEFAULT_POOL, testName + "-0"));
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    /**
+     * 在新线程中抢占排它锁
+     */
+    private boolean lockInThread(NTLockImpl ntLock, String testName, boolean bypassCache) throws InterruptedException {
+        final boolean[] result = new boolean[1];
+        Thread thread = new Thread(() -> result[0] = ntLock.lock(testName, 10, TimeUnit.SECONDS, bypassCache).isSuccess());
+        thread.start();
+        thread.join();
+
+        return result[0];
+    }
+
     /**
      * 查询锁记录
      */
@@ -0,0 +1,69 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import cn.ntopic.lock.impl.NTLockImpl;
+import cn.ntopic.lock.impl.NTMemoryLockStore;
+import cn.ntopic.lock.impl.NTPartitionAssignerImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 分布式分区分配服务单元测试
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTPartitionAssignerTest {
+
+    @Test
+    public void test_assign() throws Exception {
+        // 1. 实例化锁服务（内存锁存储）
+        NTLockImpl ntLock = new NTLockImpl(new NTMemoryLockStore());
+        ntLock.createTable();
+
+        final String testGroup = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+
+        // 2. 单节点分配全部分区
+        NTPartitionAssignerImpl first = this.makeAssigner(ntLock, testGroup);
+        first.start();
+        Thread.sleep(300L);
+        Assert.assertEquals(16, first.getAssigned().size());
+
+        // 3. 新节点加入，两节点平分，原节点保留的分区不迁移
+        Set<Integer> before = new HashSet<>(first.getAssigned());
+        NTPartitionAssignerImpl second = this.makeAssigner(ntLock, testGroup);
+        second.start();
+        Thread.sleep(800L);
+
+        Assert.assertEquals(8, first.getAssigned().size());
+        Assert.assertEquals(8, second.getAssigned().size());
+        Assert.assertTrue(before.containsAll(first.getAssigned()));
+
+        Set<Integer> all = new HashSet<>(first.getAssigned());
+        all.addAll(second.getAssigned());
+        Assert.assertEquals(16, all.size());
+
+        // 4. 节点离开，剩余节点接管全部分区
+        second.stop();
+        Assert.assertTrue(second.getAssigned().isEmpty());
+
+        Thread.sleep(800L);
+        Assert.assertEquals(16, first.getAssigned().size());
+
+        first.stop();
+    }
+
+    private NTPartitionAssignerImpl makeAssigner(NTLockImpl ntLock, String testGroup) {
+        NTPartitionAssignerImpl assigner = new NTPartitionAssignerImpl(ntLock, testGroup, 16);
+        assigner.setLeaseTime(1000L);
+        assigner.setRenewInterval(100L);
+        assigner.setBatchSize(5);
+
+        return assigner;
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import cn.ntopic.lock.impl.NTLockImpl;
+import cn.ntopic.lock.impl.NTLockStoreSession;
+import cn.ntopic.lock.impl.NTMemoryLockStore;
+import cn.ntopic.lock.impl.NTQuorumLockImpl;
+import cn.ntopic.lock.model.NTLockDTO;
+import cn.ntopic.lock.model.NTLockResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多数派分布式锁服务单元测试
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTQuorumLockTest {
+
+    @Test
+    public void test_lock() throws Exception {
+        // 1. 3个数据源，其中1个响应很慢
+        NTQuorumLockImpl ntLock = new NTQuorumLockImpl(new NTLockImpl(new NTMemoryLockStore())
+                , new NTLockImpl(new NTMemoryLockStore()), new NTLockImpl(new NTSlowLockStore()));
+        ntLock.createTable();
+        Assert.assertEquals(2, ntLock.getQuorum());
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+
+        // 2. 多数派抢占成功，耗时不受慢数据源影响，有效期扣除时钟漂移
+        long start = System.currentTimeMillis();
+        NTLockResult result = ntLock.lock(testName, 10, TimeUnit.SECONDS);
+        Assert.assertTrue(result.getMessage(), result.isSuccess());
+        Assert.assertTrue(System.currentTimeMillis() - start < 1000L);
+        Assert.assertTrue(result.getLockDTO().fetchExpireTime().getTime() < start + 10000L);
+
+        Optional<NTLockDTO> optOwner = ntLock.getOwner(NTLock.DEFAULT_POOL, testName);
+        Assert.assertTrue(optOwner.isPresent());
+        Assert.assertEquals(Thread.currentThread().getId(), optOwner.get().getOwnId());
+
+        // 3. 其他线程抢占失败
+        Assert.assertFalse(this.lockInThread(ntLock, testName));
+
+        // 4. 释放后其他线程抢占成功
+        Assert.assertTrue(ntLock.release(testName));
+        Assert.assertTrue(this.lockInThread(ntLock, testName));
+
+        ntLock.destroy();
+    }
+
+    @Test
+    public void test_lock_minority() throws Exception {
+        // 1. 3个数据源，其中2个已被其他持有者占用
+        NTLockImpl first = new NTLockImpl(new NTMemoryLockStore());
+        NTLockImpl second = new NTLockImpl(new NTMemoryLockStore());
+        NTLockImpl third = new NTLockImpl(new NTMemoryLockStore());
+        NTQuorumLockImpl ntLock = new NTQuorumLockImpl(first, second, third);
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+
+        Thread thread = new Thread(() -> {
+            first.lock(testName, 10, TimeUnit.SECONDS);
+            second.lock(testName, 10, TimeUnit.SECONDS);
+        });
+        thread.start();
+        thread.join();
+
+        // 2. 仅少数派抢占成功，整体失败，已抢占的数据源被异步释放
+        NTLockResult result = ntLock.lock(testName, 10, TimeUnit.SECONDS);
+        Assert.assertFalse(result.isSuccess());
+        Assert.assertFalse(result.isTimeout());
+
+        Thread.sleep(200L);
+        Assert.assertFalse(third.isLocked(NTLock.DEFAULT_POOL, testName));
+
+        // 3. 多数派持有者可被查询到
+        Assert.assertTrue(ntLock.isLocked(NTLock.DEFAULT_POOL, testName));
+        Assert.assertEquals(1, ntLock.scan(NTLock.DEFAULT_POOL, lockDTO -> testName.equals(lockDTO.getName()), lockDTO -> {
+        }));
+
+        ntLock.destroy();
+    }
+
+    @Test
+    public void test_lock_renewMinority() throws Exception {
+        // 1. 3个数据源，多数派抢占成功
+        NTFailLockStore firstStore = new NTFailLockStore();
+        NTFailLockStore secondStore = new NTFailLockStore();
+        NTLockImpl third = new NTLockImpl(new NTMemoryLockStore());
+        NTQuorumLockImpl ntLock = new NTQuorumLockImpl(new NTLockImpl(firstStore), new NTLockImpl(secondStore), third);
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        Assert.assertTrue(ntLock.lock(testName, 10, TimeUnit.SECONDS).isSuccess());
+
+        // 2. 2个数据源故障，延长锁定仅少数派成功，整体失败
+        firstStore.setFail(true);
+        secondStore.setFail(true);
+
+        NTLockResult result = ntLock.lock(testName, 20, TimeUnit.SECONDS);
+        Assert.assertFalse(result.isSuccess());
+
+        // 3. 已延长的数据源不被释放，数据源恢复后原租约仍有效
+        Thread.sleep(200L);
+        Assert.assertTrue(third.isLocked(NTLock.DEFAULT_POOL, testName));
+
+        firstStore.setFail(false);
+        secondStore.setFail(false);
+        Assert.assertTrue(ntLock.isLocked(NTLock.DEFAULT_POOL, testName));
+        Assert.assertFalse(this.lockInThread(ntLock, testName));
+
+        // 4. 释放后全部数据源释放
+        Assert.assertTrue(ntLock.release(testName));
+        Assert.assertFalse(third.isLocked(NTLock.DEFAULT_POOL, testName));
+
+        ntLock.destroy();
+    }
+
+    @Test
+    public void test_lockPool() throws Exception {
+        // 1. 3个数据源，锁池并发数量为2
+        NTQuorumLockImpl ntLock = new NTQuorumLockImpl(new NTLockImpl(new NTMemoryLockStore())
+                , new NTLockImpl(new NTMemoryLockStore()), new NTLockImpl(new NTMemoryLockStore()));
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+
+        // 2. 2个线程抢占成功，占用不同的并发锁，第3个线程失败
+        NTLockResult first = this.lockPoolInThread(ntLock, testName, 2);
+        NTLockResult second = this.lockPoolInThread(ntLock, testName, 2);
+        Assert.assertTrue(first.isSuccess());
+        Assert.assertTrue(second.isSuccess());
+        Assert.assertNotEquals(first.getLockDTO().getName(), second.getLockDTO().getName());
+        Assert.assertEquals(2, first.getLockDTO().getSize());
+        Assert.assertFalse(this.lockPoolInThread(ntLock, testName, 2).isSuccess());
+
+        // 3. 释放1个并发锁后其他线程抢占成功
+        Assert.assertTrue(ntLock.release(first.getLockDTO()));
+        NTLockResult third = this.lockPoolInThread(ntLock, testName, 2);
+        Assert.assertTrue(third.isSuccess());
+        Assert.assertEquals(first.getLockDTO().getName(), third.getLockDTO().getName());
+
+        ntLock.destroy();
+    }
+
+    /**
+     * 在新线程中抢占并发池锁
+     */
+    private NTLockResult lockPoolInThread(NTLock ntLock, String poolName, int count) throws InterruptedException {
+        final NTLockResult[] result = new NTLockResult[1];
+        Thread thread = new Thread(() -> result[0] = ntLock.lockPool(poolName, count, 10, TimeUnit.SECONDS));
+        thread.start();
+        thread.join();
+
+        return result[0];
+    }
+
+    /**
+     * 在新线程中抢占排它锁
+     */
+    private boolean lockInThread(NTLock ntLock, String testName) throws InterruptedException {
+        final boolean[] result = new boolean[1];
+        Thread thread = new Thread(() -> result[0] = ntLock.lock(testName, 10, TimeUnit.SECONDS).isSuccess());
+        thread.start();
+        thread.join();
+
+        return result[0];
+    }
+
+    /**
+     * 响应很慢的内存锁存储
+     */
+    private static class NTSlowLockStore extends NTMemoryLockStore {
+        @Override
+        public Optional<NTLockDTO> select(NTLockStoreSession session, String pool, String name) {
+            try {
+                Thread.sleep(3000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return super.select(session, pool, name);
+        }
+    }
+
+    /**
+     * 可模拟故障的内存锁存储
+     */
+    private static class NTFailLockStore extends NTMemoryLockStore {
+        private volatile boolean fail;
+
+        @Override
+        public Optional<NTLockDTO> select(NTLockStoreSession session, String pool, String name) {
+            if (this.fail) {
+                throw new IllegalStateException("数据源故障");
+            }
+
+            return super.select(session, pool, name);
+        }
+
+        public void setFail(boolean fail) {
+            this.fail = fail;
+        }
+    }
+}
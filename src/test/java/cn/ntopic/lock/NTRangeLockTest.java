@@ -0,0 +1,88 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import cn.ntopic.lock.impl.NTRangeLockImpl;
+import cn.ntopic.lock.model.NTLockResult;
+import com.alibaba.druid.pool.DruidDataSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式区间锁服务单元测试
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTRangeLockTest {
+
+    private DruidDataSource makeDataSource() {
+        DruidDataSource dataSource = new DruidDataSource();
+        dataSource.setUrl("jdbc:sqlite:/Users/obullxl/CodeSpace/lock-jdbc/LockJDBC.sqlite");
+        dataSource.setDriverClassName("org.sqlite.JDBC");
+        dataSource.setPoolPreparedStatements(false);
+        dataSource.setMaxPoolPreparedStatementPerConnectionSize(-1);
+        dataSource.setTestOnBorrow(true);
+        dataSource.setTestOnReturn(false);
+        dataSource.setTestWhileIdle(true);
+
+        return dataSource;
+    }
+
+    @Test
+    public void test_lockRange() throws Exception {
+        // 1. 创建数据源
+        DruidDataSource dataSource = this.makeDataSource();
+
+        final String testPool = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        try {
+            // 2. 实例化区间锁服务
+            NTRangeLockImpl ntRangeLock = new NTRangeLockImpl(dataSource);
+            ntRangeLock.createTable();
+
+            // 3. 抢占区间并延长
+            NTLockResult result = ntRangeLock.lockRange(testPool, 0L, 9999L, 10, TimeUnit.SECONDS);
+            Assert.assertTrue(result.getMessage(), result.isSuccess());
+            Assert.assertEquals("[0,9999]", result.getLockDTO().getName());
+
+            result = ntRangeLock.lockRange(testPool, 0L, 9999L, 10, TimeUnit.SECONDS);
+            Assert.assertTrue(result.isSuccess());
+            Assert.assertEquals(2, result.getLockDTO().getTimes());
+
+            // 4. 相邻区间不重叠，抢占成功；重叠区间抢占失败
+            Assert.assertTrue(this.lockInThread(ntRangeLock, testPool, 10000L, 19999L));
+            Assert.assertFalse(this.lockInThread(ntRangeLock, testPool, 5000L, 5000L));
+            Assert.assertFalse(this.lockInThread(ntRangeLock, testPool, 19999L, 1000000L));
+
+            Assert.assertTrue(ntRangeLock.getRangeOwner(testPool, 12345L).isPresent());
+            Assert.assertFalse(ntRangeLock.getRangeOwner(testPool, 20000L).isPresent());
+
+            // 5. 释放后其他线程抢占成功
+            Assert.assertTrue(ntRangeLock.releaseRange(testPool, 0L, 9999L));
+            Assert.assertFalse(ntRangeLock.getRangeOwner(testPool, 0L).isPresent());
+            Assert.assertTrue(this.lockInThread(ntRangeLock, testPool, -100L, 100L));
+
+            // 6. 过期区间可被重叠区间抢占
+            Assert.assertTrue(ntRangeLock.lockRange(testPool, 30000L, 39999L, 100, TimeUnit.MILLISECONDS).isSuccess());
+            Thread.sleep(200L);
+            Assert.assertTrue(this.lockInThread(ntRangeLock, testPool, 25000L, 35000L));
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    /**
+     * 在新线程中抢占区间锁
+     */
+    private boolean lockInThread(NTRangeLock ntRangeLock, String testPool, long from, long to) throws InterruptedException {
+        final boolean[] result = new boolean[1];
+        Thread thread = new Thread(() -> result[0] = ntRangeLock.lockRange(testPool, from, to, 10, TimeUnit.SECONDS).isSuccess());
+        thread.start();
+        thread.join();
+
+        return result[0];
+    }
+}
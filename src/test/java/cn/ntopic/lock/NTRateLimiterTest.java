@@ -0,0 +1,59 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import cn.ntopic.lock.impl.NTRateLimiterImpl;
+import com.alibaba.druid.pool.DruidDataSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 分布式限流服务单元测试
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTRateLimiterTest {
+
+    private DruidDataSource makeDataSource() {
+        DruidDataSource dataSource = new DruidDataSource();
+        dataSource.setUrl("jdbc:sqlite:/Users/obullxl/CodeSpace/lock-jdbc/LockJDBC.sqlite");
+        dataSource.setDriverClassName("org.sqlite.JDBC");
+        dataSource.setPoolPreparedStatements(false);
+        dataSource.setMaxPoolPreparedStatementPerConnectionSize(-1);
+        dataSource.setTestOnBorrow(true);
+        dataSource.setTestOnReturn(false);
+        dataSource.setTestWhileIdle(true);
+
+        return dataSource;
+    }
+
+    @Test
+    public void test_tryAcquire() throws Exception {
+        // 1. 创建数据源
+        DruidDataSource dataSource = this.makeDataSource();
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        try {
+            // 2. 实例化限流服务：每秒10个许可，容量5，每次预留2个
+            NTRateLimiterImpl ntRateLimiter = new NTRateLimiterImpl(dataSource);
+            ntRateLimiter.createTable();
+            ntRateLimiter.setBatchSize(2);
+            ntRateLimiter.setRate(testName, 10L, 5L);
+
+            // 3. 突发容量内获取成功，超过容量获取失败
+            for (int i = 0; i < 5; i++) {
+                Assert.assertTrue(ntRateLimiter.tryAcquire(testName));
+            }
+
+            Assert.assertFalse(ntRateLimiter.tryAcquire(testName));
+
+            // 4. 补充令牌后再次获取成功
+            Thread.sleep(300L);
+            Assert.assertTrue(ntRateLimiter.tryAcquire(testName, 2));
+        } finally {
+            dataSource.close();
+        }
+    }
+}
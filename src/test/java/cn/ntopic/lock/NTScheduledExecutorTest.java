@@ -0,0 +1,135 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import cn.ntopic.lock.impl.NTLockImpl;
+import cn.ntopic.lock.impl.NTScheduledExecutorImpl;
+import cn.ntopic.lock.model.NTScheduledTaskStat;
+import com.alibaba.druid.pool.DruidDataSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 集群单例定时任务服务单元测试
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTScheduledExecutorTest {
+
+    private DruidDataSource makeDataSource() {
+        DruidDataSource dataSource = new DruidDataSource();
+        dataSource.setUrl("jdbc:sqlite:/Users/obullxl/CodeSpace/lock-jdbc/LockJDBC.sqlite");
+        dataSource.setDriverClassName("org.sqlite.JDBC");
+        dataSource.setPoolPreparedStatements(false);
+        dataSource.setMaxPoolPreparedStatementPerConnectionSize(-1);
+        dataSource.setTestOnBorrow(true);
+        dataSource.setTestOnReturn(false);
+        dataSource.setTestWhileIdle(true);
+
+        return dataSource;
+    }
+
+    @Test
+    public void test_schedule() throws Exception {
+        // 1. 创建数据源
+        DruidDataSource dataSource = this.makeDataSource();
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        try {
+            // 2. 实例化锁服务
+            NTLockImpl ntLock = new NTLockImpl(dataSource);
+            ntLock.createTable();
+            ntLock.init();
+
+            // 3. 两个节点注册同一任务：周期500ms，至少锁定400ms
+            AtomicInteger runTimes = new AtomicInteger();
+            NTScheduledExecutorImpl first = this.makeExecutor(ntLock, testName, runTimes);
+            NTScheduledExecutorImpl second = this.makeExecutor(ntLock, testName, runTimes);
+
+            long start = System.currentTimeMillis();
+            first.start();
+            second.start();
+            Thread.sleep(2200L);
+            first.stop();
+            second.stop();
+            long periods = (System.currentTimeMillis() - start) / 500L + 1L;
+
+            // 等待正在执行的任务完成
+            Thread.sleep(200L);
+
+            // 4. 每个周期至多执行1次
+            Assert.assertTrue(runTimes.get() >= 2);
+            Assert.assertTrue(runTimes.get() <= periods);
+
+            NTScheduledTaskStat firstStat = first.getTaskStats().get(testName);
+            NTScheduledTaskStat secondStat = second.getTaskStats().get(testName);
+            Assert.assertEquals(runTimes.get(), firstStat.getRunTimes() + secondStat.getRunTimes());
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    public void test_schedule_lockAtLeastZero() throws Exception {
+        // 1. 创建数据源
+        DruidDataSource dataSource = this.makeDataSource();
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        try {
+            // 2. 实例化锁服务
+            NTLockImpl ntLock = new NTLockImpl(dataSource);
+            ntLock.createTable();
+            ntLock.init();
+
+            // 3. 两个节点注册同一任务：周期300ms，不设最短锁定时间，任务执行200ms
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            AtomicInteger runTimes = new AtomicInteger();
+            Runnable task = () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(200L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                    runTimes.incrementAndGet();
+                }
+            };
+
+            NTScheduledExecutorImpl first = new NTScheduledExecutorImpl(ntLock);
+            NTScheduledExecutorImpl second = new NTScheduledExecutorImpl(ntLock);
+            for (NTScheduledExecutorImpl executor : new NTScheduledExecutorImpl[]{first, second}) {
+                executor.setTickInterval(20L);
+                executor.schedule(testName, 300L, 5000L, 0L, task);
+                executor.start();
+            }
+
+            Thread.sleep(1500L);
+
+            // 4. 停止调度等待正在执行的任务完成
+            first.stop();
+            second.stop();
+            Assert.assertEquals(0, running.get());
+
+            // 5. 弱保证：任务不会被同时执行，执行完成即释放锁
+            Assert.assertTrue(runTimes.get() >= 2);
+            Assert.assertEquals(1, maxRunning.get());
+            Assert.assertFalse(ntLock.isLocked(first.getPool(), testName));
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    private NTScheduledExecutorImpl makeExecutor(NTLockImpl ntLock, String testName, AtomicInteger runTimes) {
+        NTScheduledExecutorImpl executor = new NTScheduledExecutorImpl(ntLock);
+        executor.setTickInterval(50L);
+        executor.schedule(testName, 500L, 5000L, 400L, runTimes::incrementAndGet);
+
+        return executor;
+    }
+}
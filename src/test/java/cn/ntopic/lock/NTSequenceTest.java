@@ -0,0 +1,130 @@
+/**
+ * Author: obullxl@163.com
+ * Copyright (c) 2020-2023 All Rights Reserved.
+ */
+package cn.ntopic.lock;
+
+import cn.ntopic.lock.impl.NTSequenceImpl;
+import com.alibaba.druid.pool.DruidDataSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 分布式序列服务单元测试
+ *
+ * @author obullxl 2023年06月24日: 新增
+ */
+public class NTSequenceTest {
+
+    private DruidDataSource makeDataSource() {
+        DruidDataSource dataSource = new DruidDataSource();
+        dataSource.setUrl("jdbc:sqlite:/Users/obullxl/CodeSpace/lock-jdbc/LockJDBC.sqlite");
+        dataSource.setDriverClassName("org.sqlite.JDBC");
+        dataSource.setPoolPreparedStatements(false);
+        dataSource.setMaxPoolPreparedStatementPerConnectionSize(-1);
+        dataSource.setTestOnBorrow(true);
+        dataSource.setTestOnReturn(false);
+        dataSource.setTestWhileIdle(true);
+
+        return dataSource;
+    }
+
+    @Test
+    public void test_next() throws Exception {
+        // 1. 创建数据源
+        DruidDataSource dataSource = this.makeDataSource();
+
+        final String testName = "TEST-" + System.currentTimeMillis() + "-" + System.nanoTime();
+        try {
+            // 2. 实例化2个序列服务（模拟2个节点），区间大小为5
+            NTSequenceImpl ntSequence1 = new NTSequenceImpl(dataSource);
+            ntSequence1.createTable();
+            ntSequence1.setStep(5L);
+            ntSequence1.init();
+
+            NTSequenceImpl ntSequence2 = new NTSequenceImpl(dataSource);
+            ntSequence2.setStep(5L);
+            ntSequence2.init();
+
+            // 3. 首个区间从最小值开始
+            Assert.assertEquals(1L, ntSequence1.next(testName));
+
+            // 4. 2个节点多线程并发获取，序列值不重复
+            final int threadCount = 3;
+            final int valueCount = 107;
+
+            final CountDownLatch countDownLatch = new CountDownLatch(threadCount * 2);
+            final List<List<Long>> results = new ArrayList<>();
+            for (int i = 0; i < threadCount * 2; i++) {
+                final NTSequence ntSequence = (i % 2 == 0) ? ntSequence1 : ntSequence2;
+                final List<Long> values = new ArrayList<>();
+                results.add(values);
+
+                new Thread(() -> {
+                    try {
+                        for (int j = 0; j < valueCount; j++) {
+                            values.add(ntSequence.next(testName));
+                        }
+                    } finally {
+                        countDownLatch.countDown();
+                    }
+                }).start();
+            }
+
+            countDownLatch.await();
+
+            Set<Long> allValues = new HashSet<>();
+            allValues.add(1L);
+            for (List<Long> values : results) {
+                Assert.assertEquals(valueCount, values.size());
+                allValues.addAll(values);
+            }
+
+            Assert.assertEquals(threadCount * valueCount * 2 + 1, allValues.size());
+
+            // 5. 超过最大值循环从最小值开始
+            NTSequenceImpl ntSequence3 = new NTSequenceImpl(dataSource);
+            ntSequence3.setStep(5L);
+            ntSequence3.setMaxValue(7L);
+            ntSequence3.init();
+
+            final String cycleName = testName + "-CYCLE";
+            for (long expect : new long[]{1L, 2L, 3L, 4L, 5L, 6L, 7L, 1L, 2L}) {
+                Assert.assertEquals(expect, ntSequence3.next(cycleName));
+            }
+
+            // 6. 最大值接近`Long.MAX_VALUE`时不溢出，最大值不可为`Long.MAX_VALUE`
+            NTSequenceImpl ntSequence4 = new NTSequenceImpl(dataSource);
+            ntSequence4.setStep(5L);
+            ntSequence4.setMinValue(Long.MAX_VALUE - 3L);
+            ntSequence4.setMaxValue(Long.MAX_VALUE - 1L);
+            ntSequence4.init();
+
+            final String maxName = testName + "-MAX";
+            for (long expect : new long[]{Long.MAX_VALUE - 3L, Long.MAX_VALUE - 2L, Long.MAX_VALUE - 1L, Long.MAX_VALUE - 3L}) {
+                Assert.assertEquals(expect, ntSequence4.next(maxName));
+            }
+
+            try {
+                ntSequence4.setMaxValue(Long.MAX_VALUE);
+                ntSequence4.init();
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                // 最大值非法
+            }
+
+            ntSequence1.destroy();
+            ntSequence2.destroy();
+            ntSequence3.destroy();
+            ntSequence4.destroy();
+        } finally {
+            dataSource.close();
+        }
+    }
+}